@@ -0,0 +1,363 @@
+/**
+ * @file BranchDirectory.java
+ * @brief Library branches indexed by opening time and location.
+ * @details This file defines the BranchDirectory class, which holds the branches of the library and answers
+ * which branches are open at a time and which open branch is nearest to a point.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+/**
+ * @brief Immutable directory of branches with an opening-time index and a k-d tree of locations.
+ *
+ * Opening time: every start and end of an opening interval splits the week into segments in which no branch
+ * opens or closes. Each segment stores the bitset of branches open throughout it, so "which branches are open
+ * at T" is a binary search over the segment starts followed by reading one bitset.
+ *
+ * Location: branches are projected onto a plane in kilometres around their mean latitude and stored in an
+ * implicit k-d tree, an array of branch numbers in which every subrange is split at its median, alternately
+ * by x and y. The nearest open branch is found by descending towards the point and visiting the other side of
+ * a split only when it could hold a closer branch, skipping branches whose bit is clear in the segment of the
+ * requested time. The projection is accurate for branches within a few hundred kilometres of each other and
+ * does not wrap around the antimeridian; reported distances are great-circle distances.
+ *
+ * Both indexes are built once by the constructor, so queries never lock.
+ */
+public class BranchDirectory {
+    static final double EARTH_RADIUS_KM = 6371.0088; /**<Mean radius of the Earth. */
+    static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180; /**<Length of one degree of latitude. */
+    static final String HEADER = "Library Location and Hours Informations\n"; /**<First line of the branch listing. */
+    /**
+     * @brief The nearest branch found for a point.
+     */
+    public static class Nearest {
+        private final LibraryBranch branch; /**<The branch. */
+        private final double distanceKm; /**<Great-circle distance from the point. */
+
+        Nearest(LibraryBranch branch, double distanceKm) {
+            this.branch = branch;
+            this.distanceKm = distanceKm;
+        }
+        /** @brief Returns the branch. @return The nearest branch. */
+        public LibraryBranch getBranch() {
+            return branch;
+        }
+        /** @brief Returns the distance to the branch. @return The great-circle distance in kilometres. */
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+    /**
+     * @brief Best candidate of one nearest-branch query.
+     */
+    private static final class Search {
+        final double x; /**<Projected x of the point. */
+        final double y; /**<Projected y of the point. */
+        final long[] open; /**<Branches that qualify, or null if every branch does. */
+        int best = -1; /**<Closest qualifying branch so far. */
+        double bestSquared = Double.POSITIVE_INFINITY; /**<Squared projected distance to best. */
+
+        Search(double x, double y, long[] open) {
+            this.x = x;
+            this.y = y;
+            this.open = open;
+        }
+    }
+
+    private final LibraryBranch[] branches; /**<Branches in directory order. */
+    private final int[] segmentStarts; /**<First minute of the week of each segment, ascending from 0. */
+    private final long[][] openBySegment; /**<Bitset of the branches open throughout each segment. */
+    private final int[] openCounts; /**<Number of branches open throughout each segment. */
+    private final double originLatitude; /**<Latitude the projection is centred on. */
+    private final double kmPerLongitude; /**<Length of one degree of longitude at the origin latitude. */
+    private final double[] xs; /**<Projected x of each branch, in kilometres east. */
+    private final double[] ys; /**<Projected y of each branch, in kilometres north. */
+    private final int[] tree; /**<Branch numbers in implicit k-d tree order. */
+    /**
+     * @brief Builds the directory and its indexes.
+     *
+     * @param branches The branches.
+     */
+    public BranchDirectory(List<LibraryBranch> branches) {
+        this.branches = branches.toArray(new LibraryBranch[0]);
+        int n = this.branches.length;
+        int total = 1;
+        for (LibraryBranch branch : this.branches) {
+            total += branch.hours().length;
+        }
+        int[] bounds = new int[total];
+        int count = 1;
+        for (LibraryBranch branch : this.branches) {
+            for (int minute : branch.hours()) {
+                if (minute < LibraryBranch.MINUTES_PER_WEEK) {
+                    bounds[count++] = minute;
+                }
+            }
+        }
+        Arrays.sort(bounds, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || bounds[i] != bounds[i - 1]) {
+                bounds[unique++] = bounds[i];
+            }
+        }
+        this.segmentStarts = Arrays.copyOf(bounds, unique);
+        this.openBySegment = new long[unique][(n + 63) >>> 6];
+        this.openCounts = new int[unique];
+        for (int b = 0; b < n; b++) {
+            int[] hours = this.branches[b].hours();
+            for (int i = 0; i < hours.length; i += 2) {
+                int last = hours[i + 1] == LibraryBranch.MINUTES_PER_WEEK ? unique : Arrays.binarySearch(segmentStarts, hours[i + 1]);
+                for (int s = Arrays.binarySearch(segmentStarts, hours[i]); s < last; s++) {
+                    openBySegment[s][b >>> 6] |= 1L << b;
+                    openCounts[s]++;
+                }
+            }
+        }
+        double latitudes = 0;
+        for (LibraryBranch branch : this.branches) {
+            latitudes += branch.getLatitude();
+        }
+        this.originLatitude = n == 0 ? 0 : latitudes / n;
+        this.kmPerLongitude = KM_PER_DEGREE * Math.cos(Math.toRadians(originLatitude));
+        this.xs = new double[n];
+        this.ys = new double[n];
+        this.tree = new int[n];
+        for (int b = 0; b < n; b++) {
+            xs[b] = this.branches[b].getLongitude() * kmPerLongitude;
+            ys[b] = (this.branches[b].getLatitude() - originLatitude) * KM_PER_DEGREE;
+            tree[b] = b;
+        }
+        build(0, n, 0);
+    }
+    /**
+     * @brief Returns the directory of the library's own three branches.
+     *
+     * @return The default directory.
+     */
+    public static BranchDirectory defaults() {
+        return new BranchDirectory(Arrays.asList(
+                new LibraryBranch("Public Library (In city center)",
+                        "Public Library (In city center) --> Available for Monday to Saturday. Weekdays --> 8.00 to 22.00",
+                        41.0201, 40.5234, "Mon-Sat 08:00-22:00"),
+                new LibraryBranch("Private Library (Next to the public cultural center)",
+                        "Private Library (Next to the public cultural center )--> Avaliable for 7/24 hours",
+                        41.0232, 40.5166, LibraryBranch.ALWAYS_OPEN),
+                new LibraryBranch("Public Library (Inside main campus)",
+                        "Public Library (Inside main campus) --> Available for Monday to Saturday. Weekdays --> 8.00 to 22.00",
+                        41.0385, 40.4921, "Mon-Sat 08:00-22:00")));
+    }
+    /**
+     * @brief Reads a directory from a text file.
+     *
+     * Each line holds <code>name|latitude|longitude|hours</code>, for example
+     * <code>Harbour Branch|41.03|40.51|Mon-Fri 09:00-18:00, Sat 10:00-14:00</code>. Empty lines and lines
+     * starting with # are skipped. A branch is described in the listing as "name --> hours".
+     *
+     * @param file The UTF-8 text file.
+     * @return The directory of the branches in the file.
+     * @throws IOException if the file cannot be read or a line is invalid.
+     */
+    public static BranchDirectory read(Path file) throws IOException {
+        List<LibraryBranch> branches = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.charAt(0) == '#') {
+                    continue;
+                }
+                String[] fields = line.split("\\|", -1);
+                try {
+                    if (fields.length != 4) {
+                        throw new IllegalArgumentException("Expected name|latitude|longitude|hours");
+                    }
+                    String name = fields[0].trim();
+                    branches.add(new LibraryBranch(name, name + " --> " + fields[3].trim(),
+                            Double.parseDouble(fields[1].trim()), Double.parseDouble(fields[2].trim()), fields[3]));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid branch on line " + lineNumber + " of " + file + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return new BranchDirectory(branches);
+    }
+    /**
+     * @brief Returns the branches.
+     *
+     * @return The branches in directory order.
+     */
+    public List<LibraryBranch> branches() {
+        return Collections.unmodifiableList(Arrays.asList(branches));
+    }
+    /**
+     * @brief Returns the text describing every branch.
+     *
+     * @return The header followed by the description of each branch.
+     */
+    public String listing() {
+        StringBuilder text = new StringBuilder(HEADER);
+        for (LibraryBranch branch : branches) {
+            text.append(branch.getDescription()).append('\n');
+        }
+        return text.toString();
+    }
+    /**
+     * @brief Returns the branches open at a time.
+     *
+     * @param time The local time.
+     * @return The open branches in directory order.
+     */
+    public List<LibraryBranch> openAt(LocalDateTime time) {
+        int segment = segment(time);
+        List<LibraryBranch> open = new ArrayList<>(segment < 0 ? 0 : openCounts[segment]);
+        if (segment < 0) {
+            return open;
+        }
+        long[] bits = openBySegment[segment];
+        for (int word = 0; word < bits.length; word++) {
+            for (long rest = bits[word]; rest != 0; rest &= rest - 1) {
+                open.add(branches[(word << 6) + Long.numberOfTrailingZeros(rest)]);
+            }
+        }
+        return open;
+    }
+    /**
+     * @brief Finds the branch nearest to a point.
+     *
+     * @param latitude The latitude of the point in degrees.
+     * @param longitude The longitude of the point in degrees.
+     * @param openAt The local time the branch must be open at, or null to consider every branch.
+     * @return The nearest branch, or null if no branch qualifies.
+     */
+    public Nearest nearest(double latitude, double longitude, LocalDateTime openAt) {
+        long[] open = null;
+        if (openAt != null) {
+            int segment = segment(openAt);
+            if (segment < 0 || openCounts[segment] == 0) {
+                return null;
+            }
+            open = openBySegment[segment];
+        }
+        Search search = new Search(longitude * kmPerLongitude, (latitude - originLatitude) * KM_PER_DEGREE, open);
+        search(search, 0, tree.length, 0);
+        if (search.best < 0) {
+            return null;
+        }
+        LibraryBranch branch = branches[search.best];
+        return new Nearest(branch, distanceKm(latitude, longitude, branch.getLatitude(), branch.getLongitude()));
+    }
+    /**
+     * @brief Returns the number of branches.
+     *
+     * @return The directory size.
+     */
+    public int size() {
+        return branches.length;
+    }
+    /**
+     * @brief Returns the segment holding a time, or -1 if the directory has no branches.
+     */
+    private int segment(LocalDateTime time) {
+        if (branches.length == 0) {
+            return -1;
+        }
+        int found = Arrays.binarySearch(segmentStarts, LibraryBranch.minuteOfWeek(time));
+        return found >= 0 ? found : -found - 2;
+    }
+    /**
+     * @brief Arranges tree[lo, hi) so that every subrange is split at its median by alternating axes.
+     */
+    private void build(int lo, int hi, int axis) {
+        if (hi - lo < 2) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, axis == 0 ? xs : ys);
+        build(lo, mid, 1 - axis);
+        build(mid + 1, hi, 1 - axis);
+    }
+    /**
+     * @brief Moves the k-th smallest key of tree[lo, hi] to position k, smaller keys before and larger after.
+     */
+    private void select(int lo, int hi, int k, double[] key) {
+        while (hi > lo) {
+            double pivot = key[tree[(lo + hi) >>> 1]];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (key[tree[i]] < pivot) {
+                    i++;
+                }
+                while (key[tree[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = tree[i];
+                    tree[i++] = tree[j];
+                    tree[j--] = swap;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+    /**
+     * @brief Visits the subtree tree[lo, hi), nearer side first.
+     */
+    private void search(Search search, int lo, int hi, int axis) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        int branch = tree[mid];
+        double dx = search.x - xs[branch];
+        double dy = search.y - ys[branch];
+        double squared = dx * dx + dy * dy;
+        if (squared < search.bestSquared && (search.open == null || (search.open[branch >>> 6] & 1L << branch) != 0)) {
+            search.best = branch;
+            search.bestSquared = squared;
+        }
+        double split = axis == 0 ? dx : dy;
+        if (split < 0) {
+            search(search, lo, mid, 1 - axis);
+            if (split * split < search.bestSquared) {
+                search(search, mid + 1, hi, 1 - axis);
+            }
+        } else {
+            search(search, mid + 1, hi, 1 - axis);
+            if (split * split < search.bestSquared) {
+                search(search, lo, mid, 1 - axis);
+            }
+        }
+    }
+    /**
+     * @brief Returns the great-circle distance between two points by the haversine formula.
+     *
+     * @return The distance in kilometres.
+     */
+    static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLatitude = Math.toRadians(latitude2 - latitude1);
+        double dLongitude = Math.toRadians(longitude2 - longitude1);
+        double h = Math.pow(Math.sin(dLatitude / 2), 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * Math.pow(Math.sin(dLongitude / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+}
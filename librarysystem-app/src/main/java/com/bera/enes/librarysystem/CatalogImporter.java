@@ -0,0 +1,266 @@
+/**
+ * @file CatalogImporter.java
+ * @brief Streaming import of catalog titles from CSV or JSON Lines files.
+ * @details This file defines the CatalogImporter class, which reads a catalog file in fixed-size chunks and hands
+ * every valid row to a sink, so large catalogs can be loaded without holding the file in memory.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+/**
+ * @brief Streams catalog rows from a file into a sink.
+ *
+ * Each line holds one title, either as CSV (<code>book,Crime and Punishment</code>, with the title optionally
+ * double-quoted) or as a JSON object (<code>{"type":"movie","title":"Seven"}</code>). Both formats may be mixed.
+ * A header line <code>type,title</code> and blank lines are skipped; any other line that cannot be parsed or
+ * names an unknown media type is counted as rejected.
+ */
+public class CatalogImporter {
+    static final int BUFFER_SIZE = 1 << 16; /**<Bytes read from the file per chunk. */
+    static final int MAX_REPORTED_REJECTS = 100; /**<Number of rejected line numbers kept in the report. */
+    /**
+     * @brief Receives the rows accepted by the importer.
+     */
+    public interface Sink {
+        /**
+         * @brief Adds one catalog title.
+         *
+         * @param type The media type of the title.
+         * @param title The title, never empty.
+         */
+        void accept(MediaType type, String title);
+    }
+    /**
+     * @brief Summary of one import run.
+     */
+    public static class Report {
+        private long acceptedRows; /**<Rows handed to the sink. */
+        private long rejectedRows; /**<Rows that could not be parsed. */
+        private final List<Long> rejectedLines = new ArrayList<>(); /**<First rejected line numbers, 1-based. */
+        private long elapsedNanos; /**<Wall-clock duration of the import. */
+
+        /** @brief Returns the number of rows handed to the sink. @return The accepted row count. */
+        public long getAcceptedRows() {
+            return acceptedRows;
+        }
+        /** @brief Returns the number of rows that could not be parsed. @return The rejected row count. */
+        public long getRejectedRows() {
+            return rejectedRows;
+        }
+        /** @brief Returns the first rejected line numbers, 1-based. @return Up to MAX_REPORTED_REJECTS line numbers. */
+        public List<Long> getRejectedLines() {
+            return Collections.unmodifiableList(rejectedLines);
+        }
+        /** @brief Returns the wall-clock duration of the import. @return The duration in nanoseconds. */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+        /**
+         * @brief Returns the import throughput.
+         *
+         * @return Accepted and rejected rows per second.
+         */
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : (acceptedRows + rejectedRows) * 1e9 / elapsedNanos;
+        }
+        @Override
+        public String toString() {
+            return String.format("Imported %d rows, rejected %d rows in %d ms (%.0f rows/s)",
+                    acceptedRows, rejectedRows, elapsedNanos / 1_000_000, getRowsPerSecond());
+        }
+    }
+    /**
+     * @brief Imports every row of a catalog file.
+     *
+     * @param file The CSV or JSON Lines file to read, encoded in UTF-8.
+     * @param sink The sink receiving accepted rows in file order.
+     * @return The import report.
+     * @throws IOException if the file cannot be read.
+     */
+    public Report importFile(Path file, Sink sink) throws IOException {
+        Report report = new Report();
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            byte[] line = new byte[256];
+            int length = 0;
+            long lineNumber = 0;
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (b == '\n') {
+                        importLine(line, length, ++lineNumber, sink, report);
+                        length = 0;
+                        continue;
+                    }
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, length * 2);
+                    }
+                    line[length++] = b;
+                }
+                buffer.clear();
+            }
+            if (length > 0) {
+                importLine(line, length, ++lineNumber, sink, report);
+            }
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+    /**
+     * @brief Parses one line and passes it to the sink or records it as rejected.
+     */
+    private void importLine(byte[] bytes, int length, long lineNumber, Sink sink, Report report) {
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        String line = new String(bytes, 0, length, StandardCharsets.UTF_8).trim();
+        if (line.isEmpty() || (lineNumber == 1 && line.equalsIgnoreCase("type,title"))) {
+            return;
+        }
+        String[] row = line.startsWith("{") ? parseJson(line) : parseCsv(line);
+        MediaType type = row == null ? null : MediaType.fromLabel(row[0]);
+        if (type == null || row[1].isEmpty()) {
+            report.rejectedRows++;
+            if (report.rejectedLines.size() < MAX_REPORTED_REJECTS) {
+                report.rejectedLines.add(lineNumber);
+            }
+            return;
+        }
+        sink.accept(type, row[1]);
+        report.acceptedRows++;
+    }
+    /**
+     * @brief Splits a <code>type,title</code> CSV row.
+     *
+     * @param line The row without line terminator.
+     * @return The type and title, or null if the row is malformed.
+     */
+    static String[] parseCsv(String line) {
+        int comma = line.indexOf(',');
+        if (comma < 0) {
+            return null;
+        }
+        String type = line.substring(0, comma).trim();
+        String title = line.substring(comma + 1).trim();
+        if (title.startsWith("\"")) {
+            if (title.length() < 2 || !title.endsWith("\"")) {
+                return null;
+            }
+            title = title.substring(1, title.length() - 1).replace("\"\"", "\"");
+        }
+        return new String[] {type, title};
+    }
+    /**
+     * @brief Extracts the "type" and "title" string fields of a flat JSON object.
+     *
+     * @param line The JSON object on one line.
+     * @return The type and title, or null if either field is missing or malformed.
+     */
+    static String[] parseJson(String line) {
+        String type = null;
+        String title = null;
+        int i = 1;
+        while (i < line.length()) {
+            int keyStart = line.indexOf('"', i);
+            if (keyStart < 0) {
+                break;
+            }
+            StringBuilder key = new StringBuilder();
+            int keyEnd = readJsonString(line, keyStart, key);
+            int colon = keyEnd < 0 ? -1 : line.indexOf(':', keyEnd);
+            if (colon < 0) {
+                return null;
+            }
+            int valueStart = colon + 1;
+            while (valueStart < line.length() && line.charAt(valueStart) == ' ') {
+                valueStart++;
+            }
+            if (valueStart >= line.length() || line.charAt(valueStart) != '"') {
+                int next = line.indexOf(',', valueStart);
+                i = next < 0 ? line.length() : next + 1;
+                continue;
+            }
+            StringBuilder value = new StringBuilder();
+            int valueEnd = readJsonString(line, valueStart, value);
+            if (valueEnd < 0) {
+                return null;
+            }
+            if (key.toString().equals("type")) {
+                type = value.toString();
+            } else if (key.toString().equals("title")) {
+                title = value.toString();
+            }
+            i = valueEnd;
+        }
+        return type == null || title == null ? null : new String[] {type, title.trim()};
+    }
+    /**
+     * @brief Reads a JSON string literal starting at the given quote.
+     *
+     * @param line The text containing the literal.
+     * @param quote The index of the opening quote.
+     * @param target Receives the unescaped characters.
+     * @return The index after the closing quote, or -1 if the literal is not terminated or badly escaped.
+     */
+    private static int readJsonString(String line, int quote, StringBuilder target) {
+        for (int i = quote + 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                return i + 1;
+            }
+            if (c != '\\') {
+                target.append(c);
+                continue;
+            }
+            if (++i >= line.length()) {
+                return -1;
+            }
+            char escaped = line.charAt(i);
+            switch (escaped) {
+                case 'n':
+                    target.append('\n');
+                    break;
+                case 't':
+                    target.append('\t');
+                    break;
+                case 'r':
+                    target.append('\r');
+                    break;
+                case 'b':
+                    target.append('\b');
+                    break;
+                case 'f':
+                    target.append('\f');
+                    break;
+                case 'u':
+                    if (i + 4 >= line.length()) {
+                        return -1;
+                    }
+                    try {
+                        target.append((char) Integer.parseInt(line.substring(i + 1, i + 5), 16));
+                    } catch (NumberFormatException e) {
+                        return -1;
+                    }
+                    i += 4;
+                    break;
+                default:
+                    target.append(escaped);
+                    break;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * @file CatalogIndex.java
+ * @brief Hash index for exact title lookups in one media type of the catalog.
+ * @details This file defines the CatalogIndex class, which maps titles to the ids of the catalog items carrying them.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+/**
+ * @brief Hash index from title to catalog item ids.
+ *
+ * The index answers "is this exact title available" in constant time instead of scanning the catalog.
+ * It indexes every item of one media type; availability itself is read from the CatalogStore bitset,
+ * so reserving or releasing an item does not change the index.
+ *
+ * Over a store that reads a mapped snapshot, no map is built: the snapshot already holds its titles sorted and
+ * its items grouped by title, so a lookup is a binary search in the file and the index costs nothing to create.
+ */
+public class CatalogIndex {
+    private final CatalogStore store; /**<Store holding the indexed items. */
+    private final Map<String, int[]> items; /**<Title mapped to the ids of the items with that title, or null when mapped. */
+    private final MappedCatalog mapped; /**<Snapshot columns searched instead of the map, or null. */
+    private final byte type; /**<Ordinal of the indexed media type. */
+    private int mappedSize = -1; /**<Distinct title count of a mapped index, counted on first use. */
+    /**
+     * @brief Builds an index over the items of one media type.
+     *
+     * @param store The catalog store to index.
+     * @param type The media type to index.
+     */
+    public CatalogIndex(CatalogStore store, MediaType type) {
+        this.store = store;
+        this.mapped = store.mapped();
+        this.type = (byte) type.ordinal();
+        if (mapped != null) {
+            this.items = null;
+            return;
+        }
+        Map<String, Copies> copies = new HashMap<>();
+        for (int id = 0; id < store.size(); id++) {
+            if (store.type(id) == type) {
+                copies.computeIfAbsent(store.title(id), title -> new Copies()).add(id);
+            }
+        }
+        this.items = new HashMap<>(copies.size() * 4 / 3 + 1);
+        for (Map.Entry<String, Copies> entry : copies.entrySet()) {
+            Copies title = entry.getValue();
+            items.put(entry.getKey(), title.count == title.ids.length ? title.ids : Arrays.copyOf(title.ids, title.count));
+        }
+    }
+    /**
+     * @brief Ids of the copies of one title while the index is built.
+     *
+     * The array doubles when full, so adding k copies of a title costs O(k) instead of one copy per item.
+     */
+    private static final class Copies {
+        int[] ids = new int[1]; /**<Item ids, the first count of them in use. */
+        int count; /**<Number of ids added. */
+
+        void add(int id) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count++] = id;
+        }
+    }
+    /**
+     * @brief Finds an available item with the given title.
+     *
+     * @param title The exact title to look up.
+     * @return The id of the first available item with the title, or -1 if none is available.
+     */
+    public int find(String title) {
+        if (mapped != null) {
+            return findMapped(title);
+        }
+        int[] ids = items.get(title);
+        if (ids == null) {
+            return -1;
+        }
+        for (int id : ids) {
+            if (store.isAvailable(id)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+    /**
+     * @brief Returns the number of distinct titles in the index.
+     *
+     * @return The number of indexed titles.
+     */
+    public int size() {
+        if (mapped == null) {
+            return items.size();
+        }
+        if (mappedSize < 0) {
+            int count = 0;
+            for (int titleId = 0; titleId < mapped.titleCount(); titleId++) {
+                for (int at = mapped.firstItem(titleId); at < mapped.firstItem(titleId + 1); at++) {
+                    if (mapped.typeOrdinal(mapped.itemAt(at)) == type) {
+                        count++;
+                        break;
+                    }
+                }
+            }
+            mappedSize = count;
+        }
+        return mappedSize;
+    }
+    /**
+     * @brief Finds an available item with the given title in the mapped snapshot.
+     *
+     * @param title The exact title to look up.
+     * @return The id of the first available item with the title, or -1 if none is available.
+     */
+    private int findMapped(String title) {
+        int titleId = mapped.findTitle(title);
+        if (titleId < 0) {
+            return -1;
+        }
+        for (int at = mapped.firstItem(titleId); at < mapped.firstItem(titleId + 1); at++) {
+            int id = mapped.itemAt(at);
+            if (mapped.typeOrdinal(id) == type && store.isAvailable(id)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+}
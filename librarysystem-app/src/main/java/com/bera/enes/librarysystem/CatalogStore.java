@@ -0,0 +1,317 @@
+/**
+ * @file CatalogStore.java
+ * @brief Column-oriented store for every item in the library catalog.
+ * @details This file defines the CatalogStore class, which keeps the media type, title and availability of all
+ * catalog items in compact parallel columns addressed by integer item ids.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+/**
+ * @brief Typed catalog of library items with an availability bitset.
+ *
+ * Every item gets a dense integer id. The media type is kept in a byte column and the title as an id into an
+ * interned title table, so a title shared by several copies or media types is stored once. Availability is a
+ * single bit per item: reserving an item clears its bit and releasing it sets the bit again, without touching
+ * the title data.
+ *
+ * A store mapped from a snapshot reads its types and titles straight from the file through a MappedCatalog, so
+ * the only per-item memory it allocates is the availability bitset, one bit per item; the reservation ledger's
+ * item index grows with the items actually reserved. The columns are copied onto the heap the first time an
+ * item is added, or right away when the snapshot is read rather than mapped.
+ *
+ * Reserving and releasing are lock-free and safe to call from many threads: the bit is claimed with a
+ * compare-and-set on its 64-bit word, so two terminals can never both reserve the same item. Adding items is
+ * not thread-safe and must finish before the store is shared.
+ */
+public class CatalogStore {
+    private static final MediaType[] TYPES = MediaType.values(); /**<Media types by ordinal. */
+
+    private byte[] types = new byte[16]; /**<Media type ordinal of each item. */
+    private int[] titleIds = new int[16]; /**<Title table index of each item. */
+    private AtomicLongArray available = new AtomicLongArray(1); /**<Availability bit of each item, set when the item can be reserved. */
+    private int size; /**<Number of items in the store. */
+
+    private String[] titleTable = new String[16]; /**<Distinct titles by title id. */
+    private int titleCount; /**<Number of distinct titles. */
+    private Map<String, Integer> titleLookup = new HashMap<>(); /**<Title mapped to its title id, rebuilt on demand after a restore. */
+    private MappedCatalog mapped; /**<Snapshot columns used instead of the arrays, or null once copied. */
+    /**
+     * @brief Creates an empty catalog.
+     */
+    public CatalogStore() {
+    }
+    /**
+     * @brief Creates a catalog over mapped snapshot columns, with every item available.
+     *
+     * Used when loading a snapshot. Nothing is decoded until it is read, and the title lookup used for
+     * interning is only built if more items are added later.
+     *
+     * @param mapped The catalog columns of a mapped snapshot.
+     */
+    CatalogStore(MappedCatalog mapped) {
+        this.mapped = mapped;
+        this.types = null;
+        this.titleIds = null;
+        this.titleTable = null;
+        this.titleCount = mapped.titleCount();
+        this.size = mapped.size();
+        this.available = new AtomicLongArray(Math.max(1, (size + 63) >>> 6));
+        this.titleLookup = null;
+        releaseAll();
+    }
+    /**
+     * @brief Adds an available item to the catalog.
+     *
+     * @param type The media type of the item.
+     * @param title The title of the item.
+     * @return The id of the new item.
+     */
+    public int add(MediaType type, String title) {
+        if (mapped != null) {
+            copyMappedColumns();
+        }
+        if (size == types.length) {
+            types = Arrays.copyOf(types, Math.max(16, size * 2));
+            titleIds = Arrays.copyOf(titleIds, Math.max(16, size * 2));
+        }
+        if ((size >>> 6) == available.length()) {
+            AtomicLongArray grown = new AtomicLongArray(available.length() * 2);
+            for (int i = 0; i < available.length(); i++) {
+                grown.set(i, available.get(i));
+            }
+            available = grown;
+        }
+        int id = size++;
+        types[id] = (byte) type.ordinal();
+        titleIds[id] = intern(title);
+        release(id);
+        return id;
+    }
+    /**
+     * @brief Adds several available items of the same media type.
+     *
+     * @param type The media type of the items.
+     * @param titles The titles of the items, in id order.
+     */
+    public void addAll(MediaType type, String... titles) {
+        for (String title : titles) {
+            add(type, title);
+        }
+    }
+    /**
+     * @brief Copies the mapped snapshot columns onto the heap so items can be added.
+     *
+     * Like add, this is not thread-safe and must finish before the store is shared.
+     */
+    void copyMappedColumns() {
+        int capacity = Math.max(16, size);
+        types = new byte[capacity];
+        titleIds = new int[capacity];
+        titleTable = new String[Math.max(16, titleCount)];
+        for (int id = 0; id < size; id++) {
+            types[id] = mapped.typeOrdinal(id);
+            titleIds[id] = mapped.titleId(id);
+        }
+        for (int titleId = 0; titleId < titleCount; titleId++) {
+            titleTable[titleId] = mapped.titleAt(titleId);
+        }
+        mapped = null;
+    }
+    /**
+     * @brief Returns the id of a title in the title table, adding it if it is new.
+     */
+    private int intern(String title) {
+        if (titleLookup == null) {
+            titleLookup = new HashMap<>(titleCount * 2);
+            for (int i = 0; i < titleCount; i++) {
+                titleLookup.put(titleTable[i], i);
+            }
+        }
+        Integer titleId = titleLookup.get(title);
+        if (titleId != null) {
+            return titleId;
+        }
+        if (titleCount == titleTable.length) {
+            titleTable = Arrays.copyOf(titleTable, Math.max(16, titleCount * 2));
+        }
+        titleTable[titleCount] = title;
+        titleLookup.put(title, titleCount);
+        return titleCount++;
+    }
+    /**
+     * @brief Returns the media type of an item.
+     *
+     * @param id The item id.
+     * @return The media type.
+     */
+    public MediaType type(int id) {
+        return TYPES[typeOrdinal(id)];
+    }
+    /**
+     * @brief Returns the title of an item.
+     *
+     * @param id The item id.
+     * @return The title.
+     */
+    public String title(int id) {
+        return titleAt(titleId(id));
+    }
+    /**
+     * @brief Checks whether an item can be reserved.
+     *
+     * @param id The item id.
+     * @return True if the item is available.
+     */
+    public boolean isAvailable(int id) {
+        return ((available.get(id >>> 6) >>> id) & 1L) != 0;
+    }
+    /**
+     * @brief Marks an item as reserved.
+     *
+     * @param id The item id.
+     * @return True if the item was available and this call reserved it, false if it was already reserved.
+     */
+    public boolean reserve(int id) {
+        int word = id >>> 6;
+        long bit = 1L << id;
+        while (true) {
+            long current = available.get(word);
+            if ((current & bit) == 0) {
+                return false;
+            }
+            if (available.compareAndSet(word, current, current & ~bit)) {
+                return true;
+            }
+        }
+    }
+    /**
+     * @brief Marks an item as available again.
+     *
+     * @param id The item id.
+     */
+    public void release(int id) {
+        int word = id >>> 6;
+        long bit = 1L << id;
+        while (true) {
+            long current = available.get(word);
+            if ((current & bit) != 0 || available.compareAndSet(word, current, current | bit)) {
+                return;
+            }
+        }
+    }
+    /**
+     * @brief Marks every item as available.
+     */
+    public void releaseAll() {
+        for (int word = 0; word < (size >>> 6); word++) {
+            available.set(word, -1L);
+        }
+        if ((size & 63) != 0) {
+            available.set(size >>> 6, (1L << size) - 1);
+        }
+    }
+    /**
+     * @brief Returns the titles of all items of one media type.
+     *
+     * @param type The media type.
+     * @return The titles in id order, including reserved items.
+     */
+    public String[] titles(MediaType type) {
+        return titles(type, false);
+    }
+    /**
+     * @brief Returns each title of one media type once.
+     *
+     * Copies of a title share its id in the title table, so the titles are told apart by id without comparing
+     * strings.
+     *
+     * @param type The media type.
+     * @return The distinct titles in the order of their first item.
+     */
+    public String[] distinctTitles(MediaType type) {
+        return titles(type, true);
+    }
+    /**
+     * @brief Returns the titles of one media type, once per item or once per title id.
+     */
+    private String[] titles(MediaType type, boolean distinct) {
+        BitSet seen = distinct ? new BitSet(titleCount) : null;
+        String[] result = new String[size];
+        int count = 0;
+        for (int id = 0; id < size; id++) {
+            if (typeOrdinal(id) != type.ordinal()) {
+                continue;
+            }
+            if (distinct) {
+                int titleId = titleId(id);
+                if (seen.get(titleId)) {
+                    continue;
+                }
+                seen.set(titleId);
+            }
+            result[count++] = title(id);
+        }
+        return Arrays.copyOf(result, count);
+    }
+    /**
+     * @brief Returns the media type ordinal of an item.
+     *
+     * @param id The item id.
+     * @return The ordinal of the item's media type.
+     */
+    byte typeOrdinal(int id) {
+        MappedCatalog columns = mapped;
+        return columns != null ? columns.typeOrdinal(id) : types[id];
+    }
+    /**
+     * @brief Returns the title table index of an item.
+     *
+     * @param id The item id.
+     * @return The title id.
+     */
+    int titleId(int id) {
+        MappedCatalog columns = mapped;
+        return columns != null ? columns.titleId(id) : titleIds[id];
+    }
+    /**
+     * @brief Returns a title from the title table.
+     *
+     * @param titleId The title id.
+     * @return The title.
+     */
+    String titleAt(int titleId) {
+        MappedCatalog columns = mapped;
+        return columns != null ? columns.titleAt(titleId) : titleTable[titleId];
+    }
+    /**
+     * @brief Returns the mapped snapshot columns the store reads from.
+     *
+     * @return The mapped columns, or null if the store keeps its columns on the heap.
+     */
+    MappedCatalog mapped() {
+        return mapped;
+    }
+    /**
+     * @brief Returns the number of items in the store.
+     *
+     * @return The item count.
+     */
+    public int size() {
+        return size;
+    }
+    /**
+     * @brief Returns the number of distinct titles in the title table.
+     *
+     * @return The distinct title count.
+     */
+    public int titleCount() {
+        return titleCount;
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * @file EventCalendar.java
+ * @brief Time index of the library events.
+ * @details This file defines the EventCalendar class, which keeps the events sorted by start time and answers
+ * range queries one page at a time.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * @brief Finds the events overlapping a time range without looking at the others.
+ *
+ * Events are bucketed by duration class: class k holds the events lasting less than 2^k seconds, each class in
+ * a concurrent skip list ordered by start time, then number. An event overlaps a range when it starts before the
+ * range ends and ends after the range starts, so in class k only the events starting between the range start
+ * minus 2^k seconds and the range end can qualify. A query seeks to that window in every non-empty class in
+ * logarithmic time, walks just the window and merges the classes in calendar order. A multi-day exhibition
+ * therefore widens the scan of its own class only, and once it is removed and its class is empty no query
+ * looks back that far; a calendar of tens of thousands of events answers "the next seven days" by touching
+ * about a week of events.
+ *
+ * Results come in pages: a query returns at most a given number of events and the last event of a page is
+ * the cursor for the next one, so no query ever materializes the whole calendar.
+ */
+public class EventCalendar {
+    static final Comparator<LibraryEvent> BY_START = Comparator.comparing(LibraryEvent::getStart)
+            .thenComparingInt(LibraryEvent::getNumber); /**<Calendar order: start time, then event number. */
+    static final int CLASSES = 64; /**<Duration classes, one per bit of the duration in seconds. */
+
+    private final List<ConcurrentSkipListSet<LibraryEvent>> classes = new ArrayList<>(CLASSES); /**<Events in calendar order, by duration class. */
+    private final AtomicInteger size = new AtomicInteger(); /**<Number of events. */
+    /**
+     * @brief Creates an empty calendar.
+     */
+    public EventCalendar() {
+        for (int k = 0; k < CLASSES; k++) {
+            classes.add(new ConcurrentSkipListSet<>(BY_START));
+        }
+    }
+    /**
+     * @brief Adds an event.
+     *
+     * @param event The event.
+     */
+    public void add(LibraryEvent event) {
+        if (classes.get(durationClass(event)).add(event)) {
+            size.incrementAndGet();
+        }
+    }
+    /**
+     * @brief Removes an event.
+     *
+     * @param event The event.
+     * @return True if the event was in the calendar.
+     */
+    public boolean remove(LibraryEvent event) {
+        if (classes.get(durationClass(event)).remove(event)) {
+            size.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+    /**
+     * @brief Returns the number of events.
+     *
+     * @return The number of events in the calendar.
+     */
+    public int size() {
+        return size.get();
+    }
+    /**
+     * @brief Returns a page of the events overlapping a time range, in calendar order.
+     *
+     * @param from The start of the range, inclusive.
+     * @param to The end of the range, exclusive.
+     * @param after The last event of the previous page, or null for the first page.
+     * @param limit The largest number of events to return.
+     * @return The events that start before to and end after from, following after.
+     */
+    public List<LibraryEvent> overlapping(LocalDateTime from, LocalDateTime to, LibraryEvent after, int limit) {
+        List<LibraryEvent> page = new ArrayList<>(Math.min(limit, 64));
+        if (limit <= 0 || !from.isBefore(to)) {
+            return page;
+        }
+        PriorityQueue<Cursor> heads = new PriorityQueue<>();
+        for (int k = 0; k < CLASSES; k++) {
+            ConcurrentSkipListSet<LibraryEvent> events = classes.get(k);
+            if (events.isEmpty()) {
+                continue;
+            }
+            LocalDateTime earliest = from.minusSeconds(1L << Math.min(k, 62));
+            Cursor cursor = new Cursor(after != null && after.getStart().isAfter(earliest)
+                    ? events.tailSet(after, false).iterator()
+                    : events.tailSet(firstAt(earliest), true).iterator());
+            if (cursor.advance(to)) {
+                heads.add(cursor);
+            }
+        }
+        while (!heads.isEmpty()) {
+            Cursor cursor = heads.poll();
+            if (cursor.head.getEnd().isAfter(from)) {
+                page.add(cursor.head);
+                if (page.size() == limit) {
+                    break;
+                }
+            }
+            if (cursor.advance(to)) {
+                heads.add(cursor);
+            }
+        }
+        return page;
+    }
+    /**
+     * @brief Returns a page of the events that have not ended and start within a number of days.
+     *
+     * @param now The current time.
+     * @param days The number of days to look ahead.
+     * @param after The last event of the previous page, or null for the first page.
+     * @param limit The largest number of events to return.
+     * @return The events overlapping the next days, in calendar order.
+     */
+    public List<LibraryEvent> upcoming(LocalDateTime now, int days, LibraryEvent after, int limit) {
+        return overlapping(now, now.plusDays(days), after, limit);
+    }
+    /**
+     * @brief Returns the earliest start a query from a time looks at.
+     *
+     * @param from The start of a queried range.
+     * @return The range start minus the duration bound of the longest non-empty class, or from if there are no
+     * events.
+     */
+    LocalDateTime earliestScanned(LocalDateTime from) {
+        for (int k = CLASSES - 1; k >= 0; k--) {
+            if (!classes.get(k).isEmpty()) {
+                return from.minusSeconds(1L << Math.min(k, 62));
+            }
+        }
+        return from;
+    }
+    /**
+     * @brief The next event of one duration class within a query window.
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+        private final Iterator<LibraryEvent> events; /**<Remaining events of the class in calendar order. */
+        LibraryEvent head; /**<Current event. */
+
+        Cursor(Iterator<LibraryEvent> events) {
+            this.events = events;
+        }
+        /**
+         * @brief Moves to the next event, returning false once the class has no event starting before to.
+         */
+        boolean advance(LocalDateTime to) {
+            if (!events.hasNext()) {
+                return false;
+            }
+            head = events.next();
+            return head.getStart().isBefore(to);
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return BY_START.compare(head, other.head);
+        }
+    }
+    /**
+     * @brief Returns the duration class of an event: the number of bits of its duration in whole seconds.
+     */
+    static int durationClass(LibraryEvent event) {
+        long seconds = Duration.between(event.getStart(), event.getEnd()).getSeconds();
+        return 64 - Long.numberOfLeadingZeros(seconds);
+    }
+    /**
+     * @brief Returns a search key ordered at or before every event starting at or after a time.
+     *
+     * Event numbers start at 1, so a key with number 1 precedes or equals every event with the same start.
+     */
+    private static LibraryEvent firstAt(LocalDateTime start) {
+        return new LibraryEvent(1, "", "", start, start.plusSeconds(1), 1);
+    }
+}
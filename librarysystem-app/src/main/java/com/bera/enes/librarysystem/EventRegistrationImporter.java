@@ -0,0 +1,305 @@
+/**
+ * @file EventRegistrationImporter.java
+ * @brief Parallel bulk import of event registrations from CSV files.
+ * @details This file defines the EventRegistrationImporter class, which streams a registration file in chunks,
+ * validates the chunks on several threads and applies the valid rows to an EventRegistry in batches, writing
+ * every rejected row to a report.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+/**
+ * @brief Imports school-group registration files of hundreds of thousands of rows.
+ *
+ * Each line holds <code>event,name</code>, with the name optionally double-quoted; a header line
+ * <code>event,name</code> and blank lines are skipped. The file is read in CHUNK_SIZE blocks cut at line ends.
+ * Each block is decoded and validated on a pool thread with a matcher of LibraryService.EVENT_USER compiled
+ * once and reset per row, while the reading thread goes on to the next block. The reading thread applies the
+ * validated blocks in file order, so seats and waiting list places follow the file, and registers each
+ * block's names per event through EventRegistry.registerAll. At most two blocks per thread are in flight,
+ * which bounds memory whatever the file size.
+ *
+ * Rejected rows are written to the rejects file as CSV <code>line,reason,row</code>.
+ */
+public class EventRegistrationImporter {
+    static final int CHUNK_SIZE = 1 << 20; /**<Bytes read and validated per block. */
+    static final String HEADER = "event,name"; /**<Optional first line of a registration file. */
+    /** @brief Why a row was rejected. */
+    public enum Reason {
+        MALFORMED, /**<The row is not an event number, a comma and a name. */
+        INVALID_NAME, /**<The name does not consist of letters and spaces. */
+        UNKNOWN_EVENT /**<There is no event with the given number. */
+    }
+    /**
+     * @brief Summary of one import run.
+     */
+    public static class Report {
+        private long registeredRows; /**<Rows whose name holds a seat. */
+        private long waitlistedRows; /**<Rows whose name is on a waiting list. */
+        private long rejectedRows; /**<Rows that failed validation. */
+        private long elapsedNanos; /**<Wall-clock duration of the import. */
+
+        /** @brief Returns the number of rows whose name holds a seat. @return The registered row count. */
+        public long getRegisteredRows() {
+            return registeredRows;
+        }
+        /** @brief Returns the number of rows whose name is waitlisted. @return The waitlisted row count. */
+        public long getWaitlistedRows() {
+            return waitlistedRows;
+        }
+        /** @brief Returns the number of rows that failed validation. @return The rejected row count. */
+        public long getRejectedRows() {
+            return rejectedRows;
+        }
+        /** @brief Returns the wall-clock duration of the import. @return The duration in nanoseconds. */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+        /**
+         * @brief Returns the import throughput.
+         *
+         * @return Rows imported or rejected per second.
+         */
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : (registeredRows + waitlistedRows + rejectedRows) * 1e9 / elapsedNanos;
+        }
+        @Override
+        public String toString() {
+            return String.format("Registered %d rows, waitlisted %d rows, rejected %d rows in %d ms (%.0f rows/s)",
+                    registeredRows, waitlistedRows, rejectedRows, elapsedNanos / 1_000_000, getRowsPerSecond());
+        }
+    }
+    /**
+     * @brief A rejected row.
+     */
+    private static final class Reject {
+        final int line; /**<Line number relative to the block, from 0. */
+        final Reason reason; /**<Why the row was rejected. */
+        final String row; /**<The row as read, trimmed. */
+
+        Reject(int line, Reason reason, String row) {
+            this.line = line;
+            this.reason = reason;
+            this.row = row;
+        }
+    }
+    /**
+     * @brief The valid rows and rejects of one block.
+     */
+    private static final class Batch {
+        int lines; /**<Number of lines in the block. */
+        final List<String> names = new ArrayList<>(); /**<Names of the valid rows, in file order. */
+        int[] events = new int[256]; /**<Event number of each valid row. */
+        final List<Reject> rejects = new ArrayList<>(); /**<Rejected rows, in file order. */
+    }
+
+    private final EventRegistry registry; /**<Registry receiving the registrations. */
+    private final int threads; /**<Number of validating threads. */
+    /**
+     * @brief Creates an importer validating on one thread per processor.
+     *
+     * @param registry The registry receiving the registrations.
+     */
+    public EventRegistrationImporter(EventRegistry registry) {
+        this(registry, Runtime.getRuntime().availableProcessors());
+    }
+    /**
+     * @brief Creates an importer.
+     *
+     * @param registry The registry receiving the registrations.
+     * @param threads The number of validating threads, at least 1.
+     */
+    public EventRegistrationImporter(EventRegistry registry, int threads) {
+        this.registry = registry;
+        this.threads = Math.max(1, threads);
+    }
+    /**
+     * @brief Imports every row of a registration file.
+     *
+     * @param file The CSV file to read, encoded in UTF-8.
+     * @param rejects The file receiving the rejected rows, replaced if it exists, or null to discard them.
+     * @return The import report.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public Report importFile(Path file, Path rejects) throws IOException {
+        Report report = new Report();
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "event-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                Writer out = rejects == null ? Writer.nullWriter() : Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+            out.write("line,reason,row\n");
+            ArrayDeque<Future<Batch>> pending = new ArrayDeque<>();
+            long firstLine = 1;
+            byte[] block = new byte[CHUNK_SIZE];
+            int filled = 0;
+            boolean first = true;
+            for (boolean eof = false; !eof;) {
+                ByteBuffer target = ByteBuffer.wrap(block, filled, block.length - filled);
+                while (target.hasRemaining() && !eof) {
+                    eof = channel.read(target) == -1;
+                }
+                filled = target.position();
+                int end = eof ? filled : lastLineEnd(block, filled);
+                if (end == 0 && !eof) {
+                    block = Arrays.copyOf(block, block.length * 2);
+                    continue;
+                }
+                byte[] chunk = block;
+                boolean header = first;
+                pending.add(pool.submit(() -> validate(chunk, end, header)));
+                first = false;
+                block = new byte[block.length];
+                System.arraycopy(chunk, end, block, 0, filled - end);
+                filled -= end;
+                while (pending.size() >= 2 * threads || (eof && !pending.isEmpty())) {
+                    firstLine = apply(await(pending.poll()), firstLine, out, report);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+    /**
+     * @brief Returns the length of a block up to and including its last line feed, or 0 if it has none.
+     */
+    private static int lastLineEnd(byte[] block, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (block[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+    /**
+     * @brief Waits for a validated block.
+     */
+    private static Batch await(Future<Batch> batch) throws IOException {
+        try {
+            return batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while importing registrations");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+    /**
+     * @brief Decodes and validates the lines of one block; runs on a pool thread.
+     */
+    private Batch validate(byte[] block, int length, boolean header) {
+        Batch batch = new Batch();
+        Matcher names = LibraryService.EVENT_USER.matcher("");
+        for (int start = 0; start < length; batch.lines++) {
+            int end = start;
+            while (end < length && block[end] != '\n') {
+                end++;
+            }
+            int next = end + 1;
+            if (end > start && block[end - 1] == '\r') {
+                end--;
+            }
+            String line = new String(block, start, end - start, StandardCharsets.UTF_8).trim();
+            start = next;
+            if (line.isEmpty() || (header && batch.lines == 0 && line.equalsIgnoreCase(HEADER))) {
+                continue;
+            }
+            String[] row = CatalogImporter.parseCsv(line);
+            int eventNo = row == null ? -1 : eventNumber(row[0]);
+            if (eventNo < 0 || row[1].isEmpty()) {
+                batch.rejects.add(new Reject(batch.lines, Reason.MALFORMED, line));
+            } else if (!names.reset(row[1]).matches()) {
+                batch.rejects.add(new Reject(batch.lines, Reason.INVALID_NAME, line));
+            } else if (registry.event(eventNo) == null) {
+                batch.rejects.add(new Reject(batch.lines, Reason.UNKNOWN_EVENT, line));
+            } else {
+                if (batch.names.size() == batch.events.length) {
+                    batch.events = Arrays.copyOf(batch.events, batch.events.length * 2);
+                }
+                batch.events[batch.names.size()] = eventNo;
+                batch.names.add(row[1]);
+            }
+        }
+        return batch;
+    }
+    /**
+     * @brief Parses an event number of one to nine digits without a leading zero.
+     *
+     * @param text The text to parse.
+     * @return The event number, or -1 if the text is not one.
+     */
+    static int eventNumber(String text) {
+        if (text.isEmpty() || text.length() > 9 || text.charAt(0) == '0') {
+            return -1;
+        }
+        int number = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+    /**
+     * @brief Writes the rejects of a block and registers its valid rows, one registerAll call per event.
+     *
+     * @return The line number of the first line of the next block.
+     */
+    private long apply(Batch batch, long firstLine, Writer rejects, Report report) throws IOException {
+        for (Reject reject : batch.rejects) {
+            rejects.write(Long.toString(firstLine + reject.line));
+            rejects.write(',');
+            rejects.write(reject.reason.name());
+            rejects.write(",\"");
+            rejects.write(reject.row.replace("\"", "\"\""));
+            rejects.write("\"\n");
+        }
+        report.rejectedRows += batch.rejects.size();
+        Map<Integer, List<String>> byEvent = new LinkedHashMap<>();
+        for (int i = 0; i < batch.names.size(); i++) {
+            byEvent.computeIfAbsent(batch.events[i], number -> new ArrayList<>()).add(batch.names.get(i));
+        }
+        for (Map.Entry<Integer, List<String>> event : byEvent.entrySet()) {
+            EventRegistry.Seat[] seats = registry.registerAll(event.getValue(), event.getKey());
+            for (EventRegistry.Seat seat : seats) {
+                if (seat == EventRegistry.Seat.CONFIRMED) {
+                    report.registeredRows++;
+                } else {
+                    report.waitlistedRows++;
+                }
+            }
+        }
+        return firstLine + batch.lines;
+    }
+}
@@ -0,0 +1,323 @@
+/**
+ * @file EventRegistry.java
+ * @brief Seat allocation and waiting lists for library events.
+ * @details This file defines the EventRegistry class, which holds the upcoming events and their calendar, hands
+ * out their seats to concurrent registrations and keeps a first come, first served waiting list for each full
+ * event.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * @brief Registers names for events without ever giving out more seats than an event has.
+ *
+ * Each event has a roster: a counter of seats taken, a concurrent map from name to seat and a waiting list.
+ * While seats remain, a registration takes one with a compare-and-set on the counter and never locks, so a
+ * burst of thousands of patrons for one event scales with the number of cores. Once the counter reaches the
+ * capacity, registrations join the waiting list under the roster's monitor. A cancelled seat goes to the head
+ * of the waiting list, and the counter only drops when the list is empty, so the lock-free path can never
+ * overtake a waiting patron.
+ *
+ * Checking whether a name holds a seat is a single hash lookup, and the events of a time range are found
+ * through the EventCalendar.
+ */
+public class EventRegistry {
+    static final int DEFAULT_EVENT_COUNT = 2; /**<Number of events a new library starts with, numbered from 1. */
+    static final int LISTING_DAYS = 30; /**<Days ahead covered by the event listing. */
+    static final int PAGE_SIZE = 10; /**<Events per page of the listing. */
+    static final String HEADER = "Upcoming Library Events\n"; /**<First line of the event listing. */
+    /** @brief Place of a name on an event's roster. */
+    public enum Seat {
+        CONFIRMED, /**<The name holds one of the event's seats. */
+        WAITLISTED /**<The event was full; the name waits for a cancelled seat. */
+    }
+    /**
+     * @brief Seats and waiting list of one event.
+     */
+    private static final class Roster {
+        final LibraryEvent event; /**<The event. */
+        final AtomicInteger taken = new AtomicInteger(); /**<Seats handed out, never above the capacity. */
+        final ConcurrentHashMap<String, Seat> seats = new ConcurrentHashMap<>(); /**<Place of every name on the roster. */
+        final LinkedHashSet<String> waiting = new LinkedHashSet<>(); /**<Waiting names in arrival order, guarded by the roster. */
+
+        Roster(LibraryEvent event) {
+            this.event = event;
+        }
+        /**
+         * @brief Takes a free seat if there is one.
+         */
+        boolean claim() {
+            return claim(1) == 1;
+        }
+        /**
+         * @brief Takes up to a number of free seats at once.
+         *
+         * @return The number of seats taken.
+         */
+        int claim(int wanted) {
+            for (int current = taken.get(); current < event.getCapacity(); current = taken.get()) {
+                int granted = Math.min(wanted, event.getCapacity() - current);
+                if (taken.compareAndSet(current, current + granted)) {
+                    return granted;
+                }
+            }
+            return 0;
+        }
+        /**
+         * @brief Gives a seat that was taken back to the head of the waiting list, or frees it.
+         *
+         * @return The name promoted from the waiting list, or null if nobody was waiting.
+         */
+        synchronized String release() {
+            for (Iterator<String> names = waiting.iterator(); names.hasNext();) {
+                String name = names.next();
+                names.remove();
+                if (seats.replace(name, Seat.WAITLISTED, Seat.CONFIRMED)) {
+                    return name;
+                }
+            }
+            taken.decrementAndGet();
+            return null;
+        }
+    }
+
+    private final ConcurrentHashMap<Integer, Roster> rosters = new ConcurrentHashMap<>(); /**<Roster of each event by number. */
+    private final EventCalendar calendar = new EventCalendar(); /**<Events by time. */
+    private final Clock clock; /**<Source of the current time for the listing. */
+    /**
+     * @brief Creates a registry with the default events, timed from the system clock.
+     */
+    public EventRegistry() {
+        this(Clock.systemDefaultZone());
+    }
+    /**
+     * @brief Creates a registry with the default events.
+     *
+     * @param clock The clock giving the current time; the default events are timed from its date.
+     */
+    public EventRegistry(Clock clock) {
+        this.clock = clock;
+        LocalDate today = LocalDate.now(clock);
+        LocalDateTime reading = today.plusDays(2).atTime(LocalTime.of(17, 0));
+        LocalDateTime chat = today.plusDays(5).atTime(LocalTime.of(10, 0));
+        add(new LibraryEvent(1, "Reading incentive program for children", "Two days later, 5 p.m", reading, reading.plusMinutes(90), 30));
+        add(new LibraryEvent(2, "Book chat with the author", "Five days later, 10 a.m", chat, chat.plusHours(2), 120));
+    }
+    /**
+     * @brief Adds an event.
+     *
+     * @param event The event; its number must not be taken.
+     * @throws IllegalArgumentException if an event with the same number exists.
+     */
+    public void add(LibraryEvent event) {
+        if (rosters.putIfAbsent(event.getNumber(), new Roster(event)) != null) {
+            throw new IllegalArgumentException("Duplicate event number " + event.getNumber());
+        }
+        calendar.add(event);
+    }
+    /**
+     * @brief Returns an event.
+     *
+     * @param eventNo The event number.
+     * @return The event, or null if there is none with that number.
+     */
+    public LibraryEvent event(int eventNo) {
+        Roster roster = rosters.get(eventNo);
+        return roster == null ? null : roster.event;
+    }
+    /**
+     * @brief Returns the calendar of the events.
+     *
+     * @return The time index of every added event.
+     */
+    public EventCalendar calendar() {
+        return calendar;
+    }
+    /**
+     * @brief Returns a page of the events that have not ended and start within a number of days.
+     *
+     * @param days The number of days to look ahead from now.
+     * @param after The last event of the previous page, or null for the first page.
+     * @param limit The largest number of events to return.
+     * @return The events in calendar order.
+     */
+    public List<LibraryEvent> upcoming(int days, LibraryEvent after, int limit) {
+        return calendar.upcoming(LocalDateTime.now(clock), days, after, limit);
+    }
+    /**
+     * @brief Returns the text listing the first page of upcoming events.
+     *
+     * @return The header followed by one line for each of the next PAGE_SIZE events within LISTING_DAYS.
+     */
+    public String listing() {
+        StringBuilder text = new StringBuilder(HEADER);
+        for (LibraryEvent event : upcoming(LISTING_DAYS, null, PAGE_SIZE)) {
+            text.append(event).append('\n');
+        }
+        return text.toString();
+    }
+    /**
+     * @brief Registers a name for an event.
+     *
+     * Registering a name that is already on the roster changes nothing and returns its current place.
+     *
+     * @param name The name to register, case-sensitive.
+     * @param eventNo The event number.
+     * @return CONFIRMED if the name holds a seat, WAITLISTED if it waits for one, or null if there is no such event.
+     */
+    public Seat register(String name, int eventNo) {
+        Roster roster = rosters.get(eventNo);
+        if (roster == null) {
+            return null;
+        }
+        Seat existing = roster.seats.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        if (roster.claim()) {
+            return confirm(roster, name);
+        }
+        synchronized (roster) {
+            return roster.claim() ? confirm(roster, name) : waitlist(roster, name);
+        }
+    }
+    /**
+     * @brief Registers many names for one event, in order.
+     *
+     * The seats still free are claimed with a single compare-and-set and the names that do not get one join the
+     * waiting list under a single acquisition of the roster's monitor, so a batch costs about as much
+     * synchronization as one registration. Names are seated in list order, and a name already on the roster
+     * keeps its place.
+     *
+     * @param names The names to register, case-sensitive.
+     * @param eventNo The event number.
+     * @return The place of each name, or null if there is no such event.
+     */
+    public Seat[] registerAll(List<String> names, int eventNo) {
+        Roster roster = rosters.get(eventNo);
+        if (roster == null) {
+            return null;
+        }
+        Seat[] seats = new Seat[names.size()];
+        int claimed = roster.claim(names.size());
+        int next = 0;
+        for (; next < names.size() && claimed > 0; next++) {
+            Seat existing = roster.seats.putIfAbsent(names.get(next), Seat.CONFIRMED);
+            if (existing == null) {
+                claimed--;
+            }
+            seats[next] = existing == null ? Seat.CONFIRMED : existing;
+        }
+        for (; claimed > 0; claimed--) {
+            roster.release();
+        }
+        if (next < names.size()) {
+            synchronized (roster) {
+                for (; next < names.size(); next++) {
+                    seats[next] = roster.claim() ? confirm(roster, names.get(next)) : waitlist(roster, names.get(next));
+                }
+            }
+        }
+        return seats;
+    }
+    /**
+     * @brief Adds a name to a full event's waiting list; the caller holds the roster's monitor.
+     */
+    private static Seat waitlist(Roster roster, String name) {
+        Seat existing = roster.seats.putIfAbsent(name, Seat.WAITLISTED);
+        if (existing != null) {
+            return existing;
+        }
+        roster.waiting.add(name);
+        return Seat.WAITLISTED;
+    }
+    /**
+     * @brief Records a claimed seat, handing it back if another thread registered the name first.
+     */
+    private static Seat confirm(Roster roster, String name) {
+        Seat existing = roster.seats.putIfAbsent(name, Seat.CONFIRMED);
+        if (existing == null) {
+            return Seat.CONFIRMED;
+        }
+        roster.release();
+        return existing;
+    }
+    /**
+     * @brief Removes a name from an event, giving its seat to the first waiting name.
+     *
+     * @param name The registered name.
+     * @param eventNo The event number.
+     * @return True if the name was on the roster.
+     */
+    public boolean cancel(String name, int eventNo) {
+        Roster roster = rosters.get(eventNo);
+        if (roster == null) {
+            return false;
+        }
+        synchronized (roster) {
+            Seat seat = roster.seats.remove(name);
+            if (seat == Seat.CONFIRMED) {
+                roster.release();
+            } else if (seat == Seat.WAITLISTED) {
+                roster.waiting.remove(name);
+            }
+            return seat != null;
+        }
+    }
+    /**
+     * @brief Returns the place of a name on an event's roster.
+     *
+     * @param name The name, case-sensitive.
+     * @param eventNo The event number.
+     * @return The seat, or null if the name is not registered or there is no such event.
+     */
+    public Seat seat(String name, int eventNo) {
+        Roster roster = rosters.get(eventNo);
+        return roster == null ? null : roster.seats.get(name);
+    }
+    /**
+     * @brief Checks whether a name holds a seat at an event.
+     *
+     * @param name The name, case-sensitive.
+     * @param eventNo The event number.
+     * @return True if the name holds a seat; false if it is waitlisted or not registered.
+     */
+    public boolean isRegistered(String name, int eventNo) {
+        return seat(name, eventNo) == Seat.CONFIRMED;
+    }
+    /**
+     * @brief Returns the number of seats taken at an event.
+     *
+     * @param eventNo The event number.
+     * @return The seats taken, or 0 if there is no such event.
+     */
+    public int seatsTaken(int eventNo) {
+        Roster roster = rosters.get(eventNo);
+        return roster == null ? 0 : roster.taken.get();
+    }
+    /**
+     * @brief Returns the number of names waiting for a seat at an event.
+     *
+     * @param eventNo The event number.
+     * @return The length of the waiting list, or 0 if there is no such event.
+     */
+    public int waitlisted(int eventNo) {
+        Roster roster = rosters.get(eventNo);
+        if (roster == null) {
+            return 0;
+        }
+        synchronized (roster) {
+            return roster.waiting.size();
+        }
+    }
+}
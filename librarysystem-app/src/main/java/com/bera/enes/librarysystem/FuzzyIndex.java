@@ -0,0 +1,256 @@
+/**
+ * @file FuzzyIndex.java
+ * @brief BK-tree for typo-tolerant title lookups.
+ * @details This file defines the FuzzyIndex class, which finds the titles within a small edit distance of a query.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+/**
+ * @brief Typo-tolerant title lookup using a BK-tree over Levenshtein distance.
+ *
+ * Each node stores a normalized title and its children keyed by their distance to it. By the triangle
+ * inequality, a query within distance k of some title can only be found under children whose key lies
+ * in [d - k, d + k], where d is the distance to the current node, so most of the tree is never compared.
+ *
+ * Children are kept in two parallel arrays sorted by distance, so a node costs no boxed keys and the children
+ * in range are one contiguous run. A search never needs a distance beyond the largest child key plus k, so
+ * each comparison is a banded Levenshtein computation that stops as soon as the distance is known to exceed
+ * that bound, which for a long title is after a few rows of a narrow band.
+ */
+public class FuzzyIndex {
+    private static final int[] NO_KEYS = new int[0]; /**<Child keys of a leaf. */
+    private static final Node[] NO_CHILDREN = new Node[0]; /**<Children of a leaf. */
+
+    private Node root; /**<Root of the BK-tree, null while the index is empty. */
+    private int size; /**<Number of distinct normalized titles in the tree. */
+    /**
+     * @brief One title in the BK-tree.
+     */
+    private static class Node {
+        final String key; /**<Normalized title used for distance computation. */
+        final String title; /**<Original title returned to the user. */
+        int[] childKeys = NO_KEYS; /**<Distance of each child to this node, ascending. */
+        Node[] children = NO_CHILDREN; /**<Children in the order of childKeys. */
+        int childCount; /**<Number of used entries in childKeys and children. */
+
+        Node(String key, String title) {
+            this.key = key;
+            this.title = title;
+        }
+        /**
+         * @brief Returns the position of the first child whose key is at least the given distance.
+         */
+        int firstChild(int distance) {
+            int low = 0;
+            int high = childCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (childKeys[mid] < distance) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+        /**
+         * @brief Inserts a child at a position, keeping the keys sorted.
+         */
+        void insertChild(int position, int distance, Node child) {
+            if (childCount == childKeys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                childKeys = Arrays.copyOf(childKeys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(childKeys, position, childKeys, position + 1, childCount - position);
+            System.arraycopy(children, position, children, position + 1, childCount - position);
+            childKeys[position] = distance;
+            children[position] = child;
+            childCount++;
+        }
+    }
+    /**
+     * @brief Builds a fuzzy index over the given catalog array.
+     *
+     * Empty entries are skipped.
+     *
+     * @param catalog The titles to index.
+     */
+    public FuzzyIndex(String[] catalog) {
+        for (String title : catalog) {
+            add(title);
+        }
+    }
+    /**
+     * @brief Adds a title to the index.
+     *
+     * @param title The title to add. Null, empty or already indexed titles are ignored.
+     */
+    public void add(String title) {
+        if (title == null || title.isEmpty()) {
+            return;
+        }
+        String key = PrefixIndex.normalize(title);
+        if (root == null) {
+            root = new Node(key, title);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(key, node.key);
+            if (distance == 0) {
+                return;
+            }
+            int position = node.firstChild(distance);
+            if (position == node.childCount || node.childKeys[position] != distance) {
+                node.insertChild(position, distance, new Node(key, title));
+                size++;
+                return;
+            }
+            node = node.children[position];
+        }
+    }
+    /**
+     * @brief Finds the titles within the given edit distance of a query, ignoring case.
+     *
+     * @param query The title typed by the user.
+     * @param maxDistance The largest number of edits a match may need.
+     * @param limit The maximum number of titles to return.
+     * @return Up to limit titles, closest first and alphabetical among equal distances.
+     */
+    public List<String> search(String query, int maxDistance, int limit) {
+        List<Node> matches = new ArrayList<>();
+        List<Integer> distances = new ArrayList<>();
+        collect(PrefixIndex.normalize(query), maxDistance, matches, distances);
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < matches.size(); i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> !distances.get(a).equals(distances.get(b))
+                ? Integer.compare(distances.get(a), distances.get(b))
+                : matches.get(a).key.compareTo(matches.get(b).key));
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; i < order.size() && i < limit; i++) {
+            titles.add(matches.get(order.get(i)).title);
+        }
+        return titles;
+    }
+    /**
+     * @brief Returns how many titles a search compares the query with.
+     *
+     * @param query The title typed by the user.
+     * @param maxDistance The largest number of edits a match may need.
+     * @return The number of tree nodes visited.
+     */
+    int visited(String query, int maxDistance) {
+        return collect(PrefixIndex.normalize(query), maxDistance, new ArrayList<>(), new ArrayList<>());
+    }
+    /**
+     * @brief Walks the tree, collecting the nodes within maxDistance of a normalized query.
+     *
+     * @return The number of nodes visited.
+     */
+    private int collect(String key, int maxDistance, List<Node> matches, List<Integer> distances) {
+        Deque<Node> pending = new ArrayDeque<>();
+        if (root != null) {
+            pending.push(root);
+        }
+        int visited = 0;
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            visited++;
+            int largestKey = node.childCount == 0 ? 0 : node.childKeys[node.childCount - 1];
+            int distance = distance(key, node.key, Math.max(maxDistance, largestKey + maxDistance));
+            if (distance <= maxDistance) {
+                matches.add(node);
+                distances.add(distance);
+            }
+            for (int i = node.firstChild(distance - maxDistance); i < node.childCount
+                    && node.childKeys[i] <= distance + maxDistance; i++) {
+                pending.push(node.children[i]);
+            }
+        }
+        return visited;
+    }
+    /**
+     * @brief Computes the Levenshtein distance between two strings.
+     *
+     * @param a The first string.
+     * @param b The second string.
+     * @return The minimum number of single-character insertions, deletions and substitutions turning a into b.
+     */
+    static int distance(String a, String b) {
+        return distance(a, b, Math.max(a.length(), b.length()));
+    }
+    /**
+     * @brief Computes the Levenshtein distance between two strings, giving up once it exceeds a bound.
+     *
+     * Only the cells within bound of the diagonal can hold a distance of at most bound, so each row computes a
+     * band of 2 * bound + 1 cells, and the computation stops at the first row whose band lies entirely above the
+     * bound. Two rolling rows are used, so memory is linear in the length of the shorter string.
+     *
+     * @param a The first string.
+     * @param b The second string.
+     * @param bound The largest distance of interest.
+     * @return The distance if it is at most bound, else bound + 1.
+     */
+    static int distance(String a, String b, int bound) {
+        if (a.length() < b.length()) {
+            String swap = a;
+            a = b;
+            b = swap;
+        }
+        int n = b.length();
+        if (a.length() - n > bound) {
+            return bound + 1;
+        }
+        int outside = bound + 1;
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int j = 0; j <= n; j++) {
+            previous[j] = Math.min(j, outside);
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - bound);
+            int to = Math.min(n, i + bound);
+            current[0] = Math.min(i, outside);
+            if (from > 1) {
+                current[from - 1] = outside;
+            }
+            int best = from == 1 ? current[0] : outside;
+            char c = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                int edit = Math.min(previous[j], current[j - 1]) + 1;
+                current[j] = Math.min(outside, Math.min(substitution, edit));
+                best = Math.min(best, current[j]);
+            }
+            if (to < n) {
+                current[to + 1] = outside;
+            }
+            if (best > bound) {
+                return outside;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[n];
+    }
+    /**
+     * @brief Returns the number of distinct titles in the index.
+     *
+     * @return The number of indexed titles.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,249 @@
+/**
+ * @file KeywordIndex.java
+ * @brief Inverted index for keyword search over catalog titles.
+ * @details This file defines the KeywordIndex class, which finds titles containing the words a user remembers
+ * and ranks them by how many of those words they contain.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
+/**
+ * @brief Inverted index from title words to the titles that contain them.
+ *
+ * Every title is split into lower case words and each word keeps a posting list of title ids. A query only
+ * merges the sorted posting lists of its own words, so titles sharing no word with the query are never touched.
+ * Matches are ranked by the number of distinct query words they contain, keeping only the best ones in a
+ * bounded heap. A title is indexed once per media type however often it is added, so copies of one title never
+ * crowd other titles out of the result.
+ *
+ * The merge skips the lists of very common words such as "the" once they cannot change the result: when the
+ * heap is full and its weakest hit has score s, a title found only in the s longest lists cannot beat it. Those
+ * lists stop producing candidates and are only probed, by galloping search, for the titles the rarer words
+ * bring up. A query therefore costs about the length of its rarer lists, not of its most common word.
+ */
+public class KeywordIndex {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+"); /**<Splits titles into words. */
+
+    private final List<String> titles = new ArrayList<>(); /**<Indexed titles by title id. */
+    private final List<MediaType> types = new ArrayList<>(); /**<Media type of each title id. */
+    private final Map<String, Postings> postings = new HashMap<>(); /**<Word mapped to the ids of titles containing it. */
+    private final Map<MediaType, Map<String, Integer>> ids = new EnumMap<>(MediaType.class); /**<Title id of each indexed title, per media type. */
+    /**
+     * @brief A title matching a keyword query.
+     */
+    public static class Hit {
+        private final MediaType type; /**<Media type of the matching title. */
+        private final String title; /**<The matching title. */
+        private final int score; /**<Number of distinct query words found in the title. */
+
+        Hit(MediaType type, String title, int score) {
+            this.type = type;
+            this.title = title;
+            this.score = score;
+        }
+        /** @brief Returns the media type of the matching title. @return The media type. */
+        public MediaType getType() {
+            return type;
+        }
+        /** @brief Returns the matching title. @return The title. */
+        public String getTitle() {
+            return title;
+        }
+        /** @brief Returns the number of query words found in the title. @return The score. */
+        public int getScore() {
+            return score;
+        }
+    }
+    /**
+     * @brief Growable list of title ids for one word.
+     */
+    private static class Postings {
+        int[] ids = new int[4]; /**<Title ids in ascending order. */
+        int size; /**<Number of used entries in ids. */
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+    /**
+     * @brief Adds a title to the index.
+     *
+     * @param type The media type of the title.
+     * @param title The title to add. Null or empty titles are ignored.
+     * @return The id given to the title, the id it already had if it was added before with the same media type,
+     * or -1 if it was ignored.
+     */
+    public int add(MediaType type, String title) {
+        if (title == null || title.isEmpty()) {
+            return -1;
+        }
+        Map<String, Integer> ofType = ids.computeIfAbsent(type, key -> new HashMap<>());
+        Integer known = ofType.get(title);
+        if (known != null) {
+            return known;
+        }
+        int id = titles.size();
+        ofType.put(title, id);
+        titles.add(title);
+        types.add(type);
+        for (String word : tokenize(title)) {
+            postings.computeIfAbsent(word, key -> new Postings()).add(id);
+        }
+        return id;
+    }
+    /**
+     * @brief Adds every title of a catalog array to the index.
+     *
+     * @param type The media type of the titles.
+     * @param catalog The titles to add.
+     */
+    public void addAll(MediaType type, String[] catalog) {
+        for (String title : catalog) {
+            add(type, title);
+        }
+    }
+    /**
+     * @brief Finds the titles containing any of the query words.
+     *
+     * @param query The words typed by the user, in any case and order.
+     * @param limit The maximum number of titles to return.
+     * @return Up to limit hits, best score first and catalog order among equal scores.
+     */
+    public List<Hit> search(String query, int limit) {
+        return search(query, limit, (type, title) -> true);
+    }
+    /**
+     * @brief Finds the titles containing any of the query words that a filter accepts.
+     *
+     * Rejected titles are skipped during the merge, so they never take the place of an accepted one.
+     *
+     * @param query The words typed by the user, in any case and order.
+     * @param limit The maximum number of titles to return.
+     * @param accept Tells, from the media type and title, whether a matching title may be returned.
+     * @return Up to limit accepted hits, best score first and catalog order among equal scores.
+     */
+    public List<Hit> search(String query, int limit, BiPredicate<MediaType, String> accept) {
+        List<Postings> lists = new ArrayList<>();
+        for (String word : tokenize(query)) {
+            Postings list = postings.get(word);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+        lists.sort((a, b) -> Integer.compare(b.size, a.size));
+        int[] cursors = new int[lists.size()];
+        PriorityQueue<long[]> best = new PriorityQueue<>(Math.max(1, limit + 1),
+                (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[1], a[1]));
+        while (limit > 0) {
+            int threshold = best.size() < limit ? 0 : (int) best.peek()[0];
+            int probed = Math.min(threshold, lists.size());
+            int next = Integer.MAX_VALUE;
+            for (int i = probed; i < cursors.length; i++) {
+                if (cursors[i] < lists.get(i).size) {
+                    next = Math.min(next, lists.get(i).ids[cursors[i]]);
+                }
+            }
+            if (next == Integer.MAX_VALUE) {
+                break;
+            }
+            int score = 0;
+            for (int i = probed; i < cursors.length; i++) {
+                if (cursors[i] < lists.get(i).size && lists.get(i).ids[cursors[i]] == next) {
+                    score++;
+                    cursors[i]++;
+                }
+            }
+            for (int i = 0; i < probed; i++) {
+                Postings list = lists.get(i);
+                cursors[i] = seek(list, cursors[i], next);
+                if (cursors[i] < list.size && list.ids[cursors[i]] == next) {
+                    score++;
+                    cursors[i]++;
+                }
+            }
+            if ((score > threshold || best.size() < limit) && accept.test(types.get(next), titles.get(next))) {
+                best.add(new long[] {score, next});
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            long[] entry = best.poll();
+            int id = (int) entry[1];
+            hits.add(new Hit(types.get(id), titles.get(id), (int) entry[0]));
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+    /**
+     * @brief Finds the first position at or after from whose title id is not smaller than the target.
+     *
+     * The step doubles until it passes the target and a binary search finishes, so skipping k entries costs
+     * O(log k).
+     */
+    private static int seek(Postings list, int from, int target) {
+        int low = from;
+        int step = 1;
+        int high = from;
+        while (high < list.size && list.ids[high] < target) {
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        high = Math.min(high, list.size);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (list.ids[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    /**
+     * @brief Splits text into distinct lower case words.
+     *
+     * @param text The text to split.
+     * @return The distinct words in order of first appearance.
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+    /**
+     * @brief Returns the number of indexed titles.
+     *
+     * @return The number of titles in the index.
+     */
+    public int size() {
+        return titles.size();
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * @file LatencyHistogram.java
+ * @brief Concurrent log-linear histogram of operation latencies.
+ * @details This file defines the LatencyHistogram class, which counts latencies in fixed buckets so recording
+ * never allocates and percentiles can be read at any time.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+/**
+ * @brief Counts nanosecond latencies in buckets with a relative error of about 3%.
+ *
+ * Values below SUB_BUCKETS have a bucket each. Above that, every power of two is split into SUB_BUCKETS equal
+ * buckets, so a recorded value and the bucket bound reported for it differ by at most 1/SUB_BUCKETS. The bucket
+ * counts are a fixed AtomicLongArray: record is a few shifts and one atomic increment, with no allocation and no
+ * lock. Percentiles are read from a scan of the counts and may miss records made during the scan.
+ */
+public final class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 5; /**<Log2 of the number of buckets per power of two. */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; /**<Buckets per power of two. */
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS; /**<Buckets covering every non-negative long. */
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS); /**<Number of values recorded in each bucket. */
+    private final AtomicLong total = new AtomicLong(); /**<Sum of the recorded values, for the mean. */
+    private final AtomicLong max = new AtomicLong(); /**<Largest recorded value. */
+    /**
+     * @brief Records one latency.
+     *
+     * @param nanos The latency in nanoseconds; negative values count as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        total.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+    /**
+     * @brief Records the time elapsed since a System.nanoTime reading.
+     *
+     * @param startNanos The System.nanoTime value taken when the operation started.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+    /**
+     * @brief Returns the number of recorded values.
+     *
+     * @return The count.
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+    /**
+     * @brief Returns the largest recorded value.
+     *
+     * @return The maximum in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long max() {
+        return max.get();
+    }
+    /**
+     * @brief Returns the mean of the recorded values.
+     *
+     * @return The mean in nanoseconds, or 0 if nothing was recorded.
+     */
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) total.get() / count;
+    }
+    /**
+     * @brief Returns a value at least as large as the given fraction of the recorded values.
+     *
+     * @param quantile The fraction, from 0 to 1, e.g. 0.99 for the 99th percentile.
+     * @return The upper bound of the bucket holding that rank, capped at the maximum; 0 if nothing was recorded.
+     */
+    public long percentile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, quantile)) * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max());
+            }
+        }
+        return max();
+    }
+    /**
+     * @brief Returns the bucket counting a value.
+     *
+     * @param value A non-negative value.
+     * @return The bucket index.
+     */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa - SUB_BUCKETS;
+    }
+    /**
+     * @brief Returns the largest value counted by a bucket.
+     *
+     * @param bucket The bucket index.
+     * @return The inclusive upper bound of the bucket.
+     */
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long low = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return low + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * @file LibraryBranch.java
+ * @brief A library branch with its location and weekly opening hours.
+ * @details This file defines the LibraryBranch class, which describes one branch and parses opening hours such
+ * as "Mon-Sat 08:00-22:00" into intervals of the week.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+/**
+ * @brief Name, listing line, coordinates and opening intervals of a branch.
+ *
+ * Opening hours are stored as minutes of the week, counted from Monday 00:00, in pairs of start (inclusive)
+ * and end (exclusive). Hours that run past midnight continue into the next day, and past Sunday midnight
+ * into Monday.
+ */
+public final class LibraryBranch {
+    static final int MINUTES_PER_DAY = 24 * 60; /**<Minutes in a day. */
+    static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY; /**<Minutes in a week. */
+    static final String ALWAYS_OPEN = "24/7"; /**<Opening hours of a branch that never closes. */
+    private static final Pattern HOURS = Pattern.compile(
+            "(Mon|Tue|Wed|Thu|Fri|Sat|Sun)(?:-(Mon|Tue|Wed|Thu|Fri|Sat|Sun))? ([0-2][0-9]):([0-5][0-9])-([0-2][0-9]):([0-5][0-9])"); /**<One "Mon-Sat 08:00-22:00" range. */
+    private static final String DAYS = "MonTueWedThuFriSatSun"; /**<Day abbreviations in week order. */
+
+    private final String name; /**<Name of the branch. */
+    private final String description; /**<Line describing the branch in the library information. */
+    private final double latitude; /**<Latitude in degrees. */
+    private final double longitude; /**<Longitude in degrees. */
+    private final String openingHours; /**<Opening hours as given, e.g. "Mon-Sat 08:00-22:00". */
+    private final int[] hours; /**<Opening intervals as start and end minutes of the week, sorted. */
+    /**
+     * @brief Creates a branch.
+     *
+     * @param name The name of the branch.
+     * @param description The line describing the branch in the library information.
+     * @param latitude The latitude in degrees.
+     * @param longitude The longitude in degrees.
+     * @param hours The opening hours, "24/7" or comma separated ranges like "Mon-Sat 08:00-22:00, Sun 10:00-16:00".
+     * @throws IllegalArgumentException if the coordinates or opening hours are invalid.
+     */
+    public LibraryBranch(String name, String description, double latitude, double longitude, String hours) {
+        if (!(Math.abs(latitude) <= 90 && Math.abs(longitude) <= 180)) {
+            throw new IllegalArgumentException("Invalid coordinates of " + name + ": " + latitude + ", " + longitude);
+        }
+        this.name = name;
+        this.description = description;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.openingHours = hours.trim();
+        this.hours = parseHours(hours);
+    }
+    /** @brief Returns the name. @return The name of the branch. */
+    public String getName() {
+        return name;
+    }
+    /** @brief Returns the line describing the branch. @return The description. */
+    public String getDescription() {
+        return description;
+    }
+    /** @brief Returns the latitude. @return The latitude in degrees. */
+    public double getLatitude() {
+        return latitude;
+    }
+    /** @brief Returns the longitude. @return The longitude in degrees. */
+    public double getLongitude() {
+        return longitude;
+    }
+    /** @brief Returns the opening hours. @return The opening hours as given to the constructor. */
+    public String getOpeningHours() {
+        return openingHours;
+    }
+    /** @brief Returns the opening intervals. @return Start and end minutes of the week in pairs. */
+    int[] hours() {
+        return hours;
+    }
+    /**
+     * @brief Checks whether the branch is open, scanning its intervals.
+     *
+     * @param time The local time.
+     * @return True if the branch is open at that time.
+     */
+    public boolean isOpen(LocalDateTime time) {
+        int minute = minuteOfWeek(time);
+        for (int i = 0; i < hours.length; i += 2) {
+            if (minute >= hours[i] && minute < hours[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * @brief Returns the minute of the week of a time.
+     *
+     * @param time The local time.
+     * @return Minutes since Monday 00:00, from 0 to MINUTES_PER_WEEK - 1.
+     */
+    static int minuteOfWeek(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+    /**
+     * @brief Parses opening hours into sorted, merged intervals of the week.
+     *
+     * @param text "24/7" or comma separated ranges like "Mon-Fri 08:00-22:00".
+     * @return Start and end minutes of the week in pairs.
+     * @throws IllegalArgumentException if a range cannot be parsed.
+     */
+    static int[] parseHours(String text) {
+        if (text.trim().equals(ALWAYS_OPEN)) {
+            return new int[] {0, MINUTES_PER_WEEK};
+        }
+        boolean[] open = new boolean[MINUTES_PER_WEEK];
+        for (String range : text.split(",")) {
+            Matcher matcher = HOURS.matcher(range.trim());
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Invalid opening hours: " + range.trim());
+            }
+            int first = DAYS.indexOf(matcher.group(1)) / 3;
+            int last = matcher.group(2) == null ? first : DAYS.indexOf(matcher.group(2)) / 3;
+            int opens = minutes(matcher.group(3), matcher.group(4));
+            int closes = minutes(matcher.group(5), matcher.group(6));
+            if (opens >= MINUTES_PER_DAY || closes > MINUTES_PER_DAY) {
+                throw new IllegalArgumentException("Invalid opening hours: " + range.trim());
+            }
+            int length = closes > opens ? closes - opens : closes + MINUTES_PER_DAY - opens;
+            for (int day = first;; day = (day + 1) % 7) {
+                for (int m = 0; m < length; m++) {
+                    open[(day * MINUTES_PER_DAY + opens + m) % MINUTES_PER_WEEK] = true;
+                }
+                if (day == last) {
+                    break;
+                }
+            }
+        }
+        int[] intervals = new int[16];
+        int count = 0;
+        for (int m = 0; m < MINUTES_PER_WEEK; m++) {
+            if (open[m] && (m == 0 || !open[m - 1])) {
+                if (count == intervals.length) {
+                    intervals = Arrays.copyOf(intervals, count * 2);
+                }
+                intervals[count++] = m;
+            }
+            if (open[m] && (m == MINUTES_PER_WEEK - 1 || !open[m + 1])) {
+                intervals[count++] = m + 1;
+            }
+        }
+        return Arrays.copyOf(intervals, count);
+    }
+    /**
+     * @brief Converts hours and minutes to minutes since midnight.
+     */
+    private static int minutes(String hour, String minute) {
+        return Integer.parseInt(hour) * 60 + Integer.parseInt(minute);
+    }
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * @file LibraryEvent.java
+ * @brief An upcoming library event.
+ * @details This file defines the LibraryEvent class, which describes one event patrons can register for.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+/**
+ * @brief Number, title, time and seat capacity of an event.
+ *
+ * Events are immutable; the registrations for an event are kept by the EventRegistry and its time is indexed
+ * by the EventCalendar.
+ */
+public final class LibraryEvent {
+    static final DateTimeFormatter SCHEDULE_FORMAT = DateTimeFormatter.ofPattern("EEE d MMM yyyy, h:mm a", Locale.ENGLISH); /**<Format of schedules derived from the start time. */
+
+    private final int number; /**<Event number shown to users, counted from 1. */
+    private final String title; /**<Title of the event. */
+    private final String schedule; /**<When the event takes place, as shown to users. */
+    private final LocalDateTime start; /**<When the event starts. */
+    private final LocalDateTime end; /**<When the event ends, after the start. */
+    private final int capacity; /**<Number of seats. */
+    /**
+     * @brief Creates an event.
+     *
+     * @param number The event number, at least 1.
+     * @param title The title of the event.
+     * @param schedule When the event takes place, as shown to users.
+     * @param start When the event starts.
+     * @param end When the event ends.
+     * @param capacity The number of seats, at least 1.
+     * @throws IllegalArgumentException if the number or capacity is not positive or the event ends before it starts.
+     */
+    public LibraryEvent(int number, String title, String schedule, LocalDateTime start, LocalDateTime end, int capacity) {
+        if (number < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Event number and capacity must be positive: " + number + ", " + capacity);
+        }
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("Event " + number + " ends at " + end + ", before it starts at " + start);
+        }
+        this.number = number;
+        this.title = title;
+        this.schedule = schedule;
+        this.start = start;
+        this.end = end;
+        this.capacity = capacity;
+    }
+    /**
+     * @brief Creates an event whose schedule is its start time, e.g. "Mon 3 Nov 2025, 6:00 PM".
+     *
+     * @param number The event number, at least 1.
+     * @param title The title of the event.
+     * @param start When the event starts.
+     * @param end When the event ends.
+     * @param capacity The number of seats, at least 1.
+     * @throws IllegalArgumentException if the number or capacity is not positive or the event ends before it starts.
+     */
+    public LibraryEvent(int number, String title, LocalDateTime start, LocalDateTime end, int capacity) {
+        this(number, title, SCHEDULE_FORMAT.format(start), start, end, capacity);
+    }
+    /** @brief Returns the event number. @return The event number, counted from 1. */
+    public int getNumber() {
+        return number;
+    }
+    /** @brief Returns the title. @return The title of the event. */
+    public String getTitle() {
+        return title;
+    }
+    /** @brief Returns when the event takes place. @return The schedule as shown to users. */
+    public String getSchedule() {
+        return schedule;
+    }
+    /** @brief Returns when the event starts. @return The start time. */
+    public LocalDateTime getStart() {
+        return start;
+    }
+    /** @brief Returns when the event ends. @return The end time. */
+    public LocalDateTime getEnd() {
+        return end;
+    }
+    /** @brief Returns the number of seats. @return The capacity. */
+    public int getCapacity() {
+        return capacity;
+    }
+    /**
+     * @brief Returns the line listing this event.
+     *
+     * @return The event as "number - title (schedule)".
+     */
+    @Override
+    public String toString() {
+        return number + " - " + title + " (" + schedule + ")";
+    }
+}
@@ -0,0 +1,531 @@
+/**
+ * @file LibraryHttpServer.java
+ * @brief Embedded HTTP server exposing the library as JSON endpoints.
+ * @details This file defines the LibraryHttpServer class, which serves catalog search, reservations and event
+ * registration over HTTP for web and mobile front-ends, using the HTTP server built into the JDK.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+/**
+ * @brief Serves the library over HTTP with JSON responses.
+ *
+ * Endpoints, all answering with a JSON object:
+ * - GET /api/search?type=book&title=... searches an exact title and suggests close ones when it is not available.
+ * - GET /api/search?words=... finds titles of any media type by keywords.
+ * - GET /api/search?type=book&prefix=... completes a partial title to available titles; limit sets how many.
+ * - POST /api/reservations with user, type and title reserves an item for a registered user, with holdUntil
+ *   giving when the hold expires.
+ * - GET /api/reservations?user=... lists the reservations of a registered user.
+ * - GET /api/events?days=... or GET /api/events?from=...&to=... lists a page of the events in the next days or
+ *   overlapping an ISO-8601 local time range; limit sets the page size and after=next continues a listing.
+ * - GET /api/branches?at=... lists the branches open at an ISO-8601 local time, by default now; with lat and lon
+ *   it also returns the nearest branch open at that time.
+ * - POST /api/events/registrations with user and event registers a name for an event: 201 with a seat, 202 on
+ *   the waiting list of a full event.
+ *
+ * Parameters are read from the query string and, for POST, from an application/x-www-form-urlencoded body.
+ * Like the terminal login, the reservation endpoints answer 403 for a name that is not a registered patron.
+ * Every request runs on its own thread: a virtual thread when run on JDK 21 or later, else a pooled platform
+ * thread. Requests never wait for a terminal session or for each other to finish.
+ */
+public class LibraryHttpServer implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(LibraryHttpServer.class); /**<Logger for failed requests. */
+    static final int DEFAULT_PORT = 8080; /**<Port used when none is given. */
+    static final String SEARCH_PATH = "/api/search"; /**<Exact and keyword catalog search. */
+    static final String RESERVATIONS_PATH = "/api/reservations"; /**<Reserving and listing items. */
+    static final String EVENTS_PATH = "/api/events"; /**<Listing events by time. */
+    static final String BRANCHES_PATH = "/api/branches"; /**<Open and nearest branches. */
+    static final String EVENT_REGISTRATIONS_PATH = "/api/events/registrations"; /**<Registering for events. */
+    static final int MAX_EVENT_PAGE = 100; /**<Largest page of events returned by one request. */
+    static final int MAX_COMPLETIONS = 50; /**<Largest number of completions returned by one request. */
+    private static final int BACKLOG = 1024; /**<Pending connections queued by the listening socket. */
+    private static final int MAX_BODY = 1 << 16; /**<Largest request body accepted, in bytes. */
+    private static final Pattern POSITIVE_NUMBER = Pattern.compile("[1-9][0-9]{0,8}"); /**<Whole number parameters, compiled once. */
+
+    private final LibraryService service; /**<Library answering the requests. */
+    private final HttpServer server; /**<JDK HTTP server. */
+    private final ExecutorService requests = TerminalServer.newThreadPerTaskExecutor("library-http"); /**<Runs one task per request. */
+    /**
+     * @brief Signals a request that cannot be answered, with the status to reply with.
+     */
+    private static final class RequestException extends Exception {
+        private static final long serialVersionUID = 1L;
+        final int status; /**<HTTP status code of the reply. */
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+    /**
+     * @brief Binds a server to a local port.
+     *
+     * @param service The library answering the requests.
+     * @param port The TCP port, or 0 for any free port.
+     * @throws IOException if the port cannot be bound.
+     */
+    public LibraryHttpServer(LibraryService service, int port) throws IOException {
+        this.service = service;
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.server.setExecutor(requests);
+        this.server.createContext(SEARCH_PATH, exchange -> handle(exchange, this::search));
+        this.server.createContext(RESERVATIONS_PATH, exchange -> handle(exchange, this::reservations));
+        this.server.createContext(EVENTS_PATH, exchange -> handle(exchange, this::events));
+        this.server.createContext(BRANCHES_PATH, exchange -> handle(exchange, this::branches));
+        this.server.createContext(EVENT_REGISTRATIONS_PATH, exchange -> handle(exchange, this::eventRegistrations));
+    }
+    /**
+     * @brief Starts answering requests in the background.
+     */
+    public void start() {
+        server.start();
+    }
+    /**
+     * @brief Returns the port the server listens on.
+     *
+     * @return The bound TCP port.
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+    /**
+     * @brief Stops the server, letting requests in progress finish for up to a second.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        requests.shutdown();
+    }
+    /**
+     * @brief Produces the JSON reply of one endpoint.
+     */
+    private interface Endpoint {
+        /**
+         * @brief Answers a request.
+         *
+         * @param method The HTTP method.
+         * @param params The query and form parameters.
+         * @param reply Receives the JSON reply object.
+         * @return The HTTP status code.
+         * @throws RequestException if the request is invalid.
+         */
+        int answer(String method, Map<String, String> params, StringBuilder reply) throws RequestException;
+    }
+    /**
+     * @brief Reads the parameters of a request, runs an endpoint and writes its reply.
+     */
+    private static void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        StringBuilder reply = new StringBuilder(256);
+        int status;
+        try {
+            if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                throw new RequestException(404, "Not found");
+            }
+            String method = exchange.getRequestMethod();
+            Map<String, String> params = new HashMap<>();
+            parseParams(exchange.getRequestURI().getRawQuery(), params);
+            if ("POST".equals(method)) {
+                parseParams(readBody(exchange.getRequestBody()), params);
+            }
+            status = endpoint.answer(method, params, reply);
+        } catch (RequestException e) {
+            reply.setLength(0);
+            reply.append("{\"error\":");
+            appendString(reply, e.getMessage());
+            reply.append('}');
+            status = e.status;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to answer {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            reply.setLength(0);
+            reply.append("{\"error\":\"Internal error\"}");
+            status = 500;
+        }
+        byte[] body = reply.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+    /**
+     * @brief Answers GET /api/search.
+     */
+    private int search(String method, Map<String, String> params, StringBuilder reply) throws RequestException {
+        requireMethod(method, "GET");
+        String words = params.get("words");
+        if (words != null) {
+            reply.append("{\"words\":");
+            appendString(reply, words);
+            reply.append(",\"hits\":[");
+            List<KeywordIndex.Hit> hits = service.keywordSearch(words);
+            for (int i = 0; i < hits.size(); i++) {
+                KeywordIndex.Hit hit = hits.get(i);
+                reply.append(i == 0 ? "{" : ",{").append("\"type\":");
+                appendString(reply, hit.getType().label());
+                reply.append(",\"title\":");
+                appendString(reply, hit.getTitle());
+                reply.append(",\"score\":").append(hit.getScore()).append('}');
+            }
+            reply.append("]}");
+            return 200;
+        }
+        String prefix = params.get("prefix");
+        if (prefix != null) {
+            MediaType type = mediaType(params);
+            List<String> titles = service.complete(type, prefix, number(params, "limit", LibraryService.SUGGESTION_LIMIT, MAX_COMPLETIONS));
+            reply.append("{\"type\":");
+            appendString(reply, type.label());
+            reply.append(",\"prefix\":");
+            appendString(reply, prefix);
+            reply.append(",\"titles\":[");
+            for (int i = 0; i < titles.size(); i++) {
+                if (i > 0) {
+                    reply.append(',');
+                }
+                appendString(reply, titles.get(i));
+            }
+            reply.append("]}");
+            return 200;
+        }
+        LibraryService.SearchResult result = service.search(mediaType(params), required(params, "title"));
+        reply.append("{\"type\":");
+        appendString(reply, result.getType().label());
+        reply.append(",\"query\":");
+        appendString(reply, result.getQuery());
+        reply.append(",\"available\":").append(result.isAvailable());
+        if (result.isAvailable()) {
+            reply.append(",\"item\":").append(result.getItem()).append(",\"title\":");
+            appendString(reply, result.getTitle());
+        }
+        reply.append(",\"suggestions\":[");
+        List<String> suggestions = result.getSuggestions();
+        for (int i = 0; i < suggestions.size(); i++) {
+            if (i > 0) {
+                reply.append(',');
+            }
+            appendString(reply, suggestions.get(i));
+        }
+        reply.append("]}");
+        return 200;
+    }
+    /**
+     * @brief Answers POST and GET /api/reservations.
+     */
+    private int reservations(String method, Map<String, String> params, StringBuilder reply) throws RequestException {
+        String user = required(params, "user");
+        if (!service.isRegistered(user)) {
+            throw new RequestException(403, "User is not registered");
+        }
+        if ("GET".equals(method)) {
+            reply.append("{\"user\":");
+            appendString(reply, user);
+            reply.append(",\"reservations\":[");
+            List<LibraryService.Reservation> reservations = service.listReservations(user);
+            for (int i = 0; i < reservations.size(); i++) {
+                if (i > 0) {
+                    reply.append(',');
+                }
+                appendReservation(reply, reservations.get(i));
+            }
+            reply.append("]}");
+            return 200;
+        }
+        requireMethod(method, "POST");
+        LibraryService.ReservationResult result = service.reserve(user, mediaType(params), required(params, "title"));
+        reply.append("{\"status\":");
+        appendString(reply, result.getStatus().name());
+        if (!result.isReserved()) {
+            reply.append('}');
+            return 409;
+        }
+        reply.append(",\"reservation\":");
+        appendReservation(reply, result.getReservation());
+        reply.append(",\"holdUntil\":");
+        if (result.getHoldUntil() == null) {
+            reply.append("null");
+        } else {
+            appendString(reply, result.getHoldUntil().toString());
+        }
+        reply.append('}');
+        return 201;
+    }
+    /**
+     * @brief Answers GET /api/events.
+     */
+    private int events(String method, Map<String, String> params, StringBuilder reply) throws RequestException {
+        requireMethod(method, "GET");
+        int limit = number(params, "limit", EventRegistry.PAGE_SIZE, MAX_EVENT_PAGE);
+        LibraryEvent after = null;
+        if (params.containsKey("after")) {
+            after = service.eventRegistry().event(number(params, "after", 0, Integer.MAX_VALUE));
+            if (after == null) {
+                throw new RequestException(400, "Unknown event: " + params.get("after"));
+            }
+        }
+        List<LibraryEvent> events;
+        if (params.containsKey("from") || params.containsKey("to")) {
+            LocalDateTime from = time(params, "from");
+            LocalDateTime to = time(params, "to");
+            events = service.eventsOverlapping(from, to, after, limit + 1);
+        } else {
+            events = service.upcomingEvents(number(params, "days", EventRegistry.LISTING_DAYS, 3660), after, limit + 1);
+        }
+        reply.append("{\"events\":[");
+        for (int i = 0; i < events.size() && i < limit; i++) {
+            LibraryEvent event = events.get(i);
+            reply.append(i == 0 ? "{" : ",{").append("\"event\":").append(event.getNumber());
+            reply.append(",\"title\":");
+            appendString(reply, event.getTitle());
+            reply.append(",\"schedule\":");
+            appendString(reply, event.getSchedule());
+            reply.append(",\"start\":");
+            appendString(reply, event.getStart().toString());
+            reply.append(",\"end\":");
+            appendString(reply, event.getEnd().toString());
+            reply.append(",\"capacity\":").append(event.getCapacity());
+            reply.append(",\"seatsTaken\":").append(service.eventRegistrations(event.getNumber())).append('}');
+        }
+        reply.append("],\"next\":").append(events.size() > limit ? String.valueOf(events.get(limit - 1).getNumber()) : "null").append('}');
+        return 200;
+    }
+    /**
+     * @brief Answers GET /api/branches.
+     */
+    private int branches(String method, Map<String, String> params, StringBuilder reply) throws RequestException {
+        requireMethod(method, "GET");
+        LocalDateTime at = params.containsKey("at") ? time(params, "at") : LocalDateTime.now();
+        reply.append("{\"at\":");
+        appendString(reply, at.toString());
+        reply.append(",\"open\":[");
+        List<LibraryBranch> open = service.openBranches(at);
+        for (int i = 0; i < open.size(); i++) {
+            appendBranch(reply.append(i == 0 ? "" : ","), open.get(i));
+        }
+        reply.append(']');
+        if (params.containsKey("lat") || params.containsKey("lon")) {
+            double latitude = coordinate(params, "lat", 90);
+            double longitude = coordinate(params, "lon", 180);
+            BranchDirectory.Nearest nearest = service.nearestOpenBranch(latitude, longitude, at);
+            reply.append(",\"nearest\":");
+            if (nearest == null) {
+                reply.append("null");
+            } else {
+                appendBranch(reply, nearest.getBranch());
+                reply.setLength(reply.length() - 1);
+                reply.append(",\"distanceKm\":").append(String.format(Locale.ROOT, "%.3f", nearest.getDistanceKm())).append('}');
+            }
+        }
+        reply.append('}');
+        return 200;
+    }
+    /**
+     * @brief Appends a branch as a JSON object.
+     */
+    private static void appendBranch(StringBuilder reply, LibraryBranch branch) {
+        reply.append("{\"name\":");
+        appendString(reply, branch.getName());
+        reply.append(",\"lat\":").append(branch.getLatitude());
+        reply.append(",\"lon\":").append(branch.getLongitude());
+        reply.append(",\"hours\":");
+        appendString(reply, branch.getOpeningHours());
+        reply.append('}');
+    }
+    /**
+     * @brief Answers POST /api/events/registrations.
+     */
+    private int eventRegistrations(String method, Map<String, String> params, StringBuilder reply) throws RequestException {
+        requireMethod(method, "POST");
+        String event = required(params, "event");
+        if (!POSITIVE_NUMBER.matcher(event).matches()) {
+            throw new RequestException(400, "Invalid event number");
+        }
+        LibraryService.EventRegistration registration = service.registerForEvent(required(params, "user"), Integer.parseInt(event));
+        reply.append("{\"status\":");
+        appendString(reply, registration.getStatus().name());
+        reply.append(",\"user\":");
+        appendString(reply, registration.getUser());
+        reply.append(",\"event\":").append(registration.getEventNo()).append('}');
+        if (registration.getStatus() == LibraryService.EventRegistration.Status.WAITLISTED) {
+            return 202;
+        }
+        return registration.isRegistered() ? 201 : 400;
+    }
+    /**
+     * @brief Appends a reservation as a JSON object.
+     */
+    private static void appendReservation(StringBuilder reply, LibraryService.Reservation reservation) {
+        reply.append("{\"record\":").append(reservation.getRecord());
+        reply.append(",\"item\":").append(reservation.getItem());
+        reply.append(",\"type\":");
+        appendString(reply, reservation.getType().label());
+        reply.append(",\"title\":");
+        appendString(reply, reservation.getTitle());
+        reply.append(",\"user\":");
+        appendString(reply, reservation.getUser());
+        reply.append('}');
+    }
+    /**
+     * @brief Appends a string as a quoted JSON string.
+     *
+     * @param reply The JSON being built.
+     * @param value The string to quote.
+     */
+    static void appendString(StringBuilder reply, String value) {
+        reply.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    reply.append("\\\"");
+                    break;
+                case '\\':
+                    reply.append("\\\\");
+                    break;
+                case '\n':
+                    reply.append("\\n");
+                    break;
+                case '\r':
+                    reply.append("\\r");
+                    break;
+                case '\t':
+                    reply.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        reply.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        reply.append(c);
+                    }
+            }
+        }
+        reply.append('"');
+    }
+    /**
+     * @brief Adds the name=value pairs of a URL-encoded string to a map.
+     *
+     * @param encoded The query string or form body, or null.
+     * @param params Receives the decoded parameters; a later value replaces an earlier one.
+     * @throws RequestException if the string is not validly encoded.
+     */
+    static void parseParams(String encoded, Map<String, String> params) throws RequestException {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        try {
+            for (String pair : encoded.split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int equals = pair.indexOf('=');
+                String name = equals < 0 ? pair : pair.substring(0, equals);
+                String value = equals < 0 ? "" : pair.substring(equals + 1);
+                params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new RequestException(400, "Malformed parameters");
+        }
+    }
+    /**
+     * @brief Reads a request body of at most MAX_BODY bytes.
+     */
+    private static String readBody(InputStream in) throws IOException, RequestException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        for (int read; (read = in.read(buffer)) != -1;) {
+            if (body.size() + read > MAX_BODY) {
+                throw new RequestException(413, "Request body too large");
+            }
+            body.write(buffer, 0, read);
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+    /**
+     * @brief Rejects a request made with another HTTP method.
+     */
+    private static void requireMethod(String method, String allowed) throws RequestException {
+        if (!allowed.equals(method)) {
+            throw new RequestException(405, "Method not allowed");
+        }
+    }
+    /**
+     * @brief Returns a parameter that must be present.
+     */
+    private static String required(Map<String, String> params, String name) throws RequestException {
+        String value = params.get(name);
+        if (value == null) {
+            throw new RequestException(400, "Missing parameter: " + name);
+        }
+        return value;
+    }
+    /**
+     * @brief Returns a positive whole number parameter, or a default when it is absent.
+     */
+    private static int number(Map<String, String> params, String name, int absent, int max) throws RequestException {
+        String value = params.get(name);
+        if (value == null) {
+            return absent;
+        }
+        if (!POSITIVE_NUMBER.matcher(value).matches() || Integer.parseInt(value) > max) {
+            throw new RequestException(400, "Invalid " + name + ": " + value);
+        }
+        return Integer.parseInt(value);
+    }
+    /**
+     * @brief Returns a latitude or longitude parameter that must be present.
+     */
+    private static double coordinate(Map<String, String> params, String name, double limit) throws RequestException {
+        String value = required(params, name);
+        try {
+            double degrees = Double.parseDouble(value);
+            if (Math.abs(degrees) <= limit) {
+                return degrees;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new RequestException(400, "Invalid " + name + ": " + value);
+    }
+    /**
+     * @brief Returns an ISO-8601 local date and time parameter that must be present.
+     */
+    private static LocalDateTime time(Map<String, String> params, String name) throws RequestException {
+        String value = required(params, name);
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new RequestException(400, "Invalid " + name + ": " + value);
+        }
+    }
+    /**
+     * @brief Returns the media type named by the type parameter.
+     */
+    private static MediaType mediaType(Map<String, String> params) throws RequestException {
+        MediaType type = MediaType.fromLabel(required(params, "type"));
+        if (type == null) {
+            throw new RequestException(400, "Unknown media type");
+        }
+        return type;
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * @file LibraryMetrics.java
+ * @brief Latency histograms and counters of the library operations.
+ * @details This file defines the LibraryMetrics class, which LibraryService updates on every search,
+ * reservation and checkpoint, and which is read through JMX and the admin screen.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+/**
+ * @brief Per-operation latency histograms plus search, reservation and snapshot counters.
+ *
+ * Recording is allocation-free: latencies go to a LatencyHistogram per operation and counts to LongAdder
+ * cells indexed by media type, so the hot paths only pay for System.nanoTime and a few atomic adds.
+ */
+public class LibraryMetrics implements LibraryMetricsMXBean {
+    static final String OBJECT_NAME = "com.bera.enes.librarysystem:type=LibraryMetrics"; /**<JMX name the app registers under. */
+    private static final MediaType[] TYPES = MediaType.values(); /**<Media types by ordinal. */
+    private static final Operation[] OPERATIONS = Operation.values(); /**<Operations by ordinal. */
+    /**
+     * @brief Library operations whose latency is recorded.
+     */
+    public enum Operation {
+        SEARCH, /**<Exact title search. */
+        KEYWORD_SEARCH, /**<Keyword search over every media type. */
+        COMPLETE, /**<Completing a partial title. */
+        RESERVE, /**<Reserving an item. */
+        RETURN, /**<Returning every item of a user. */
+        VIEW_RESERVATIONS, /**<Listing the reservations of a user. */
+        REGISTER_EVENT, /**<Registering for an event. */
+        WRITE_BINARY /**<Checkpointing to the data file. */
+    }
+    /**
+     * @brief Percentiles of one operation, in microseconds.
+     */
+    public static class LatencySummary {
+        private final long count; /**<Number of recorded calls. */
+        private final double p50; /**<Median latency. */
+        private final double p99; /**<99th percentile latency. */
+        private final double p999; /**<99.9th percentile latency. */
+        private final double max; /**<Largest latency. */
+
+        LatencySummary(LatencyHistogram histogram) {
+            this.count = histogram.count();
+            this.p50 = histogram.percentile(0.5) / 1000.0;
+            this.p99 = histogram.percentile(0.99) / 1000.0;
+            this.p999 = histogram.percentile(0.999) / 1000.0;
+            this.max = histogram.max() / 1000.0;
+        }
+        /** @brief Returns the number of recorded calls. @return The count. */
+        public long getCount() {
+            return count;
+        }
+        /** @brief Returns the median latency. @return The latency in microseconds. */
+        public double getP50() {
+            return p50;
+        }
+        /** @brief Returns the 99th percentile latency. @return The latency in microseconds. */
+        public double getP99() {
+            return p99;
+        }
+        /** @brief Returns the 99.9th percentile latency. @return The latency in microseconds. */
+        public double getP999() {
+            return p999;
+        }
+        /** @brief Returns the largest latency. @return The latency in microseconds. */
+        public double getMax() {
+            return max;
+        }
+    }
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length]; /**<Latency histogram per operation ordinal. */
+    private final LongAdder[] searchHits = adders(); /**<Searches finding an available item, per media type ordinal. */
+    private final LongAdder[] searchMisses = adders(); /**<Searches finding nothing available, per media type ordinal. */
+    private final LongAdder[] reservationsMade = adders(); /**<Reservations made, per media type ordinal. */
+    private final LongAdder[] reservationsFailed = adders(); /**<Reservations refused, per media type ordinal. */
+    private final LongAdder snapshotsWritten = new LongAdder(); /**<Number of checkpoints written. */
+    private final LongAdder snapshotBytesWritten = new LongAdder(); /**<Total bytes of all checkpoints. */
+    private final AtomicLong lastSnapshotBytes = new AtomicLong(); /**<Bytes of the last checkpoint. */
+    /**
+     * @brief Creates metrics with every count at zero.
+     */
+    public LibraryMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+    /**
+     * @brief Creates one counter per media type.
+     */
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[TYPES.length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+    /**
+     * @brief Records the latency of an operation.
+     *
+     * @param operation The operation.
+     * @param startNanos The System.nanoTime value taken when the operation started.
+     */
+    public void recordLatency(Operation operation, long startNanos) {
+        latencies[operation.ordinal()].recordSince(startNanos);
+    }
+    /**
+     * @brief Counts a search and records its latency.
+     *
+     * @param type The media type searched.
+     * @param hit True if an available item was found.
+     * @param startNanos The System.nanoTime value taken when the search started.
+     */
+    public void recordSearch(MediaType type, boolean hit, long startNanos) {
+        (hit ? searchHits : searchMisses)[type.ordinal()].increment();
+        recordLatency(Operation.SEARCH, startNanos);
+    }
+    /**
+     * @brief Counts a reservation and records its latency.
+     *
+     * @param type The media type of the title.
+     * @param reserved True if the item was reserved.
+     * @param startNanos The System.nanoTime value taken when the reservation started.
+     */
+    public void recordReservation(MediaType type, boolean reserved, long startNanos) {
+        (reserved ? reservationsMade : reservationsFailed)[type.ordinal()].increment();
+        recordLatency(Operation.RESERVE, startNanos);
+    }
+    /**
+     * @brief Counts a checkpoint and records its size and duration.
+     *
+     * @param bytes The number of bytes written.
+     * @param startNanos The System.nanoTime value taken when the checkpoint started.
+     */
+    public void recordSnapshot(long bytes, long startNanos) {
+        snapshotsWritten.increment();
+        snapshotBytesWritten.add(bytes);
+        lastSnapshotBytes.set(bytes);
+        recordLatency(Operation.WRITE_BINARY, startNanos);
+    }
+    /**
+     * @brief Returns the latency histogram of an operation.
+     *
+     * @param operation The operation.
+     * @return Its histogram.
+     */
+    public LatencyHistogram latency(Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+    @Override
+    public Map<String, Long> getSearchHits() {
+        return byType(searchHits);
+    }
+    @Override
+    public Map<String, Long> getSearchMisses() {
+        return byType(searchMisses);
+    }
+    @Override
+    public Map<String, Long> getReservationsMade() {
+        return byType(reservationsMade);
+    }
+    @Override
+    public Map<String, Long> getReservationsFailed() {
+        return byType(reservationsFailed);
+    }
+    @Override
+    public long getSnapshotsWritten() {
+        return snapshotsWritten.sum();
+    }
+    @Override
+    public long getLastSnapshotBytes() {
+        return lastSnapshotBytes.get();
+    }
+    @Override
+    public long getSnapshotBytesWritten() {
+        return snapshotBytesWritten.sum();
+    }
+    @Override
+    public Map<String, LatencySummary> getLatencies() {
+        Map<String, LatencySummary> summaries = new LinkedHashMap<>();
+        for (Operation operation : OPERATIONS) {
+            summaries.put(operation.name(), new LatencySummary(latencies[operation.ordinal()]));
+        }
+        return summaries;
+    }
+    @Override
+    public String dump() {
+        StringBuilder text = new StringBuilder("Library Metrics\n");
+        text.append(String.format(Locale.ROOT, "%-18s %10s %10s %10s %10s %10s%n", "Operation (us)", "count", "p50", "p99", "p999", "max"));
+        for (Map.Entry<String, LatencySummary> entry : getLatencies().entrySet()) {
+            LatencySummary summary = entry.getValue();
+            text.append(String.format(Locale.ROOT, "%-18s %10d %10.1f %10.1f %10.1f %10.1f%n", entry.getKey(), summary.getCount(),
+                    summary.getP50(), summary.getP99(), summary.getP999(), summary.getMax()));
+        }
+        for (MediaType type : TYPES) {
+            int i = type.ordinal();
+            text.append(String.format(Locale.ROOT, "%-6s searches: %d hit, %d missed; reservations: %d made, %d failed%n", type.label(),
+                    searchHits[i].sum(), searchMisses[i].sum(), reservationsMade[i].sum(), reservationsFailed[i].sum()));
+        }
+        text.append(String.format(Locale.ROOT, "Snapshots: %d written, %d bytes in total, last %d bytes%n", getSnapshotsWritten(),
+                getSnapshotBytesWritten(), getLastSnapshotBytes()));
+        return text.toString();
+    }
+    /**
+     * @brief Sums per media type counters into a map keyed by media type label.
+     */
+    private static Map<String, Long> byType(LongAdder[] adders) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (MediaType type : TYPES) {
+            counts.put(type.label(), adders[type.ordinal()].sum());
+        }
+        return counts;
+    }
+    /**
+     * @brief Registers these metrics with the platform MBean server, replacing any registered earlier.
+     *
+     * @throws JMException if the MBean cannot be registered.
+     */
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(this, name);
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * @file LibraryMetricsMXBean.java
+ * @brief JMX view of the library metrics.
+ * @details This file defines the LibraryMetricsMXBean interface, which JMX consoles such as JConsole use to read
+ * the counters and latency percentiles of a LibraryMetrics.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.Map;
+/**
+ * @brief Management interface of LibraryMetrics.
+ */
+public interface LibraryMetricsMXBean {
+    /** @brief Returns the searches that found an available item. @return The count per media type label. */
+    Map<String, Long> getSearchHits();
+    /** @brief Returns the searches that found no available item. @return The count per media type label. */
+    Map<String, Long> getSearchMisses();
+    /** @brief Returns the reservations made. @return The count per media type label. */
+    Map<String, Long> getReservationsMade();
+    /** @brief Returns the reservations refused because no copy was available. @return The count per media type label. */
+    Map<String, Long> getReservationsFailed();
+    /** @brief Returns the number of checkpoints written. @return The count. */
+    long getSnapshotsWritten();
+    /** @brief Returns the size of the last checkpoint. @return The size in bytes. */
+    long getLastSnapshotBytes();
+    /** @brief Returns the total size of all checkpoints. @return The size in bytes. */
+    long getSnapshotBytesWritten();
+    /** @brief Returns the latency percentiles of every operation. @return The summary per operation name. */
+    Map<String, LibraryMetrics.LatencySummary> getLatencies();
+    /** @brief Returns every metric as text. @return The report printed by the admin screen. */
+    String dump();
+}
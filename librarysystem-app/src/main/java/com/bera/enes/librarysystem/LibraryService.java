@@ -0,0 +1,937 @@
+/**
+ * @file LibraryService.java
+ * @brief Headless API over the catalog, reservations and events of the library.
+ * @details This file defines the LibraryService class, which performs every library operation from plain
+ * arguments and returns result objects, so menus, servers and benchmarks can share one implementation.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+/**
+ * @brief Library operations without any console input or output.
+ *
+ * The catalog, its reservation engine and its indexes are published together as one immutable view, so a
+ * call always sees a consistent catalog even while another thread loads a new one. Searches, reservations and
+ * event registrations are safe to call from many threads; loading and checkpointing are serialized.
+ *
+ * Every reservation is a hold for holdPeriod. Once startHoldExpiry has been called, a daemon thread releases
+ * expired holds every second, so items that are never picked up become available again without restoreItems.
+ * Likewise, once startCheckpoints has been called, a daemon thread calls writeBinary while the service runs, so
+ * the reservation log stays short and a restart replays little of it.
+ */
+public class LibraryService {
+    private static final Logger logger = LoggerFactory.getLogger(LibraryService.class); /**<Logger for failed checkpoints. */
+    static final int SUGGESTION_LIMIT = 5; /**<Maximum number of suggested or keyword-matched titles. */
+    static final int MAX_TYPO_DISTANCE = 2; /**<Largest edit distance offered as a typo correction. */
+    static final Duration DEFAULT_HOLD_PERIOD = Duration.ofDays(3); /**<How long a reserved item is held for pickup. */
+    static final Duration DEFAULT_CHECKPOINT_INTERVAL = Duration.ofMinutes(1); /**<Longest time between background checkpoints. */
+    static final long CHECKPOINT_LOG_BYTES = 8L << 20; /**<Reservation log size that triggers a checkpoint before the interval ends. */
+    static final long CHECKPOINT_TICK_MILLIS = 1000; /**<How often the checkpoint thread checks whether one is due. */
+    static final Pattern EVENT_USER = Pattern.compile("[A-Za-z ]+"); /**<Names accepted for event registration, compiled once. */
+
+    static final String[] SAMPLE_USERS = {
+        "Ahmet Bera Celik", "Enes Koy", "Ugur Coruh", "Yakup Eroglu", "Hasan Basri Taskin"
+    }; /**<Patrons registered in every service. */
+    private final UserDirectory users; /**<User ids and registered patrons, shared by every catalog this service loads. */
+    private final EventRegistry eventRegistry = new EventRegistry(); /**<Upcoming events and their seats. */
+    private volatile BranchDirectory branches = BranchDirectory.defaults(); /**<Library branches, replaced as a whole by loadBranches. */
+    private volatile View view; /**<Current catalog, reservations and indexes. */
+    private final LibraryMetrics metrics = new LibraryMetrics(); /**<Latencies and counts of the operations below. */
+    private final Clock clock; /**<Clock giving hold start and end times. */
+    private volatile Duration holdPeriod = DEFAULT_HOLD_PERIOD; /**<Length of new holds, or zero for reservations that never expire. */
+    private ScheduledExecutorService holdExpiry; /**<Thread releasing expired holds, or null when not started. */
+    private ScheduledExecutorService checkpoints; /**<Thread writing background checkpoints, or null when not started. */
+    private long lastCheckpointNanos; /**<System.nanoTime of the last background checkpoint or of startCheckpoints. */
+
+    private Path baseSnapshot; /**<Full snapshot the next delta checkpoint builds on, or null before the first one. */
+    private long baseSnapshotId; /**<Id of baseSnapshot, recorded in every delta written against it. */
+    private ReservationEngine baseReservations; /**<Engine that baseSnapshot was written from or loaded into. */
+    /**
+     * @brief The catalog, its reservation engine and its indexes, replaced together.
+     *
+     * The exact-title indexes are built with the view. The prefix, typo and keyword indexes cover every title,
+     * so they are built by the first search that needs them.
+     */
+    private static final class View {
+        final CatalogStore catalog; /**<Catalog items. */
+        final ReservationEngine reservations; /**<Reservations of the catalog items. */
+        final Map<MediaType, CatalogIndex> exact = new EnumMap<>(MediaType.class); /**<Exact-title index per media type. */
+        private volatile Suggestions suggestions; /**<Prefix, typo and keyword indexes, or null until first needed. */
+
+        View(ReservationEngine reservations) {
+            this.catalog = reservations.catalog();
+            this.reservations = reservations;
+            for (MediaType type : MediaType.values()) {
+                exact.put(type, new CatalogIndex(catalog, type));
+            }
+        }
+        Suggestions suggestions() {
+            Suggestions built = suggestions;
+            if (built == null) {
+                synchronized (this) {
+                    built = suggestions;
+                    if (built == null) {
+                        built = new Suggestions(catalog);
+                        suggestions = built;
+                    }
+                }
+            }
+            return built;
+        }
+    }
+    /**
+     * @brief The indexes used when an exact search misses.
+     *
+     * Each index holds every title of its media type once, however many copies the catalog has.
+     */
+    private static final class Suggestions {
+        final Map<MediaType, PrefixIndex> prefixes = new EnumMap<>(MediaType.class); /**<Prefix index per media type. */
+        final Map<MediaType, FuzzyIndex> typos = new EnumMap<>(MediaType.class); /**<Typo index per media type. */
+        final KeywordIndex keywords = new KeywordIndex(); /**<Keyword index over every media type. */
+
+        Suggestions(CatalogStore catalog) {
+            for (MediaType type : MediaType.values()) {
+                String[] titles = catalog.distinctTitles(type);
+                prefixes.put(type, new PrefixIndex(titles));
+                typos.put(type, new FuzzyIndex(titles));
+                keywords.addAll(type, titles);
+            }
+        }
+    }
+    /**
+     * @brief Outcome of an exact title search.
+     */
+    public static class SearchResult {
+        private final MediaType type; /**<Media type searched. */
+        private final String query; /**<Title searched for. */
+        private final int item; /**<Available item found, or -1. */
+        private final String title; /**<Title of the item found, or null. */
+        private final List<String> suggestions; /**<Close available titles offered when nothing matched. */
+
+        SearchResult(MediaType type, String query, int item, String title, List<String> suggestions) {
+            this.type = type;
+            this.query = query;
+            this.item = item;
+            this.title = title;
+            this.suggestions = suggestions;
+        }
+        /** @brief Returns the media type searched. @return The media type. */
+        public MediaType getType() {
+            return type;
+        }
+        /** @brief Returns the title searched for. @return The query. */
+        public String getQuery() {
+            return query;
+        }
+        /** @brief Checks whether an available item has exactly the searched title. @return True if one was found. */
+        public boolean isAvailable() {
+            return item >= 0;
+        }
+        /** @brief Returns the available item found. @return The item id, or -1 if none is available. */
+        public int getItem() {
+            return item;
+        }
+        /** @brief Returns the title of the available item found. @return The title, or null if none is available. */
+        public String getTitle() {
+            return title;
+        }
+        /** @brief Returns close available titles when nothing matched exactly. @return The suggestions, possibly empty. */
+        public List<String> getSuggestions() {
+            return suggestions;
+        }
+    }
+    /**
+     * @brief An active reservation of one catalog item.
+     */
+    public static class Reservation {
+        private final int record; /**<Ledger record number. */
+        private final int item; /**<Reserved item id. */
+        private final MediaType type; /**<Media type of the item. */
+        private final String title; /**<Title of the item. */
+        private final String user; /**<User holding the item. */
+
+        Reservation(int record, int item, MediaType type, String title, String user) {
+            this.record = record;
+            this.item = item;
+            this.type = type;
+            this.title = title;
+            this.user = user;
+        }
+        /** @brief Returns the ledger record number. @return The record number. */
+        public int getRecord() {
+            return record;
+        }
+        /** @brief Returns the reserved item id. @return The item id. */
+        public int getItem() {
+            return item;
+        }
+        /** @brief Returns the media type of the item. @return The media type. */
+        public MediaType getType() {
+            return type;
+        }
+        /** @brief Returns the title of the item. @return The title. */
+        public String getTitle() {
+            return title;
+        }
+        /** @brief Returns the user holding the item. @return The user name. */
+        public String getUser() {
+            return user;
+        }
+    }
+    /**
+     * @brief Outcome of a reservation request.
+     */
+    public static class ReservationResult {
+        /** @brief Why a reservation succeeded or failed. */
+        public enum Status {
+            RESERVED, /**<The item is now reserved for the user. */
+            NOT_AVAILABLE /**<No copy of the title is available. */
+        }
+        private final Status status; /**<Outcome of the request. */
+        private final Reservation reservation; /**<The new reservation, or null if none was made. */
+        private final LocalDateTime holdUntil; /**<End of the hold on the new reservation, or null if it does not expire. */
+
+        ReservationResult(Status status, Reservation reservation, LocalDateTime holdUntil) {
+            this.status = status;
+            this.reservation = reservation;
+            this.holdUntil = holdUntil;
+        }
+        /** @brief Returns the outcome of the request. @return The status. */
+        public Status getStatus() {
+            return status;
+        }
+        /** @brief Checks whether the item was reserved. @return True if a reservation was made. */
+        public boolean isReserved() {
+            return status == Status.RESERVED;
+        }
+        /** @brief Returns the new reservation. @return The reservation, or null if none was made. */
+        public Reservation getReservation() {
+            return reservation;
+        }
+        /** @brief Returns when the hold ends. @return The local end time, or null if the reservation does not expire. */
+        public LocalDateTime getHoldUntil() {
+            return holdUntil;
+        }
+    }
+    /**
+     * @brief Outcome of an event registration.
+     */
+    public static class EventRegistration {
+        /** @brief Why a registration succeeded or failed. */
+        public enum Status {
+            REGISTERED, /**<The name holds a seat at the event. */
+            WAITLISTED, /**<The event is full; the name is on its waiting list. */
+            INVALID_USER, /**<The name does not consist of letters. */
+            INVALID_EVENT /**<There is no event with the given number. */
+        }
+        private final Status status; /**<Outcome of the registration. */
+        private final String user; /**<Name registered. */
+        private final int eventNo; /**<Event number registered for. */
+
+        EventRegistration(Status status, String user, int eventNo) {
+            this.status = status;
+            this.user = user;
+            this.eventNo = eventNo;
+        }
+        /** @brief Returns the outcome of the registration. @return The status. */
+        public Status getStatus() {
+            return status;
+        }
+        /** @brief Checks whether the name was registered. @return True if the registration succeeded. */
+        public boolean isRegistered() {
+            return status == Status.REGISTERED;
+        }
+        /** @brief Returns the name registered. @return The user name. */
+        public String getUser() {
+            return user;
+        }
+        /** @brief Returns the event number. @return The event number, counted from 1. */
+        public int getEventNo() {
+            return eventNo;
+        }
+    }
+    /**
+     * @brief Creates a service with the built-in sample catalog.
+     */
+    public LibraryService() {
+        this(Clock.systemDefaultZone());
+    }
+    /**
+     * @brief Creates a service with the built-in sample catalog and a clock for hold times.
+     *
+     * @param clock The clock giving hold start and end times.
+     */
+    public LibraryService(Clock clock) {
+        CatalogStore catalog = new CatalogStore();
+        catalog.addAll(MediaType.BOOK, "Crime and Punishment", "Martin Eden", "Ruh Adam", "Uncle Vanya", "Kinyas ve Kayra");
+        catalog.addAll(MediaType.MOVIE, "Seven", "Into the Wild", "Donnie Darko", "The Prestige", "Batman Begins");
+        catalog.addAll(MediaType.MUSIC, "Castle of Glass", "Mockingbird", "Turn the Page", "Ohne Dich", "Nothing Else Matters");
+        this.users = registerSampleUsers(new UserDirectory());
+        this.view = new View(new ReservationEngine(catalog, users));
+        this.clock = clock;
+    }
+    /**
+     * @brief Creates a service over an existing reservation engine.
+     *
+     * The engine's user directory becomes the service's directory, with the sample patrons registered.
+     *
+     * @param reservations The engine holding the catalog and its reservations.
+     */
+    public LibraryService(ReservationEngine reservations) {
+        this.users = registerSampleUsers(reservations.users());
+        this.view = new View(reservations);
+        this.clock = Clock.systemDefaultZone();
+    }
+    /**
+     * @brief Registers the SAMPLE_USERS patrons in a directory.
+     */
+    private static UserDirectory registerSampleUsers(UserDirectory directory) {
+        for (String user : SAMPLE_USERS) {
+            directory.register(user);
+        }
+        return directory;
+    }
+    /**
+     * @brief Searches for an available item with an exact title.
+     *
+     * When no copy is available, available titles starting with the query are suggested regardless of case,
+     * or else titles within MAX_TYPO_DISTANCE edits of it.
+     *
+     * @param type The media type to search.
+     * @param title The exact title, case-sensitive.
+     * @return The search result.
+     */
+    public SearchResult search(MediaType type, String title) {
+        long start = System.nanoTime();
+        View current = view;
+        CatalogIndex index = current.exact.get(type);
+        int item = index.find(title);
+        SearchResult result;
+        if (item >= 0) {
+            result = new SearchResult(type, title, item, current.catalog.title(item), Collections.<String>emptyList());
+        } else {
+            result = new SearchResult(type, title, -1, null, suggest(current, type, title));
+        }
+        metrics.recordSearch(type, item >= 0, start);
+        return result;
+    }
+    /**
+     * @brief Finds available titles close to a query that had no exact match.
+     */
+    private static List<String> suggest(View current, MediaType type, String query) {
+        List<String> suggestions = new ArrayList<>();
+        if (query.trim().isEmpty()) {
+            return suggestions;
+        }
+        Suggestions indexes = current.suggestions();
+        CatalogIndex available = current.exact.get(type);
+        suggestions.addAll(indexes.prefixes.get(type).complete(query, SUGGESTION_LIMIT, title -> available.find(title) >= 0));
+        if (suggestions.isEmpty()) {
+            for (String title : indexes.typos.get(type).search(query, MAX_TYPO_DISTANCE, SUGGESTION_LIMIT)) {
+                if (available.find(title) >= 0) {
+                    suggestions.add(title);
+                }
+            }
+        }
+        return suggestions;
+    }
+    /**
+     * @brief Completes a partial title to available titles of one media type.
+     *
+     * Titles are matched by prefix regardless of case in the sorted prefix index, and titles with no available
+     * copy are skipped while scanning, so up to limit available titles are returned.
+     *
+     * @param type The media type to search.
+     * @param prefix The partial title.
+     * @param limit The maximum number of titles to return.
+     * @return The available titles starting with the prefix, in alphabetical order.
+     */
+    public List<String> complete(MediaType type, String prefix, int limit) {
+        long start = System.nanoTime();
+        View current = view;
+        CatalogIndex available = current.exact.get(type);
+        List<String> titles = prefix.trim().isEmpty() ? new ArrayList<>()
+                : current.suggestions().prefixes.get(type).complete(prefix, limit, title -> available.find(title) >= 0);
+        metrics.recordLatency(LibraryMetrics.Operation.COMPLETE, start);
+        return titles;
+    }
+    /**
+     * @brief Finds titles of any media type containing the given words, best match first.
+     *
+     * Each title is listed once however many copies it has, and titles with no available copy are skipped, so
+     * every hit can be reserved.
+     *
+     * @param words The words the user remembers, in any order and case.
+     * @return Up to SUGGESTION_LIMIT matching available titles.
+     */
+    public List<KeywordIndex.Hit> keywordSearch(String words) {
+        long start = System.nanoTime();
+        View current = view;
+        List<KeywordIndex.Hit> hits = current.suggestions().keywords.search(words, SUGGESTION_LIMIT,
+                (type, title) -> current.exact.get(type).find(title) >= 0);
+        metrics.recordLatency(LibraryMetrics.Operation.KEYWORD_SEARCH, start);
+        return hits;
+    }
+    /**
+     * @brief Checks whether a user may log in to reserve items.
+     *
+     * The name is looked up in the hash index of the user directory, so the cost does not depend on the number
+     * of patrons.
+     *
+     * @param user The user name, case-sensitive.
+     * @return True if the user is registered.
+     */
+    public boolean isRegistered(String user) {
+        return users.isRegistered(user);
+    }
+    /**
+     * @brief Reserves an available copy of a title for a user.
+     *
+     * Front-ends check isRegistered when a user logs in; the reservation itself accepts any user name.
+     *
+     * @param user The user reserving the item.
+     * @param type The media type of the title.
+     * @param title The exact title, case-sensitive.
+     * @return The reservation result.
+     */
+    public ReservationResult reserve(String user, MediaType type, String title) {
+        long start = System.nanoTime();
+        View current = view;
+        Duration period = holdPeriod;
+        long now = clock.millis();
+        long until = period.isZero() ? 0 : now + period.toMillis();
+        int record = current.reservations.reserve(current.exact.get(type), title, user, until);
+        metrics.recordReservation(type, record >= 0, start);
+        if (record < 0) {
+            return new ReservationResult(ReservationResult.Status.NOT_AVAILABLE, null, null);
+        }
+        if (until == 0) {
+            return new ReservationResult(ReservationResult.Status.RESERVED, reservation(current, record), null);
+        }
+        current.reservations.hold(record, now);
+        return new ReservationResult(ReservationResult.Status.RESERVED, reservation(current, record),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(until), clock.getZone()));
+    }
+    /**
+     * @brief Sets how long new reservations are held.
+     *
+     * Holds already made keep their end time.
+     *
+     * @param period The hold length, or zero for reservations that last until the items are returned.
+     * @throws IllegalArgumentException if the period is negative.
+     */
+    public void setHoldPeriod(Duration period) {
+        if (period.isNegative()) {
+            throw new IllegalArgumentException("Negative hold period: " + period);
+        }
+        holdPeriod = period;
+    }
+    /**
+     * @brief Returns how long new reservations are held.
+     *
+     * @return The hold length, zero if reservations do not expire.
+     */
+    public Duration holdPeriod() {
+        return holdPeriod;
+    }
+    /**
+     * @brief Releases the holds that have run out, making their items available again.
+     *
+     * @return The number of reservations released.
+     */
+    public int expireHolds() {
+        return view.reservations.expireHolds(clock.millis());
+    }
+    /**
+     * @brief Starts a daemon thread that calls expireHolds once per hold tick.
+     */
+    public synchronized void startHoldExpiry() {
+        if (holdExpiry != null) {
+            return;
+        }
+        holdExpiry = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        holdExpiry.scheduleWithFixedDelay(this::expireHolds, ReservationEngine.HOLD_TICK_MILLIS,
+                ReservationEngine.HOLD_TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    /**
+     * @brief Stops the hold expiry thread, if it was started.
+     */
+    public synchronized void stopHoldExpiry() {
+        if (holdExpiry != null) {
+            holdExpiry.shutdownNow();
+            holdExpiry = null;
+        }
+    }
+    /**
+     * @brief Starts a daemon thread that checkpoints the library to a binary file while it runs.
+     *
+     * The thread wakes once per CHECKPOINT_TICK_MILLIS, or per interval if that is shorter, and calls writeBinary
+     * when the reservation log has grown past CHECKPOINT_LOG_BYTES, or when the interval has passed since the
+     * last checkpoint and the log holds records. Without an open log it checkpoints once per interval. Each
+     * checkpoint is a delta unless compaction is due, so it costs little between restarts. A failed checkpoint is
+     * logged and retried on the next tick.
+     *
+     * @param filename The snapshot file, as passed to writeBinary.
+     * @param interval Longest time between checkpoints of a changed library.
+     * @throws IllegalArgumentException if the interval is not positive.
+     */
+    public synchronized void startCheckpoints(String filename, Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + interval);
+        }
+        if (checkpoints != null) {
+            return;
+        }
+        checkpoints = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lastCheckpointNanos = System.nanoTime();
+        long tick = Math.max(1, Math.min(CHECKPOINT_TICK_MILLIS, interval.toMillis()));
+        checkpoints.scheduleWithFixedDelay(() -> checkpointIfDue(filename, interval), tick, tick, TimeUnit.MILLISECONDS);
+    }
+    /**
+     * @brief Stops the checkpoint thread, if it was started.
+     */
+    public synchronized void stopCheckpoints() {
+        if (checkpoints != null) {
+            checkpoints.shutdown();
+            checkpoints = null;
+        }
+    }
+    /**
+     * @brief Calls writeBinary if the log is large or the interval has passed with records in the log.
+     */
+    private synchronized void checkpointIfDue(String filename, Duration interval) {
+        if (checkpoints == null) {
+            return;
+        }
+        ReservationLog log = view.reservations.log();
+        long pending = log == null ? 0 : log.mark();
+        boolean elapsed = System.nanoTime() - lastCheckpointNanos >= interval.toNanos();
+        if (pending < CHECKPOINT_LOG_BYTES && !(elapsed && (log == null || pending > 0))) {
+            return;
+        }
+        try {
+            writeBinary(filename);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Checkpoint to {} failed: {}", filename, e.getMessage());
+        }
+        lastCheckpointNanos = System.nanoTime();
+    }
+    /**
+     * @brief Lists the active reservations of a user.
+     *
+     * @param user The user name.
+     * @return The user's reservations in the order they were made.
+     */
+    public List<Reservation> listReservations(String user) {
+        long start = System.nanoTime();
+        View current = view;
+        int[] records = current.reservations.ledger().activeRecords(users.id(user));
+        List<Reservation> result = new ArrayList<>(records.length);
+        for (int record : records) {
+            result.add(reservation(current, record));
+        }
+        metrics.recordLatency(LibraryMetrics.Operation.VIEW_RESERVATIONS, start);
+        return result;
+    }
+    /**
+     * @brief Describes one ledger record as a reservation.
+     */
+    private static Reservation reservation(View current, int record) {
+        ReservationLedger ledger = current.reservations.ledger();
+        int item = ledger.item(record);
+        return new Reservation(record, item, current.catalog.type(item), current.catalog.title(item),
+                current.reservations.users().name(ledger.user(record)));
+    }
+    /**
+     * @brief Returns every item a user holds.
+     *
+     * @param user The user name.
+     * @return The number of items returned.
+     */
+    public int returnAll(String user) {
+        long start = System.nanoTime();
+        int returned = view.reservations.releaseUser(user);
+        metrics.recordLatency(LibraryMetrics.Operation.RETURN, start);
+        return returned;
+    }
+    /**
+     * @brief Returns the text listing the first page of upcoming events.
+     *
+     * @return The event list.
+     */
+    public String events() {
+        return eventRegistry.listing();
+    }
+    /**
+     * @brief Returns a page of the events that have not ended and start within a number of days.
+     *
+     * @param days The number of days to look ahead.
+     * @param after The last event of the previous page, or null for the first page.
+     * @param limit The largest number of events to return.
+     * @return The events in calendar order.
+     */
+    public List<LibraryEvent> upcomingEvents(int days, LibraryEvent after, int limit) {
+        return eventRegistry.upcoming(days, after, limit);
+    }
+    /**
+     * @brief Returns a page of the events overlapping a time range.
+     *
+     * @param from The start of the range, inclusive.
+     * @param to The end of the range, exclusive.
+     * @param after The last event of the previous page, or null for the first page.
+     * @param limit The largest number of events to return.
+     * @return The events in calendar order.
+     */
+    public List<LibraryEvent> eventsOverlapping(LocalDateTime from, LocalDateTime to, LibraryEvent after, int limit) {
+        return eventRegistry.calendar().overlapping(from, to, after, limit);
+    }
+    /**
+     * @brief Returns the upcoming events and their registrations.
+     *
+     * @return The event registry.
+     */
+    public EventRegistry eventRegistry() {
+        return eventRegistry;
+    }
+    /**
+     * @brief Returns the text describing the library branches and their opening hours.
+     *
+     * @return The library information.
+     */
+    public String libraryInformation() {
+        return branches.listing();
+    }
+    /**
+     * @brief Returns the branch directory.
+     *
+     * @return The branches with their opening-time and location indexes.
+     */
+    public BranchDirectory branches() {
+        return branches;
+    }
+    /**
+     * @brief Replaces the branches with those listed in a text file.
+     *
+     * @param filename The name of the branches file, one name|latitude|longitude|hours line per branch.
+     * @return The number of branches read.
+     * @throws IOException if the file cannot be read or a line is invalid.
+     */
+    public int loadBranches(String filename) throws IOException {
+        BranchDirectory loaded = BranchDirectory.read(Paths.get(filename));
+        branches = loaded;
+        return loaded.size();
+    }
+    /**
+     * @brief Returns the branches open at a time.
+     *
+     * @param time The local time.
+     * @return The open branches.
+     */
+    public List<LibraryBranch> openBranches(LocalDateTime time) {
+        return branches.openAt(time);
+    }
+    /**
+     * @brief Finds the open branch nearest to a point.
+     *
+     * @param latitude The latitude of the point in degrees.
+     * @param longitude The longitude of the point in degrees.
+     * @param time The local time the branch must be open at.
+     * @return The nearest open branch, or null if every branch is closed.
+     */
+    public BranchDirectory.Nearest nearestOpenBranch(double latitude, double longitude, LocalDateTime time) {
+        return branches.nearest(latitude, longitude, time);
+    }
+    /**
+     * @brief Registers a name for an upcoming event.
+     *
+     * When the event is full the name joins its waiting list and gets a seat when one is cancelled.
+     *
+     * @param user The name to register; it must consist of letters and spaces.
+     * @param eventNo The event number, counted from 1.
+     * @return The registration result.
+     */
+    public EventRegistration registerForEvent(String user, int eventNo) {
+        long start = System.nanoTime();
+        EventRegistration registration = register(user, eventNo);
+        metrics.recordLatency(LibraryMetrics.Operation.REGISTER_EVENT, start);
+        return registration;
+    }
+    /**
+     * @brief Validates and records an event registration.
+     */
+    private EventRegistration register(String user, int eventNo) {
+        if (!isValidEventUser(user)) {
+            return new EventRegistration(EventRegistration.Status.INVALID_USER, user, eventNo);
+        }
+        EventRegistry.Seat seat = eventRegistry.register(user, eventNo);
+        if (seat == null) {
+            return new EventRegistration(EventRegistration.Status.INVALID_EVENT, user, eventNo);
+        }
+        EventRegistration.Status status = seat == EventRegistry.Seat.CONFIRMED
+                ? EventRegistration.Status.REGISTERED : EventRegistration.Status.WAITLISTED;
+        return new EventRegistration(status, user, eventNo);
+    }
+    /**
+     * @brief Cancels an event registration; the first waiting name, if any, takes the freed seat.
+     *
+     * @param user The registered name.
+     * @param eventNo The event number, counted from 1.
+     * @return True if the name was registered or waitlisted for the event.
+     */
+    public boolean cancelEventRegistration(String user, int eventNo) {
+        return eventRegistry.cancel(user, eventNo);
+    }
+    /**
+     * @brief Returns the number of names holding a seat at an event.
+     *
+     * @param eventNo The event number, counted from 1.
+     * @return The number of seats taken.
+     */
+    public int eventRegistrations(int eventNo) {
+        return eventRegistry.seatsTaken(eventNo);
+    }
+    /**
+     * @brief Checks if an event number names an upcoming event of this library.
+     *
+     * @param eventNo The event number.
+     * @return True if the event exists.
+     */
+    public boolean hasEvent(int eventNo) {
+        return eventRegistry.event(eventNo) != null;
+    }
+    /**
+     * @brief Checks if an event number names one of the events every library starts with.
+     *
+     * @param eventNo The event number.
+     * @return True if the event is one of the EventRegistry.DEFAULT_EVENT_COUNT default events.
+     */
+    public static boolean isEvent(int eventNo) {
+        return eventNo >= 1 && eventNo <= EventRegistry.DEFAULT_EVENT_COUNT;
+    }
+    /**
+     * @brief Checks if a name may be registered for an event.
+     *
+     * @param user The name.
+     * @return True if the name consists of letters and spaces.
+     */
+    public static boolean isValidEventUser(String user) {
+        return EVENT_USER.matcher(user).matches();
+    }
+    /**
+     * @brief Returns the catalog currently served.
+     *
+     * @return The catalog store.
+     */
+    public CatalogStore catalog() {
+        return view.catalog;
+    }
+    /**
+     * @brief Returns the directory of users and registered patrons.
+     *
+     * @return The user directory shared by every catalog this service loads.
+     */
+    public UserDirectory users() {
+        return users;
+    }
+    /**
+     * @brief Registers the patrons listed in a text file, one name per line.
+     *
+     * @param filename The name of the users file.
+     * @return The number of names read.
+     * @throws IOException if the file cannot be read.
+     */
+    public int loadUsers(String filename) throws IOException {
+        return users.registerAll(Paths.get(filename));
+    }
+    /**
+     * @brief Registers the rows of a bulk registration file for their events.
+     *
+     * @param filename The name of the CSV file of event,name rows.
+     * @param rejectsFilename The name of the file receiving the rejected rows, or null to discard them.
+     * @return The import report.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public EventRegistrationImporter.Report importEventRegistrations(String filename, String rejectsFilename) throws IOException {
+        return new EventRegistrationImporter(eventRegistry)
+                .importFile(Paths.get(filename), rejectsFilename == null ? null : Paths.get(rejectsFilename));
+    }
+    /**
+     * @brief Returns the latency histograms and counters of this service.
+     *
+     * @return The metrics, updated by every search, reservation and checkpoint.
+     */
+    public LibraryMetrics metrics() {
+        return metrics;
+    }
+    /**
+     * @brief Returns the reservation engine of the catalog currently served.
+     *
+     * @return The reservation engine.
+     */
+    public ReservationEngine reservations() {
+        return view.reservations;
+    }
+    /**
+     * @brief Replaces the catalog with the titles of a catalog file.
+     *
+     * The file is streamed by CatalogImporter, so very large catalogs load without reading the whole file into
+     * memory. Rows that cannot be parsed are skipped and counted in the returned report. Existing reservations
+     * are dropped, since they refer to items of the old catalog.
+     *
+     * @param filename The CSV or JSON Lines catalog file.
+     * @return The import report.
+     * @throws IOException if the file cannot be read.
+     */
+    public synchronized CatalogImporter.Report loadCatalog(String filename) throws IOException {
+        CatalogStore loaded = new CatalogStore();
+        CatalogImporter.Report report = new CatalogImporter().importFile(Paths.get(filename), loaded::add);
+        closeLog();
+        view = new View(new ReservationEngine(loaded, users));
+        return report;
+    }
+    /**
+     * @brief Checkpoints the catalog and the active reservations to a binary file.
+     *
+     * When the file already holds a full LibrarySnapshot of the current catalog, only the items reserved or
+     * returned since then are written, as a SnapshotDelta next to it. Once the delta would cover more than a
+     * fixed share of the catalog, a new full snapshot is written instead and the delta is removed. While the
+     * catalog is mapped from the file, the full snapshot goes to LibrarySnapshot.alternate, which loading then
+     * prefers, so a mapped file is never replaced.
+     *
+     * @param filename The name of the file to write the data.
+     * @return The number of bytes written, either the delta or the full snapshot.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized long writeBinary(String filename) throws IOException {
+        long start = System.nanoTime();
+        Path file = Paths.get(filename);
+        ReservationEngine reservations = view.reservations;
+        ReservationLog log = reservations.log();
+        long mark = log == null ? 0 : log.mark();
+        long written;
+        if (file.equals(baseSnapshot) && reservations == baseReservations && Files.exists(LibrarySnapshot.current(file))
+                && !SnapshotDelta.shouldCompact(reservations.changedCount(), reservations.catalog().size())) {
+            written = SnapshotDelta.write(SnapshotDelta.pathFor(file), baseSnapshotId, reservations,
+                    reservations.changedItems());
+        } else {
+            reservations.takeChangedItems();
+            written = LibrarySnapshot.write(file, reservations);
+            baseSnapshot = file;
+            baseSnapshotId = LibrarySnapshot.id(file);
+            baseReservations = reservations;
+            Files.deleteIfExists(SnapshotDelta.pathFor(file));
+        }
+        if (log != null) {
+            log.discardUpTo(mark);
+        }
+        metrics.recordSnapshot(written, start);
+        return written;
+    }
+    /**
+     * @brief Replaces the catalog and reservations with a snapshot and its delta, verifying the checksum.
+     *
+     * The whole file is checked before it is used and the catalog is copied onto the heap; see mapBinary for a
+     * start that does not grow with the catalog.
+     *
+     * Loaded reservations keep the hold end stored in the snapshot; those whose hold ended in the meantime are
+     * released.
+     *
+     * @param filename The name of the snapshot file.
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public synchronized void readBinary(String filename) throws IOException {
+        loadBinary(Paths.get(filename), LibrarySnapshot.read(Paths.get(filename), users));
+    }
+    /**
+     * @brief Maps a snapshot and applies its delta for a fast start.
+     *
+     * Only the header and the reservations are checked and decoded up front; each catalog section is checked
+     * against its own checksum the first time it is read. Exact-title searches run against the mapped file right
+     * away, and the suggestion indexes are built on the first search that needs them.
+     *
+     * @param filename The name of the snapshot file.
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public synchronized void mapBinary(String filename) throws IOException {
+        loadBinary(Paths.get(filename), LibrarySnapshot.map(Paths.get(filename), users));
+    }
+    /**
+     * @brief Applies the delta of a loaded snapshot and makes the snapshot the base for later checkpoints.
+     */
+    private void loadBinary(Path file, ReservationEngine loaded) throws IOException {
+        long id = LibrarySnapshot.id(file);
+        Path delta = SnapshotDelta.pathFor(file);
+        if (Files.exists(delta)) {
+            SnapshotDelta.apply(delta, id, loaded);
+        }
+        closeLog();
+        baseSnapshot = file;
+        baseSnapshotId = id;
+        baseReservations = loaded;
+        loaded.scheduleHolds(0, clock.millis());
+        view = new View(loaded);
+    }
+    /**
+     * @brief Opens the reservation write-ahead log and replays it onto the current reservations.
+     *
+     * Call this after the catalog or snapshot has been loaded. From then on every reservation and return is
+     * forced to the log before it is confirmed, and writeBinary drops the records the checkpoint covers.
+     *
+     * Reservations replayed from the log keep the hold end stored in their record; those whose hold ended in the
+     * meantime are released and the release is logged.
+     *
+     * @param filename The name of the log file, created if missing.
+     * @return The number of records replayed from the log.
+     * @throws IOException if the log cannot be opened or read.
+     */
+    public synchronized int openLog(String filename) throws IOException {
+        closeLog();
+        ReservationEngine reservations = view.reservations;
+        int firstReplayed = reservations.ledger().size();
+        ReservationLog log = ReservationLog.open(Paths.get(filename), reservations);
+        reservations.attachLog(log);
+        reservations.scheduleHolds(firstReplayed, clock.millis());
+        return log.replayed();
+    }
+    /**
+     * @brief Forces and closes the reservation write-ahead log, if one is open.
+     *
+     * @throws IOException if the log cannot be written or closed.
+     */
+    public synchronized void closeLog() throws IOException {
+        ReservationEngine reservations = view.reservations;
+        ReservationLog log = reservations.log();
+        if (log != null) {
+            reservations.attachLog(null);
+            log.close();
+        }
+    }
+}
@@ -0,0 +1,464 @@
+/**
+ * @file LibrarySnapshot.java
+ * @brief Versioned binary snapshot of the catalog and its reservations.
+ * @details This file defines the LibrarySnapshot class, which writes the library state to a compact binary file
+ * and reads it back on startup.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+/**
+ * @brief Reads and writes library snapshots.
+ *
+ * Layout, all integers big-endian:
+ * <pre>
+ * int    MAGIC
+ * int    VERSION
+ * long   generation, one more than the snapshot it replaces
+ * int    title count T, int item count N
+ * int[T + 1] byte offset of each title in the title bytes, the last one being their total length
+ * int[T + 1] position of each title's first item in the grouped item ids, the last one being N
+ * int[N] item ids grouped by title id
+ * int[N] title id of each item
+ * byte[N] media type ordinal of each item
+ * byte[] UTF-8 title bytes
+ * int    user count, then per user: int byte length + UTF-8 bytes
+ * int    reservation count, then per active reservation: int item id + int user index + long hold end
+ * int[8] CRC32 of each section: the header, the six catalog sections in order, and the users and reservations
+ * int    CRC32 of every preceding byte
+ * </pre>
+ * Titles are sorted by their normalized form and then exactly, so a mapped snapshot can be searched in place;
+ * see MappedCatalog. Availability is not stored: an item is reserved exactly when an active reservation names
+ * it. The hold end is in milliseconds since the epoch, 0 for a reservation that does not expire. Snapshots are
+ * written to a temporary file and moved into place, so a crash never leaves a half-written snapshot behind.
+ *
+ * read checks the whole file against the last checksum and copies the catalog onto the heap. map only checks
+ * the header and the reservations, which it decodes, against their section checksums; each catalog section is
+ * checked by MappedCatalog the first time it is read, so mapping costs time and heap in proportion to the
+ * reservations, not to the catalog.
+ *
+ * A mapped file cannot be replaced on every platform, so a snapshot named by a path lives in one of two files:
+ * the path itself or its alternate, see alternate. A snapshot is written to the file its engine is not mapped
+ * from, and loading picks the file with the higher generation. Callers always pass the path itself.
+ */
+public final class LibrarySnapshot {
+    static final int MAGIC = 0x4C53_4E50; /**<"LSNP", marks a library snapshot file. */
+    static final int VERSION = 5; /**<Layout version written by this class. */
+    private static final int HEADER = 24; /**<Bytes before the title offsets. */
+    static final int SECTIONS = 8; /**<Sections with their own checksum: the header, six catalog sections and the reservations. */
+    private static final int TRAILER = 4 * SECTIONS + 4; /**<Bytes of checksums after the reservations. */
+    private static final int BUFFER_SIZE = 1 << 16; /**<Output buffer size in bytes. */
+
+    private LibrarySnapshot() {
+    }
+    /**
+     * @brief Returns the second file a snapshot can be written to.
+     *
+     * @param file The snapshot path.
+     * @return The alternate file next to it.
+     */
+    public static Path alternate(Path file) {
+        return file.resolveSibling(file.getFileName() + ".next");
+    }
+    /**
+     * @brief Returns the file holding the latest snapshot for a path.
+     *
+     * @param file The snapshot path.
+     * @return The path or its alternate, whichever has the higher generation; the path if neither is a snapshot.
+     * @throws IOException if a file exists but cannot be read.
+     */
+    public static Path current(Path file) throws IOException {
+        Path alternate = alternate(file);
+        return generation(alternate) > generation(file) ? alternate : file;
+    }
+    /**
+     * @brief Reads the generation from a snapshot header.
+     *
+     * @return The generation, or -1 if the file is missing or is not a snapshot of this version.
+     */
+    private static long generation(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(16);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                continue;
+            }
+            return !header.hasRemaining() && header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+                    ? header.getLong(8) : -1;
+        }
+    }
+    /**
+     * @brief Writes the catalog and active reservations of an engine to a snapshot file.
+     *
+     * If the engine's catalog is mapped from one of the two files of the path, the other one is written, so the
+     * mapped file is never replaced; otherwise the path itself is written and a stale alternate is removed when
+     * it can be.
+     *
+     * @param file The snapshot path.
+     * @param engine The engine whose state is written.
+     * @return The size of the snapshot in bytes.
+     * @throws IOException if the file cannot be written.
+     */
+    public static long write(Path file, ReservationEngine engine) throws IOException {
+        Path alternate = alternate(file);
+        MappedCatalog source = engine.catalog().mapped();
+        Path target = source != null && isSameFile(source.file(), file) ? alternate : file;
+        long generation = Math.max(generation(file), generation(alternate)) + 1;
+        CatalogStore catalog = engine.catalog();
+        ReservationLedger ledger = engine.ledger();
+        int titleCount = catalog.titleCount();
+        int size = catalog.size();
+        String[] titles = new String[titleCount];
+        String[] keys = new String[titleCount];
+        Integer[] order = new Integer[titleCount];
+        for (int titleId = 0; titleId < titleCount; titleId++) {
+            titles[titleId] = catalog.titleAt(titleId);
+            keys[titleId] = PrefixIndex.normalize(titles[titleId]);
+            order[titleId] = titleId;
+        }
+        Arrays.sort(order, (a, b) -> MappedCatalog.compare(keys[a], titles[a], keys[b], titles[b]));
+        byte[][] bytes = new byte[titleCount][];
+        for (int rank = 0; rank < titleCount; rank++) {
+            bytes[rank] = titles[order[rank]].getBytes(StandardCharsets.UTF_8);
+        }
+        int[] sortedId = new int[titleCount];
+        for (int rank = 0; rank < titleCount; rank++) {
+            sortedId[order[rank]] = rank;
+        }
+        int[] firstItem = new int[titleCount + 1];
+        for (int id = 0; id < size; id++) {
+            firstItem[sortedId[catalog.titleId(id)] + 1]++;
+        }
+        for (int rank = 0; rank < titleCount; rank++) {
+            firstItem[rank + 1] += firstItem[rank];
+        }
+        int[] itemsByTitle = new int[size];
+        int[] next = Arrays.copyOf(firstItem, titleCount);
+        for (int id = 0; id < size; id++) {
+            itemsByTitle[next[sortedId[catalog.titleId(id)]]++] = id;
+        }
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        CRC32 sectionCrc = new CRC32();
+        int[] sections = new int[SECTIONS];
+        int section = 0;
+        try (CheckedOutputStream checked = new CheckedOutputStream(Files.newOutputStream(temporary), crc);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                     new CheckedOutputStream(checked, sectionCrc), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeInt(titleCount);
+            out.writeInt(size);
+            sections[section++] = endSection(out, sectionCrc);
+            int offset = 0;
+            out.writeInt(offset);
+            for (int rank = 0; rank < titleCount; rank++) {
+                offset += bytes[rank].length;
+                out.writeInt(offset);
+            }
+            sections[section++] = endSection(out, sectionCrc);
+            for (int position : firstItem) {
+                out.writeInt(position);
+            }
+            sections[section++] = endSection(out, sectionCrc);
+            for (int id : itemsByTitle) {
+                out.writeInt(id);
+            }
+            sections[section++] = endSection(out, sectionCrc);
+            for (int id = 0; id < size; id++) {
+                out.writeInt(sortedId[catalog.titleId(id)]);
+            }
+            sections[section++] = endSection(out, sectionCrc);
+            for (int id = 0; id < size; id++) {
+                out.writeByte(catalog.typeOrdinal(id));
+            }
+            sections[section++] = endSection(out, sectionCrc);
+            for (byte[] title : bytes) {
+                out.write(title);
+            }
+            sections[section++] = endSection(out, sectionCrc);
+            Reservations active = activeReservations(ledger, size);
+            UserDirectory directory = engine.users();
+            int[] userIndex = new int[directory.size()];
+            Arrays.fill(userIndex, -1);
+            int[] holders = new int[active.count];
+            int userCount = 0;
+            for (int i = 0; i < active.count; i++) {
+                int user = active.users[i];
+                if (userIndex[user] < 0) {
+                    userIndex[user] = userCount;
+                    holders[userCount++] = user;
+                }
+            }
+            out.writeInt(userCount);
+            for (int i = 0; i < userCount; i++) {
+                writeString(out, directory.name(holders[i]));
+            }
+            out.writeInt(active.count);
+            for (int i = 0; i < active.count; i++) {
+                out.writeInt(active.items[i]);
+                out.writeInt(userIndex[active.users[i]]);
+                out.writeLong(active.holdUntil[i]);
+            }
+            sections[section] = endSection(out, sectionCrc);
+            for (int value : sections) {
+                out.writeInt(value);
+            }
+            out.flush();
+            out.writeInt((int) crc.getValue());
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (target.equals(file) && (source == null || !isSameFile(source.file(), alternate))) {
+            try {
+                Files.deleteIfExists(alternate);
+            } catch (IOException e) {
+                // still mapped by an engine that is no longer used; its lower generation keeps it from loading
+            }
+        }
+        return Files.size(target);
+    }
+    /**
+     * @brief Flushes the bytes of a section through its checksum and starts the next section.
+     *
+     * @return The checksum of the section just written.
+     */
+    private static int endSection(DataOutputStream out, CRC32 sectionCrc) throws IOException {
+        out.flush();
+        int value = (int) sectionCrc.getValue();
+        sectionCrc.reset();
+        return value;
+    }
+    /**
+     * @brief Computes the CRC32 of a range of a buffer without moving its position.
+     *
+     * @param buffer The buffer to read.
+     * @param from The first position of the range.
+     * @param to The position just after the range.
+     * @return The checksum of the range.
+     */
+    static int checksum(ByteBuffer buffer, int from, int to) {
+        ByteBuffer range = buffer.duplicate();
+        range.limit(to).position(from);
+        CRC32 crc = new CRC32();
+        crc.update(range);
+        return (int) crc.getValue();
+    }
+    /**
+     * @brief Compares two paths by the file they name, false if either is missing.
+     */
+    private static boolean isSameFile(Path a, Path b) throws IOException {
+        return Files.exists(a) && Files.exists(b) && Files.isSameFile(a, b);
+    }
+    /**
+     * @brief Active reservations copied out of the ledger, in record order.
+     */
+    private static final class Reservations {
+        int[] items = new int[16]; /**<Reserved item ids. */
+        int[] users = new int[16]; /**<User id holding each item. */
+        long[] holdUntil = new long[16]; /**<End of each hold, or 0 if the reservation does not expire. */
+        int count; /**<Number of reservations copied. */
+
+        void add(int item, int user, long until) {
+            if (count == items.length) {
+                items = Arrays.copyOf(items, count * 2);
+                users = Arrays.copyOf(users, count * 2);
+                holdUntil = Arrays.copyOf(holdUntil, count * 2);
+            }
+            items[count] = item;
+            users[count] = user;
+            holdUntil[count++] = until;
+        }
+    }
+    /**
+     * @brief Copies the active reservations out of the ledger in one pass.
+     *
+     * Other threads may reserve and release while the ledger is read, so everything written afterwards is taken
+     * from this one copy: the count and the user table always match the pairs written. An item released and
+     * reserved again during the pass can show up in two records; only its first one is kept.
+     *
+     * @param ledger The ledger to read.
+     * @param items The number of catalog items.
+     * @return The active reservations.
+     */
+    private static Reservations activeReservations(ReservationLedger ledger, int items) {
+        Reservations active = new Reservations();
+        BitSet seen = new BitSet(items);
+        int records = ledger.size();
+        for (int record = 0; record < records; record++) {
+            if (ledger.isActive(record)) {
+                int item = ledger.item(record);
+                int user = ledger.user(record);
+                if (!seen.get(item)) {
+                    seen.set(item);
+                    active.add(item, user, ledger.holdUntil(record));
+                }
+            }
+        }
+        return active;
+    }
+    /**
+     * @brief Reads a snapshot file into a new engine after verifying its checksum.
+     *
+     * Every byte is checked before anything is decoded, and the catalog is copied onto the heap, so the engine
+     * does not depend on the file afterwards.
+     *
+     * @param file The snapshot file to read.
+     * @return A reservation engine holding the restored catalog and reservations.
+     * @throws IOException if the file cannot be read, is not a snapshot, has an unknown version or is corrupt.
+     */
+    public static ReservationEngine read(Path file) throws IOException {
+        return read(file, new UserDirectory());
+    }
+    /**
+     * @brief Reads a snapshot file into a new engine whose users get ids from a shared directory.
+     *
+     * @param file The snapshot file to read.
+     * @param users The directory giving the restored users their ids.
+     * @return A reservation engine holding the restored catalog and reservations.
+     * @throws IOException if the file cannot be read, is not a snapshot, has an unknown version or is corrupt.
+     */
+    public static ReservationEngine read(Path file, UserDirectory users) throws IOException {
+        return load(current(file), users, true);
+    }
+    /**
+     * @brief Maps a snapshot file into a new engine without reading the catalog.
+     *
+     * Only the header and the active reservations are checked and decoded, so neither the time taken nor the heap
+     * used grows with the number of titles; each title is decoded when it is first looked at. A catalog section
+     * is checked against its own checksum the first time it is read, so a damaged section fails that read with
+     * an UncheckedIOException instead of showing up as wrong titles.
+     *
+     * @param file The snapshot file to map.
+     * @return A reservation engine holding the mapped catalog and the restored reservations.
+     * @throws IOException if the file cannot be read, is not a snapshot, has an unknown version or is corrupt.
+     */
+    public static ReservationEngine map(Path file) throws IOException {
+        return map(file, new UserDirectory());
+    }
+    /**
+     * @brief Maps a snapshot file into a new engine whose users get ids from a shared directory.
+     *
+     * @param file The snapshot file to map.
+     * @param users The directory giving the restored users their ids.
+     * @return A reservation engine holding the mapped catalog and the restored reservations.
+     * @throws IOException if the file cannot be read, is not a snapshot, has an unknown version or is corrupt.
+     */
+    public static ReservationEngine map(Path file, UserDirectory users) throws IOException {
+        return load(current(file), users, false);
+    }
+    /**
+     * @brief Returns an id that identifies the contents of a snapshot file.
+     *
+     * The id combines the file's length and stored checksum, so it is read from the last four bytes without
+     * scanning the file. Delta checkpoints record it to make sure they are applied to the right base.
+     *
+     * @param file The snapshot path; the id is that of its current file.
+     * @return The snapshot id.
+     * @throws IOException if the file cannot be read or is too short to be a snapshot.
+     */
+    public static long id(Path file) throws IOException {
+        file = current(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER + 4) {
+                throw new IOException("Not a library snapshot: " + file);
+            }
+            ByteBuffer checksum = ByteBuffer.allocate(4);
+            while (checksum.hasRemaining() && channel.read(checksum, length - 4 + checksum.position()) >= 0) {
+                continue;
+            }
+            return (length << 32) | (checksum.getInt(0) & 0xFFFF_FFFFL);
+        }
+    }
+    /**
+     * @brief Maps a snapshot and restores its reservations.
+     *
+     * @param verifyAll True to check the whole file and copy the catalog onto the heap, false to check only the
+     * header and the reservations and leave the catalog sections to be checked when first read.
+     */
+    private static ReservationEngine load(Path file, UserDirectory users, boolean verifyAll) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER + TRAILER || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a library snapshot: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a library snapshot: " + file);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported snapshot version " + buffer.getInt(4) + ": " + file);
+            }
+            int tailEnd = (int) length - TRAILER;
+            int[] sections = new int[SECTIONS];
+            for (int section = 0; section < SECTIONS; section++) {
+                sections[section] = buffer.getInt(tailEnd + 4 * section);
+            }
+            if (verifyAll ? checksum(buffer, 0, (int) length - 4) != buffer.getInt((int) length - 4)
+                    : checksum(buffer, 0, HEADER) != sections[0]) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+            buffer.limit(tailEnd);
+            try {
+                MappedCatalog catalog = new MappedCatalog(buffer, file, HEADER, buffer.getInt(16), buffer.getInt(20),
+                        verifyAll ? null : Arrays.copyOfRange(sections, 1, SECTIONS - 1));
+                if (!verifyAll && checksum(buffer, catalog.end(), tailEnd) != sections[SECTIONS - 1]) {
+                    throw new IOException("Snapshot checksum mismatch: " + file);
+                }
+                CatalogStore store = new CatalogStore(catalog);
+                if (verifyAll) {
+                    store.copyMappedColumns();
+                }
+                ReservationEngine engine = new ReservationEngine(store, users);
+                buffer.position(catalog.end());
+                int[] holders = new int[buffer.getInt()];
+                for (int i = 0; i < holders.length; i++) {
+                    holders[i] = users.intern(readString(buffer));
+                }
+                int reservations = buffer.getInt();
+                for (int i = 0; i < reservations; i++) {
+                    engine.reserve(buffer.getInt(), holders[buffer.getInt()], buffer.getLong());
+                }
+                engine.takeChangedItems();
+                return engine;
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt library snapshot: " + file, e);
+            }
+        }
+    }
+    /**
+     * @brief Writes a length-prefixed UTF-8 string.
+     */
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    /**
+     * @brief Reads a length-prefixed UTF-8 string.
+     */
+    static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
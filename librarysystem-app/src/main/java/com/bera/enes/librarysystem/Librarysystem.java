@@ -10,12 +10,12 @@
  * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
  */
 package com.bera.enes.librarysystem;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectOutputStream;
 import java.io.PrintStream;
+import java.util.List;
 import java.util.Scanner;
+import java.util.regex.Pattern;
 /**
  * @brief Librarysystem class to manage a library system.
  *
@@ -23,44 +23,77 @@ import java.util.Scanner;
  * library information, and user interaction through the main menu.
  */
 public class Librarysystem {
+    static final int ADMIN_CHOICE = 9; /**<Main menu choice, not listed, showing the metrics to administrators. */
+    private static final Pattern EVENT_NUMBER = Pattern.compile("[1-9][0-9]{0,8}"); /**<Event numbers as typed by users. */
 	private Scanner scanner; /**<Scanner for user input in the Library System. */
-    private PrintStream out; /**<PrintStream for output in the Library System. */
+    private InputStream input; /**<User input, flushing the pending screen before every read. */
+    private ScreenRenderer screen; /**<Renderer composing each screen before it is written to the output. */
     /**
      * @brief Constructor for the Librarysystem class.
      *
      * This constructor initializes a Librarysystem object with the specified input stream for user input
-     * and output stream for printing messages.
+     * and output stream for printing messages. Screens are cleared with escape sequences when a console is
+     * attached, or as set by the librarysystem.screen system property.
      *
      * @param in The input stream for user input.
      * @param out The output stream for printing messages.
      */
     public Librarysystem(InputStream in, PrintStream out) {
-        this.scanner = new Scanner(in);
-        this.out = out;
+        this(in, out, ScreenRenderer.Mode.detect());
+    }
+    /**
+     * @brief Constructor for the Librarysystem class with a given screen mode.
+     *
+     * @param in The input stream for user input.
+     * @param out The output stream for printing messages.
+     * @param mode How screens are written; SUPPRESSED runs the menus without any output.
+     */
+    public Librarysystem(InputStream in, PrintStream out, ScreenRenderer.Mode mode) {
+        this(in, out, mode, new LibraryService());
+    }
+    /**
+     * @brief Constructor for one session of a library shared with other sessions.
+     *
+     * Each session keeps its own input, output and logged-in user, while the catalog, reservations and events
+     * live in the shared service.
+     *
+     * @param in The input stream for user input.
+     * @param out The output stream for printing messages.
+     * @param mode How screens are written.
+     * @param service The library service shared by all sessions.
+     */
+    public Librarysystem(InputStream in, PrintStream out, ScreenRenderer.Mode mode, LibraryService service) {
+        this.screen = new ScreenRenderer(out, mode);
+        this.input = screen.flushingBeforeRead(in);
+        this.scanner = new Scanner(input);
+        this.service = service;
     }
     
-    String[] reservedItems = new String[15];
-	int reservedItemCount = 0;
-    
-    String[] books = {"Crime and Punishment", "Martin Eden", "Ruh Adam", "Uncle Vanya", "Kinyas ve Kayra"};
-    String[] movies = {"Seven", "Into the Wild", "Donnie Darko", "The Prestige", "Batman Begins"};
-    String[] musics = {"Castle of Glass", "Mockingbird", "Turn the Page", "Ohne Dich", "Nothing Else Matters"};
-    
-    String[] originalBooks = {"Crime and Punishment", "Martin Eden", "Ruh Adam", "Uncle Vanya", "Kinyas ve Kayra"};
-    String[] originalMovies = {"Seven", "Into the Wild", "Donnie Darko", "The Prestige", "Batman Begins"};
-    String[] originalMusics = {"Castle of Glass", "Mockingbird", "Turn the Page", "Ohne Dich", "Nothing Else Matters"};
-    
-    String[] registered_user_name = {"Ahmet Bera Celik","Enes Koy","Ugur Coruh","Yakup Eroglu","Hasan Basri Taskin"};
+    private final LibraryService service;
     
     String active_user = "Example User";
-    final String events = "Upcoming Library Events\n" +
-    		"1 - Reading incentive program for children (Two days later, 5 p.m)\n" +
-    		"2 - Book chat with the author (Five days later, 10 a.m)\n";
-    
-    final String lib_infos = "Library Location and Hours Informations\n" +
-    		"Public Library (In city center) --> Available for Monday to Saturday. Weekdays --> 8.00 to 22.00\n" +
-    		"Private Library (Next to the public cultural center )--> Avaliable for 7/24 hours\n" +
-            "Public Library (Inside main campus) --> Available for Monday to Saturday. Weekdays --> 8.00 to 22.00\n";
+    /**
+     * @brief Returns the headless service behind the menus.
+     *
+     * @return The library service.
+     */
+    public LibraryService service() {
+        return service;
+    }
+    /**
+     * @brief Replaces the catalog with the titles of a catalog file.
+     *
+     * The file is streamed row by row through CatalogImporter straight into a new CatalogStore, so only the
+     * parsed titles are kept in memory.
+     * Existing reservations are dropped and every title of the new catalog starts out available.
+     *
+     * @param filename The CSV or JSON Lines catalog file.
+     * @return The import report with accepted and rejected row counts and throughput.
+     * @throws IOException if the file cannot be read.
+     */
+    public CatalogImporter.Report loadCatalog(String filename) throws IOException {
+        return service.loadCatalog(filename);
+    }
     /**
      * @brief Waits for the user to press Enter.
      *
@@ -68,25 +101,21 @@ public class Librarysystem {
      * @throws IOException If an I/O error occurs.
      */
     private void take_enter_input() throws IOException {
-        System.in.read();
+        screen.flush();
+        input.read();
     }
     /**
      * @brief Clears the console screen.
      *
-     * This method detects the operating system to determine the appropriate command for clearing the console screen.
-     * On Windows, it uses the "cmd /c cls" command, while on other operating systems, it uses ANSI escape codes to clear the screen.
+     * This method starts a new screen in the ScreenRenderer. The screen is cleared with ANSI escape codes
+     * written together with the rest of the screen, without starting a process, and is not cleared at all when
+     * the output is redirected or suppressed.
      *
-     * @throws InterruptedException If the thread is interrupted while waiting for the process to complete.
-     * @throws IOException If an I/O error occurs during the execution of the process.
+     * @throws InterruptedException If the thread is interrupted.
+     * @throws IOException If an I/O error occurs.
      */
-    public void clearScreen() throws InterruptedException, IOException {  
-        String operatingSystem = System.getProperty("os.name");
-        if (operatingSystem.contains("Windows")) {
-            new ProcessBuilder("cmd", "/c", "cls").inheritIO().start().waitFor();
-        } else {
-            out.print("\033[H\033[2J");
-            out.flush();
-        }
+    public void clearScreen() throws InterruptedException, IOException {
+        screen.clear();
    }
     /**
      * @brief Displays the main menu and handles user choices.
@@ -103,14 +132,14 @@ public class Librarysystem {
         boolean isRunning = true;
         while (isRunning) {
             clearScreen();
-            out.print("1. Catalog Search\n");
-            out.print("2. Reservation And Renewal\n");
-            out.print("3. Event And Workshop Schedule\n");
-            out.print("4. Library Information\n");
-            out.print("5. Exit\n");
-            out.print("Enter your choice (1-5):");
+            screen.print("1. Catalog Search\n");
+            screen.print("2. Reservation And Renewal\n");
+            screen.print("3. Event And Workshop Schedule\n");
+            screen.print("4. Library Information\n");
+            screen.print("5. Exit\n");
+            screen.print("Enter your choice (1-5):");
             if (!scanner.hasNextInt()) {
-                out.print("Invalid choice. Please enter a number.\n");
+                screen.print("Invalid choice. Please enter a number.\n");
                 take_enter_input();
                 scanner.next();
                 continue;
@@ -133,19 +162,36 @@ public class Librarysystem {
                 case 5:
                     isRunning = false;
                     break;
+                case ADMIN_CHOICE:
+                    adminMetrics();
+                    break;
                 default:
-                    out.print("Invalid choice. Please try again.\n");
+                    screen.print("Invalid choice. Please try again.\n");
                     take_enter_input();
                     break;
             }
         }
+        screen.flush();
         return true;
+    }
+    /**
+     * @brief Displays the operation latencies and counters.
+     *
+     * Reached through the unlisted ADMIN_CHOICE of the main menu.
+     *
+     * @throws IOException if an I/O error occurs.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    public void adminMetrics() throws IOException, InterruptedException {
+        clearScreen();
+        screen.print(service.metrics().dump());
+        take_enter_input();
     }
 	/**
 	 * @brief Manages catalog search functionality.
 	 *
 	 * This method allows the user to perform searches within the catalog, providing options to search for books,
-	 * movies, and music. It displays a sub-menu for the user to make choices and calls corresponding search methods.
+	 * movies, and music, or for any title by keyword. It displays a sub-menu for the user to make choices and calls corresponding search methods.
 	 *
 	 * @return True if the program should continue running, false if the user chooses to exit.
 	 * @throws IOException If an I/O error occurs during user input.
@@ -155,14 +201,15 @@ public class Librarysystem {
         boolean isRunning = true;
         while (isRunning) {
             clearScreen();
-            out.print("1. Search Books\n");
-            out.print("2. Search Movies\n");
-            out.print("3. Search Music\n");
-            out.print("4. Exit\n");
-            out.print("Enter your choice (1-4):");
+            screen.print("1. Search Books\n");
+            screen.print("2. Search Movies\n");
+            screen.print("3. Search Music\n");
+            screen.print("4. Keyword Search\n");
+            screen.print("5. Exit\n");
+            screen.print("Enter your choice (1-5):");
 
             if (!scanner.hasNextInt()) {
-                out.print("Invalid choice. Please enter a number.\n");
+                screen.print("Invalid choice. Please enter a number.\n");
                 take_enter_input();
                 scanner.next();
                 continue;
@@ -180,14 +227,18 @@ public class Librarysystem {
                     searchMusic();
                     break;
                 case 4:
+                    keywordSearch();
+                    break;
+                case 5:
                     isRunning = false;
                     break;
                 default:
-                    out.print("Invalid choice. Please try again.\n");
+                    screen.print("Invalid choice. Please try again.\n");
                     take_enter_input();
                     break;
             }
         }
+        screen.flush();
         return true;
     }
 	/**
@@ -195,7 +246,8 @@ public class Librarysystem {
 	 *
 	 * This method prompts the user to enter the name of the book they want to search for,
 	 * taking into account upper and lower case letters. It then searches for the book in the catalog
-	 * and provides the corresponding availability status.
+	 * and provides the corresponding availability status. When there is no exact match, available titles
+	 * starting with the query are suggested regardless of case, or else titles within a few typos of it.
 	 *
 	 * @return True if the book is found and available, false otherwise.
 	 * @throws IOException If an I/O error occurs during user input.
@@ -203,19 +255,19 @@ public class Librarysystem {
 	 */
 	public boolean searchBooks() throws IOException, InterruptedException{
 		clearScreen();
-		out.print("Please write book name you want to search, please pay attention to upper and lower case letters.\n");
-	    out.print("(A correct example: Crime and Punishment):\n");
+		screen.print("Please write book name you want to search, please pay attention to upper and lower case letters.\n");
+	    screen.print("(A correct example: Crime and Punishment):\n");
 	    scanner.nextLine();
 	    String book_query = scanner.nextLine();
 
-	    for (int i = 0; i < books.length; i++) {
-            if (books[i].equals(book_query)) {
-                out.print("The book " + books[i] + " is available.\n");
-                take_enter_input();
-                return true;
-            }
-        }
-	    out.print("Sorry... The book you are looking for is not available.\n");
+	    LibraryService.SearchResult result = service.search(MediaType.BOOK, book_query);
+	    if (result.isAvailable()) {
+	        screen.print("The book " + result.getTitle() + " is available.\n");
+	        take_enter_input();
+	        return true;
+	    }
+	    screen.print("Sorry... The book you are looking for is not available.\n");
+	    printSuggestions(result.getSuggestions());
 	    take_enter_input();
         return false;
 	    }
@@ -224,7 +276,8 @@ public class Librarysystem {
 	 *
 	 * This method prompts the user to enter the name of the movie they want to search for,
 	 * taking into account upper and lower case letters. It then searches for the movie in the catalog
-	 * and provides the corresponding availability status.
+	 * and provides the corresponding availability status. When there is no exact match, available titles
+	 * starting with the query are suggested regardless of case, or else titles within a few typos of it.
 	 *
 	 * @return True if the movie is found and available, false otherwise.
 	 * @throws IOException If an I/O error occurs during user input.
@@ -232,19 +285,19 @@ public class Librarysystem {
 	 */
 	public boolean searchMovies() throws IOException, InterruptedException{
 		clearScreen();
-		out.print("Please write movie name you want to search, please pay attention to upper and lower case letters.\n");
-	    out.print("(A correct example: Into the Wild):\n");
+		screen.print("Please write movie name you want to search, please pay attention to upper and lower case letters.\n");
+	    screen.print("(A correct example: Into the Wild):\n");
 	    scanner.nextLine();
 	    String movie_query = scanner.nextLine();
 
-	    for (int i = 0; i < movies.length; i++) {
-            if (movies[i].equals(movie_query)) {
-                out.print("The movie " + movies[i] + " is available.\n");
-                take_enter_input();
-                return true;
-            }
-        }
-	    out.print("Sorry... The movie you are looking for is not available.\n");
+	    LibraryService.SearchResult result = service.search(MediaType.MOVIE, movie_query);
+	    if (result.isAvailable()) {
+	        screen.print("The movie " + result.getTitle() + " is available.\n");
+	        take_enter_input();
+	        return true;
+	    }
+	    screen.print("Sorry... The movie you are looking for is not available.\n");
+	    printSuggestions(result.getSuggestions());
 	    take_enter_input();
         return false;
 	    }
@@ -253,7 +306,8 @@ public class Librarysystem {
 	 *
 	 * This method prompts the user to enter the name of the music they want to search for,
 	 * taking into account upper and lower case letters. It then searches for the music in the catalog
-	 * and provides the corresponding availability status.
+	 * and provides the corresponding availability status. When there is no exact match, available titles
+	 * starting with the query are suggested regardless of case, or else titles within a few typos of it.
 	 *
 	 * @return True if the music is found and available, false otherwise.
 	 * @throws IOException If an I/O error occurs during user input.
@@ -261,23 +315,66 @@ public class Librarysystem {
 	 */
 	public boolean searchMusic() throws IOException, InterruptedException{
 		clearScreen();
-		out.print("Please write music name you want to search, please pay attention to upper and lower case letters.\n");
-	    out.print("(A correct example: Castle of Glass):\n");
+		screen.print("Please write music name you want to search, please pay attention to upper and lower case letters.\n");
+	    screen.print("(A correct example: Castle of Glass):\n");
 	    scanner.nextLine();
 	    String music_query = scanner.nextLine();
 
-	    for (int i = 0; i < musics.length; i++) {
-            if (musics[i].equals(music_query)) {
-                out.print("The music " + musics[i] + " is available.\n");
-                take_enter_input();
-                return true;
-            }
-        }
-	    out.print("Sorry... The music you are looking for is not available.\n");
+	    LibraryService.SearchResult result = service.search(MediaType.MUSIC, music_query);
+	    if (result.isAvailable()) {
+	        screen.print("The music " + result.getTitle() + " is available.\n");
+	        take_enter_input();
+	        return true;
+	    }
+	    screen.print("Sorry... The music you are looking for is not available.\n");
+	    printSuggestions(result.getSuggestions());
 	    take_enter_input();
         return false;
 	    }
-		/**
+	/**
+	 * @brief Searches all catalogs for titles containing the words the user remembers.
+	 *
+	 * This method prompts the user for one or more words and lists the books, movies and music whose titles
+	 * contain them, best match first. Words are matched regardless of case and order.
+	 *
+	 * @return True if at least one title matches, false otherwise.
+	 * @throws IOException If an I/O error occurs during user input.
+	 * @throws InterruptedException If the thread is interrupted.
+	 */
+	public boolean keywordSearch() throws IOException, InterruptedException{
+		clearScreen();
+		screen.print("Please write the words you remember from the title.\n");
+	    screen.print("(A correct example: Punishment):\n");
+	    scanner.nextLine();
+	    String keyword_query = scanner.nextLine();
+
+	    List<KeywordIndex.Hit> hits = service.keywordSearch(keyword_query);
+	    if (hits.isEmpty()) {
+	        screen.print("Sorry... No title contains the words you are looking for.\n");
+	        take_enter_input();
+	        return false;
+	    }
+	    for (KeywordIndex.Hit hit : hits) {
+	        screen.print("The " + hit.getType().label() + " " + hit.getTitle() + " matches your words.\n");
+	    }
+	    take_enter_input();
+	    return true;
+	    }
+	/**
+	 * @brief Prints available titles that are close to the user's query.
+	 *
+	 * This method is called after an exact search misses, so a query typed with the wrong letter case,
+	 * only partly typed or containing a typo still leads the user to the title. The suggestions come from
+	 * LibraryService.search, which prefers titles starting with the query over typo corrections.
+	 *
+	 * @param suggestions The suggested titles, possibly empty.
+	 */
+	void printSuggestions(List<String> suggestions) {
+	    if (!suggestions.isEmpty()) {
+	        screen.print("Did you mean: " + String.join(", ", suggestions) + "?\n");
+	    }
+	}
+	/**
 	 * @brief Manages the reservation and renewal operations in the library system.
 	 *
 	 * This method presents a menu to the user, allowing them to perform various reservation and renewal operations,
@@ -291,14 +388,14 @@ public class Librarysystem {
 	    boolean isRunning = true;
 	    while (isRunning) {
 	        clearScreen();
-	        out.print("1. Reserve Items\n");
-	        out.print("2. Restore Items\n");
-	        out.print("3. View Reservation\n");
-	        out.print("4. Exit\n");
-	        out.print("Enter your choice (1-4):");
+	        screen.print("1. Reserve Items\n");
+	        screen.print("2. Restore Items\n");
+	        screen.print("3. View Reservation\n");
+	        screen.print("4. Exit\n");
+	        screen.print("Enter your choice (1-4):");
 
 	        if (!scanner.hasNextInt()) {
-	            out.print("Invalid choice. Please enter a number.\n");
+	            screen.print("Invalid choice. Please enter a number.\n");
 	            take_enter_input();
 	            scanner.next();
 	            continue;
@@ -319,11 +416,12 @@ public class Librarysystem {
 	                isRunning = false;
 	                break;
 	            default:
-	                out.print("Invalid choice. Please try again.\n");
+	                screen.print("Invalid choice. Please try again.\n");
 	                take_enter_input();
 	                break;
 	        }
 	    }
+	    screen.flush();
 	    return true;
 	}
 	/**
@@ -338,19 +436,17 @@ public class Librarysystem {
 	 */
 	boolean reservationScreenLogin() throws IOException, InterruptedException{
 	    clearScreen();
-	    out.print("Please register with your user name.\n");
-	    out.print("Write your user name:\n");
+	    screen.print("Please register with your user name.\n");
+	    screen.print("Write your user name:\n");
 	    scanner.nextLine(); 
 	    String temporary_username = scanner.nextLine();
-	    for (String registeredUserName : registered_user_name) {
-	        if (registeredUserName.equals(temporary_username)) {
-	            out.print("Welcome " + registeredUserName + "\n");
-	            active_user = registeredUserName;
-	            take_enter_input();
-	            return true;
-	        }
+	    if (service.isRegistered(temporary_username)) {
+	        screen.print("Welcome " + temporary_username + "\n");
+	        active_user = temporary_username;
+	        take_enter_input();
+	        return true;
 	    }
-	    out.print("The username you entered is not registered. Please check your entry.\n");
+	    screen.print("The username you entered is not registered. Please check your entry.\n");
 	    take_enter_input();
 	    return false;
 	}
@@ -368,14 +464,14 @@ public class Librarysystem {
 	    boolean isRunning = true;
 	    while (isRunning) {
 	        clearScreen();
-	        out.print("1. Reserve Books\n");
-	        out.print("2. Reserve Movies\n");
-	        out.print("3. Reserve Music\n");
-	        out.print("4. Exit\n");
-	        out.print("Enter your choice (1-4):");
+	        screen.print("1. Reserve Books\n");
+	        screen.print("2. Reserve Movies\n");
+	        screen.print("3. Reserve Music\n");
+	        screen.print("4. Exit\n");
+	        screen.print("Enter your choice (1-4):");
 
 	        if (!scanner.hasNextInt()) {
-	            out.print("Invalid choice. Please enter a number.\n");
+	            screen.print("Invalid choice. Please enter a number.\n");
 	            take_enter_input();
 	            scanner.next();
 	            continue;
@@ -396,11 +492,12 @@ public class Librarysystem {
 	                isRunning = false;
 	                break;
 	            default:
-	                out.print("Invalid choice. Please try again.\n");
+	                screen.print("Invalid choice. Please try again.\n");
 	                take_enter_input();
 	                break;
 	        }
 	    }
+	    screen.flush();
 	    return true;
 	}
 	/**
@@ -416,21 +513,19 @@ public class Librarysystem {
 	 */
 	public boolean reserveBook() throws IOException, InterruptedException{
 		clearScreen();
-        out.print("Please write book name you want to reserve, please pay attention to upper and lower case letters.\n");
-        out.print("(A correct example: Crime and Punishment):\n");
+        screen.print("Please write book name you want to reserve, please pay attention to upper and lower case letters.\n");
+        screen.print("(A correct example: Crime and Punishment):\n");
         scanner.nextLine();
         String bookQuery = scanner.nextLine();
-        for (int i = 0; i < books.length; i++) {
-            if (books[i].equals(bookQuery)) {
-                reservedItems[reservedItemCount++] = books[i] + " is reserved by " + active_user;
-                out.print("The book " + books[i] + " is available.\n");
-                out.print(books[i] + " is reserved by " + active_user + "\n");
-                books[i] = "";
-                take_enter_input();
-                return true;
-            }
+        LibraryService.ReservationResult result = service.reserve(active_user, MediaType.BOOK, bookQuery);
+        if (result.isReserved()) {
+            String title = result.getReservation().getTitle();
+            screen.print("The book " + title + " is available.\n");
+            screen.print(title + " is reserved by " + active_user + "\n");
+            take_enter_input();
+            return true;
         }
-        out.print("Sorry, the book is not available.\n");
+        screen.print("Sorry, the book is not available.\n");
         take_enter_input();
         return false;
     }
@@ -447,21 +542,19 @@ public class Librarysystem {
 	 */
 	public boolean reserveMovie() throws IOException, InterruptedException{
 		clearScreen();
-	    out.print("Please write movie name you want to reserve, please pay attention to upper and lower case letters.\n");
-	    out.print("(A correct example: Into the Wild):\n");
+	    screen.print("Please write movie name you want to reserve, please pay attention to upper and lower case letters.\n");
+	    screen.print("(A correct example: Into the Wild):\n");
 	    scanner.nextLine();
 	    String movieQuery = scanner.nextLine();
-	    for (int i = 0; i < movies.length; i++) {
-            if (movies[i].equals(movieQuery)) {
-                reservedItems[reservedItemCount++] = movies[i] + " is reserved by " + active_user;
-                out.print("The movie " + movies[i] + " is available.\n");
-                out.print(movies[i] + " is reserved by " + active_user + "\n");
-                movies[i] = "";
-                take_enter_input();
-                return true;
-            }
-        }
-	    out.print("Sorry, the movie is not available.\n");
+	    LibraryService.ReservationResult result = service.reserve(active_user, MediaType.MOVIE, movieQuery);
+	    if (result.isReserved()) {
+	        String title = result.getReservation().getTitle();
+	        screen.print("The movie " + title + " is available.\n");
+	        screen.print(title + " is reserved by " + active_user + "\n");
+	        take_enter_input();
+	        return true;
+	    }
+	    screen.print("Sorry, the movie is not available.\n");
 	    take_enter_input();
 	    return false;
 	}
@@ -478,30 +571,28 @@ public class Librarysystem {
 	 */
 	public boolean reserveMusic() throws IOException, InterruptedException{
 		clearScreen();
-	    out.print("Please write music name you want to reserve, please pay attention to upper and lower case letters.\n");
-	    out.print("(A correct example: Castle of Glass):\n");
+	    screen.print("Please write music name you want to reserve, please pay attention to upper and lower case letters.\n");
+	    screen.print("(A correct example: Castle of Glass):\n");
 	    scanner.nextLine();
 	    String musicQuery = scanner.nextLine();
-	    for (int i = 0; i < musics.length; i++) {
-            if (musics[i].equals(musicQuery)) {
-                reservedItems[reservedItemCount++] = musics[i] + " is reserved by " + active_user;
-                out.print("The music " + musics[i] + " is available.\n");
-                out.print(musics[i] + " is reserved by " + active_user + "\n");
-                musics[i] = "";
-                take_enter_input();
-                return true;
-            }
-        }
-	    out.print("Sorry, the music is not available.\n");
+	    LibraryService.ReservationResult result = service.reserve(active_user, MediaType.MUSIC, musicQuery);
+	    if (result.isReserved()) {
+	        String title = result.getReservation().getTitle();
+	        screen.print("The music " + title + " is available.\n");
+	        screen.print(title + " is reserved by " + active_user + "\n");
+	        take_enter_input();
+	        return true;
+	    }
+	    screen.print("Sorry, the music is not available.\n");
 	    take_enter_input();
 	    return false;
 	}
 	/**
 	 * @brief Restore items and clear reservations.
 	 *
-	 * This function allows the user to restore items and clear all reservations. 
-	 * If the user confirms by entering 'Delete', all reservations are removed, 
-	 * and the library's original item lists are restored.
+	 * This function allows the user to restore items and clear their reservations. 
+	 * If the user confirms by entering 'Delete', the reservations of the active user are removed, 
+	 * and the items they held become available again. Other users' reservations are kept.
 	 *
 	 * @throws InterruptedException if the thread is interrupted.
 	 * @throws IOException if an I/O error occurs.
@@ -512,23 +603,15 @@ public class Librarysystem {
         	return false;
         }
         else {
-            out.print("If you want to delete your all reservations, write 'Delete'. If you didn't, enter wrong input.\n");
+            screen.print("If you want to delete your all reservations, write 'Delete'. If you didn't, enter wrong input.\n");
             String deleteReservations = scanner.next();
             if (deleteReservations.equals("Delete")) {
-                for (int i = 0; i < reservedItems.length; i++) {
-                	reservedItems[i] = "";
-                }
-                reservedItemCount = 0;
-                for(int j=0; j<5; j++) {
-                	books[j] = originalBooks[j];
-                	movies[j] = originalMovies[j];
-                	musics[j] = originalMusics[j];
-                }
-                out.print("Your reservations has been cleaned.\n");
+                service.returnAll(active_user);
+                screen.print("Your reservations has been cleaned.\n");
                 take_enter_input();
                 return true;
             } else {
-                out.print("You entered wrong input!\n");
+                screen.print("You entered wrong input!\n");
                 take_enter_input();
                 return false;
             }
@@ -546,16 +629,14 @@ public class Librarysystem {
     public boolean viewReservation() throws InterruptedException, IOException {
         boolean findReservation = false;
         clearScreen();
-        for (int i = 0; i < reservedItems.length; i++) {
-            if (reservedItems[i] != null && reservedItems[i].contains(active_user)) {
-                out.print("The item " + reservedItems[i] + ".\n");
-                findReservation = true;
-                take_enter_input();
-            }
+        for (LibraryService.Reservation reservation : service.listReservations(active_user)) {
+            screen.print("The item " + reservation.getTitle() + " is reserved by " + active_user + ".\n");
+            findReservation = true;
+            take_enter_input();
         }
         
         if (!findReservation) {
-            out.print("You have no borrowed material.\n");
+            screen.print("You have no borrowed material.\n");
             take_enter_input();
         }
         take_enter_input();
@@ -575,13 +656,13 @@ public class Librarysystem {
 	    boolean isRunning = true;
 	    while (isRunning) {
 	        clearScreen();
-	        out.print("1. View Events\n");
-	        out.print("2. Register for Events\n");
-	        out.print("3. Exit\n");
-	        out.print("Enter your choice (1-3):");
+	        screen.print("1. View Events\n");
+	        screen.print("2. Register for Events\n");
+	        screen.print("3. Exit\n");
+	        screen.print("Enter your choice (1-3):");
 
 	        if (!scanner.hasNextInt()) {
-	            out.print("Invalid choice. Please enter a number.\n");
+	            screen.print("Invalid choice. Please enter a number.\n");
 	            take_enter_input();
 	            scanner.next();
 	            continue;
@@ -599,72 +680,102 @@ public class Librarysystem {
 	                isRunning = false;
 	                break;
 	            default:
-	                out.print("Invalid choice. Please try again.\n");
+	                screen.print("Invalid choice. Please try again.\n");
 	                take_enter_input();
 	                break;
 	        }
 	    }
+	    screen.flush();
 	    return true;
 	}
     /**
      * @brief View upcoming events.
      *
-     * This function displays information about upcoming events.
+     * This function displays the events of the next EventRegistry.LISTING_DAYS days, one page of
+     * EventRegistry.PAGE_SIZE events at a time, asking for enter between pages.
      *
      * @throws IOException if an I/O error occurs.
      * @throws InterruptedException if the thread is interrupted.
      */
     public void viewEvents() throws IOException, InterruptedException {
-        clearScreen();
-        out.print(events);
+        LibraryEvent last = null;
+        while (true) {
+            clearScreen();
+            screen.print(EventRegistry.HEADER);
+            List<LibraryEvent> page = service.upcomingEvents(EventRegistry.LISTING_DAYS, last, EventRegistry.PAGE_SIZE + 1);
+            for (int i = 0; i < page.size() && i < EventRegistry.PAGE_SIZE; i++) {
+                screen.print(page.get(i) + "\n");
+            }
+            if (page.size() <= EventRegistry.PAGE_SIZE) {
+                break;
+            }
+            last = page.get(EventRegistry.PAGE_SIZE - 1);
+            screen.print("Press enter to see more events.\n");
+            take_enter_input();
+        }
         take_enter_input();
     }
     /**
      * @brief Register for upcoming events.
      *
      * This function allows the user to register for upcoming events by entering their name
-     * and selecting the desired event.
+     * and selecting the desired event. When the event is full the user is put on its waiting list.
      *
      * @throws IOException if an I/O error occurs.
      * @throws InterruptedException if the thread is interrupted.
-     * @return true if the registration is successful, false otherwise.
+     * @return true if the user was registered or waitlisted, false otherwise.
      */
     public boolean registerForEvents() throws IOException, InterruptedException {
         clearScreen();
-        out.print(events);
-        out.print("Please enter your name:\n");
+        screen.print(service.events());
+        screen.print("Please enter your name:\n");
         scanner.nextLine();
         String userName = scanner.nextLine();
 
         if (!eventUserCheck(userName)) {
-            out.print("You entered an invalid username. Username must consist of letters.\n");
+            screen.print("You entered an invalid username. Username must consist of letters.\n");
             take_enter_input();
             return false;
         }
 
-        out.print("Please select the event you want to register:\n");
+        screen.print("Please select the event you want to register:\n");
         String eventNo = scanner.next();
-        if (!eventNoCheck(eventNo)) {
-            out.print("You entered wrong option number. Please try again...\n");
+        if (!eventExists(eventNo)) {
+            screen.print("You entered wrong option number. Please try again...\n");
             take_enter_input();
             return false;
         }
 
-        out.print("A reservation has been made for " + userName + " for the event " + eventNo +
-                    ". Simply stating your name at the entrance will be sufficient.\n");
+        LibraryService.EventRegistration registration = service.registerForEvent(userName, Integer.parseInt(eventNo));
+        if (registration.getStatus() == LibraryService.EventRegistration.Status.WAITLISTED) {
+            screen.print("The event " + eventNo + " is full. " + userName +
+                        " has been added to the waiting list and will get the next free seat.\n");
+        } else {
+            screen.print("A reservation has been made for " + userName + " for the event " + eventNo +
+                        ". Simply stating your name at the entrance will be sufficient.\n");
+        }
         take_enter_input();
         return true;
     }
     /**
      * @brief Check if the entered event number is valid.
      *
-     * This function checks if the entered event number is valid (1 or 2).
+     * This function checks if the entered event number is one of the default events (1 or 2).
      *
      * @param eventNo The entered event number.
      * @return true if the event number is valid, false otherwise.
      */
     public static boolean eventNoCheck(String eventNo) {
-        return eventNo.equals("1") || eventNo.equals("2");
+        return EVENT_NUMBER.matcher(eventNo).matches() && LibraryService.isEvent(Integer.parseInt(eventNo));
+    }
+    /**
+     * @brief Check if the entered event number names an event of the served library.
+     *
+     * @param eventNo The entered event number.
+     * @return true if the event exists, false otherwise.
+     */
+    private boolean eventExists(String eventNo) {
+        return EVENT_NUMBER.matcher(eventNo).matches() && service.hasEvent(Integer.parseInt(eventNo));
     }
     /**
      * @brief Check if the entered username is valid.
@@ -675,7 +786,7 @@ public class Librarysystem {
      * @return true if the username is valid, false otherwise.
      */
     public static boolean eventUserCheck(String userName) {
-        return userName.matches("[A-Za-z ]+");
+        return LibraryService.isValidEventUser(userName);
     }
     /**
      * @brief Display library information.
@@ -687,29 +798,68 @@ public class Librarysystem {
      */
     public void libraryInformations() throws IOException, InterruptedException {
         clearScreen();
-        out.print(lib_infos);
+        screen.print(service.libraryInformation());
         take_enter_input();
     }
 	/**
      * @brief Write library system data to a binary file.
      *
-     * This function writes the current state of the library system data to a binary file.
+     * This function checkpoints the catalog and the active reservations through LibraryService.writeBinary,
+     * which writes a SnapshotDelta of the changed items while the file holds a full snapshot of the current
+     * catalog, and a new full snapshot once the delta grows too large.
+     * The constant event and library information texts are not part of the state and are not written.
      *
      * @param filename The name of the file to write the data.
+     * @return The number of bytes written, either the delta or the full snapshot.
      * @throws IOException if an I/O error occurs.
      */
-    public void writeBinary(String filename) throws IOException {
-        try (FileOutputStream fileOut = new FileOutputStream(filename);
-             ObjectOutputStream out = new ObjectOutputStream(fileOut)) {
-        	out.writeObject(reservedItems);
-        	out.writeObject(reservedItemCount);
-        	out.writeObject(books);
-        	out.writeObject(movies);
-        	out.writeObject(musics);
-        	out.writeObject(registered_user_name);
-        	out.writeObject(active_user);
-        	out.writeObject(events);
-        	out.writeObject(lib_infos);            
-        }
+    public long writeBinary(String filename) throws IOException {
+        return service.writeBinary(filename);
+    }
+    /**
+     * @brief Opens the reservation write-ahead log and replays it onto the current reservations.
+     *
+     * Call this after the catalog or snapshot has been loaded. From then on every reservation and return is
+     * forced to the log before it is confirmed, and writeBinary drops the records the checkpoint covers.
+     *
+     * @param filename The name of the log file, created if missing.
+     * @return The number of records replayed from the log.
+     * @throws IOException if the log cannot be opened or read.
+     */
+    public int openLog(String filename) throws IOException {
+        return service.openLog(filename);
+    }
+    /**
+     * @brief Forces and closes the reservation write-ahead log, if one is open.
+     *
+     * @throws IOException if the log cannot be written or closed.
+     */
+    public void closeLog() throws IOException {
+        service.closeLog();
+    }
+    /**
+     * @brief Read library system data from a binary file.
+     *
+     * This function replaces the catalog and reservations with the contents of a file written by writeBinary,
+     * including the delta checkpoint written next to it.
+     *
+     * @param filename The name of the file to read the data from.
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public void readBinary(String filename) throws IOException {
+        service.readBinary(filename);
+    }
+    /**
+     * @brief Map library system data from a binary file for a fast start.
+     *
+     * Only the header and the reservations are checked against their checksums up front; each catalog section is
+     * checked the first time it is read. Exact-title searches run against the mapped file right away, and the
+     * suggestion indexes are built on the first search that needs them.
+     *
+     * @param filename The name of the file to map.
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public void mapBinary(String filename) throws IOException {
+        service.mapBinary(filename);
     }
 }
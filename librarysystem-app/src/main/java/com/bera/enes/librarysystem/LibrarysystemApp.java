@@ -8,25 +8,153 @@
  */
 package com.bera.enes.librarysystem;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Scanner;
+import javax.management.JMException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 /**
  * @brief Main class for the Library System application.
  *
  * This class contains the main method to run the Library System application.
  */
 public class LibrarysystemApp {
+	private static final Logger logger = LoggerFactory.getLogger(LibrarysystemApp.class); /**<Logger for startup messages. */
+	static final String DATA_FILE = "LibraryData.bin"; /**<Snapshot restored on startup and written on exit. */
+	static final String LOG_FILE = "LibraryData.wal"; /**<Reservations made since the last snapshot. */
+	static final String USERS_FILE = "LibraryUsers.txt"; /**<Registered patrons, one name per line, loaded when present. */
+	static final String BRANCHES_FILE = "LibraryBranches.txt"; /**<Branches as name|latitude|longitude|hours lines, loaded when present. */
+	static final String SERVE_OPTION = "--serve"; /**<Runs the menus as a terminal server instead of on the console. */
+	static final String HTTP_OPTION = "--http"; /**<Serves the JSON HTTP endpoints instead of the console menus. */
 	/**
      * @brief Main method to start the Library System application.
      *
-     * This method creates an instance of the Librarysystem class, invokes the mainMenu method,
-     * and writes the library system data to a binary file.
+     * This method creates an instance of the Librarysystem class, loads the catalog file given as the first
+     * argument or else the library data saved by the previous run, replays the reservation log written since
+     * that snapshot, invokes the mainMenu method, and writes the library system data to a binary file.
+     * Patrons listed in USERS_FILE are registered first, branches listed in BRANCHES_FILE replace the default
+     * ones, and the operation metrics are registered as the JMX MBean LibraryMetrics.OBJECT_NAME. Reservations
+     * not picked up within LibraryService.DEFAULT_HOLD_PERIOD are released while the application runs, and
+     * DATA_FILE is checkpointed in the background at least every LibraryService.DEFAULT_CHECKPOINT_INTERVAL. If
+     * DATA_FILE exists but cannot be read, the application stops without replaying the log or writing DATA_FILE,
+     * so neither is lost to a run that started from the sample catalog. Likewise, a catalog is only imported when
+     * LOG_FILE is missing or empty: its records belong to the previous catalog and would be lost, so the import is
+     * refused until a run without a catalog has checkpointed them or the log has been moved away.
      *
-     * @param args Command line arguments (not used in this application).
+     * Started as "--serve [port] [catalog]" it instead serves the menus to terminals over TCP, and as
+     * "--http [port] [catalog]" it serves the JSON HTTP endpoints, in both cases sharing the same library until
+     * "stop" is typed on the console.
+     *
+     * @param args Command line arguments. The optional first argument is a CSV or JSON Lines catalog file, or
+     * --serve or --http followed by an optional port and catalog file.
      * @throws IOException if an I/O error occurs.
      * @throws InterruptedException if the thread is interrupted.
      */
 	public static void main(String[] args) throws IOException, InterruptedException {
+		String server = null;
+		int port = -1;
+		if (args != null && args.length > 0 && (SERVE_OPTION.equals(args[0]) || HTTP_OPTION.equals(args[0]))) {
+			server = args[0];
+			port = SERVE_OPTION.equals(server) ? TerminalServer.DEFAULT_PORT : LibraryHttpServer.DEFAULT_PORT;
+			args = Arrays.copyOfRange(args, 1, args.length);
+			if (args.length > 0 && args[0].matches("[0-9]{1,5}")) {
+				port = Integer.parseInt(args[0]);
+				args = Arrays.copyOfRange(args, 1, args.length);
+			}
+		}
 		Librarysystem librarysystem = new Librarysystem(System.in, System.out);
-		librarysystem.mainMenu();
-		librarysystem.writeBinary("LibraryData.bin");
+		if (Files.exists(Paths.get(USERS_FILE))) {
+			int users = librarysystem.service().loadUsers(USERS_FILE);
+			logger.info("Registered {} users from {}", users, USERS_FILE);
+		}
+		if (Files.exists(Paths.get(BRANCHES_FILE))) {
+			try {
+				int branches = librarysystem.service().loadBranches(BRANCHES_FILE);
+				logger.info("Loaded {} branches from {}", branches, BRANCHES_FILE);
+			} catch (IOException e) {
+				logger.warn("Keeping the default branches: {}", e.getMessage());
+			}
+		}
+		if (args != null && args.length > 0) {
+			Path log = Paths.get(LOG_FILE);
+			if (Files.exists(log) && Files.size(log) > 0) {
+				logger.error("Not importing {}: {} holds reservations not yet saved to {}; start once without a catalog to save them, or move the log away",
+						args[0], LOG_FILE, DATA_FILE);
+				return;
+			}
+			CatalogImporter.Report report = librarysystem.loadCatalog(args[0]);
+			logger.info("{} from {}", report, args[0]);
+			if (report.getRejectedRows() > 0) {
+				logger.warn("Rejected catalog lines in {}: {}", args[0], report.getRejectedLines());
+			}
+			Files.deleteIfExists(log);
+		} else if (Files.exists(LibrarySnapshot.current(Paths.get(DATA_FILE)))) {
+			try {
+				librarysystem.mapBinary(DATA_FILE);
+			} catch (IOException e) {
+				logger.error("Not starting: {} cannot be read ({}); move it away to start with the sample catalog", DATA_FILE, e.getMessage());
+				return;
+			}
+		}
+		try {
+			librarysystem.service().metrics().register();
+		} catch (JMException e) {
+			logger.warn("Metrics are not available over JMX: {}", e.getMessage());
+		}
+		int replayed = librarysystem.openLog(LOG_FILE);
+		if (replayed > 0) {
+			logger.info("Replayed {} reservation changes from {}", replayed, LOG_FILE);
+		}
+		librarysystem.service().startHoldExpiry();
+		librarysystem.service().startCheckpoints(DATA_FILE, LibraryService.DEFAULT_CHECKPOINT_INTERVAL);
+		if (server != null) {
+			serve(server, librarysystem.service(), port);
+		} else {
+			librarysystem.mainMenu();
+		}
+		librarysystem.service().stopHoldExpiry();
+		librarysystem.service().stopCheckpoints();
+		librarysystem.writeBinary(DATA_FILE);
+		librarysystem.closeLog();
 	  }
+	/**
+     * @brief Runs a server until "stop" is typed or the console input ends.
+     *
+     * @param option SERVE_OPTION for the terminal server or HTTP_OPTION for the HTTP endpoints.
+     * @param service The library shared by all clients.
+     * @param port The TCP port to listen on.
+     * @throws IOException if the port cannot be bound.
+     */
+	static void serve(String option, LibraryService service, int port) throws IOException {
+		Scanner console = new Scanner(System.in);
+		if (HTTP_OPTION.equals(option)) {
+			try (LibraryHttpServer server = new LibraryHttpServer(service, port)) {
+				server.start();
+				logger.info("Serving library HTTP endpoints on port {}; type stop to shut down", server.port());
+				while (!awaitStop(console)) {
+					logger.info("Type stop to shut down");
+				}
+			}
+			return;
+		}
+		try (TerminalServer server = new TerminalServer(service, port)) {
+			server.start();
+			logger.info("Serving library terminals on port {}; type stop to shut down", server.port());
+			while (!awaitStop(console)) {
+				logger.info("{} terminal sessions connected", server.activeSessions());
+			}
+		}
+	}
+	/**
+     * @brief Reads one console line.
+     *
+     * @param console The console input.
+     * @return True if "stop" was typed or the input ended, false for any other line.
+     */
+	private static boolean awaitStop(Scanner console) {
+		return !console.hasNextLine() || "stop".equalsIgnoreCase(console.nextLine().trim());
+	}
 }
@@ -0,0 +1,251 @@
+/**
+ * @file MappedCatalog.java
+ * @brief Read-only catalog columns decoded lazily from a memory-mapped snapshot.
+ * @details This file defines the MappedCatalog class, which answers catalog lookups directly from the bytes of a
+ * snapshot file instead of copying them onto the heap.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * @brief Catalog columns backed by a mapped snapshot.
+ *
+ * The title table is stored sorted by normalized title and then by exact title, with an offset table in front of
+ * the UTF-8 bytes, so a title is decoded only when it is asked for and an exact title is found with a binary
+ * search that decodes about log2(title count) titles. Items are also stored grouped by title, which lets an
+ * exact-title lookup list a title's copies without an index built in memory.
+ *
+ * Each of the six sections is checked against its snapshot checksum the first time it is read, so mapping a
+ * snapshot does not scan the catalog, and a search only pays for the sections it touches. A damaged section
+ * fails every read of it with an UncheckedIOException.
+ *
+ * Only absolute reads are used on the shared buffer, so one instance can serve many threads.
+ */
+final class MappedCatalog {
+    private static final int TITLE_OFFSETS = 0; /**<Section number of the title byte offsets. */
+    private static final int TITLE_ITEMS = 1; /**<Section number of the starts of each title's items. */
+    private static final int ITEMS_BY_TITLE = 2; /**<Section number of the item ids grouped by title. */
+    private static final int TITLE_IDS = 3; /**<Section number of the title id of each item. */
+    private static final int TYPES = 4; /**<Section number of the media type ordinals. */
+    private static final int TITLES = 5; /**<Section number of the UTF-8 title bytes. */
+    private static final int ALL_VERIFIED = (1 << 6) - 1; /**<Verified mask with every section set. */
+
+    private final ByteBuffer buffer; /**<Mapped snapshot bytes. */
+    private final Path file; /**<Snapshot file the bytes are mapped from. */
+    private final int titleCount; /**<Number of distinct titles. */
+    private final int size; /**<Number of items. */
+    private final int titleOffsetsAt; /**<Position of the int[titleCount + 1] title byte offsets. */
+    private final int titleItemsAt; /**<Position of the int[titleCount + 1] starts of each title's items. */
+    private final int itemsByTitleAt; /**<Position of the int[size] item ids grouped by title. */
+    private final int titleIdsAt; /**<Position of the int[size] title id of each item. */
+    private final int typesAt; /**<Position of the byte[size] media type ordinals. */
+    private final int heapAt; /**<Position of the UTF-8 title bytes. */
+    private final int end; /**<Position just after the title bytes. */
+    private final int[] checksums; /**<Expected CRC32 of each section, or null if the snapshot was checked as a whole. */
+    private final AtomicInteger verified; /**<Bit per section, set once the section matched its checksum. */
+    /**
+     * @brief Locates the catalog sections in a mapped snapshot.
+     *
+     * @param buffer The mapped snapshot.
+     * @param file The snapshot file the buffer maps.
+     * @param start The position of the first title offset.
+     * @param titleCount The number of distinct titles.
+     * @param size The number of items.
+     * @param checksums The CRC32 of each of the six sections, or null if the buffer has already been checked.
+     * @throws IllegalArgumentException if the sections do not fit in the buffer.
+     */
+    MappedCatalog(ByteBuffer buffer, Path file, int start, int titleCount, int size, int[] checksums) {
+        if (titleCount < 0 || size < 0) {
+            throw new IllegalArgumentException("Negative catalog size");
+        }
+        this.buffer = buffer;
+        this.file = file;
+        this.titleCount = titleCount;
+        this.size = size;
+        long position = start;
+        this.titleOffsetsAt = (int) position;
+        position += 4L * (titleCount + 1);
+        this.titleItemsAt = (int) position;
+        position += 4L * (titleCount + 1);
+        this.itemsByTitleAt = (int) position;
+        position += 4L * size;
+        this.titleIdsAt = (int) position;
+        position += 4L * size;
+        this.typesAt = (int) position;
+        position += size;
+        this.heapAt = (int) position;
+        if (position > buffer.limit()) {
+            throw new IllegalArgumentException("Catalog sections exceed the snapshot");
+        }
+        position += buffer.getInt(titleOffsetsAt + 4 * titleCount);
+        if (position > buffer.limit() || buffer.getInt(titleItemsAt + 4 * titleCount) != size) {
+            throw new IllegalArgumentException("Catalog sections exceed the snapshot");
+        }
+        this.end = (int) position;
+        this.checksums = checksums;
+        this.verified = new AtomicInteger(checksums == null ? ALL_VERIFIED : 0);
+    }
+    /**
+     * @brief Returns the snapshot file the columns are mapped from.
+     *
+     * @return The mapped file, which must not be replaced while the columns are in use.
+     */
+    Path file() {
+        return file;
+    }
+    /**
+     * @brief Returns the position just after the catalog sections.
+     *
+     * @return The position where the next snapshot section starts.
+     */
+    int end() {
+        return end;
+    }
+    /**
+     * @brief Returns the number of items.
+     *
+     * @return The item count.
+     */
+    int size() {
+        return size;
+    }
+    /**
+     * @brief Returns the number of distinct titles.
+     *
+     * @return The title count.
+     */
+    int titleCount() {
+        return titleCount;
+    }
+    /**
+     * @brief Returns the media type ordinal of an item.
+     *
+     * @param id The item id.
+     * @return The media type ordinal.
+     */
+    byte typeOrdinal(int id) {
+        verify(TYPES);
+        return buffer.get(typesAt + checkItem(id));
+    }
+    /**
+     * @brief Returns the title id of an item.
+     *
+     * @param id The item id.
+     * @return The title id.
+     */
+    int titleId(int id) {
+        verify(TITLE_IDS);
+        return buffer.getInt(titleIdsAt + 4 * checkItem(id));
+    }
+    /**
+     * @brief Decodes a title from the title table.
+     *
+     * @param titleId The title id.
+     * @return The title.
+     */
+    String titleAt(int titleId) {
+        if (titleId < 0 || titleId >= titleCount) {
+            throw new IndexOutOfBoundsException("Title id " + titleId);
+        }
+        verify(TITLE_OFFSETS);
+        verify(TITLES);
+        int from = buffer.getInt(titleOffsetsAt + 4 * titleId);
+        int to = buffer.getInt(titleOffsetsAt + 4 * titleId + 4);
+        byte[] bytes = new byte[to - from];
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(heapAt + from);
+        slice.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    /**
+     * @brief Finds the title id of an exact title.
+     *
+     * @param title The exact title.
+     * @return The title id, or -1 if the catalog has no such title.
+     */
+    int findTitle(String title) {
+        String key = PrefixIndex.normalize(title);
+        int low = 0;
+        int high = titleCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            String candidate = titleAt(mid);
+            int order = compare(PrefixIndex.normalize(candidate), candidate, key, title);
+            if (order < 0) {
+                low = mid + 1;
+            } else if (order > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+    /**
+     * @brief Returns the position of a title's first item in the grouped item ids.
+     *
+     * The title's items are at positions firstItem(titleId) up to, but not including, firstItem(titleId + 1).
+     *
+     * @param titleId The title id, or titleCount for the end of the last title.
+     * @return The position in the grouped item ids.
+     */
+    int firstItem(int titleId) {
+        verify(TITLE_ITEMS);
+        return buffer.getInt(titleItemsAt + 4 * titleId);
+    }
+    /**
+     * @brief Returns an item id from the item ids grouped by title.
+     *
+     * @param position The position returned by firstItem or after it.
+     * @return The item id.
+     */
+    int itemAt(int position) {
+        verify(ITEMS_BY_TITLE);
+        return buffer.getInt(itemsByTitleAt + 4 * position);
+    }
+    /**
+     * @brief Orders titles the way the snapshot title table is sorted.
+     *
+     * @param key The normalized first title.
+     * @param title The first title.
+     * @param otherKey The normalized second title.
+     * @param other The second title.
+     * @return A negative number, zero or a positive number as the first title sorts before, with or after the second.
+     */
+    static int compare(String key, String title, String otherKey, String other) {
+        int order = key.compareTo(otherKey);
+        return order != 0 ? order : title.compareTo(other);
+    }
+    /**
+     * @brief Checks a section against its checksum unless that has already been done.
+     *
+     * @throws UncheckedIOException if the section does not match its checksum.
+     */
+    private void verify(int section) {
+        if ((verified.get() & 1 << section) != 0) {
+            return;
+        }
+        int[] starts = {titleOffsetsAt, titleItemsAt, itemsByTitleAt, titleIdsAt, typesAt, heapAt, end};
+        if (LibrarySnapshot.checksum(buffer, starts[section], starts[section + 1]) != checksums[section]) {
+            throw new UncheckedIOException(new IOException("Snapshot checksum mismatch in catalog section "
+                    + section + ": " + file));
+        }
+        verified.getAndUpdate(mask -> mask | 1 << section);
+    }
+    /**
+     * @brief Checks that an item id is in range.
+     */
+    private int checkItem(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Item id " + id);
+        }
+        return id;
+    }
+}
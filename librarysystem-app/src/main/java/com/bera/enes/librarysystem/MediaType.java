@@ -0,0 +1,47 @@
+/**
+ * @file MediaType.java
+ * @brief Media types held in the library catalog.
+ * @details This file defines the MediaType enumeration used to tag catalog titles by item kind.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.Locale;
+/**
+ * @brief Kinds of items that can be searched and reserved in the library.
+ */
+public enum MediaType {
+    BOOK("book"),
+    MOVIE("movie"),
+    MUSIC("music");
+
+    private final String label; /**<Lower case name used in user messages. */
+
+    MediaType(String label) {
+        this.label = label;
+    }
+    /**
+     * @brief Returns the lower case name of the media type.
+     *
+     * @return The label used in user messages, e.g. "book".
+     */
+    public String label() {
+        return label;
+    }
+    /**
+     * @brief Finds the media type with the given label, ignoring case.
+     *
+     * @param label The label to look up, e.g. "Book".
+     * @return The matching media type, or null if the label is unknown.
+     */
+    public static MediaType fromLabel(String label) {
+        String key = label.trim().toLowerCase(Locale.ROOT);
+        for (MediaType type : values()) {
+            if (type.label.equals(key)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
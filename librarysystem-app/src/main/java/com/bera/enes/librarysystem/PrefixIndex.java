@@ -0,0 +1,120 @@
+/**
+ * @file PrefixIndex.java
+ * @brief Sorted dictionary for case-insensitive prefix search over a catalog.
+ * @details This file defines the PrefixIndex class, which returns the titles that start with a partial query.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+/**
+ * @brief Case-insensitive prefix search over catalog titles.
+ *
+ * Titles are normalized to lower case and kept in a sorted array, so all titles sharing a prefix sit next to each
+ * other. A lookup is one binary search for the first candidate followed by reading at most the requested number
+ * of neighbours, which keeps autocomplete cost independent of the catalog size.
+ */
+public class PrefixIndex {
+    private final String[] keys; /**<Normalized titles in sorted order. */
+    private final String[] titles; /**<Original titles, parallel to keys. */
+    /**
+     * @brief Builds a prefix index over the given catalog array.
+     *
+     * Empty entries are skipped.
+     *
+     * @param catalog The titles to index.
+     */
+    public PrefixIndex(String[] catalog) {
+        String[][] entries = new String[catalog.length][];
+        int count = 0;
+        for (String title : catalog) {
+            if (title != null && !title.isEmpty()) {
+                entries[count++] = new String[] {normalize(title), title};
+            }
+        }
+        entries = Arrays.copyOf(entries, count);
+        Arrays.sort(entries, Comparator.comparing((String[] entry) -> entry[0]).thenComparing(entry -> entry[1]));
+        this.keys = new String[count];
+        this.titles = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = entries[i][0];
+            titles[i] = entries[i][1];
+        }
+    }
+    /**
+     * @brief Normalizes a title or query for case-insensitive comparison.
+     *
+     * @param text The text to normalize.
+     * @return The trimmed, lower case text.
+     */
+    public static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+    /**
+     * @brief Returns the titles that start with the given prefix, ignoring case.
+     *
+     * @param prefix The partial title typed by the user.
+     * @param limit The maximum number of titles to return.
+     * @return Up to limit matching titles in alphabetical order.
+     */
+    public List<String> complete(String prefix, int limit) {
+        return complete(prefix, limit, title -> true);
+    }
+    /**
+     * @brief Returns the accepted titles that start with the given prefix, ignoring case.
+     *
+     * Titles the filter rejects are skipped while scanning, so up to limit accepted titles are returned even when
+     * rejected ones sort before them.
+     *
+     * @param prefix The partial title typed by the user.
+     * @param limit The maximum number of titles to return.
+     * @param accept The filter a title must pass, such as having an available copy.
+     * @return Up to limit matching titles in alphabetical order.
+     */
+    public List<String> complete(String prefix, int limit, Predicate<String> accept) {
+        List<String> matches = new ArrayList<>();
+        String key = normalize(prefix);
+        for (int i = lowerBound(key); i < keys.length && matches.size() < limit; i++) {
+            if (!keys[i].startsWith(key)) {
+                break;
+            }
+            if ((i == 0 || !titles[i - 1].equals(titles[i])) && accept.test(titles[i])) {
+                matches.add(titles[i]);
+            }
+        }
+        return matches;
+    }
+    /**
+     * @brief Finds the first position whose key is not smaller than the given key.
+     *
+     * @param key The normalized key to search for.
+     * @return The insertion point of the key in the sorted keys.
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    /**
+     * @brief Returns the number of indexed titles.
+     *
+     * @return The number of titles in the index.
+     */
+    public int size() {
+        return keys.length;
+    }
+}
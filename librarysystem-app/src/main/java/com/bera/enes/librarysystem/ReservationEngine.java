@@ -0,0 +1,407 @@
+/**
+ * @file ReservationEngine.java
+ * @brief Thread-safe reservation core shared by every terminal.
+ * @details This file defines the ReservationEngine class, which reserves and releases catalog items for users
+ * without a global lock.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+/**
+ * @brief Reserves catalog items and records the reservations.
+ *
+ * An item is claimed by clearing its availability bit with a compare-and-set in the CatalogStore, and only the
+ * thread that won the bit appends the reservation to the ReservationLedger. Terminals sharing one engine can
+ * therefore never reserve the same item twice, and reservations for different items never wait on each other.
+ * When a ReservationLog is attached, every change is appended to it and forced to disk before the call returns.
+ * The engine also remembers which items changed since the last full snapshot, so a checkpoint can write only
+ * those items as a SnapshotDelta.
+ *
+ * Users are recorded by their UserDirectory id. The methods taking a name look the id up first; the log and
+ * the snapshots store names, so they stay valid when the directory is rebuilt.
+ *
+ * A reservation can be a hold that ends on its own: its end time is stored with the record, written to the log
+ * and the snapshots, and the record is filed in a TimingWheel; expireHolds releases the records whose time has
+ * run out. Returning the item first leaves the record released, so its later expiry does nothing. After a
+ * restart, scheduleHolds files the restored holds again at their stored end times.
+ */
+public class ReservationEngine {
+    static final long HOLD_TICK_MILLIS = 1000; /**<Resolution of hold expiry. */
+    private final CatalogStore catalog; /**<Catalog whose items are reserved. */
+    private final ReservationLedger ledger; /**<Record of every reservation. */
+    private final UserDirectory users; /**<Ids of the users holding reservations. */
+    private volatile ReservationLog log; /**<Write-ahead log receiving every change, or null. */
+    private volatile Set<Integer> changed = ConcurrentHashMap.newKeySet(); /**<Items reserved or released since the last full snapshot. */
+    private final TimingWheel holds = new TimingWheel(HOLD_TICK_MILLIS); /**<Records of the reservations that expire, by end time. */
+    /**
+     * @brief Creates an engine for the given catalog with an empty ledger.
+     *
+     * The catalog must be fully loaded, since the ledger's item index is sized from it.
+     *
+     * @param catalog The catalog whose items are reserved.
+     */
+    public ReservationEngine(CatalogStore catalog) {
+        this(catalog, new UserDirectory());
+    }
+    /**
+     * @brief Creates an engine for the given catalog that identifies users through a shared directory.
+     *
+     * @param catalog The catalog whose items are reserved.
+     * @param users The directory giving every user an id.
+     */
+    public ReservationEngine(CatalogStore catalog, UserDirectory users) {
+        this.catalog = catalog;
+        this.ledger = new ReservationLedger(catalog.size());
+        this.users = users;
+    }
+    /**
+     * @brief Reserves an available item.
+     *
+     * @param item The item id to reserve.
+     * @param user The user reserving the item.
+     * @return The ledger record number, or -1 if the item was not available.
+     */
+    public int reserve(int item, String user) {
+        return reserve(item, users.intern(user));
+    }
+    /**
+     * @brief Reserves an available item for a user id.
+     *
+     * @param item The item id to reserve.
+     * @param user The directory id of the user reserving the item.
+     * @return The ledger record number, or -1 if the item was not available.
+     */
+    public int reserve(int item, int user) {
+        return reserve(item, user, 0);
+    }
+    /**
+     * @brief Reserves an available item for a user id, recording when its hold ends.
+     *
+     * The end time is stored with the record and logged; call hold to have it expire while the engine runs.
+     *
+     * Like a release, the reservation is applied in memory before it is logged. A checkpoint marking the log in
+     * between therefore either sees the record in the ledger or keeps its log record, never neither.
+     *
+     * @param item The item id to reserve.
+     * @param user The directory id of the user reserving the item.
+     * @param holdUntil The end of the hold in milliseconds since the epoch, or 0 if the reservation does not expire.
+     * @return The ledger record number, or -1 if the item was not available.
+     */
+    public int reserve(int item, int user, long holdUntil) {
+        if (!catalog.reserve(item)) {
+            return -1;
+        }
+        int record = ledger.append(item, user, holdUntil);
+        changed.add(item);
+        ReservationLog current = log;
+        if (current != null) {
+            sync(current, current.append(ReservationLog.RESERVE, item, users.name(user), holdUntil));
+        }
+        return record;
+    }
+    /**
+     * @brief Reserves any available copy of a title.
+     *
+     * If another terminal takes the copy found in the index first, the next available copy is tried.
+     *
+     * @param index The exact-title index of the media type to reserve from.
+     * @param title The exact title to reserve.
+     * @param user The user reserving the item.
+     * @return The ledger record number, or -1 if no copy of the title is available.
+     */
+    public int reserve(CatalogIndex index, String title, String user) {
+        return reserve(index, title, users.intern(user), 0);
+    }
+    /**
+     * @brief Reserves any available copy of a title, recording when its hold ends.
+     *
+     * @param index The exact-title index of the media type to reserve from.
+     * @param title The exact title to reserve.
+     * @param user The user reserving the item.
+     * @param holdUntil The end of the hold in milliseconds since the epoch, or 0 if the reservation does not expire.
+     * @return The ledger record number, or -1 if no copy of the title is available.
+     */
+    public int reserve(CatalogIndex index, String title, String user, long holdUntil) {
+        return reserve(index, title, users.intern(user), holdUntil);
+    }
+    /**
+     * @brief Reserves any available copy of a title for a user id.
+     *
+     * @param index The exact-title index of the media type to reserve from.
+     * @param title The exact title to reserve.
+     * @param user The directory id of the user reserving the item.
+     * @param holdUntil The end of the hold in milliseconds since the epoch, or 0 if the reservation does not expire.
+     * @return The ledger record number, or -1 if no copy of the title is available.
+     */
+    public int reserve(CatalogIndex index, String title, int user, long holdUntil) {
+        while (true) {
+            int item = index.find(title);
+            if (item < 0) {
+                return -1;
+            }
+            int record = reserve(item, user, holdUntil);
+            if (record >= 0) {
+                return record;
+            }
+        }
+    }
+    /**
+     * @brief Releases one reservation and makes its item available again.
+     *
+     * @param record The ledger record number.
+     * @return True if the reservation was active and this call released it.
+     */
+    public boolean release(int record) {
+        long sequence = releaseRecord(record);
+        if (sequence < 0) {
+            return false;
+        }
+        sync(log, sequence);
+        return true;
+    }
+    /**
+     * @brief Releases the reservation a user holds on one item.
+     *
+     * @param item The item id to return.
+     * @param user The user returning the item.
+     * @return True if the user held the item and it is now available again.
+     */
+    public boolean releaseItem(int item, String user) {
+        int id = users.id(user);
+        int record = ledger.activeRecord(item);
+        return id >= 0 && record >= 0 && ledger.user(record) == id && release(record);
+    }
+    /**
+     * @brief Releases every reservation held by one user.
+     *
+     * Only the user's own records and items are touched, so the cost is proportional to the number of items
+     * released and other users' reservations are left alone.
+     *
+     * @param user The user whose reservations are released.
+     * @return The number of reservations released.
+     */
+    public int releaseUser(String user) {
+        return releaseUser(users.id(user));
+    }
+    /**
+     * @brief Releases every reservation held by one user id.
+     *
+     * @param user The directory id of the user, or -1 for an unknown user.
+     * @return The number of reservations released.
+     */
+    public int releaseUser(int user) {
+        return user < 0 ? 0 : releaseRecords(ledger.activeRecords(user));
+    }
+    /**
+     * @brief Releases every active reservation.
+     *
+     * @return The number of reservations released.
+     */
+    public int releaseAll() {
+        int[] records = new int[ledger.size()];
+        for (int record = 0; record < records.length; record++) {
+            records[record] = record;
+        }
+        return releaseRecords(records);
+    }
+    /**
+     * @brief Files a reservation to be released once the hold end stored with it has passed.
+     *
+     * @param record The ledger record number of a reservation made with an end time.
+     * @param nowMillis The current time in milliseconds since the epoch.
+     */
+    public void hold(int record, long nowMillis) {
+        long until = ledger.holdUntil(record);
+        if (until > 0) {
+            holds.schedule(record, until, nowMillis);
+        }
+    }
+    /**
+     * @brief Files the restored holds again at their stored end times.
+     *
+     * Used for reservations loaded from a snapshot or replayed from the log. Holds that ended while the program
+     * was not running are released right away, in one batch.
+     *
+     * @param fromRecord The first ledger record number to consider.
+     * @param nowMillis The current time in milliseconds since the epoch.
+     * @return The number of expired holds released.
+     */
+    public int scheduleHolds(int fromRecord, long nowMillis) {
+        int[] expired = new int[0];
+        int count = 0;
+        for (int record = fromRecord; record < ledger.size(); record++) {
+            long until = ledger.isActive(record) ? ledger.holdUntil(record) : 0;
+            if (until <= 0) {
+                continue;
+            }
+            if (until > nowMillis) {
+                holds.schedule(record, until, nowMillis);
+            } else {
+                if (count == expired.length) {
+                    expired = Arrays.copyOf(expired, Math.max(16, count * 2));
+                }
+                expired[count++] = record;
+            }
+        }
+        return count == 0 ? 0 : releaseRecords(Arrays.copyOf(expired, count));
+    }
+    /**
+     * @brief Releases the holds whose time has run out.
+     *
+     * The released items become available again, and the log is forced once for all of them.
+     *
+     * @param nowMillis The current time in milliseconds since the epoch.
+     * @return The number of reservations released.
+     */
+    public int expireHolds(long nowMillis) {
+        int[] due = holds.advance(nowMillis);
+        return due.length == 0 ? 0 : releaseRecords(due);
+    }
+    /**
+     * @brief Returns the number of holds waiting to expire.
+     *
+     * Holds whose item was returned early are counted until their end time.
+     *
+     * @return The pending hold count.
+     */
+    public int pendingHolds() {
+        return holds.size();
+    }
+    /**
+     * @brief Attaches a write-ahead log that receives every later change.
+     *
+     * The log must already hold, or have been replayed into, the engine's current reservations.
+     *
+     * @param log The log to append to, or null to stop logging.
+     */
+    public void attachLog(ReservationLog log) {
+        this.log = log;
+    }
+    /**
+     * @brief Returns the items changed since the last full snapshot.
+     *
+     * @return The changed item ids in ascending order.
+     */
+    public int[] changedItems() {
+        int[] items = changed.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(items);
+        return items;
+    }
+    /**
+     * @brief Starts a new set of changed items, for use right before a full snapshot is written.
+     *
+     * A change made while the snapshot is written is either already in the snapshot or recorded in the new set,
+     * since items are recorded only after the change is applied.
+     *
+     * @return The number of items that had changed.
+     */
+    public int takeChangedItems() {
+        Set<Integer> previous = changed;
+        changed = ConcurrentHashMap.newKeySet();
+        return previous.size();
+    }
+    /**
+     * @brief Returns the number of items changed since the last full snapshot.
+     *
+     * @return The changed item count.
+     */
+    public int changedCount() {
+        return changed.size();
+    }
+    /**
+     * @brief Returns the attached write-ahead log.
+     *
+     * @return The log, or null if changes are not logged.
+     */
+    public ReservationLog log() {
+        return log;
+    }
+    /**
+     * @brief Releases a batch of records and forces the log once for all of them.
+     *
+     * @param records The ledger record numbers to release.
+     * @return The number of reservations released.
+     */
+    private int releaseRecords(int[] records) {
+        int released = 0;
+        long last = 0;
+        for (int record : records) {
+            long sequence = releaseRecord(record);
+            if (sequence >= 0) {
+                released++;
+                last = sequence;
+            }
+        }
+        if (released > 0) {
+            sync(log, last);
+        }
+        return released;
+    }
+    /**
+     * @brief Releases one record and logs it without waiting for the disk.
+     *
+     * The release is logged before the item becomes available, so a later reservation of the same item is
+     * always behind it in the log.
+     *
+     * @param record The ledger record number.
+     * @return The log sequence number, 0 if no log is attached, or -1 if the record was not active.
+     */
+    private long releaseRecord(int record) {
+        if (!ledger.release(record)) {
+            return -1;
+        }
+        int item = ledger.item(record);
+        ReservationLog current = log;
+        long sequence = current == null ? 0 : current.append(ReservationLog.RELEASE, item, users.name(ledger.user(record)));
+        catalog.release(item);
+        changed.add(item);
+        return sequence;
+    }
+    /**
+     * @brief Waits until a log record is on disk.
+     *
+     * @param current The log the record was appended to, or null.
+     * @param sequence The sequence number of the record.
+     */
+    private static void sync(ReservationLog current, long sequence) {
+        if (current == null || sequence <= 0) {
+            return;
+        }
+        try {
+            current.sync(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    /**
+     * @brief Returns the catalog whose items are reserved.
+     *
+     * @return The catalog store.
+     */
+    public CatalogStore catalog() {
+        return catalog;
+    }
+    /**
+     * @brief Returns the directory of the users holding reservations.
+     *
+     * @return The user directory.
+     */
+    public UserDirectory users() {
+        return users;
+    }
+    /**
+     * @brief Returns the reservation ledger.
+     *
+     * @return The ledger holding every reservation record.
+     */
+    public ReservationLedger ledger() {
+        return ledger;
+    }
+}
@@ -0,0 +1,329 @@
+/**
+ * @file ReservationLedger.java
+ * @brief Append-only record of reservations that many threads can write at once.
+ * @details This file defines the ReservationLedger class, which stores one record per reservation in segmented
+ * columns and lets concurrent writers append without taking a lock.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+/**
+ * @brief Lock-free, unbounded reservation ledger.
+ *
+ * A writer claims the next record number with a single atomic increment, fills the record and then publishes
+ * it by setting its state. Records live in segments that double in size, so the ledger grows without copying
+ * and a segment is allocated by whichever writer reaches it first. Readers skip records that are claimed but
+ * not yet published.
+ *
+ * Users are identified by their UserDirectory id, so a record is two ints, the end of its hold as a long and a
+ * state.
+ *
+ * Two indexes sit beside the records: the active record of each item, and the list of records of each user.
+ * Listing one user's reservations therefore costs time proportional to that user's records, not to the
+ * size of the ledger. The item index is kept in blocks of ITEM_BLOCK items, allocated when an item in them is
+ * first reserved, so a new ledger over a large catalog costs one reference per block rather than an int per
+ * item. The user lists are found by id in segments laid out like the records, and each list has
+ * its own monitor, so users never contend with each other.
+ */
+public class ReservationLedger {
+    static final int EMPTY = 0; /**<Record number claimed but not yet published. */
+    static final int ACTIVE = 1; /**<Reservation currently holds its item. */
+    static final int RELEASED = 2; /**<Reservation has been released. */
+    private static final int FIRST_SEGMENT = 16; /**<Size of the first segment; segment k holds FIRST_SEGMENT << k records. */
+    private static final int SEGMENTS = 27; /**<Number of segments. */
+    static final int MAX_RECORDS = FIRST_SEGMENT * ((1 << SEGMENTS) - 1); /**<Capacity of all segments together, just over two billion. */
+    private static final int ITEM_BLOCK_BITS = 10; /**<Log2 of ITEM_BLOCK. */
+    static final int ITEM_BLOCK = 1 << ITEM_BLOCK_BITS; /**<Items per block of the item index. */
+
+    private final AtomicReferenceArray<Segment> segments = new AtomicReferenceArray<>(SEGMENTS); /**<Record segments, allocated on first use. */
+    private final AtomicInteger next = new AtomicInteger(); /**<Next record number to hand out. */
+    private final int items; /**<Number of items that can be reserved. */
+    private final AtomicReferenceArray<AtomicIntegerArray> activeByItem; /**<Active record number plus one for each item, 0 when the item is free, in blocks allocated on first use. */
+    private final AtomicReferenceArray<AtomicReferenceArray<UserRecords>> byUser = new AtomicReferenceArray<>(SEGMENTS); /**<Records of each user id, in segments allocated on first use. */
+    /**
+     * @brief Creates an empty ledger.
+     *
+     * @param items The number of catalog items that can be reserved, used to size the item index.
+     */
+    public ReservationLedger(int items) {
+        this.items = items;
+        this.activeByItem = new AtomicReferenceArray<>((items + ITEM_BLOCK - 1) >>> ITEM_BLOCK_BITS);
+    }
+    /**
+     * @brief A block of consecutive reservation records.
+     */
+    private static class Segment {
+        final int[] items; /**<Reserved item id of each record. */
+        final int[] users; /**<User id holding each record. */
+        final long[] holdUntil; /**<End of each record's hold in milliseconds since the epoch, or 0 if it does not expire. */
+        final AtomicIntegerArray states; /**<State of each record; writing it publishes the record. */
+
+        Segment(int size) {
+            items = new int[size];
+            users = new int[size];
+            holdUntil = new long[size];
+            states = new AtomicIntegerArray(size);
+        }
+    }
+    /**
+     * @brief Record numbers of one user.
+     *
+     * Released records are dropped when the list is read and when it is full on append. The list only grows
+     * when more than half of it is still unreleased, so it stays within twice the number of reservations the
+     * user currently holds even if it is never read, and each append costs amortized constant time.
+     */
+    private static class UserRecords {
+        private int[] records = new int[4]; /**<Record numbers in append order. */
+        private int size; /**<Number of used entries in records. */
+
+        synchronized void add(int record, ReservationLedger ledger) {
+            if (size == records.length && compact(ledger) > records.length / 2) {
+                records = Arrays.copyOf(records, records.length * 2);
+            }
+            records[size++] = record;
+        }
+
+        synchronized int[] active(ReservationLedger ledger) {
+            int kept = compact(ledger);
+            int[] result = new int[kept];
+            int count = 0;
+            for (int i = 0; i < kept; i++) {
+                if (ledger.isActive(records[i])) {
+                    result[count++] = records[i];
+                }
+            }
+            return count == kept ? result : Arrays.copyOf(result, count);
+        }
+
+        private int compact(ReservationLedger ledger) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (ledger.state(records[i]) != RELEASED) {
+                    records[kept++] = records[i];
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+    /**
+     * @brief Appends an active reservation that does not expire.
+     *
+     * @param item The reserved item id.
+     * @param user The id of the user holding the item.
+     * @return The record number of the new reservation.
+     */
+    public int append(int item, int user) {
+        return append(item, user, 0);
+    }
+    /**
+     * @brief Appends an active reservation.
+     *
+     * @param item The reserved item id.
+     * @param user The id of the user holding the item.
+     * @param holdUntil The end of the hold in milliseconds since the epoch, or 0 if the reservation does not expire.
+     * @return The record number of the new reservation.
+     */
+    public int append(int item, int user, long holdUntil) {
+        int record = next.getAndIncrement();
+        if (record < 0 || record >= MAX_RECORDS) {
+            throw new IllegalStateException("Reservation ledger is full");
+        }
+        Segment segment = segment(record, true);
+        int offset = offset(record);
+        segment.items[offset] = item;
+        segment.users[offset] = user;
+        segment.holdUntil[offset] = holdUntil;
+        segment.states.set(offset, ACTIVE);
+        itemBlock(item, true).set(item & ITEM_BLOCK - 1, record + 1);
+        userRecords(user, true).add(record, this);
+        return record;
+    }
+    /**
+     * @brief Marks a reservation as released.
+     *
+     * @param record The record number.
+     * @return True if the record was active and this call released it.
+     */
+    public boolean release(int record) {
+        Segment segment = segment(record, false);
+        if (segment == null || !segment.states.compareAndSet(offset(record), ACTIVE, RELEASED)) {
+            return false;
+        }
+        int item = segment.items[offset(record)];
+        itemBlock(item, false).compareAndSet(item & ITEM_BLOCK - 1, record + 1, 0);
+        return true;
+    }
+    /**
+     * @brief Returns the active reservation of an item.
+     *
+     * @param item The item id.
+     * @return The record number holding the item, or -1 if the item is not reserved.
+     */
+    public int activeRecord(int item) {
+        AtomicIntegerArray block = itemBlock(item, false);
+        return block == null ? -1 : block.get(item & ITEM_BLOCK - 1) - 1;
+    }
+    /**
+     * @brief Returns the number of item index blocks allocated so far.
+     *
+     * @return The allocated block count.
+     */
+    int itemBlocks() {
+        int count = 0;
+        for (int block = 0; block < activeByItem.length(); block++) {
+            if (activeByItem.get(block) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+    /**
+     * @brief Returns the active reservations of a user.
+     *
+     * @param user The user id.
+     * @return The active record numbers of the user in reservation order.
+     */
+    public int[] activeRecords(int user) {
+        UserRecords records = user < 0 ? null : userRecords(user, false);
+        return records == null ? new int[0] : records.active(this);
+    }
+    /**
+     * @brief Returns how many record numbers the list of a user holds, released ones not yet dropped included.
+     *
+     * @param user The user id.
+     * @return The length of the user's record list.
+     */
+    int listedRecords(int user) {
+        UserRecords records = userRecords(user, false);
+        if (records == null) {
+            return 0;
+        }
+        synchronized (records) {
+            return records.size;
+        }
+    }
+    /**
+     * @brief Checks whether a record holds its item.
+     *
+     * @param record The record number.
+     * @return True if the record is published and not released.
+     */
+    public boolean isActive(int record) {
+        return state(record) == ACTIVE;
+    }
+    /**
+     * @brief Returns the state of a record.
+     *
+     * @param record The record number.
+     * @return EMPTY, ACTIVE or RELEASED.
+     */
+    int state(int record) {
+        Segment segment = segment(record, false);
+        return segment == null ? EMPTY : segment.states.get(offset(record));
+    }
+    /**
+     * @brief Returns the item id of a published record.
+     *
+     * @param record The record number.
+     * @return The reserved item id.
+     */
+    public int item(int record) {
+        return segment(record, false).items[offset(record)];
+    }
+    /**
+     * @brief Returns the user of a published record.
+     *
+     * @param record The record number.
+     * @return The id of the user holding the reservation.
+     */
+    public int user(int record) {
+        return segment(record, false).users[offset(record)];
+    }
+    /**
+     * @brief Returns the end of the hold of a published record.
+     *
+     * @param record The record number.
+     * @return The end of the hold in milliseconds since the epoch, or 0 if the reservation does not expire.
+     */
+    public long holdUntil(int record) {
+        return segment(record, false).holdUntil[offset(record)];
+    }
+    /**
+     * @brief Returns the number of record numbers handed out so far.
+     *
+     * Records below this bound may still be unpublished; check their state before reading them.
+     *
+     * @return The exclusive upper bound of record numbers.
+     */
+    public int size() {
+        return next.get();
+    }
+    /**
+     * @brief Returns the segment holding a record, optionally allocating it.
+     */
+    private Segment segment(int record, boolean create) {
+        int index = segmentIndex(record);
+        Segment segment = segments.get(index);
+        if (segment == null && create) {
+            segments.compareAndSet(index, null, new Segment(FIRST_SEGMENT << index));
+            segment = segments.get(index);
+        }
+        return segment;
+    }
+    /**
+     * @brief Returns the item index block holding an item, optionally allocating it.
+     *
+     * @throws IndexOutOfBoundsException if the item id is out of range.
+     */
+    private AtomicIntegerArray itemBlock(int item, boolean create) {
+        if (item < 0 || item >= items) {
+            throw new IndexOutOfBoundsException("Item id " + item);
+        }
+        int index = item >>> ITEM_BLOCK_BITS;
+        AtomicIntegerArray block = activeByItem.get(index);
+        if (block == null && create) {
+            activeByItem.compareAndSet(index, null, new AtomicIntegerArray(ITEM_BLOCK));
+            block = activeByItem.get(index);
+        }
+        return block;
+    }
+    /**
+     * @brief Returns the record list of a user, optionally creating it.
+     */
+    private UserRecords userRecords(int user, boolean create) {
+        int index = segmentIndex(user);
+        AtomicReferenceArray<UserRecords> segment = byUser.get(index);
+        if (segment == null) {
+            if (!create) {
+                return null;
+            }
+            byUser.compareAndSet(index, null, new AtomicReferenceArray<>(FIRST_SEGMENT << index));
+            segment = byUser.get(index);
+        }
+        int offset = offset(user);
+        UserRecords records = segment.get(offset);
+        if (records == null && create) {
+            segment.compareAndSet(offset, null, new UserRecords());
+            records = segment.get(offset);
+        }
+        return records;
+    }
+    /**
+     * @brief Returns the segment number of a record or user id.
+     */
+    private static int segmentIndex(int record) {
+        return 31 - Integer.numberOfLeadingZeros(record / FIRST_SEGMENT + 1);
+    }
+    /**
+     * @brief Returns the position of a record or user id inside its segment.
+     */
+    private static int offset(int record) {
+        return record - FIRST_SEGMENT * ((1 << segmentIndex(record)) - 1);
+    }
+}
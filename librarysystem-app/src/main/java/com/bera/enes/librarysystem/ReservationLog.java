@@ -0,0 +1,316 @@
+/**
+ * @file ReservationLog.java
+ * @brief Append-only write-ahead log of reservation changes.
+ * @details This file defines the ReservationLog class, which records every reserve and release as a small binary
+ * record and makes it durable with batched fsyncs, so a crash loses no confirmed reservation.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+/**
+ * @brief Write-ahead log for reservations with group commit.
+ *
+ * Record layout, big-endian: <code>int crc, byte op, int item, long hold end, short user length, user UTF-8
+ * bytes</code>, where the CRC32 covers everything after it and the hold end is the reservation's expiry in
+ * milliseconds since the epoch, 0 for releases and for reservations that do not expire. Records are appended to an in-memory batch under a short lock.
+ * A thread that needs its record on disk either becomes the flusher, writing and fsyncing every batched record
+ * at once, or waits for the flusher already running, so concurrent terminals share one fsync.
+ *
+ * On open the existing log is replayed onto a ReservationEngine; replay stops at the first torn or corrupt
+ * record and the file is cut back to the last good record before new records are appended. Records covered by
+ * a snapshot are dropped by writing the rest to a temporary file and moving it over the log, so a crash leaves
+ * either the old or the new log in place.
+ */
+public class ReservationLog implements Closeable {
+    static final byte RESERVE = 1; /**<Operation code of a reservation record. */
+    static final byte RELEASE = 2; /**<Operation code of a release record. */
+    private static final int HEADER = 4 + 1 + 4 + 8 + 2; /**<Bytes before the user name in a record. */
+
+    private final Path file; /**<Path of the log file. */
+    private FileChannel channel; /**<Log file opened for appending, replaced by discardUpTo. */
+    private ByteBuffer batch = ByteBuffer.allocate(1 << 12); /**<Records appended but not yet written. */
+    private ByteBuffer spare = ByteBuffer.allocate(1 << 12); /**<Second batch buffer, written by the flusher. */
+    private long appended; /**<Sequence number of the last appended record. */
+    private long end; /**<File offset just past the last appended record, whether written, in flight or batched. */
+    private long durable; /**<Sequence number of the last record known to be on disk. */
+    private boolean flushing; /**<True while a thread is writing a batch. */
+    private final int replayed; /**<Number of records applied when the log was opened. */
+
+    private ReservationLog(Path file, FileChannel channel, int replayed) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.replayed = replayed;
+        this.end = channel.position();
+    }
+    /**
+     * @brief Opens a log, replays its records onto an engine and prepares it for appending.
+     *
+     * The engine must not have a log attached yet, so the replayed operations are not logged again.
+     * Replaying is idempotent: records already reflected in the engine's snapshot state have no effect.
+     *
+     * @param file The log file, created if missing.
+     * @param engine The engine to replay the records onto.
+     * @return The opened log.
+     * @throws IOException if the file cannot be read or opened.
+     */
+    public static ReservationLog open(Path file, ReservationEngine engine) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            int replayed = 0;
+            long valid = 0;
+            long length = channel.size();
+            if (length > 0) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+                CRC32 crc = new CRC32();
+                while (buffer.remaining() >= HEADER) {
+                    int start = buffer.position();
+                    int expected = buffer.getInt();
+                    byte op = buffer.get();
+                    int item = buffer.getInt();
+                    long holdUntil = buffer.getLong();
+                    int userLength = buffer.getShort() & 0xFFFF;
+                    if (buffer.remaining() < userLength) {
+                        break;
+                    }
+                    ByteBuffer body = buffer.duplicate();
+                    body.position(start + 4).limit(start + HEADER + userLength);
+                    crc.reset();
+                    crc.update(body);
+                    if ((int) crc.getValue() != expected || item < 0 || item >= engine.catalog().size()) {
+                        break;
+                    }
+                    byte[] userBytes = new byte[userLength];
+                    buffer.get(userBytes);
+                    String user = new String(userBytes, StandardCharsets.UTF_8);
+                    if (op == RESERVE) {
+                        engine.reserve(item, engine.users().intern(user), holdUntil);
+                    } else if (op == RELEASE) {
+                        engine.releaseItem(item, user);
+                    } else {
+                        break;
+                    }
+                    replayed++;
+                    valid = buffer.position();
+                }
+            }
+            channel.truncate(valid);
+            channel.position(valid);
+            return new ReservationLog(file, channel, replayed);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    /**
+     * @brief Adds a record without a hold end to the current batch without writing it.
+     *
+     * @param op RESERVE or RELEASE.
+     * @param item The item id.
+     * @param user The user holding or returning the item.
+     * @return The sequence number to pass to sync.
+     */
+    public long append(byte op, int item, String user) {
+        return append(op, item, user, 0);
+    }
+    /**
+     * @brief Adds a record to the current batch without writing it.
+     *
+     * @param op RESERVE or RELEASE.
+     * @param item The item id.
+     * @param user The user holding or returning the item.
+     * @param holdUntil The end of a reservation's hold in milliseconds since the epoch, or 0.
+     * @return The sequence number to pass to sync.
+     */
+    public synchronized long append(byte op, int item, String user, long holdUntil) {
+        byte[] userBytes = user.getBytes(StandardCharsets.UTF_8);
+        int length = HEADER + Math.min(userBytes.length, 0xFFFF);
+        if (batch.remaining() < length) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(batch.capacity() * 2, batch.position() + length));
+            batch.flip();
+            grown.put(batch);
+            batch = grown;
+        }
+        int start = batch.position();
+        batch.position(start + 4);
+        batch.put(op);
+        batch.putInt(item);
+        batch.putLong(holdUntil);
+        batch.putShort((short) (length - HEADER));
+        batch.put(userBytes, 0, length - HEADER);
+        CRC32 crc = new CRC32();
+        ByteBuffer body = batch.duplicate();
+        body.position(start + 4).limit(start + length);
+        crc.update(body);
+        batch.putInt(start, (int) crc.getValue());
+        end += length;
+        return ++appended;
+    }
+    /**
+     * @brief Waits until the record with the given sequence number is on disk.
+     *
+     * Waiting is not interruptible, since the caller's change is already applied in memory; an interrupt
+     * is kept and restored when the method returns.
+     *
+     * @param sequence A sequence number returned by append.
+     * @throws IOException if writing or forcing the file fails.
+     */
+    public void sync(long sequence) throws IOException {
+        boolean interrupted = false;
+        try {
+            while (!flushOnce(sequence)) {
+                synchronized (this) {
+                    while (durable < sequence && flushing) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    /**
+     * @brief Writes the current batch if no other thread is flushing.
+     *
+     * @param sequence The sequence number the caller needs on disk.
+     * @return True if the sequence is durable, false if another flusher is running.
+     * @throws IOException if writing or forcing the file fails.
+     */
+    private boolean flushOnce(long sequence) throws IOException {
+        while (true) {
+            ByteBuffer toWrite;
+            FileChannel out;
+            long target;
+            synchronized (this) {
+                if (durable >= sequence) {
+                    return true;
+                }
+                if (flushing) {
+                    return false;
+                }
+                flushing = true;
+                toWrite = batch;
+                batch = spare;
+                spare = toWrite;
+                out = channel;
+                target = appended;
+            }
+            boolean written = false;
+            try {
+                toWrite.flip();
+                while (toWrite.hasRemaining()) {
+                    out.write(toWrite);
+                }
+                out.force(false);
+                written = true;
+            } finally {
+                synchronized (this) {
+                    toWrite.clear();
+                    if (written) {
+                        durable = target;
+                    }
+                    flushing = false;
+                    notifyAll();
+                }
+            }
+        }
+    }
+    /**
+     * @brief Returns the current end of the log, including batched records.
+     *
+     * The mark is taken under the same monitor the flusher swaps batches under, and counts the bytes already
+     * written, the batch being written and the batch still filling. A snapshot taken after this call contains
+     * every record before the returned mark.
+     *
+     * @return A mark to pass to discardUpTo.
+     */
+    public synchronized long mark() {
+        return end;
+    }
+    /**
+     * @brief Drops every record before a mark once a snapshot covers them.
+     *
+     * Records appended after the mark are written to a temporary file next to the log, which is forced and then
+     * atomically moved over the log; the channel is reopened on the new file. Appends wait until it is done.
+     *
+     * @param mark A value returned by mark before the snapshot was taken.
+     * @throws IOException if the file cannot be rewritten; the log is then left as it was.
+     */
+    public void discardUpTo(long mark) throws IOException {
+        synchronized (this) {
+            while (flushing || batch.position() > 0) {
+                sync(appended);
+            }
+            long from = Math.min(mark, end);
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (long copied = 0; copied < end - from;) {
+                    copied += channel.transferTo(from + copied, end - from - copied, out);
+                }
+                out.force(true);
+            } catch (IOException e) {
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+            channel.close();
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.deleteIfExists(temporary);
+                throw e;
+            } finally {
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channel.position(channel.size());
+                end = channel.position();
+            }
+        }
+    }
+    /**
+     * @brief Returns the sequence number of the last appended record.
+     */
+    private synchronized long appendedSequence() {
+        return appended;
+    }
+    /**
+     * @brief Returns the number of records replayed when the log was opened.
+     *
+     * @return The replayed record count.
+     */
+    public int replayed() {
+        return replayed;
+    }
+    /**
+     * @brief Writes any batched records and closes the file.
+     *
+     * @throws IOException if the final write fails.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync(appendedSequence());
+        } finally {
+            synchronized (this) {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * @file ScreenRenderer.java
+ * @brief Buffered renderer for the console menu screens.
+ * @details This file defines the ScreenRenderer class, which collects everything a menu screen prints into one
+ * reusable buffer and writes it to the console in a single call.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+/**
+ * @brief Composes console screens in memory and emits each one as a single write.
+ *
+ * A screen starts with clear, collects text with print and is written out by flush. The input stream returned
+ * by flushingBeforeRead flushes the pending screen whenever the program is about to wait for the user, so
+ * prompts are always visible without flushing after every print.
+ *
+ * The screen is cleared with the ANSI "home and erase" escape sequence instead of running a cls process.
+ */
+public class ScreenRenderer {
+    private static final Logger logger = LoggerFactory.getLogger(ScreenRenderer.class); /**<Logger for an unknown configured mode. */
+    static final String CLEAR = "\033[H\033[2J"; /**<Moves the cursor home and erases the screen. */
+    static final String MODE_PROPERTY = "librarysystem.screen"; /**<System property choosing the mode: ansi, plain or suppressed. */
+    private static final int INITIAL_CAPACITY = 1 << 10; /**<Initial frame buffer size in characters. */
+    /**
+     * @brief How screens are written.
+     */
+    public enum Mode {
+        ANSI, /**<Clear the screen with escape sequences before each screen. */
+        PLAIN, /**<Write the text only, for redirected output. */
+        SUPPRESSED; /**<Write nothing, for scripted runs that only need the side effects. */
+        /**
+         * @brief Chooses the mode from the librarysystem.screen property or the console.
+         *
+         * An unknown property value is reported with the allowed ones and then ignored.
+         *
+         * @return The configured mode, else ANSI when a console is attached and PLAIN otherwise.
+         */
+        public static Mode detect() {
+            String configured = System.getProperty(MODE_PROPERTY);
+            if (configured != null) {
+                try {
+                    return valueOf(configured.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Ignoring {}={}: expected ansi, plain or suppressed", MODE_PROPERTY, configured);
+                }
+            }
+            return System.console() != null ? ANSI : PLAIN;
+        }
+    }
+
+    private final PrintStream out; /**<Destination of the rendered screens. */
+    private final Mode mode; /**<How screens are written. */
+    private final StringBuilder frame = new StringBuilder(INITIAL_CAPACITY); /**<Text of the screen being composed, reused between screens. */
+    private long frames; /**<Number of writes made to the destination. */
+    /**
+     * @brief Creates a renderer writing to the given stream.
+     *
+     * @param out The stream receiving the rendered screens.
+     * @param mode How screens are written.
+     */
+    public ScreenRenderer(PrintStream out, Mode mode) {
+        this.out = out;
+        this.mode = mode;
+    }
+    /**
+     * @brief Starts a new screen.
+     *
+     * Any text still pending is written first, then the clear sequence is added in ANSI mode.
+     */
+    public void clear() {
+        flush();
+        if (mode == Mode.ANSI) {
+            frame.append(CLEAR);
+        }
+    }
+    /**
+     * @brief Adds text to the current screen.
+     *
+     * @param text The text to add.
+     */
+    public void print(String text) {
+        if (mode != Mode.SUPPRESSED) {
+            frame.append(text);
+        }
+    }
+    /**
+     * @brief Writes the pending text in one call and empties the buffer.
+     */
+    public void flush() {
+        if (frame.length() == 0) {
+            return;
+        }
+        out.print(frame);
+        out.flush();
+        frame.setLength(0);
+        frames++;
+    }
+    /**
+     * @brief Returns the mode screens are written in.
+     *
+     * @return The mode.
+     */
+    public Mode mode() {
+        return mode;
+    }
+    /**
+     * @brief Returns how many times text was written to the destination.
+     *
+     * @return The number of writes.
+     */
+    public long frames() {
+        return frames;
+    }
+    /**
+     * @brief Wraps an input stream so the pending screen is written before every read.
+     *
+     * @param in The user's input stream.
+     * @return A stream that flushes this renderer and then reads from in.
+     */
+    public InputStream flushingBeforeRead(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                flush();
+                return super.read();
+            }
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                flush();
+                return super.read(buffer, offset, length);
+            }
+        };
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * @file SnapshotDelta.java
+ * @brief Incremental checkpoint holding only the items changed since a full snapshot.
+ * @details This file defines the SnapshotDelta class, which writes the reservation state of changed items to a
+ * small file next to a LibrarySnapshot and applies it again on startup.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+/**
+ * @brief Reads and writes delta checkpoints on top of a base snapshot.
+ *
+ * Layout, all integers big-endian:
+ * <pre>
+ * int    MAGIC
+ * int    VERSION
+ * long   id of the base snapshot, see LibrarySnapshot.id
+ * int    user count, then per user: int byte length + UTF-8 bytes
+ * int    item count, then per changed item: int item id + int user index, or -1 if the item is available,
+ *        + long hold end, 0 if the item is available or its reservation does not expire
+ * int    CRC32 of every preceding byte
+ * </pre>
+ * A delta is cumulative: it holds the current state of every item changed since the base was written, and each
+ * new delta replaces the previous one. Its size therefore follows the number of changed items, not the size of
+ * the catalog. A delta written against another base is ignored when loading, which is what happens if the
+ * program stops between writing a new base and removing the old delta.
+ */
+public final class SnapshotDelta {
+    static final int MAGIC = 0x4C44_4C54; /**<"LDLT", marks a library delta file. */
+    static final int VERSION = 2; /**<Layout version written by this class. */
+    static final int COMPACTION_DIVISOR = 8; /**<A full snapshot is written once more than 1/8 of the items changed. */
+    private static final int BUFFER_SIZE = 1 << 12; /**<Output buffer size in bytes. */
+
+    private SnapshotDelta() {
+    }
+    /**
+     * @brief Returns the delta file that belongs to a snapshot file.
+     *
+     * @param base The snapshot file.
+     * @return The delta file next to it.
+     */
+    public static Path pathFor(Path base) {
+        return base.resolveSibling(base.getFileName() + ".delta");
+    }
+    /**
+     * @brief Decides whether a full snapshot should be written instead of a delta.
+     *
+     * @param changed The number of items changed since the base snapshot.
+     * @param items The number of items in the catalog.
+     * @return True when the delta would be large enough that compacting into a new base pays off.
+     */
+    public static boolean shouldCompact(int changed, int items) {
+        return changed > items / COMPACTION_DIVISOR;
+    }
+    /**
+     * @brief Writes the state of the changed items of an engine to a delta file.
+     *
+     * @param file The delta file to create or replace.
+     * @param baseId The id of the snapshot the delta applies to.
+     * @param engine The engine whose state is written.
+     * @param items The ids of the items changed since the base snapshot.
+     * @return The size of the delta in bytes.
+     * @throws IOException if the file cannot be written.
+     */
+    public static long write(Path file, long baseId, ReservationEngine engine, int[] items) throws IOException {
+        ReservationLedger ledger = engine.ledger();
+        int[] holders = new int[items.length];
+        long[] holdUntil = new long[items.length];
+        Map<Integer, Integer> users = new LinkedHashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            int record = ledger.activeRecord(items[i]);
+            holders[i] = record < 0 ? -1 : users.computeIfAbsent(ledger.user(record), user -> users.size());
+            holdUntil[i] = record < 0 ? 0 : ledger.holdUntil(record);
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (CheckedOutputStream checked = new CheckedOutputStream(Files.newOutputStream(temporary), crc);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(baseId);
+            out.writeInt(users.size());
+            for (int user : users.keySet()) {
+                LibrarySnapshot.writeString(out, engine.users().name(user));
+            }
+            out.writeInt(items.length);
+            for (int i = 0; i < items.length; i++) {
+                out.writeInt(items[i]);
+                out.writeInt(holders[i]);
+                out.writeLong(holdUntil[i]);
+            }
+            out.flush();
+            out.writeInt((int) crc.getValue());
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(file);
+    }
+    /**
+     * @brief Applies a delta file to an engine loaded from its base snapshot.
+     *
+     * @param file The delta file.
+     * @param baseId The id of the snapshot the engine was loaded from.
+     * @param engine The engine to update. It must not have a log attached yet.
+     * @return The number of items in the delta, or -1 if the delta belongs to another base and was ignored.
+     * @throws IOException if the file cannot be read, is not a delta or is corrupt.
+     */
+    public static int apply(Path file, long baseId, ReservationEngine engine) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < 24 || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a library delta: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported delta version " + buffer.getInt(4) + ": " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.limit() - 4);
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+            throw new IOException("Delta checksum mismatch: " + file);
+        }
+        if (buffer.getLong(8) != baseId) {
+            return -1;
+        }
+        buffer.position(16);
+        buffer.limit(buffer.limit() - 4);
+        try {
+            int[] users = new int[buffer.getInt()];
+            for (int i = 0; i < users.length; i++) {
+                users[i] = engine.users().intern(LibrarySnapshot.readString(buffer));
+            }
+            ReservationLedger ledger = engine.ledger();
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                int item = buffer.getInt();
+                int holder = buffer.getInt();
+                long holdUntil = buffer.getLong();
+                int user = holder < 0 ? -1 : users[holder];
+                int record = ledger.activeRecord(item);
+                if (record >= 0 && (ledger.user(record) != user || ledger.holdUntil(record) != holdUntil)) {
+                    engine.release(record);
+                    record = -1;
+                }
+                if (record < 0 && user >= 0) {
+                    engine.reserve(item, user, holdUntil);
+                }
+            }
+            return count;
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt library delta: " + file, e);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * @file TerminalServer.java
+ * @brief Telnet-style TCP server hosting many menu sessions over one library.
+ * @details This file defines the TerminalServer class, which accepts kiosk connections and runs the console menus
+ * of a Librarysystem for each of them, all sharing one LibraryService.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+/**
+ * @brief Serves the library menus to many terminals at once.
+ *
+ * Every connection gets its own Librarysystem session with its own streams and logged-in user; the catalog,
+ * reservations and events are shared through one thread-safe LibraryService. Sessions are blocking and run one
+ * per thread. Run on a JDK with virtual threads, each session gets a virtual thread, so thousands of idle kiosks
+ * cost little memory; on JDK 17 each session gets a platform thread with a small stack. Connections are accepted
+ * on a thread of their own, so a busy server never stops accepting. At most a fixed number of sessions run at
+ * once: a terminal connecting beyond that is told the server is busy and disconnected, instead of waiting
+ * unanswered.
+ */
+public class TerminalServer implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(TerminalServer.class); /**<Logger for connection errors. */
+    static final int DEFAULT_PORT = 2323; /**<Port used when none is given. */
+    private static final int BUFFER_SIZE = 1 << 12; /**<Socket stream buffer size in bytes. */
+    static final int DEFAULT_MAX_SESSIONS = 10_000; /**<Sessions served at once when no limit is given. */
+    static final long PLATFORM_STACK_SIZE = 256 * 1024; /**<Stack size of platform threads when virtual threads are unavailable. */
+    static final String BUSY_MESSAGE = "Too many terminals are connected; please try again later.\r\n"; /**<Sent to a terminal turned away. */
+
+    private final LibraryService service; /**<Library shared by all sessions. */
+    private final ServerSocket serverSocket; /**<Listening socket. */
+    private final int maxSessions; /**<Largest number of sessions served at once. */
+    private final ExecutorService sessions = newThreadPerTaskExecutor("library-terminal"); /**<Runs one task per session. */
+    private final Thread acceptor = new Thread(this::acceptLoop, "library-terminal-accept"); /**<Accepts connections. */
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet(); /**<Open session sockets, closed on shutdown. */
+    /**
+     * @brief Binds a server to a local port.
+     *
+     * @param service The library shared by all sessions.
+     * @param port The TCP port, or 0 for any free port.
+     * @throws IOException if the port cannot be bound.
+     */
+    public TerminalServer(LibraryService service, int port) throws IOException {
+        this(service, port, DEFAULT_MAX_SESSIONS);
+    }
+    /**
+     * @brief Binds a server to a local port with a limit on concurrent sessions.
+     *
+     * @param service The library shared by all sessions.
+     * @param port The TCP port, or 0 for any free port.
+     * @param maxSessions The largest number of sessions served at once.
+     * @throws IOException if the port cannot be bound.
+     * @throws IllegalArgumentException if the limit is not positive.
+     */
+    public TerminalServer(LibraryService service, int port, int maxSessions) throws IOException {
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("Session limit must be positive: " + maxSessions);
+        }
+        this.maxSessions = maxSessions;
+        this.service = service;
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.setReuseAddress(true);
+        this.serverSocket.bind(new InetSocketAddress(port));
+    }
+    /**
+     * @brief Starts accepting connections in the background.
+     */
+    public void start() {
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+    /**
+     * @brief Returns the port the server listens on.
+     *
+     * @return The bound TCP port.
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+    /**
+     * @brief Returns the number of connected sessions.
+     *
+     * @return The open session count.
+     */
+    public int activeSessions() {
+        return connections.size();
+    }
+    /**
+     * @brief Stops accepting connections and disconnects every session.
+     *
+     * @throws IOException if the listening socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        try {
+            acceptor.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Socket connection : connections) {
+            closeQuietly(connection);
+        }
+        sessions.shutdown();
+        try {
+            sessions.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    /**
+     * @brief Accepts connections until the listening socket is closed.
+     */
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket connection = serverSocket.accept();
+                connection.setTcpNoDelay(true);
+                if (connections.size() >= maxSessions) {
+                    turnAway(connection);
+                    continue;
+                }
+                connections.add(connection);
+                try {
+                    sessions.execute(() -> serve(connection));
+                } catch (RejectedExecutionException e) {
+                    connections.remove(connection);
+                    closeQuietly(connection);
+                }
+            } catch (SocketException e) {
+                return;
+            } catch (IOException e) {
+                logger.warn("Failed to accept a terminal connection: {}", e.getMessage());
+            }
+        }
+    }
+    /**
+     * @brief Runs the menus of one session until the user exits or disconnects.
+     *
+     * @param connection The session socket.
+     */
+    private void serve(Socket connection) {
+        try (Socket socket = connection) {
+            PrintStream out = new PrintStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE), false, "UTF-8");
+            Librarysystem session = new Librarysystem(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE), out,
+                    ScreenRenderer.Mode.ANSI, service);
+            session.mainMenu();
+        } catch (NoSuchElementException | IllegalStateException e) {
+            logger.debug("Terminal {} disconnected", connection.getRemoteSocketAddress());
+        } catch (IOException | InterruptedException e) {
+            logger.debug("Terminal {} failed: {}", connection.getRemoteSocketAddress(), e.getMessage());
+        } finally {
+            connections.remove(connection);
+        }
+    }
+    /**
+     * @brief Tells a terminal the server is full and disconnects it.
+     */
+    private static void turnAway(Socket connection) {
+        logger.warn("Turned away terminal {}: session limit reached", connection.getRemoteSocketAddress());
+        try (Socket socket = connection) {
+            socket.getOutputStream().write(BUSY_MESSAGE.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.debug("Turning away terminal {} failed: {}", connection.getRemoteSocketAddress(), e.getMessage());
+        }
+    }
+    /**
+     * @brief Closes a socket, ignoring errors.
+     */
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.debug("Closing terminal {} failed: {}", socket.getRemoteSocketAddress(), e.getMessage());
+        }
+    }
+    /**
+     * @brief Creates an executor running every task on its own thread.
+     *
+     * The build targets JDK 17, which has no virtual threads, so the virtual thread executor is looked up
+     * reflectively and is only found when the application runs on JDK 21 or later. On JDK 17 every task gets a
+     * daemon platform thread with a PLATFORM_STACK_SIZE stack, reused for a minute once idle. Nothing is ever
+     * queued behind running tasks, so a long session cannot hold up a later one; callers limit how many tasks run
+     * at once.
+     *
+     * @param threadName Name of the platform threads used when virtual threads are unavailable.
+     * @return A virtual-thread-per-task executor if the JDK has one, else a growing pool of daemon threads.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String threadName) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), task -> {
+                Thread thread = new Thread(null, task, threadName, PLATFORM_STACK_SIZE);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * @file TimingWheel.java
+ * @brief Hierarchical timing wheel that schedules millions of int keys without a thread or scan per key.
+ * @details This file defines the TimingWheel class, which files each key under its deadline in one of several
+ * wheels of coarser and coarser slots, and hands the keys back once the deadline has passed.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.Arrays;
+/**
+ * @brief Schedules int keys for a deadline and returns them when it passes.
+ *
+ * Time is counted in ticks of tickMillis. Level k has SLOTS slots of SLOTS^k ticks each, so a key is filed by
+ * the highest group of BITS bits in which its deadline differs from the current tick, and scheduling is a
+ * constant number of steps. When the current tick crosses a slot boundary of level k, that one slot is emptied
+ * and its keys are filed again into the lower levels; a key therefore moves at most LEVELS times before it is
+ * due, and advancing never looks at keys that are not close to their deadline. Ticks before the next slot of
+ * the lowest level holding keys are skipped, so advancing over a long idle stretch costs a few steps per level.
+ * Keys are kept in int and long columns per slot, so a pending key costs twelve bytes and no object.
+ *
+ * The wheel is not tied to a clock: callers pass the current time to every call. One monitor guards it; both
+ * calls do a small, bounded amount of work under it.
+ */
+public class TimingWheel {
+    static final int BITS = 6; /**<Bits of the tick selecting a slot on one level. */
+    static final int SLOTS = 1 << BITS; /**<Slots on each level. */
+    static final int LEVELS = 7; /**<Number of levels; together they span 2^42 ticks. */
+    private static final int MASK = SLOTS - 1; /**<Mask selecting a slot index. */
+    private static final int KEPT_CAPACITY = 64; /**<Slot capacity kept after a slot is emptied; larger arrays are dropped. */
+
+    private final long tickMillis; /**<Length of a tick in milliseconds. */
+    private final Slot[][] levels = new Slot[LEVELS][SLOTS]; /**<Slots of each level, allocated on first use. */
+    private final int[] counts = new int[LEVELS]; /**<Number of keys filed on each level. */
+    private long current; /**<Last tick advanced to. */
+    private boolean started; /**<Whether current has been set by a first call. */
+    private int size; /**<Number of pending keys. */
+    /**
+     * @brief Keys and deadlines filed in one slot, in two parallel columns.
+     */
+    private static class Slot {
+        int[] keys = new int[4]; /**<Keys in the slot. */
+        long[] deadlines = new long[4]; /**<Deadline tick of each key. */
+        int size; /**<Number of used entries. */
+
+        void add(int key, long deadline) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                deadlines = Arrays.copyOf(deadlines, size * 2);
+            }
+            keys[size] = key;
+            deadlines[size++] = deadline;
+        }
+
+        void clear() {
+            size = 0;
+            if (keys.length > KEPT_CAPACITY) {
+                keys = new int[4];
+                deadlines = new long[4];
+            }
+        }
+    }
+    /**
+     * @brief Creates an empty wheel.
+     *
+     * @param tickMillis The length of a tick in milliseconds; deadlines are rounded up to whole ticks.
+     * @throws IllegalArgumentException if the tick is not positive.
+     */
+    public TimingWheel(long tickMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+    }
+    /**
+     * @brief Schedules a key.
+     *
+     * A deadline that has already passed is returned by the next advance to a later tick.
+     *
+     * @param key The key to return when the deadline passes.
+     * @param deadlineMillis The deadline in milliseconds since the epoch.
+     * @param nowMillis The current time, which starts the wheel on its first call.
+     * @throws IllegalArgumentException if the deadline is more than 2^42 ticks away.
+     */
+    public synchronized void schedule(int key, long deadlineMillis, long nowMillis) {
+        start(nowMillis);
+        file(key, Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), current + 1));
+        size++;
+    }
+    /**
+     * @brief Advances to the current time and removes the keys whose deadline has passed.
+     *
+     * @param nowMillis The current time in milliseconds since the epoch.
+     * @return The due keys, ordered by deadline tick.
+     */
+    public synchronized int[] advance(long nowMillis) {
+        start(nowMillis);
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        int[] due = new int[0];
+        int count = 0;
+        while (current < target) {
+            if (size == 0) {
+                current = target;
+                break;
+            }
+            int lowest = 0;
+            while (counts[lowest] == 0) {
+                lowest++;
+            }
+            if (lowest > 0) {
+                current = Math.min(target, (((current >>> (BITS * lowest)) + 1) << (BITS * lowest)) - 1);
+                if (current == target) {
+                    break;
+                }
+            }
+            current++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((current & ((1L << (BITS * level)) - 1)) == 0) {
+                    Slot slot = levels[level][(int) (current >>> (BITS * level)) & MASK];
+                    if (slot != null && slot.size > 0) {
+                        counts[level] -= slot.size;
+                        for (int i = 0; i < slot.size; i++) {
+                            file(slot.keys[i], slot.deadlines[i]);
+                        }
+                        slot.clear();
+                    }
+                }
+            }
+            Slot slot = levels[0][(int) current & MASK];
+            if (slot != null && slot.size > 0) {
+                if (count + slot.size > due.length) {
+                    due = Arrays.copyOf(due, Math.max(count + slot.size, due.length * 2));
+                }
+                System.arraycopy(slot.keys, 0, due, count, slot.size);
+                count += slot.size;
+                size -= slot.size;
+                counts[0] -= slot.size;
+                slot.clear();
+            }
+        }
+        return count == due.length ? due : Arrays.copyOf(due, count);
+    }
+    /**
+     * @brief Returns the number of pending keys.
+     *
+     * @return The keys scheduled and not yet returned by advance.
+     */
+    public synchronized int size() {
+        return size;
+    }
+    /**
+     * @brief Sets the current tick on the first call.
+     */
+    private void start(long nowMillis) {
+        if (!started) {
+            current = Math.floorDiv(nowMillis, tickMillis);
+            started = true;
+        }
+    }
+    /**
+     * @brief Files a key in the slot of the highest bit group in which its deadline differs from the current tick.
+     *
+     * The deadline is never before the current tick, and a key due at the current tick goes to level 0. The
+     * level is always lower than the one a cascading key came from, since the key's deadline now agrees with the
+     * current tick in that level's bits.
+     */
+    private void file(int key, long tick) {
+        long difference = tick ^ current;
+        int level = (63 - Long.numberOfLeadingZeros(difference)) / BITS;
+        if (level >= LEVELS) {
+            throw new IllegalArgumentException("Deadline too far ahead: tick " + tick);
+        }
+        int index = (int) (tick >>> (BITS * level)) & MASK;
+        Slot slot = levels[level][index];
+        if (slot == null) {
+            slot = new Slot();
+            levels[level][index] = slot;
+        }
+        slot.add(key, tick);
+        counts[level]++;
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * @file UserDirectory.java
+ * @brief Directory of library users with compact integer ids.
+ * @details This file defines the UserDirectory class, which maps user names to dense int ids through an open
+ * addressing hash index, records which users are registered patrons and can be loaded from a text file.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+/**
+ * @brief Maps user names to ids 0, 1, 2, ... and answers login lookups in constant time.
+ *
+ * Every name that reserves an item gets an id, so reservation records hold an int instead of a name. Only the
+ * names added with register are registered patrons allowed to log in.
+ *
+ * The index is a linear probing table of ids over an array of names indexed by id, with no entry objects, so a
+ * few million users cost a few tens of megabytes. Lookups never lock: a writer fills the name before it
+ * publishes the slot with a volatile write, and replaces the whole table when it grows. Additions are
+ * serialized by the directory's monitor.
+ */
+public class UserDirectory {
+    private static final int INITIAL_CAPACITY = 16; /**<Initial number of hash slots; a power of two. */
+    /**
+     * @brief Hash slots and names, replaced together when the directory grows.
+     */
+    private static final class Table {
+        final AtomicIntegerArray slots; /**<Id plus one of the name hashed to each slot, 0 when the slot is free. */
+        final String[] names; /**<Name of each id. */
+        final AtomicLongArray registered; /**<Registered bit of each id. */
+        final int mask; /**<Number of slots minus one. */
+
+        Table(int capacity) {
+            slots = new AtomicIntegerArray(capacity);
+            names = new String[capacity / 2];
+            registered = new AtomicLongArray((capacity / 2 + 63) >>> 6);
+            mask = capacity - 1;
+        }
+    }
+
+    private volatile Table table = new Table(INITIAL_CAPACITY); /**<Current index. */
+    private volatile int size; /**<Number of ids handed out. */
+    /**
+     * @brief Looks up the id of a name.
+     *
+     * @param name The user name, case-sensitive.
+     * @return The id, or -1 if the name has never been added.
+     */
+    public int id(String name) {
+        return id(table, name);
+    }
+    /**
+     * @brief Looks up the id of a name in one table.
+     */
+    private static int id(Table current, String name) {
+        for (int slot = hash(name) & current.mask;; slot = (slot + 1) & current.mask) {
+            int entry = current.slots.get(slot);
+            if (entry == 0) {
+                return -1;
+            }
+            if (current.names[entry - 1].equals(name)) {
+                return entry - 1;
+            }
+        }
+    }
+    /**
+     * @brief Returns the id of a name, adding the name if it is new.
+     *
+     * @param name The user name, case-sensitive.
+     * @return The id of the name.
+     */
+    public int intern(String name) {
+        int id = id(name);
+        return id >= 0 ? id : add(name);
+    }
+    /**
+     * @brief Adds a name as a registered patron.
+     *
+     * @param name The user name, case-sensitive.
+     * @return The id of the name.
+     */
+    public synchronized int register(String name) {
+        int id = intern(name);
+        Table current = table;
+        current.registered.getAndUpdate(id >>> 6, bits -> bits | 1L << id);
+        return id;
+    }
+    /**
+     * @brief Checks whether a name is a registered patron.
+     *
+     * @param name The user name, case-sensitive.
+     * @return True if the name was registered.
+     */
+    public boolean isRegistered(String name) {
+        Table current = table;
+        int id = id(current, name);
+        return id >= 0 && (current.registered.get(id >>> 6) & 1L << id) != 0;
+    }
+    /**
+     * @brief Returns the name of an id.
+     *
+     * @param id An id returned by intern or register.
+     * @return The user name.
+     */
+    public String name(int id) {
+        return table.names[id];
+    }
+    /**
+     * @brief Returns the number of ids handed out.
+     *
+     * @return The number of distinct names added.
+     */
+    public int size() {
+        return size;
+    }
+    /**
+     * @brief Registers every name of a text file.
+     *
+     * The file holds one name per line. Surrounding blanks are trimmed, and empty lines and lines starting
+     * with # are skipped.
+     *
+     * @param file The UTF-8 text file.
+     * @return The number of names read.
+     * @throws IOException if the file cannot be read.
+     */
+    public int registerAll(Path file) throws IOException {
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String name = line.trim();
+                if (!name.isEmpty() && name.charAt(0) != '#') {
+                    register(name);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+    /**
+     * @brief Adds a new name, growing the table when it is half full.
+     */
+    private synchronized int add(String name) {
+        int existing = id(name);
+        if (existing >= 0) {
+            return existing;
+        }
+        int id = size;
+        Table current = table;
+        if (id == current.names.length) {
+            current = grow(current);
+        }
+        current.names[id] = name;
+        insert(current, id);
+        size = id + 1;
+        return id;
+    }
+    /**
+     * @brief Publishes an id in the first free slot of its name's probe sequence.
+     */
+    private static void insert(Table current, int id) {
+        int slot = hash(current.names[id]) & current.mask;
+        while (current.slots.get(slot) != 0) {
+            slot = (slot + 1) & current.mask;
+        }
+        current.slots.set(slot, id + 1);
+    }
+    /**
+     * @brief Rehashes every name into a table twice the size and publishes it.
+     */
+    private Table grow(Table current) {
+        Table grown = new Table((current.mask + 1) * 2);
+        System.arraycopy(current.names, 0, grown.names, 0, size);
+        for (int id = 0; id < size; id++) {
+            insert(grown, id);
+        }
+        for (int i = 0; i < current.registered.length(); i++) {
+            grown.registered.set(i, current.registered.get(i));
+        }
+        table = grown;
+        return grown;
+    }
+    /**
+     * @brief Spreads the cached String hash over the slot bits.
+     */
+    private static int hash(String name) {
+        int h = name.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
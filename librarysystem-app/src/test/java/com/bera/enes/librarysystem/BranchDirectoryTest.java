@@ -0,0 +1,157 @@
+package com.bera.enes.librarysystem;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BranchDirectoryTest {
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 3, 10, 0, 0);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<String> names(List<LibraryBranch> branches) {
+        List<String> names = new ArrayList<>();
+        for (LibraryBranch branch : branches) {
+            names.add(branch.getName());
+        }
+        return names;
+    }
+
+    @Test
+    public void defaultListingIsTheLibraryInformation() {
+        assertEquals("Library Location and Hours Informations\n" +
+                "Public Library (In city center) --> Available for Monday to Saturday. Weekdays --> 8.00 to 22.00\n" +
+                "Private Library (Next to the public cultural center )--> Avaliable for 7/24 hours\n" +
+                "Public Library (Inside main campus) --> Available for Monday to Saturday. Weekdays --> 8.00 to 22.00\n",
+                BranchDirectory.defaults().listing());
+        assertEquals(BranchDirectory.defaults().listing(), new LibraryService().libraryInformation());
+    }
+
+    @Test
+    public void openAtFollowsTheWeeklyHours() {
+        BranchDirectory branches = BranchDirectory.defaults();
+        assertEquals(3, branches.openAt(MONDAY.withHour(10)).size());
+        assertEquals(Arrays.asList("Private Library (Next to the public cultural center)"), names(branches.openAt(MONDAY.plusDays(6).withHour(10))));
+        assertEquals(1, branches.openAt(MONDAY.plusDays(5).withHour(22)).size());
+        assertEquals(3, branches.openAt(MONDAY.plusDays(5).withHour(21).withMinute(59)).size());
+        assertEquals(1, branches.openAt(MONDAY.withHour(7).withMinute(59)).size());
+    }
+
+    @Test
+    public void hoursWrapPastMidnightAndMerge() {
+        assertArrayEquals(new int[] {4 * 1440 + 1320, 5 * 1440 + 120}, LibraryBranch.parseHours("Fri 22:00-02:00"));
+        assertArrayEquals(new int[] {0, 60, 6 * 1440 + 1380, 7 * 1440}, LibraryBranch.parseHours("Sun 23:00-01:00"));
+        assertArrayEquals(new int[] {480, 840}, LibraryBranch.parseHours("Mon 08:00-12:00, Mon 12:00-14:00"));
+        assertArrayEquals(new int[] {0, 7 * 1440}, LibraryBranch.parseHours("Mon-Sun 00:00-24:00"));
+        LibraryBranch bar = new LibraryBranch("Night", "Night", 0, 0, "Fri 22:00-02:00");
+        assertTrue(bar.isOpen(MONDAY.plusDays(5).withHour(1)));
+        assertFalse(bar.isOpen(MONDAY.plusDays(5).withHour(2)));
+        for (String invalid : new String[] {"Mon 8:00-12:00", "Mon-Funday 08:00-12:00", "Mon 24:00-02:00", "Mon 08:00-25:00", ""}) {
+            try {
+                LibraryBranch.parseHours(invalid);
+                fail(invalid);
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void nearestOpenBranchMatchesAFullScan() {
+        Random random = new Random(24);
+        String[] hours = {"Mon-Fri 09:00-17:00", "Mon-Sat 08:00-22:00", "Sat-Sun 10:00-16:00", "Fri 18:00-02:00", "24/7"};
+        List<LibraryBranch> list = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            list.add(new LibraryBranch("Branch " + i, "Branch " + i, 40.8 + random.nextDouble() * 0.5,
+                    40.2 + random.nextDouble() * 0.6, hours[random.nextInt(i == 0 ? 4 : hours.length - 1)]));
+        }
+        BranchDirectory branches = new BranchDirectory(list);
+        for (int q = 0; q < 2000; q++) {
+            LocalDateTime time = MONDAY.plusMinutes(random.nextInt(LibraryBranch.MINUTES_PER_WEEK));
+            double latitude = 40.7 + random.nextDouble() * 0.7;
+            double longitude = 40.1 + random.nextDouble() * 0.8;
+            List<LibraryBranch> open = new ArrayList<>();
+            double closest = Double.POSITIVE_INFINITY;
+            for (LibraryBranch branch : list) {
+                if (branch.isOpen(time)) {
+                    open.add(branch);
+                    closest = Math.min(closest, BranchDirectory.distanceKm(latitude, longitude, branch.getLatitude(), branch.getLongitude()));
+                }
+            }
+            assertEquals(open, branches.openAt(time));
+            BranchDirectory.Nearest nearest = branches.nearest(latitude, longitude, time);
+            if (open.isEmpty()) {
+                assertNull(nearest);
+                continue;
+            }
+            assertTrue(nearest.getBranch().isOpen(time));
+            assertEquals(closest, nearest.getDistanceKm(), closest * 0.002 + 1e-9);
+        }
+        assertEquals("Branch 0", branches.nearest(list.get(0).getLatitude(), list.get(0).getLongitude(), null).getBranch().getName());
+    }
+
+    @Test
+    public void readParsesBranchFiles() throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), ("# name|latitude|longitude|hours\n"
+                + "Harbour Branch|41.03|40.51|Mon-Fri 09:00-18:00, Sat 10:00-14:00\n"
+                + "\n"
+                + "Night Desk | 41.01 | 40.53 | 24/7\n").getBytes(StandardCharsets.UTF_8));
+        BranchDirectory branches = BranchDirectory.read(file.toPath());
+        assertEquals(2, branches.size());
+        assertEquals("Library Location and Hours Informations\n"
+                + "Harbour Branch --> Mon-Fri 09:00-18:00, Sat 10:00-14:00\n"
+                + "Night Desk --> 24/7\n", branches.listing());
+        assertEquals(Arrays.asList("Night Desk"), names(branches.openAt(MONDAY.plusDays(5).withHour(15))));
+        assertEquals("Harbour Branch", branches.nearest(41.04, 40.50, MONDAY.withHour(9)).getBranch().getName());
+
+        Files.write(file.toPath(), "Harbour Branch|41.03|40.51\n".getBytes(StandardCharsets.UTF_8));
+        try {
+            BranchDirectory.read(file.toPath());
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Invalid branch on line 1"));
+        }
+    }
+
+    @Test
+    public void serviceKeepsItsBranchesWhenAFileIsInvalid() throws IOException {
+        LibraryService service = new LibraryService();
+        File file = folder.newFile();
+        Files.write(file.toPath(), "Harbour Branch|41.03|40.51|Mon 25:00-26:00\n".getBytes(StandardCharsets.UTF_8));
+        try {
+            service.loadBranches(file.getPath());
+            fail();
+        } catch (IOException expected) {
+            assertEquals(3, service.branches().size());
+        }
+        Files.write(file.toPath(), "Harbour Branch|41.03|40.51|Mon-Fri 09:00-18:00\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(1, service.loadBranches(file.getPath()));
+        assertEquals(1, service.openBranches(MONDAY.withHour(9)).size());
+        assertTrue(service.openBranches(MONDAY.withHour(18)).isEmpty());
+        assertNull(service.nearestOpenBranch(41, 40.5, MONDAY.withHour(18)));
+    }
+
+    @Test
+    public void emptyDirectoryFindsNothing() {
+        BranchDirectory branches = new BranchDirectory(new ArrayList<>());
+        assertTrue(branches.openAt(MONDAY).isEmpty());
+        assertNull(branches.nearest(41, 40, null));
+        assertNull(branches.nearest(41, 40, MONDAY));
+    }
+}
@@ -0,0 +1,64 @@
+package com.bera.enes.librarysystem;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CatalogImporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String content) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void importFileReadsCsvAndJsonRows() throws IOException {
+        File file = write("type,title\r\n"
+                + "book,Crime and Punishment\r\n"
+                + "movie,\"Batman, Begins \"\"Again\"\"\"\n"
+                + "\n"
+                + "{\"type\": \"Music\", \"year\": 2010, \"title\": \"Castle of Glass \\u00e9\"}\n"
+                + "magazine,Unknown Type\n"
+                + "book\n"
+                + "{\"title\":\"No Type\"}");
+        List<String> rows = new ArrayList<>();
+        CatalogImporter.Report report = new CatalogImporter().importFile(file.toPath(),
+                (type, title) -> rows.add(type.label() + ":" + title));
+        assertEquals(Arrays.asList("book:Crime and Punishment", "movie:Batman, Begins \"Again\"",
+                "music:Castle of Glass \u00e9"), rows);
+        assertEquals(3, report.getAcceptedRows());
+        assertEquals(3, report.getRejectedRows());
+        assertEquals(Arrays.asList(6L, 7L, 8L), report.getRejectedLines());
+    }
+
+    @Test
+    public void importFileHandlesLinesLongerThanTheBuffer() throws IOException {
+        char[] longTitle = new char[CatalogImporter.BUFFER_SIZE + 10];
+        Arrays.fill(longTitle, 'a');
+        File file = write("book," + new String(longTitle) + "\nmovie,Seven");
+        List<String> rows = new ArrayList<>();
+        CatalogImporter.Report report = new CatalogImporter().importFile(file.toPath(), (type, title) -> rows.add(title));
+        assertEquals(2, report.getAcceptedRows());
+        assertEquals(longTitle.length, rows.get(0).length());
+        assertEquals("Seven", rows.get(1));
+    }
+
+    @Test
+    public void parseCsvRejectsRowsWithoutTitle() {
+        assertNull(CatalogImporter.parseCsv("book"));
+        assertNull(CatalogImporter.parseCsv("book,\"unterminated"));
+        assertArrayEquals(new String[] {"book", "Ruh Adam"}, CatalogImporter.parseCsv(" book , Ruh Adam "));
+    }
+}
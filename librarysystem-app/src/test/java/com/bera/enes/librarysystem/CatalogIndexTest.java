@@ -0,0 +1,54 @@
+package com.bera.enes.librarysystem;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+public class CatalogIndexTest {
+
+    private CatalogStore sampleStore() {
+        CatalogStore store = new CatalogStore();
+        store.addAll(MediaType.BOOK, "Seven");
+        store.addAll(MediaType.MOVIE, "Seven", "Into the Wild", "Donnie Darko", "Seven");
+        return store;
+    }
+
+    @Test
+    public void findReturnsItemOfAvailableTitle() {
+        CatalogIndex index = new CatalogIndex(sampleStore(), MediaType.MOVIE);
+        assertEquals(2, index.find("Into the Wild"));
+        assertEquals(-1, index.find("into the wild"));
+        assertEquals(-1, index.find("Unknown"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void findSkipsReservedCopies() {
+        CatalogStore store = sampleStore();
+        CatalogIndex index = new CatalogIndex(store, MediaType.MOVIE);
+        assertEquals(1, index.find("Seven"));
+        store.reserve(1);
+        assertEquals(4, index.find("Seven"));
+        store.reserve(4);
+        assertEquals(-1, index.find("Seven"));
+        store.release(1);
+        assertEquals(1, index.find("Seven"));
+    }
+
+    @Test
+    public void manyCopiesOfOneTitleAreFoundInOrder() {
+        CatalogStore store = new CatalogStore();
+        for (int i = 0; i < 100000; i++) {
+            store.add(MediaType.BOOK, "Martin Eden");
+        }
+        CatalogIndex index = new CatalogIndex(store, MediaType.BOOK);
+        assertEquals(1, index.size());
+        for (int id = 0; id < 1000; id++) {
+            assertEquals(id, index.find("Martin Eden"));
+            store.reserve(id);
+        }
+        store.reserve(99999);
+        for (int id = 1000; id < 99999; id++) {
+            store.reserve(id);
+        }
+        assertEquals(-1, index.find("Martin Eden"));
+    }
+}
@@ -0,0 +1,43 @@
+package com.bera.enes.librarysystem;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CatalogStoreTest {
+
+    @Test
+    public void addAssignsDenseIdsAndInternsTitles() {
+        CatalogStore store = new CatalogStore();
+        assertEquals(0, store.add(MediaType.BOOK, "Seven"));
+        assertEquals(1, store.add(MediaType.MOVIE, "Seven"));
+        assertEquals(2, store.add(MediaType.MUSIC, "Mockingbird"));
+        assertEquals(3, store.size());
+        assertEquals(2, store.titleCount());
+        assertEquals(MediaType.MOVIE, store.type(1));
+        assertEquals("Seven", store.title(1));
+        assertArrayEquals(new String[] {"Mockingbird"}, store.titles(MediaType.MUSIC));
+    }
+
+    @Test
+    public void reserveAndReleaseFlipAvailability() {
+        CatalogStore store = new CatalogStore();
+        for (int i = 0; i < 200; i++) {
+            store.add(MediaType.BOOK, "Title " + i);
+        }
+        assertTrue(store.reserve(130));
+        assertFalse(store.reserve(130));
+        assertFalse(store.isAvailable(130));
+        assertTrue(store.isAvailable(129));
+        store.release(130);
+        assertTrue(store.isAvailable(130));
+        store.reserve(0);
+        store.reserve(63);
+        store.reserve(199);
+        store.releaseAll();
+        for (int i = 0; i < 200; i++) {
+            assertTrue(store.isAvailable(i));
+        }
+    }
+}
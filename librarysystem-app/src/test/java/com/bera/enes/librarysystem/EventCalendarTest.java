@@ -0,0 +1,128 @@
+package com.bera.enes.librarysystem;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EventCalendarTest {
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    private static List<Integer> numbers(List<LibraryEvent> events) {
+        List<Integer> numbers = new ArrayList<>();
+        for (LibraryEvent event : events) {
+            numbers.add(event.getNumber());
+        }
+        return numbers;
+    }
+
+    @Test
+    public void overlappingFindsEventsThatStartedEarlier() {
+        EventCalendar calendar = new EventCalendar();
+        calendar.add(new LibraryEvent(1, "Exhibition", NOON.minusDays(3), NOON.plusDays(3), 50));
+        calendar.add(new LibraryEvent(2, "Story time", NOON.minusHours(2), NOON.minusHours(1), 20));
+        calendar.add(new LibraryEvent(3, "Chess club", NOON.plusHours(1), NOON.plusHours(3), 16));
+        calendar.add(new LibraryEvent(4, "Film night", NOON.plusDays(1), NOON.plusDays(1).plusHours(2), 40));
+        calendar.add(new LibraryEvent(5, "Author chat", NOON.plusHours(1), NOON.plusHours(2), 100));
+        assertEquals(5, calendar.size());
+        assertEquals("[1, 3, 5]", numbers(calendar.overlapping(NOON, NOON.plusHours(12), null, 10)).toString());
+        assertEquals("[1, 2]", numbers(calendar.overlapping(NOON.minusHours(2), NOON.minusMinutes(90), null, 10)).toString());
+        assertEquals("[]", numbers(calendar.overlapping(NOON.plusHours(3), NOON.plusHours(3), null, 10)).toString());
+        assertEquals("[1, 3, 5, 4]", numbers(calendar.upcoming(NOON, 7, null, 10)).toString());
+        assertTrue(calendar.remove(calendar.overlapping(NOON, NOON.plusDays(7), null, 1).get(0)));
+        assertEquals("[3, 5, 4]", numbers(calendar.upcoming(NOON, 7, null, 10)).toString());
+    }
+
+    @Test
+    public void pagesFollowTheCursor() {
+        EventCalendar calendar = new EventCalendar();
+        for (int i = 1; i <= 10000; i++) {
+            LocalDateTime start = NOON.plusMinutes(90L * (10000 - i));
+            calendar.add(new LibraryEvent(i, "Workshop " + i, start, start.plusHours(1), 25));
+        }
+        List<Integer> seen = new ArrayList<>();
+        LibraryEvent last = null;
+        for (List<LibraryEvent> page = calendar.upcoming(NOON, 1, null, 7); !page.isEmpty();
+                page = calendar.upcoming(NOON, 1, last, 7)) {
+            assertFalse(page.size() > 7);
+            seen.addAll(numbers(page));
+            last = page.get(page.size() - 1);
+        }
+        assertEquals(16, seen.size());
+        assertEquals(10000, (int) seen.get(0));
+        assertEquals(9985, (int) seen.get(15));
+    }
+
+    @Test
+    public void removingALongEventNarrowsTheScanAgain() {
+        EventCalendar calendar = new EventCalendar();
+        LibraryEvent exhibition = new LibraryEvent(1, "Exhibition", NOON.minusYears(1), NOON.plusYears(1), 500);
+        calendar.add(exhibition);
+        for (int i = 2; i <= 100; i++) {
+            LocalDateTime start = NOON.plusHours(i);
+            calendar.add(new LibraryEvent(i, "Workshop " + i, start, start.plusMinutes(90), 25));
+        }
+        assertTrue(calendar.earliestScanned(NOON).isBefore(NOON.minusYears(1)));
+        assertEquals("[1, 2, 3]", numbers(calendar.overlapping(NOON, NOON.plusHours(4), null, 10)).toString());
+        assertTrue(calendar.remove(exhibition));
+        assertFalse(calendar.earliestScanned(NOON).isBefore(NOON.minusHours(3)));
+        assertEquals("[2, 3]", numbers(calendar.overlapping(NOON, NOON.plusHours(4), null, 10)).toString());
+        assertEquals(99, calendar.size());
+    }
+
+    @Test
+    public void pagesMatchAFullScanAcrossDurations() {
+        Random random = new Random(22);
+        EventCalendar calendar = new EventCalendar();
+        List<LibraryEvent> all = new ArrayList<>();
+        for (int i = 1; i <= 3000; i++) {
+            LocalDateTime start = NOON.plusMinutes(random.nextInt(60 * 24 * 60));
+            long minutes = 1 + (long) Math.pow(2, random.nextInt(17));
+            LibraryEvent event = new LibraryEvent(i, "Event " + i, start, start.plusMinutes(minutes), 10);
+            calendar.add(event);
+            all.add(event);
+        }
+        for (int i = 0; i < 500; i++) {
+            assertTrue(calendar.remove(all.remove(random.nextInt(all.size()))));
+        }
+        all.sort(EventCalendar.BY_START);
+        for (int q = 0; q < 200; q++) {
+            LocalDateTime from = NOON.plusMinutes(random.nextInt(60 * 24 * 70) - 60 * 24 * 10);
+            LocalDateTime to = from.plusMinutes(1 + random.nextInt(60 * 24 * 3));
+            List<Integer> expected = new ArrayList<>();
+            for (LibraryEvent event : all) {
+                if (event.getStart().isBefore(to) && event.getEnd().isAfter(from)) {
+                    expected.add(event.getNumber());
+                }
+            }
+            List<Integer> paged = new ArrayList<>();
+            LibraryEvent last = null;
+            for (List<LibraryEvent> page = calendar.overlapping(from, to, null, 5); !page.isEmpty();
+                    page = calendar.overlapping(from, to, last, 5)) {
+                paged.addAll(numbers(page));
+                last = page.get(page.size() - 1);
+            }
+            assertEquals(expected, paged);
+        }
+    }
+
+    @Test
+    public void defaultEventsAreTimedFromTheClock() {
+        Clock clock = Clock.fixed(NOON.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        EventRegistry registry = new EventRegistry(clock);
+        assertEquals(LocalDateTime.of(2025, 3, 12, 17, 0), registry.event(1).getStart());
+        assertEquals(LocalDateTime.of(2025, 3, 15, 10, 0), registry.event(2).getStart());
+        assertEquals("[1]", numbers(registry.upcoming(3, null, 10)).toString());
+        assertEquals("Mon 10 Mar 2025, 12:00 PM", new LibraryEvent(3, "Quiz", NOON, NOON.plusHours(1), 30).getSchedule());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void eventsMustEndAfterTheyStart() {
+        new LibraryEvent(1, "Quiz", NOON, NOON, 30);
+    }
+}
@@ -0,0 +1,108 @@
+package com.bera.enes.librarysystem;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventRegistrationImporterTest {
+    private static final LocalDateTime IN_TEN_DAYS = LocalDateTime.now().plusDays(10);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String content) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void importFileRegistersValidRowsAndReportsRejects() throws IOException {
+        EventRegistry registry = new EventRegistry();
+        registry.add(new LibraryEvent(3, "Author chat", "Monday, 6 p.m", IN_TEN_DAYS, IN_TEN_DAYS.plusHours(1), 2));
+        File file = write("event,name\r\n"
+                + "3,Ada Lovelace\r\n"
+                + "3,\"Grace Hopper\"\n"
+                + "\n"
+                + "3,Alan Turing\n"
+                + "1,R2D2\n"
+                + "4,Barbara Liskov\n"
+                + "01,Edsger Dijkstra\n"
+                + "no comma\n"
+                + "3,Ada Lovelace\n"
+                + "2,\"Say \"\"hi\"\"\"");
+        File rejects = new File(folder.getRoot(), "rejects.csv");
+        EventRegistrationImporter.Report report = new EventRegistrationImporter(registry, 2)
+                .importFile(file.toPath(), rejects.toPath());
+        assertEquals(3, report.getRegisteredRows());
+        assertEquals(1, report.getWaitlistedRows());
+        assertEquals(5, report.getRejectedRows());
+        assertTrue(registry.isRegistered("Grace Hopper", 3));
+        assertEquals(EventRegistry.Seat.WAITLISTED, registry.seat("Alan Turing", 3));
+        assertEquals("line,reason,row\n"
+                + "6,INVALID_NAME,\"1,R2D2\"\n"
+                + "7,UNKNOWN_EVENT,\"4,Barbara Liskov\"\n"
+                + "8,MALFORMED,\"01,Edsger Dijkstra\"\n"
+                + "9,MALFORMED,\"no comma\"\n"
+                + "11,INVALID_NAME,\"2,\"\"Say \"\"\"\"hi\"\"\"\"\"\"\"\n",
+                new String(Files.readAllBytes(rejects.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void largeFilesKeepFileOrderAcrossBlocks() throws IOException {
+        EventRegistry registry = new EventRegistry();
+        registry.add(new LibraryEvent(3, "Author chat", "Monday, 6 p.m", IN_TEN_DAYS, IN_TEN_DAYS.plusHours(1), 150000));
+        File file = folder.newFile();
+        int rows = 200000;
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                out.write(i % 1000 == 999 ? "3,Patron " + i + "\n" : "3,Patron " + letters(i) + "\n");
+            }
+        }
+        assertTrue(file.length() > 2 * EventRegistrationImporter.CHUNK_SIZE);
+        EventRegistrationImporter.Report report = new EventRegistrationImporter(registry, 4).importFile(file.toPath(), null);
+        assertEquals(200, report.getRejectedRows());
+        assertEquals(150000, report.getRegisteredRows());
+        assertEquals(rows - 200 - 150000, report.getWaitlistedRows());
+        assertEquals(150000, registry.seatsTaken(3));
+        assertTrue(registry.isRegistered("Patron " + letters(150149), 3));
+        assertEquals(EventRegistry.Seat.WAITLISTED, registry.seat("Patron " + letters(150150), 3));
+    }
+
+    private static String letters(int i) {
+        StringBuilder name = new StringBuilder();
+        for (int n = i; n > 0 || name.length() == 0; n /= 26) {
+            name.append((char) ('a' + n % 26));
+        }
+        return name.toString();
+    }
+
+    @Test
+    public void eventNumbersAreParsedStrictly() {
+        assertEquals(42, EventRegistrationImporter.eventNumber("42"));
+        assertEquals(999999999, EventRegistrationImporter.eventNumber("999999999"));
+        assertEquals(-1, EventRegistrationImporter.eventNumber("1000000000"));
+        assertEquals(-1, EventRegistrationImporter.eventNumber("0"));
+        assertEquals(-1, EventRegistrationImporter.eventNumber("-1"));
+        assertEquals(-1, EventRegistrationImporter.eventNumber(""));
+    }
+
+    @Test
+    public void serviceImportsIntoItsEvents() throws IOException {
+        LibraryService service = new LibraryService();
+        File file = write("2,Enes Koy\n2,Ugur Coruh\n");
+        EventRegistrationImporter.Report report = service.importEventRegistrations(file.getPath(), null);
+        assertEquals(2, report.getRegisteredRows());
+        assertEquals(2, service.eventRegistrations(2));
+        List<LibraryEvent> events = service.upcomingEvents(30, null, 10);
+        assertEquals(2, events.size());
+    }
+}
@@ -0,0 +1,100 @@
+package com.bera.enes.librarysystem;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EventRegistryTest {
+    private static final LocalDateTime IN_TEN_DAYS = LocalDateTime.now().plusDays(10);
+    @Test
+    public void listingMatchesTheDefaultEvents() {
+        EventRegistry registry = new EventRegistry();
+        assertEquals("Upcoming Library Events\n" +
+                "1 - Reading incentive program for children (Two days later, 5 p.m)\n" +
+                "2 - Book chat with the author (Five days later, 10 a.m)\n", registry.listing());
+        registry.add(new LibraryEvent(12, "Poetry night", "Friday, 8 p.m", IN_TEN_DAYS, IN_TEN_DAYS.plusHours(1), 10));
+        assertEquals("Poetry night", registry.upcoming(30, null, 10).get(2).getTitle());
+        assertNull(registry.event(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void eventNumbersAreUnique() {
+        new EventRegistry().add(new LibraryEvent(2, "Another chat", "Tomorrow", IN_TEN_DAYS, IN_TEN_DAYS.plusHours(1), 5));
+    }
+
+    @Test
+    public void fullEventsWaitlistInArrivalOrder() {
+        EventRegistry registry = new EventRegistry();
+        registry.add(new LibraryEvent(7, "Author chat", "Monday, 6 p.m", IN_TEN_DAYS, IN_TEN_DAYS.plusHours(1), 2));
+        assertEquals(EventRegistry.Seat.CONFIRMED, registry.register("Ada", 7));
+        assertEquals(EventRegistry.Seat.CONFIRMED, registry.register("Grace", 7));
+        assertEquals(EventRegistry.Seat.CONFIRMED, registry.register("Ada", 7));
+        assertEquals(EventRegistry.Seat.WAITLISTED, registry.register("Alan", 7));
+        assertEquals(EventRegistry.Seat.WAITLISTED, registry.register("Barbara", 7));
+        assertEquals(2, registry.seatsTaken(7));
+        assertEquals(2, registry.waitlisted(7));
+        assertFalse(registry.isRegistered("Alan", 7));
+        assertNull(registry.register("Ada", 8));
+
+        assertTrue(registry.cancel("Ada", 7));
+        assertTrue(registry.isRegistered("Alan", 7));
+        assertEquals(EventRegistry.Seat.WAITLISTED, registry.seat("Barbara", 7));
+        assertTrue(registry.cancel("Barbara", 7));
+        assertTrue(registry.cancel("Grace", 7));
+        assertFalse(registry.cancel("Grace", 7));
+        assertEquals(1, registry.seatsTaken(7));
+        assertEquals(0, registry.waitlisted(7));
+        assertEquals(EventRegistry.Seat.CONFIRMED, registry.register("Barbara", 7));
+    }
+
+    @Test
+    public void batchesSeatNamesInOrder() {
+        EventRegistry registry = new EventRegistry();
+        registry.add(new LibraryEvent(7, "Author chat", "Monday, 6 p.m", IN_TEN_DAYS, IN_TEN_DAYS.plusHours(1), 3));
+        registry.register("Grace", 7);
+        EventRegistry.Seat[] seats = registry.registerAll(Arrays.asList("Ada", "Grace", "Ada", "Alan", "Barbara"), 7);
+        assertEquals("[CONFIRMED, CONFIRMED, CONFIRMED, CONFIRMED, WAITLISTED]", Arrays.toString(seats));
+        assertEquals(3, registry.seatsTaken(7));
+        assertEquals(1, registry.waitlisted(7));
+        assertTrue(registry.cancel("Ada", 7));
+        assertTrue(registry.isRegistered("Barbara", 7));
+        assertNull(registry.registerAll(Arrays.asList("Ada"), 8));
+    }
+
+    @Test
+    public void concurrentRegistrationsNeverOverbook() throws InterruptedException {
+        EventRegistry registry = new EventRegistry();
+        registry.add(new LibraryEvent(5, "Popular author chat", "Saturday, 2 p.m", IN_TEN_DAYS, IN_TEN_DAYS.plusHours(1), 100));
+        AtomicInteger confirmed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int first = t * 500;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = first; i < first + 500; i++) {
+                    if (registry.register("Patron " + i, 5) == EventRegistry.Seat.CONFIRMED) {
+                        confirmed.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(100, confirmed.get());
+        assertEquals(100, registry.seatsTaken(5));
+        assertEquals(3900, registry.waitlisted(5));
+    }
+}
@@ -0,0 +1,86 @@
+package com.bera.enes.librarysystem;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FuzzyIndexTest {
+    private final FuzzyIndex index = new FuzzyIndex(new String[] {
+        "Seven", "Steven", "Into the Wild", "Donnie Darko", "", "seven"});
+
+    @Test
+    public void searchFindsTitlesWithinDistance() {
+        assertEquals(Arrays.asList("Into the Wild"), index.search("Into teh Wild", 2, 5));
+        assertEquals(Arrays.asList("Seven", "Steven"), index.search("sevn", 2, 5));
+        assertEquals(Arrays.asList("Seven"), index.search("sevn", 1, 5));
+    }
+
+    @Test
+    public void searchIgnoresDistantTitles() {
+        assertEquals(Collections.emptyList(), index.search("Batman Begins", 2, 5));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    public void distanceCountsEdits() {
+        assertEquals(0, FuzzyIndex.distance("wild", "wild"));
+        assertEquals(3, FuzzyIndex.distance("kitten", "sitting"));
+        assertEquals(4, FuzzyIndex.distance("", "wild"));
+    }
+
+    @Test
+    public void boundedDistanceMatchesTheFullComputation() {
+        Random random = new Random(5);
+        for (int i = 0; i < 2000; i++) {
+            String a = randomWord(random, 12);
+            String b = randomWord(random, 12);
+            int full = fullDistance(a, b);
+            assertEquals(full, FuzzyIndex.distance(a, b));
+            for (int bound = 0; bound <= 6; bound++) {
+                assertEquals(a + " " + b + " " + bound, Math.min(full, bound + 1), FuzzyIndex.distance(a, b, bound));
+            }
+        }
+    }
+
+    @Test
+    public void searchVisitsASmallPartOfTheTree() {
+        Random random = new Random(11);
+        String[] words = {"the", "night", "river", "house", "crime", "garden", "winter", "ghost", "city", "wild",
+            "punishment", "madonna", "darko", "summer", "return", "shadow", "empire", "silent", "golden", "stone"};
+        String[] titles = new String[20000];
+        for (int i = 0; i < titles.length; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int w = 0; w < 2 + random.nextInt(3); w++) {
+                title.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            titles[i] = title.append(i).toString();
+        }
+        FuzzyIndex large = new FuzzyIndex(titles);
+        assertEquals(titles.length, large.size());
+        String typo = titles[1234].replaceFirst("e", "a");
+        assertEquals(titles[1234], large.search(typo, 2, 1).get(0));
+        int visited = large.visited(typo, 2);
+        assertTrue("visited " + visited, visited < large.size() / 10);
+    }
+
+    private static String randomWord(Random random, int maxLength) {
+        char[] chars = new char[random.nextInt(maxLength + 1)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(4));
+        }
+        return new String(chars);
+    }
+
+    private static int fullDistance(String a, String b) {
+        int[][] table = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                table[i][j] = i == 0 ? j : j == 0 ? i : Math.min(table[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1),
+                        Math.min(table[i - 1][j], table[i][j - 1]) + 1);
+            }
+        }
+        return table[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,101 @@
+package com.bera.enes.librarysystem;
+import java.util.List;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KeywordIndexTest {
+
+    private KeywordIndex sampleIndex() {
+        KeywordIndex index = new KeywordIndex();
+        index.addAll(MediaType.BOOK, new String[] {"Crime and Punishment", "Martin Eden", ""});
+        index.addAll(MediaType.MOVIE, new String[] {"Into the Wild", "The Wild Bunch"});
+        return index;
+    }
+
+    @Test
+    public void searchRanksByWordOverlap() {
+        List<KeywordIndex.Hit> hits = sampleIndex().search("wild BUNCH", 5);
+        assertEquals(2, hits.size());
+        assertEquals("The Wild Bunch", hits.get(0).getTitle());
+        assertEquals(2, hits.get(0).getScore());
+        assertEquals("Into the Wild", hits.get(1).getTitle());
+        assertEquals(MediaType.MOVIE, hits.get(1).getType());
+    }
+
+    @Test
+    public void titlesAreIndexedOncePerMediaType() {
+        KeywordIndex index = sampleIndex();
+        index.addAll(MediaType.MOVIE, new String[] {"The Wild Bunch", "The Wild Bunch"});
+        index.add(MediaType.MUSIC, "The Wild Bunch");
+        assertEquals(5, index.size());
+        List<KeywordIndex.Hit> hits = index.search("wild bunch", 5);
+        assertEquals(3, hits.size());
+        assertEquals(MediaType.MOVIE, hits.get(0).getType());
+        assertEquals(MediaType.MUSIC, hits.get(1).getType());
+        assertEquals("Into the Wild", hits.get(2).getTitle());
+    }
+
+    @Test
+    public void filteredTitlesLeaveRoomForOthers() {
+        List<KeywordIndex.Hit> hits = sampleIndex().search("the wild", 1, (type, title) -> !title.startsWith("Into"));
+        assertEquals(1, hits.size());
+        assertEquals("The Wild Bunch", hits.get(0).getTitle());
+        assertTrue(sampleIndex().search("wild", 5, (type, title) -> false).isEmpty());
+    }
+
+    @Test
+    public void searchHonoursLimitAndIgnoresUnknownWords() {
+        KeywordIndex index = sampleIndex();
+        assertEquals(4, index.size());
+        assertEquals(1, index.search("the punishment", 1).size());
+        assertTrue(index.search("zebra", 5).isEmpty());
+    }
+
+    @Test
+    public void commonWordsGiveTheSameRankingAsAFullMerge() {
+        Random random = new Random(3);
+        String[] words = {"the", "of", "and", "wild", "night", "river", "house", "crime", "garden", "winter", "ghost", "city"};
+        KeywordIndex index = new KeywordIndex();
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int w = 0; w < 1 + random.nextInt(4); w++) {
+                int word = Math.min(words.length - 1, (int) (Math.abs(random.nextGaussian()) * 4));
+                title.append(words[word]).append(' ');
+            }
+            titles.add(title.toString().trim());
+            index.add(MediaType.BOOK, titles.get(i));
+        }
+        for (int q = 0; q < 300; q++) {
+            String query = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + words[random.nextInt(3)];
+            int limit = 1 + random.nextInt(10);
+            Set<String> queryWords = KeywordIndex.tokenize(query);
+            List<int[]> expected = new ArrayList<>();
+            Set<String> distinct = new HashSet<>();
+            for (int id = 0; id < titles.size(); id++) {
+                if (!distinct.add(titles.get(id))) {
+                    continue;
+                }
+                int score = 0;
+                for (String word : KeywordIndex.tokenize(titles.get(id))) {
+                    score += queryWords.contains(word) ? 1 : 0;
+                }
+                if (score > 0) {
+                    expected.add(new int[] {score, id});
+                }
+            }
+            expected.sort((a, b) -> a[0] != b[0] ? Integer.compare(b[0], a[0]) : Integer.compare(a[1], b[1]));
+            List<KeywordIndex.Hit> hits = index.search(query, limit);
+            assertEquals(Math.min(limit, expected.size()), hits.size());
+            for (int i = 0; i < hits.size(); i++) {
+                assertEquals(query, expected.get(i)[0], hits.get(i).getScore());
+                assertEquals(query, titles.get(expected.get(i)[1]), hits.get(i).getTitle());
+            }
+        }
+    }
+}
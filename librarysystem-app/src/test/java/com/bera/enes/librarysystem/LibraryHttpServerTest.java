@@ -0,0 +1,189 @@
+package com.bera.enes.librarysystem;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LibraryHttpServerTest {
+    private static final LocalDateTime IN_TEN_DAYS = LocalDateTime.now().plusDays(10);
+    private LibraryService service;
+    private LibraryHttpServer server;
+    private int status;
+
+    @Before
+    public void startServer() throws IOException {
+        service = new LibraryService();
+        server = new LibraryHttpServer(service, 0);
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    private String request(String method, String path, String form) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.port() + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(10000);
+        connection.setReadTimeout(10000);
+        if (form != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(form.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        status = connection.getResponseCode();
+        assertEquals("application/json; charset=utf-8", connection.getContentType());
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            byte[] buffer = new byte[1024];
+            for (int read; (read = in.read(buffer)) != -1;) {
+                body.write(buffer, 0, read);
+            }
+        }
+        return body.toString("UTF-8");
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void searchReturnsTheItemOrSuggestions() throws IOException {
+        assertEquals("{\"type\":\"book\",\"query\":\"Martin Eden\",\"available\":true,\"item\":1,\"title\":\"Martin Eden\",\"suggestions\":[]}",
+                request("GET", "/api/search?type=book&title=" + encode("Martin Eden"), null));
+        assertEquals(200, status);
+        assertEquals("{\"type\":\"book\",\"query\":\"crime\",\"available\":false,\"suggestions\":[\"Crime and Punishment\"]}",
+                request("GET", "/api/search?type=Book&title=crime", null));
+        assertEquals("{\"words\":\"wild into\",\"hits\":[{\"type\":\"movie\",\"title\":\"Into the Wild\",\"score\":2}]}",
+                request("GET", "/api/search?words=" + encode("wild into"), null));
+    }
+
+    @Test
+    public void partialTitlesAreCompleted() throws IOException {
+        assertEquals("{\"type\":\"movie\",\"prefix\":\"d\",\"titles\":[\"Donnie Darko\"]}",
+                request("GET", "/api/search?type=movie&prefix=d", null));
+        assertEquals(200, status);
+        service.reserve("Enes Koy", MediaType.BOOK, "Crime and Punishment");
+        assertEquals("{\"type\":\"book\",\"prefix\":\"\",\"titles\":[]}", request("GET", "/api/search?type=book&prefix=", null));
+        request("GET", "/api/search?type=book&prefix=c&limit=51", null);
+        assertEquals(400, status);
+    }
+
+    @Test
+    public void reservationsAreMadeAndListed() throws IOException {
+        String form = "user=" + encode("Enes Koy") + "&type=music&title=" + encode("Ohne Dich");
+        String reserved = request("POST", "/api/reservations", form);
+        assertEquals(201, status);
+        assertTrue(reserved.startsWith("{\"status\":\"RESERVED\",\"reservation\":{\"record\":0,"));
+        assertTrue(reserved.contains("},\"holdUntil\":\""));
+        assertEquals("{\"status\":\"NOT_AVAILABLE\"}", request("POST", "/api/reservations", form));
+        assertEquals(409, status);
+        String listed = request("GET", "/api/reservations?user=" + encode("Enes Koy"), null);
+        assertEquals(200, status);
+        assertTrue(listed.contains("\"title\":\"Ohne Dich\",\"user\":\"Enes Koy\""));
+        assertEquals(1, service.listReservations("Enes Koy").size());
+    }
+
+    @Test
+    public void eventRegistrationValidatesItsInput() throws IOException {
+        assertEquals("{\"status\":\"REGISTERED\",\"user\":\"Ada\",\"event\":2}",
+                request("POST", "/api/events/registrations", "user=Ada&event=2"));
+        assertEquals(201, status);
+        assertEquals(1, service.eventRegistrations(2));
+        request("POST", "/api/events/registrations", "user=Ada&event=9");
+        assertEquals(400, status);
+        request("POST", "/api/events/registrations", "user=Ada&event=two");
+        assertEquals(400, status);
+        service.eventRegistry().add(new LibraryEvent(3, "Author chat", "Monday, 6 p.m", IN_TEN_DAYS, IN_TEN_DAYS.plusHours(1), 1));
+        request("POST", "/api/events/registrations", "user=Ada&event=3");
+        assertEquals(201, status);
+        assertEquals("{\"status\":\"WAITLISTED\",\"user\":\"Grace\",\"event\":3}",
+                request("POST", "/api/events/registrations", "user=Grace&event=3"));
+        assertEquals(202, status);
+    }
+
+    @Test
+    public void eventsAreListedInPages() throws IOException {
+        for (int i = 3; i <= 5; i++) {
+            service.eventRegistry().add(new LibraryEvent(i, "Workshop " + i, "Day " + i, IN_TEN_DAYS.plusDays(i), IN_TEN_DAYS.plusDays(i).plusHours(1), 10));
+        }
+        String first = request("GET", "/api/events?limit=2", null);
+        assertEquals(200, status);
+        assertTrue(first.startsWith("{\"events\":[{\"event\":1,\"title\":\"Reading incentive program for children\","));
+        assertTrue(first.endsWith(",\"capacity\":120,\"seatsTaken\":0}],\"next\":2}"));
+        String second = request("GET", "/api/events?limit=2&after=2", null);
+        assertTrue(second.contains("\"event\":3,\"title\":\"Workshop 3\",\"schedule\":\"Day 3\",\"start\":\"" + IN_TEN_DAYS.plusDays(3) + "\""));
+        assertTrue(second.endsWith("\"next\":4}"));
+        assertTrue(request("GET", "/api/events?limit=2&after=4", null).endsWith("\"seatsTaken\":0}],\"next\":null}"));
+        String range = request("GET", "/api/events?from=" + IN_TEN_DAYS.plusDays(4) + "&to=" + IN_TEN_DAYS.plusDays(5), null);
+        assertTrue(range.startsWith("{\"events\":[{\"event\":4,"));
+        assertTrue(range.endsWith("}],\"next\":null}"));
+        request("GET", "/api/events?from=tomorrow&to=" + IN_TEN_DAYS, null);
+        assertEquals(400, status);
+        request("GET", "/api/events?after=99", null);
+        assertEquals(400, status);
+    }
+
+    @Test
+    public void branchesAreListedByOpeningHoursAndDistance() throws IOException {
+        String sunday = request("GET", "/api/branches?at=2025-03-16T12:00&lat=41.0385&lon=40.4921", null);
+        assertEquals(200, status);
+        assertEquals("{\"at\":\"2025-03-16T12:00\",\"open\":[{\"name\":\"Private Library (Next to the public cultural center)\","
+                + "\"lat\":41.0232,\"lon\":40.5166,\"hours\":\"24/7\"}],\"nearest\":{\"name\":\"Private Library (Next to the public cultural center)\","
+                + "\"lat\":41.0232,\"lon\":40.5166,\"hours\":\"24/7\",\"distanceKm\":2.668}}", sunday);
+        String monday = request("GET", "/api/branches?at=2025-03-17T12:00&lat=41.0385&lon=40.4921", null);
+        assertTrue(monday.contains("\"nearest\":{\"name\":\"Public Library (Inside main campus)\","));
+        assertTrue(monday.endsWith("\"distanceKm\":0.000}}"));
+        assertTrue(request("GET", "/api/branches", null).startsWith("{\"at\":"));
+        request("GET", "/api/branches?lat=91&lon=40", null);
+        assertEquals(400, status);
+        request("GET", "/api/branches?lat=41", null);
+        assertEquals(400, status);
+    }
+
+    @Test
+    public void invalidRequestsGetJsonErrors() throws IOException {
+        assertEquals("{\"error\":\"Missing parameter: title\"}", request("GET", "/api/search?type=book", null));
+        assertEquals(400, status);
+        assertEquals("{\"error\":\"Unknown media type\"}", request("GET", "/api/search?type=game&title=x", null));
+        assertEquals(400, status);
+        request("POST", "/api/reservations", "user=Nobody&type=book&title=Seven");
+        assertEquals(403, status);
+        assertEquals("{\"error\":\"User is not registered\"}", request("GET", "/api/reservations?user=Nobody", null));
+        assertEquals(403, status);
+        request("DELETE", "/api/search?words=wild", null);
+        assertEquals(405, status);
+        request("GET", "/api/search/more?words=wild", null);
+        assertEquals(404, status);
+    }
+
+    @Test
+    public void stringsAreEscaped() throws Exception {
+        StringBuilder json = new StringBuilder();
+        LibraryHttpServer.appendString(json, "a\"b\\c\nd\u0001");
+        assertEquals("\"a\\\"b\\\\c\\nd\\u0001\"", json.toString());
+        Map<String, String> params = new HashMap<>();
+        LibraryHttpServer.parseParams("title=Crime+and%20Punishment&flag", params);
+        assertEquals("Crime and Punishment", params.get("title"));
+        assertEquals("", params.get("flag"));
+    }
+}
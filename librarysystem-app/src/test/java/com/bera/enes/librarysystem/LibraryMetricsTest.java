@@ -0,0 +1,64 @@
+package com.bera.enes.librarysystem;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LibraryMetricsTest {
+    @Test
+    public void serviceCountsSearchesReservationsAndSnapshots() throws IOException {
+        LibraryService service = new LibraryService();
+        service.search(MediaType.BOOK, "Martin Eden");
+        service.search(MediaType.BOOK, "Martin");
+        service.reserve("Enes Koy", MediaType.MOVIE, "Seven");
+        service.reserve("Enes Koy", MediaType.MOVIE, "Seven");
+        service.listReservations("Enes Koy");
+        File file = File.createTempFile("metrics", ".bin");
+        try {
+            long bytes = service.writeBinary(file.getPath());
+            LibraryMetrics metrics = service.metrics();
+            assertEquals(Long.valueOf(1), metrics.getSearchHits().get("book"));
+            assertEquals(Long.valueOf(1), metrics.getSearchMisses().get("book"));
+            assertEquals(Long.valueOf(0), metrics.getSearchHits().get("movie"));
+            assertEquals(Long.valueOf(1), metrics.getReservationsMade().get("movie"));
+            assertEquals(Long.valueOf(1), metrics.getReservationsFailed().get("movie"));
+            assertEquals(1, metrics.getSnapshotsWritten());
+            assertEquals(bytes, metrics.getLastSnapshotBytes());
+            assertEquals(2, metrics.latency(LibraryMetrics.Operation.SEARCH).count());
+            assertEquals(2, metrics.latency(LibraryMetrics.Operation.RESERVE).count());
+            assertEquals(1, metrics.latency(LibraryMetrics.Operation.VIEW_RESERVATIONS).count());
+            assertEquals(1, metrics.getLatencies().get("WRITE_BINARY").getCount());
+            String dump = metrics.dump();
+            assertTrue(dump.startsWith("Library Metrics\n"));
+            assertTrue(dump.contains("movie  searches: 0 hit, 0 missed; reservations: 1 made, 1 failed\n"));
+        } finally {
+            file.delete();
+            new File(file.getPath() + ".delta").delete();
+        }
+    }
+
+    @Test
+    public void metricsAreReadableOverJmx() throws Exception {
+        LibraryService service = new LibraryService();
+        service.search(MediaType.MUSIC, "Mockingbird");
+        service.metrics().register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(LibraryMetrics.OBJECT_NAME);
+        try {
+            TabularData hits = (TabularData) server.getAttribute(name, "SearchHits");
+            assertEquals(1L, hits.get(new Object[] {"music"}).get("value"));
+            TabularData latencies = (TabularData) server.getAttribute(name, "Latencies");
+            CompositeData search = (CompositeData) latencies.get(new Object[] {"SEARCH"}).get("value");
+            assertEquals(1L, search.get("count"));
+            assertTrue(((String) server.invoke(name, "dump", null, null)).startsWith("Library Metrics\n"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.bera.enes.librarysystem;
+import java.io.File;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LibraryServiceTest {
+    private static final LocalDateTime IN_TEN_DAYS = LocalDateTime.now().plusDays(10);
+    private final LibraryService service = new LibraryService();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void searchFindsExactTitlesAndSuggestsCloseOnes() {
+        LibraryService.SearchResult hit = service.search(MediaType.MOVIE, "Seven");
+        assertTrue(hit.isAvailable());
+        assertEquals("Seven", hit.getTitle());
+        assertEquals(MediaType.MOVIE, service.catalog().type(hit.getItem()));
+        assertTrue(hit.getSuggestions().isEmpty());
+
+        LibraryService.SearchResult prefix = service.search(MediaType.BOOK, "crime");
+        assertFalse(prefix.isAvailable());
+        assertNull(prefix.getTitle());
+        assertEquals(Arrays.asList("Crime and Punishment"), prefix.getSuggestions());
+
+        assertEquals(Arrays.asList("Donnie Darko"), service.search(MediaType.MOVIE, "Donie Darco").getSuggestions());
+        assertTrue(service.search(MediaType.MUSIC, "Seven").getSuggestions().isEmpty());
+    }
+
+    @Test
+    public void reserveListAndReturnItems() {
+        LibraryService.ReservationResult result = service.reserve("Enes Koy", MediaType.BOOK, "Martin Eden");
+        assertTrue(result.isReserved());
+        assertEquals("Martin Eden", result.getReservation().getTitle());
+        assertEquals(MediaType.BOOK, result.getReservation().getType());
+        assertEquals("Enes Koy", result.getReservation().getUser());
+        assertEquals(LibraryService.ReservationResult.Status.NOT_AVAILABLE,
+                service.reserve("Ugur Coruh", MediaType.BOOK, "Martin Eden").getStatus());
+        assertTrue(service.isRegistered("Ugur Coruh"));
+        assertFalse(service.isRegistered("Example User"));
+        assertFalse(service.search(MediaType.BOOK, "Martin Eden").isAvailable());
+
+        service.reserve("Enes Koy", MediaType.MUSIC, "Mockingbird");
+        List<LibraryService.Reservation> reservations = service.listReservations("Enes Koy");
+        assertEquals(2, reservations.size());
+        assertEquals("Mockingbird", reservations.get(1).getTitle());
+        assertTrue(service.listReservations("Ugur Coruh").isEmpty());
+
+        assertEquals(2, service.returnAll("Enes Koy"));
+        assertTrue(service.listReservations("Enes Koy").isEmpty());
+        assertTrue(service.search(MediaType.BOOK, "Martin Eden").isAvailable());
+    }
+
+    @Test
+    public void registerForEventValidatesNameAndEvent() {
+        assertTrue(service.registerForEvent("Enes Koy", 1).isRegistered());
+        assertTrue(service.registerForEvent("Enes Koy", 1).isRegistered());
+        assertEquals(1, service.eventRegistrations(1));
+        assertEquals(LibraryService.EventRegistration.Status.INVALID_USER,
+                service.registerForEvent("Enes K0y", 2).getStatus());
+        assertEquals(LibraryService.EventRegistration.Status.INVALID_EVENT,
+                service.registerForEvent("Enes Koy", 3).getStatus());
+        assertEquals(0, service.eventRegistrations(2));
+        assertFalse(service.hasEvent(3));
+    }
+
+    @Test
+    public void fullEventsWaitlistUntilASeatIsCancelled() {
+        service.eventRegistry().add(new LibraryEvent(3, "Author chat", "Monday, 6 p.m", IN_TEN_DAYS, IN_TEN_DAYS.plusHours(1), 1));
+        assertTrue(service.hasEvent(3));
+        assertTrue(service.registerForEvent("Enes Koy", 3).isRegistered());
+        assertEquals(LibraryService.EventRegistration.Status.WAITLISTED,
+                service.registerForEvent("Ugur Coruh", 3).getStatus());
+        assertTrue(service.cancelEventRegistration("Enes Koy", 3));
+        assertTrue(service.eventRegistry().isRegistered("Ugur Coruh", 3));
+        assertEquals(1, service.eventRegistrations(3));
+    }
+
+    @Test
+    public void concurrentCallersReserveEachItemOnce() throws InterruptedException {
+        final String[] users = {"Ahmet Bera Celik", "Enes Koy", "Ugur Coruh", "Yakup Eroglu"};
+        final AtomicInteger reserved = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (final String user : users) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (MediaType type : MediaType.values()) {
+                    for (String title : service.catalog().titles(type)) {
+                        if (service.reserve(user, type, title).isReserved()) {
+                            reserved.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(service.catalog().size(), reserved.get());
+        int listed = 0;
+        for (String user : users) {
+            listed += service.listReservations(user).size();
+        }
+        assertEquals(service.catalog().size(), listed);
+    }
+
+    @Test
+    public void reservationsAreHeldForTheHoldPeriod() {
+        LocalDateTime noon = LocalDateTime.of(2025, 3, 10, 12, 0);
+        LibraryService held = new LibraryService(Clock.fixed(noon.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        LibraryService.ReservationResult result = held.reserve("Enes Koy", MediaType.BOOK, "Martin Eden");
+        assertEquals(noon.plus(LibraryService.DEFAULT_HOLD_PERIOD), result.getHoldUntil());
+        long now = noon.toInstant(ZoneOffset.UTC).toEpochMilli();
+        long until = now + LibraryService.DEFAULT_HOLD_PERIOD.toMillis();
+        assertEquals(0, held.reservations().expireHolds(until - 1));
+        assertFalse(held.search(MediaType.BOOK, "Martin Eden").isAvailable());
+        assertEquals(1, held.reservations().expireHolds(until));
+        assertTrue(held.search(MediaType.BOOK, "Martin Eden").isAvailable());
+        assertTrue(held.listReservations("Enes Koy").isEmpty());
+
+        held.setHoldPeriod(Duration.ZERO);
+        assertNull(held.reserve("Enes Koy", MediaType.BOOK, "Martin Eden").getHoldUntil());
+        assertEquals(0, held.reservations().pendingHolds());
+    }
+
+    @Test
+    public void keywordSearchListsAvailableTitlesOnce() {
+        CatalogStore catalog = new CatalogStore();
+        for (int copy = 0; copy < 2 * LibraryService.SUGGESTION_LIMIT; copy++) {
+            catalog.add(MediaType.BOOK, "Night Garden");
+        }
+        catalog.add(MediaType.BOOK, "Garden of Winter");
+        catalog.add(MediaType.MOVIE, "Winter Garden");
+        catalog.add(MediaType.MUSIC, "Garden Party");
+        LibraryService library = new LibraryService(new ReservationEngine(catalog));
+        library.reserve("Enes Koy", MediaType.MOVIE, "Winter Garden");
+
+        List<String> titles = new ArrayList<>();
+        for (KeywordIndex.Hit hit : library.keywordSearch("garden")) {
+            titles.add(hit.getType() + " " + hit.getTitle());
+        }
+        assertEquals(Arrays.asList("BOOK Night Garden", "BOOK Garden of Winter", "MUSIC Garden Party"), titles);
+        assertArrayEquals(new String[] {"Night Garden", "Garden of Winter"}, catalog.distinctTitles(MediaType.BOOK));
+    }
+
+    @Test
+    public void loadedReservationsAreHeldAgain() throws IOException {
+        service.reserve("Enes Koy", MediaType.MOVIE, "Seven");
+        service.reserve("Ugur Coruh", MediaType.MUSIC, "Ohne Dich");
+        File file = new File(folder.getRoot(), "LibraryData.bin");
+        service.writeBinary(file.getPath());
+        LibraryService loaded = new LibraryService();
+        loaded.readBinary(file.getPath());
+        assertEquals(2, loaded.reservations().pendingHolds());
+        File log = new File(folder.getRoot(), "LibraryData.wal");
+        loaded.openLog(log.getPath());
+        loaded.reserve("Enes Koy", MediaType.BOOK, "Ruh Adam");
+        loaded.closeLog();
+        LibraryService replayed = new LibraryService();
+        replayed.readBinary(file.getPath());
+        assertEquals(1, replayed.openLog(log.getPath()));
+        assertEquals(3, replayed.reservations().pendingHolds());
+        replayed.closeLog();
+    }
+
+    @Test
+    public void holdsKeepTheirEndAcrossRestarts() throws IOException {
+        LocalDateTime noon = LocalDateTime.of(2025, 3, 10, 12, 0);
+        File file = new File(folder.getRoot(), "LibraryData.bin");
+        File log = new File(folder.getRoot(), "LibraryData.wal");
+        LibraryService first = new LibraryService(Clock.fixed(noon.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        first.reserve("Enes Koy", MediaType.BOOK, "Martin Eden");
+        first.writeBinary(file.getPath());
+        first.openLog(log.getPath());
+        first.reserve("Ugur Coruh", MediaType.MOVIE, "Seven");
+        first.closeLog();
+        long until = noon.plus(LibraryService.DEFAULT_HOLD_PERIOD).toInstant(ZoneOffset.UTC).toEpochMilli();
+
+        LibraryService next = new LibraryService(Clock.fixed(noon.plusDays(1).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        next.readBinary(file.getPath());
+        next.openLog(log.getPath());
+        assertEquals(2, next.reservations().pendingHolds());
+        ReservationLedger ledger = next.reservations().ledger();
+        for (String user : new String[] {"Enes Koy", "Ugur Coruh"}) {
+            int[] records = ledger.activeRecords(next.reservations().users().id(user));
+            assertEquals(1, records.length);
+            assertEquals(until, ledger.holdUntil(records[0]));
+        }
+        assertEquals(0, next.reservations().expireHolds(until - 1));
+        next.closeLog();
+
+        LocalDateTime expired = noon.plus(LibraryService.DEFAULT_HOLD_PERIOD).plusHours(1);
+        LibraryService late = new LibraryService(Clock.fixed(expired.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        late.readBinary(file.getPath());
+        assertTrue(late.search(MediaType.BOOK, "Martin Eden").isAvailable());
+        late.openLog(log.getPath());
+        assertTrue(late.search(MediaType.MOVIE, "Seven").isAvailable());
+        assertEquals(0, late.reservations().pendingHolds());
+        assertTrue(late.listReservations("Ugur Coruh").isEmpty());
+        late.closeLog();
+    }
+
+    @Test
+    public void reservationsConfirmedDuringCheckpointsSurviveARestart() throws Exception {
+        final int items = 4000;
+        CatalogStore catalog = new CatalogStore();
+        for (int i = 0; i < items; i++) {
+            catalog.add(MediaType.BOOK, "Title " + i);
+        }
+        LibraryService running = new LibraryService(new ReservationEngine(catalog));
+        File file = new File(folder.getRoot(), "LibraryData.bin");
+        File log = new File(folder.getRoot(), "LibraryData.wal");
+        running.openLog(log.getPath());
+        final ReservationEngine engine = running.reservations();
+        final AtomicIntegerArray confirmed = new AtomicIntegerArray(items);
+        Thread[] terminals = new Thread[4];
+        for (int t = 0; t < terminals.length; t++) {
+            final int terminal = t;
+            terminals[t] = new Thread(() -> {
+                for (int item = terminal; item < items; item += terminals.length) {
+                    if (engine.reserve(item, "Patron " + terminal) >= 0) {
+                        confirmed.set(item, terminal + 1);
+                    }
+                }
+            });
+            terminals[t].start();
+        }
+        for (boolean busy = true; busy;) {
+            running.writeBinary(file.getPath());
+            busy = false;
+            for (Thread terminal : terminals) {
+                busy |= terminal.isAlive();
+            }
+        }
+        for (Thread terminal : terminals) {
+            terminal.join();
+        }
+        running.closeLog();
+
+        LibraryService restarted = new LibraryService();
+        restarted.readBinary(file.getPath());
+        restarted.openLog(log.getPath());
+        ReservationEngine restored = restarted.reservations();
+        for (int item = 0; item < items; item++) {
+            assertTrue(confirmed.get(item) > 0);
+            int record = restored.ledger().activeRecord(item);
+            assertTrue("item " + item, record >= 0);
+            assertEquals("Patron " + (confirmed.get(item) - 1), restored.users().name(restored.ledger().user(record)));
+        }
+        restarted.closeLog();
+    }
+
+    @Test
+    public void checkpointThreadWritesSnapshotsWhileRunning() throws Exception {
+        File file = new File(folder.getRoot(), "LibraryData.bin");
+        File log = new File(folder.getRoot(), "LibraryData.wal");
+        service.openLog(log.getPath());
+        service.reserve("Enes Koy", MediaType.BOOK, "Martin Eden");
+        service.startCheckpoints(file.getPath(), Duration.ofMillis(20));
+        try {
+            for (int i = 0; i < 100 && (!file.exists() || log.length() > 0); i++) {
+                Thread.sleep(50);
+            }
+            assertTrue(file.exists());
+            assertEquals(0, log.length());
+            service.reserve("Ugur Coruh", MediaType.MOVIE, "Seven");
+            File delta = SnapshotDelta.pathFor(file.toPath()).toFile();
+            for (int i = 0; i < 100 && (!delta.exists() || log.length() > 0); i++) {
+                Thread.sleep(50);
+            }
+            assertTrue(delta.exists());
+            assertEquals(0, log.length());
+        } finally {
+            service.stopCheckpoints();
+        }
+        service.closeLog();
+
+        LibraryService restarted = new LibraryService();
+        restarted.readBinary(file.getPath());
+        assertEquals(0, restarted.openLog(log.getPath()));
+        assertEquals(1, restarted.listReservations("Enes Koy").size());
+        assertEquals(1, restarted.listReservations("Ugur Coruh").size());
+        restarted.closeLog();
+    }
+
+    @Test
+    public void holdExpiryThreadReleasesExpiredHolds() throws InterruptedException {
+        service.setHoldPeriod(Duration.ofMillis(1));
+        service.reserve("Enes Koy", MediaType.BOOK, "Uncle Vanya");
+        service.startHoldExpiry();
+        try {
+            for (int i = 0; i < 100 && !service.search(MediaType.BOOK, "Uncle Vanya").isAvailable(); i++) {
+                Thread.sleep(100);
+            }
+        } finally {
+            service.stopHoldExpiry();
+        }
+        assertTrue(service.search(MediaType.BOOK, "Uncle Vanya").isAvailable());
+    }
+
+    @Test
+    public void completeSkipsReservedTitles() {
+        assertEquals(Arrays.asList("Castle of Glass"), service.complete(MediaType.MUSIC, "cas", 5));
+        assertEquals(Arrays.asList("Into the Wild"), service.complete(MediaType.MOVIE, "in", 5));
+        service.reserve("Enes Koy", MediaType.BOOK, "Kinyas ve Kayra");
+        assertEquals(Collections.emptyList(), service.complete(MediaType.BOOK, "kin", 5));
+        service.reserve("Enes Koy", MediaType.MOVIE, "The Prestige");
+        assertEquals(Collections.emptyList(), service.complete(MediaType.MOVIE, "the", 1));
+        assertEquals(Collections.emptyList(), service.complete(MediaType.MOVIE, " ", 5));
+    }
+}
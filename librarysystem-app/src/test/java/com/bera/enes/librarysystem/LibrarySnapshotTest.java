@@ -0,0 +1,225 @@
+package com.bera.enes.librarysystem;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LibrarySnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ReservationEngine sampleEngine() {
+        CatalogStore catalog = new CatalogStore();
+        catalog.addAll(MediaType.BOOK, "Crime and Punishment", "Kürk Mantolu Madonna");
+        catalog.addAll(MediaType.MOVIE, "Seven", "Seven");
+        ReservationEngine engine = new ReservationEngine(catalog);
+        engine.reserve(1, "Enes Koy");
+        engine.reserve(2, "Ugur Coruh");
+        int released = engine.reserve(3, "Enes Koy");
+        engine.release(released);
+        return engine;
+    }
+
+    @Test
+    public void readRestoresCatalogAndReservations() throws IOException {
+        File file = new File(folder.getRoot(), "LibraryData.bin");
+        long size = LibrarySnapshot.write(file.toPath(), sampleEngine());
+        assertEquals(file.length(), size);
+
+        ReservationEngine restored = LibrarySnapshot.read(file.toPath());
+        CatalogStore catalog = restored.catalog();
+        assertEquals(4, catalog.size());
+        assertEquals(3, catalog.titleCount());
+        assertEquals("Kürk Mantolu Madonna", catalog.title(1));
+        assertEquals(MediaType.MOVIE, catalog.type(3));
+        assertTrue(catalog.isAvailable(0));
+        assertFalse(catalog.isAvailable(1));
+        assertFalse(catalog.isAvailable(2));
+        assertTrue(catalog.isAvailable(3));
+        assertEquals(1, restored.ledger().activeRecords(restored.users().id("Enes Koy")).length);
+        assertArrayEquals(new int[] {1}, restored.ledger().activeRecords(restored.users().id("Ugur Coruh")));
+        assertNull(catalog.mapped());
+        assertEquals(4, catalog.add(MediaType.MUSIC, "Seven"));
+        assertEquals(3, catalog.titleCount());
+    }
+
+    @Test
+    public void readRejectsCorruptFiles() throws IOException {
+        File file = new File(folder.getRoot(), "LibraryData.bin");
+        LibrarySnapshot.write(file.toPath(), sampleEngine());
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(20);
+            raw.write(raw.read() ^ 0xFF);
+        }
+        try {
+            LibrarySnapshot.read(file.toPath());
+            fail("corrupt snapshot was accepted");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Snapshot checksum mismatch"));
+        }
+        Files.write(file.toPath(), new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+        try {
+            LibrarySnapshot.read(file.toPath());
+            fail("foreign file was accepted");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Not a library snapshot"));
+        }
+    }
+
+    @Test
+    public void mapRestoresReservationsWithoutCopyingTheCatalog() throws IOException {
+        File file = new File(folder.getRoot(), "LibraryData.bin");
+        LibrarySnapshot.write(file.toPath(), sampleEngine());
+
+        ReservationEngine mapped = LibrarySnapshot.map(file.toPath());
+        CatalogStore catalog = mapped.catalog();
+        assertTrue(catalog.mapped() != null);
+        assertEquals(4, catalog.size());
+        assertEquals("Kürk Mantolu Madonna", catalog.title(1));
+        assertEquals(MediaType.MOVIE, catalog.type(2));
+        assertFalse(catalog.isAvailable(1));
+        assertTrue(catalog.isAvailable(3));
+        assertArrayEquals(new String[] {"Seven", "Seven"}, catalog.titles(MediaType.MOVIE));
+        assertEquals(3, new CatalogIndex(catalog, MediaType.MOVIE).find("Seven"));
+        assertEquals(-1, new CatalogIndex(catalog, MediaType.BOOK).find("Seven"));
+        assertEquals(2, new CatalogIndex(catalog, MediaType.BOOK).size());
+
+        File copy = new File(folder.getRoot(), "Copy.bin");
+        LibrarySnapshot.write(copy.toPath(), mapped);
+        assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(copy.toPath()));
+    }
+
+    @Test
+    public void mapRejectsACorruptCatalog() throws IOException {
+        File file = new File(folder.getRoot(), "LibraryData.bin");
+        LibrarySnapshot.write(file.toPath(), sampleEngine());
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(file.length() - 40);
+            raw.write(raw.read() ^ 0xFF);
+        }
+        try {
+            LibrarySnapshot.map(file.toPath());
+            fail("corrupt snapshot was mapped");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Snapshot checksum mismatch"));
+        }
+    }
+
+    @Test
+    public void mapChecksCatalogSectionsWhenFirstRead() throws IOException {
+        File file = new File(folder.getRoot(), "LibraryData.bin");
+        LibrarySnapshot.write(file.toPath(), sampleEngine());
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        byte[] title = "Kürk".getBytes(StandardCharsets.UTF_8);
+        int at = 0;
+        while (!Arrays.equals(title, Arrays.copyOfRange(bytes, at, at + title.length))) {
+            at++;
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(at);
+            raw.write('J');
+        }
+
+        CatalogStore catalog = LibrarySnapshot.map(file.toPath()).catalog();
+        assertFalse(catalog.isAvailable(1));
+        assertEquals(MediaType.MOVIE, catalog.type(2));
+        try {
+            catalog.title(1);
+            fail("corrupt title bytes were decoded");
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause().getMessage().startsWith("Snapshot checksum mismatch"));
+        }
+        try {
+            LibrarySnapshot.read(file.toPath());
+            fail("corrupt snapshot was read");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Snapshot checksum mismatch"));
+        }
+    }
+
+    @Test
+    public void writingFromAMappedSnapshotSwitchesFiles() throws IOException {
+        File file = new File(folder.getRoot(), "LibraryData.bin");
+        File alternate = LibrarySnapshot.alternate(file.toPath()).toFile();
+        LibrarySnapshot.write(file.toPath(), sampleEngine());
+        byte[] first = Files.readAllBytes(file.toPath());
+
+        ReservationEngine mapped = LibrarySnapshot.map(file.toPath());
+        mapped.reserve(0, "Enes Koy");
+        LibrarySnapshot.write(file.toPath(), mapped);
+        assertArrayEquals(first, Files.readAllBytes(file.toPath()));
+        assertTrue(alternate.exists());
+        assertEquals(alternate.toPath(), LibrarySnapshot.current(file.toPath()));
+        assertEquals(alternate.length(), LibrarySnapshot.id(file.toPath()) >>> 32);
+
+        ReservationEngine remapped = LibrarySnapshot.map(file.toPath());
+        assertFalse(remapped.catalog().isAvailable(0));
+        remapped.release(remapped.ledger().activeRecord(0));
+        LibrarySnapshot.write(file.toPath(), remapped);
+        assertEquals(file.toPath(), LibrarySnapshot.current(file.toPath()));
+        assertTrue(LibrarySnapshot.read(file.toPath()).catalog().isAvailable(0));
+
+        LibrarySnapshot.write(file.toPath(), sampleEngine());
+        assertFalse(alternate.exists());
+        assertEquals(file.toPath(), LibrarySnapshot.current(file.toPath()));
+    }
+
+    @Test
+    public void snapshotsTakenDuringReservationsReadBack() throws Exception {
+        CatalogStore catalog = new CatalogStore();
+        for (int i = 0; i < 2000; i++) {
+            catalog.add(MediaType.BOOK, "Title " + i);
+        }
+        ReservationEngine engine = new ReservationEngine(catalog);
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread[] terminals = new Thread[4];
+        for (int t = 0; t < terminals.length; t++) {
+            final int terminal = t;
+            terminals[t] = new Thread(() -> {
+                Random random = new Random(terminal);
+                int[] held = new int[100];
+                for (int i = 0; i < 100_000 && !stop.get(); i++) {
+                    int slot = i % held.length;
+                    if (i >= held.length && held[slot] >= 0) {
+                        engine.release(held[slot]);
+                    }
+                    held[slot] = engine.reserve(random.nextInt(2000), "Patron " + random.nextInt(20));
+                }
+            });
+            terminals[t].start();
+        }
+        try {
+            for (int i = 0; i < 50; i++) {
+                File file = new File(folder.getRoot(), "LibraryData" + i + ".bin");
+                LibrarySnapshot.write(file.toPath(), engine);
+                ReservationEngine restored = LibrarySnapshot.read(file.toPath());
+                int reserved = 0;
+                for (int item = 0; item < 2000; item++) {
+                    int record = restored.ledger().activeRecord(item);
+                    assertEquals(record < 0, restored.catalog().isAvailable(item));
+                    reserved += record < 0 ? 0 : 1;
+                }
+                assertEquals(reserved, restored.ledger().size());
+            }
+        } finally {
+            stop.set(true);
+            for (Thread terminal : terminals) {
+                terminal.join();
+            }
+        }
+    }
+}
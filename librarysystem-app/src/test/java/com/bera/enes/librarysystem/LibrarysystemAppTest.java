@@ -7,8 +7,13 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 public class LibrarysystemAppTest {
     private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
@@ -37,4 +42,40 @@ public class LibrarysystemAppTest {
         
         assertEquals(true, actualOutput.startsWith(expectedOutputStartsWith));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void unreadableDataFileStopsStartup() throws IOException, InterruptedException {
+        Path data = Paths.get(LibrarysystemApp.DATA_FILE);
+        Path log = Paths.get(LibrarysystemApp.LOG_FILE);
+        Files.deleteIfExists(log);
+        byte[] corrupt = "not a library snapshot".getBytes();
+        Files.write(data, corrupt);
+        try {
+            LibrarysystemApp.main(null);
+            assertFalse(outContent.toString().contains("1. Catalog Search"));
+            assertArrayEquals(corrupt, Files.readAllBytes(data));
+            assertFalse(Files.exists(log));
+        } finally {
+            Files.deleteIfExists(data);
+        }
+    }
+
+    @Test
+    public void catalogImportKeepsAPendingLog() throws IOException, InterruptedException {
+        Path data = Paths.get(LibrarysystemApp.DATA_FILE);
+        Path log = Paths.get(LibrarysystemApp.LOG_FILE);
+        Path catalog = Files.createTempFile("catalog", ".csv");
+        byte[] pending = "pending reservations".getBytes();
+        Files.deleteIfExists(data);
+        Files.write(log, pending);
+        try {
+            LibrarysystemApp.main(new String[] {catalog.toString()});
+            assertFalse(outContent.toString().contains("1. Catalog Search"));
+            assertArrayEquals(pending, Files.readAllBytes(log));
+            assertFalse(Files.exists(data));
+        } finally {
+            Files.deleteIfExists(log);
+            Files.deleteIfExists(catalog);
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.bera.enes.librarysystem;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -10,6 +14,7 @@ import static org.junit.Assert.assertEquals;
 import org.junit.Assert;
 
 public class LibrarysystemTest {
+    private static final LocalDateTime IN_TEN_DAYS = LocalDateTime.now().plusDays(10);
 	private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
     private Librarysystem librarysystem;
 
@@ -60,7 +65,7 @@ public class LibrarysystemTest {
     
     @Test
     public void testMainMenuValid() throws IOException, InterruptedException{
-    	ByteArrayInputStream inContent = new ByteArrayInputStream("1\n4\n2\nEnes Koy\n\n4\n3\n3\n4\n\n5\n".getBytes());
+    	ByteArrayInputStream inContent = new ByteArrayInputStream("1\n5\n2\nEnes Koy\n\n4\n3\n3\n4\n\n5\n".getBytes());
         System.setIn(inContent);
 
         librarysystem = new Librarysystem(System.in, System.out);
@@ -75,8 +80,9 @@ public class LibrarysystemTest {
                 "1. Search Books\n" +
                 "2. Search Movies\n" +
                 "3. Search Music\n" +
-                "4. Exit\n" +
-                "Enter your choice (1-4):" +
+                "4. Keyword Search\n" +
+                "5. Exit\n" +
+                "Enter your choice (1-5):" +
                 "1. Catalog Search\n" +
                 "2. Reservation And Renewal\n" +
                 "3. Event And Workshop Schedule\n" +
@@ -124,7 +130,7 @@ public class LibrarysystemTest {
     
     @Test
     public void testCatalogSearchMenuInvalid() throws IOException, InterruptedException{
-    	ByteArrayInputStream inContent = new ByteArrayInputStream("abc\n\n48\n\n4\n".getBytes());
+    	ByteArrayInputStream inContent = new ByteArrayInputStream("abc\n\n48\n\n5\n".getBytes());
         System.setIn(inContent);
 
         librarysystem = new Librarysystem(System.in, System.out);
@@ -134,20 +140,23 @@ public class LibrarysystemTest {
         String expectedOutput = "1. Search Books\n" +
                 "2. Search Movies\n" +
                 "3. Search Music\n" +
-                "4. Exit\n" +
-                "Enter your choice (1-4):" +
+                "4. Keyword Search\n" +
+                "5. Exit\n" +
+                "Enter your choice (1-5):" +
                 "Invalid choice. Please enter a number.\n" +
                 "1. Search Books\n" +
                 "2. Search Movies\n" +
                 "3. Search Music\n" +
-                "4. Exit\n" +
-                "Enter your choice (1-4):" +
+                "4. Keyword Search\n" +
+                "5. Exit\n" +
+                "Enter your choice (1-5):" +
                 "Invalid choice. Please try again.\n" +
                 "1. Search Books\n" +
                 "2. Search Movies\n" +
                 "3. Search Music\n" +
-                "4. Exit\n" +
-                "Enter your choice (1-4):";
+                "4. Keyword Search\n" +
+                "5. Exit\n" +
+                "Enter your choice (1-5):";
         assertEquals(expectedOutput, outContent.toString());
         System.setIn(null);
         System.setOut(null);
@@ -155,7 +164,7 @@ public class LibrarysystemTest {
     
     @Test
     public void testCatalogSearchMenuValid() throws IOException, InterruptedException{
-    	ByteArrayInputStream inContent = new ByteArrayInputStream("1\ninvalidinput\n\n2\ninvalidinput\n\n3\ninvalidinput\n\n4\n".getBytes());
+    	ByteArrayInputStream inContent = new ByteArrayInputStream("1\ninvalidinput\n\n2\ninvalidinput\n\n3\ninvalidinput\n\n4\ninvalidinput\n\n5\n".getBytes());
         System.setIn(inContent);
 
         librarysystem = new Librarysystem(System.in, System.out);
@@ -164,32 +173,45 @@ public class LibrarysystemTest {
         String expectedOutput = "1. Search Books\n" +
                 "2. Search Movies\n" +
                 "3. Search Music\n" +
-                "4. Exit\n" +
-                "Enter your choice (1-4):" +
+                "4. Keyword Search\n" +
+                "5. Exit\n" +
+                "Enter your choice (1-5):" +
                 "Please write book name you want to search, please pay attention to upper and lower case letters.\n" +
         	    "(A correct example: Crime and Punishment):\n" +
         	    "Sorry... The book you are looking for is not available.\n" +
                 "1. Search Books\n" +
                 "2. Search Movies\n" +
                 "3. Search Music\n" +
-                "4. Exit\n" +
-                "Enter your choice (1-4):" +
+                "4. Keyword Search\n" +
+                "5. Exit\n" +
+                "Enter your choice (1-5):" +
                 "Please write movie name you want to search, please pay attention to upper and lower case letters.\n" +
         	    "(A correct example: Into the Wild):\n" +
         	    "Sorry... The movie you are looking for is not available.\n" +
                 "1. Search Books\n" +
                 "2. Search Movies\n" +
                 "3. Search Music\n" +
-                "4. Exit\n" +
-                "Enter your choice (1-4):" +
+                "4. Keyword Search\n" +
+                "5. Exit\n" +
+                "Enter your choice (1-5):" +
                 "Please write music name you want to search, please pay attention to upper and lower case letters.\n" +
         	    "(A correct example: Castle of Glass):\n" +
         	    "Sorry... The music you are looking for is not available.\n" +
                 "1. Search Books\n" +
                 "2. Search Movies\n" +
                 "3. Search Music\n" +
-                "4. Exit\n" +
-                "Enter your choice (1-4):";
+                "4. Keyword Search\n" +
+                "5. Exit\n" +
+                "Enter your choice (1-5):" +
+                "Please write the words you remember from the title.\n" +
+        	    "(A correct example: Punishment):\n" +
+        	    "Sorry... No title contains the words you are looking for.\n" +
+                "1. Search Books\n" +
+                "2. Search Movies\n" +
+                "3. Search Music\n" +
+                "4. Keyword Search\n" +
+                "5. Exit\n" +
+                "Enter your choice (1-5):";
         assertEquals(expectedOutput, outContent.toString());
         System.setIn(null);
         System.setOut(null);
@@ -211,6 +233,78 @@ public class LibrarysystemTest {
         System.setOut(null);
     }
     
+    @Test
+    public void SearchBooksSuggestsIgnoringCase() throws IOException, InterruptedException{
+    	ByteArrayInputStream inContent = new ByteArrayInputStream("\ncrime and\n\n".getBytes());
+        System.setIn(inContent);
+
+        librarysystem = new Librarysystem(System.in, System.out);
+        boolean result = librarysystem.searchBooks();
+        Assert.assertFalse(result);
+        String expectedOutput = "Please write book name you want to search, please pay attention to upper and lower case letters.\n" +
+        	    "(A correct example: Crime and Punishment):\n" +
+        	    "Sorry... The book you are looking for is not available.\n" +
+        	    "Did you mean: Crime and Punishment?\n";
+        assertEquals(expectedOutput, outContent.toString());
+        System.setIn(null);
+        System.setOut(null);
+    }
+    
+    @Test
+    public void SearchMoviesSuggestsTypoCorrection() throws IOException, InterruptedException{
+    	ByteArrayInputStream inContent = new ByteArrayInputStream("\nDonie Darco\n\n".getBytes());
+        System.setIn(inContent);
+
+        librarysystem = new Librarysystem(System.in, System.out);
+        boolean result = librarysystem.searchMovies();
+        Assert.assertFalse(result);
+        String expectedOutput = "Please write movie name you want to search, please pay attention to upper and lower case letters.\n" +
+        	    "(A correct example: Into the Wild):\n" +
+        	    "Sorry... The movie you are looking for is not available.\n" +
+        	    "Did you mean: Donnie Darko?\n";
+        assertEquals(expectedOutput, outContent.toString());
+        System.setIn(null);
+        System.setOut(null);
+    }
+    
+    @Test
+    public void KeywordSearchValid() throws IOException, InterruptedException{
+    	ByteArrayInputStream inContent = new ByteArrayInputStream("\nthe wild punishment\n\n".getBytes());
+        System.setIn(inContent);
+
+        librarysystem = new Librarysystem(System.in, System.out);
+        boolean result = librarysystem.keywordSearch();
+        Assert.assertTrue(result);
+        String expectedOutput = "Please write the words you remember from the title.\n" +
+        	    "(A correct example: Punishment):\n" +
+        	    "The movie Into the Wild matches your words.\n" +
+        	    "The book Crime and Punishment matches your words.\n" +
+        	    "The movie The Prestige matches your words.\n" +
+        	    "The music Turn the Page matches your words.\n";
+        assertEquals(expectedOutput, outContent.toString());
+        System.setIn(null);
+        System.setOut(null);
+    }
+    
+    @Test
+    public void loadCatalogReplacesTitles() throws IOException, InterruptedException{
+        File catalog = File.createTempFile("catalog", ".csv");
+        catalog.deleteOnExit();
+        Files.write(catalog.toPath(), "book,Dune\nmovie,Alien\nposter,Rejected\n".getBytes(StandardCharsets.UTF_8));
+    	ByteArrayInputStream inContent = new ByteArrayInputStream("\nDune\n\n".getBytes());
+        System.setIn(inContent);
+
+        librarysystem = new Librarysystem(System.in, System.out);
+        CatalogImporter.Report report = librarysystem.loadCatalog(catalog.getPath());
+        assertEquals(2, report.getAcceptedRows());
+        assertEquals(1, report.getRejectedRows());
+        Assert.assertTrue(librarysystem.searchBooks());
+        Assert.assertFalse(librarysystem.service().search(MediaType.BOOK, "Crime and Punishment").isAvailable());
+        Assert.assertEquals(2, librarysystem.service().catalog().size());
+        System.setIn(null);
+        System.setOut(null);
+    }
+    
     @Test
     public void SearchMoviesValid() throws IOException, InterruptedException{
     	ByteArrayInputStream inContent = new ByteArrayInputStream("\nThe Prestige\n\n".getBytes());
@@ -555,6 +649,25 @@ public class LibrarysystemTest {
         System.setOut(null);
     }
     
+    @Test
+    public void viewEventsPagesLongListings() throws IOException, InterruptedException{
+    	ByteArrayInputStream inContent = new ByteArrayInputStream("\n\n".getBytes());
+        System.setIn(inContent);
+        librarysystem = new Librarysystem(System.in, System.out);
+        StringBuilder expectedOutput = new StringBuilder("Upcoming Library Events\n" +
+        		"1 - Reading incentive program for children (Two days later, 5 p.m)\n" +
+        		"2 - Book chat with the author (Five days later, 10 a.m)\n");
+        for (int i = 3; i <= 12; i++) {
+            librarysystem.service().eventRegistry().add(new LibraryEvent(i, "Workshop", "Day " + i, IN_TEN_DAYS.plusHours(i), IN_TEN_DAYS.plusHours(i + 1), 10));
+            expectedOutput.append(i == 11 ? "Press enter to see more events.\nUpcoming Library Events\n" : "");
+            expectedOutput.append(i + " - Workshop (Day " + i + ")\n");
+        }
+        librarysystem.viewEvents();
+        assertEquals(expectedOutput.toString(), outContent.toString());
+        System.setIn(null);
+        System.setOut(null);
+    }
+    
     @Test
     public void registerForEventsValid() throws IOException, InterruptedException{
     	ByteArrayInputStream inContent = new ByteArrayInputStream("\nExample User\n1\n\n".getBytes());
@@ -574,6 +687,27 @@ public class LibrarysystemTest {
         System.setOut(null);
     }
     
+    @Test
+    public void registerForEventsFullEventWaitlists() throws IOException, InterruptedException{
+    	ByteArrayInputStream inContent = new ByteArrayInputStream("\nExample User\n3\n\n".getBytes());
+        System.setIn(inContent);
+        librarysystem = new Librarysystem(System.in, System.out);
+        librarysystem.service().eventRegistry().add(new LibraryEvent(3, "Author chat", "Monday, 6 p.m", IN_TEN_DAYS, IN_TEN_DAYS.plusHours(1), 1));
+        librarysystem.service().registerForEvent("Enes Koy", 3);
+        boolean result = librarysystem.registerForEvents();
+        Assert.assertTrue(result);
+        String expectedOutput = "Upcoming Library Events\n" +
+        		"1 - Reading incentive program for children (Two days later, 5 p.m)\n" +
+        		"2 - Book chat with the author (Five days later, 10 a.m)\n" +
+        		"3 - Author chat (Monday, 6 p.m)\n" +
+        		"Please enter your name:\n" +
+        		"Please select the event you want to register:\n" +
+        		"The event 3 is full. Example User has been added to the waiting list and will get the next free seat.\n";
+        assertEquals(expectedOutput, outContent.toString());
+        System.setIn(null);
+        System.setOut(null);
+    }
+    
     @Test
     public void registerForEventsInvalid() throws IOException, InterruptedException{
     	ByteArrayInputStream inContent = new ByteArrayInputStream("\nExample User\nletter\n\n".getBytes());
@@ -607,4 +741,19 @@ public class LibrarysystemTest {
         boolean result2 = Librarysystem.eventNoCheck("-5");
         Assert.assertFalse(result2);
     }
-}
\ No newline at end of file
+    
+    @Test
+    public void adminChoiceShowsMetrics() throws IOException, InterruptedException{
+    	ByteArrayInputStream inContent = new ByteArrayInputStream("1\n1\nMartin Eden\n\n5\n9\n\n5\n".getBytes());
+        System.setIn(inContent);
+        librarysystem = new Librarysystem(System.in, System.out);
+        boolean result = librarysystem.mainMenu();
+        Assert.assertTrue(result);
+        String output = outContent.toString();
+        Assert.assertTrue(output.contains("Library Metrics\n"));
+        Assert.assertTrue(output.contains("book   searches: 1 hit, 0 missed; reservations: 0 made, 0 failed\n"));
+        Assert.assertFalse(output.contains(Librarysystem.ADMIN_CHOICE + ". "));
+        System.setIn(null);
+        System.setOut(null);
+    }
+}
@@ -0,0 +1,68 @@
+package com.bera.enes.librarysystem;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MappedCatalogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private CatalogStore mappedStore(CatalogStore source) throws IOException {
+        File file = new File(folder.getRoot(), "LibraryData.bin");
+        LibrarySnapshot.write(file.toPath(), new ReservationEngine(source));
+        return LibrarySnapshot.map(file.toPath()).catalog();
+    }
+
+    @Test
+    public void findTitleSearchesTheSortedTitleTable() throws IOException {
+        CatalogStore source = new CatalogStore();
+        source.addAll(MediaType.BOOK, "seven", "Zebra", "apple", "Seven", "Éclair", "Apple");
+        MappedCatalog mapped = mappedStore(source).mapped();
+
+        assertEquals(6, mapped.titleCount());
+        for (String title : new String[] {"seven", "Zebra", "apple", "Seven", "Éclair", "Apple"}) {
+            int titleId = mapped.findTitle(title);
+            assertTrue(titleId >= 0);
+            assertEquals(title, mapped.titleAt(titleId));
+        }
+        assertEquals(-1, mapped.findTitle("SEVEN"));
+        assertEquals(-1, mapped.findTitle("Banana"));
+        assertEquals("Apple", mapped.titleAt(0));
+        assertEquals("apple", mapped.titleAt(1));
+    }
+
+    @Test
+    public void itemsAreGroupedByTitle() throws IOException {
+        CatalogStore source = new CatalogStore();
+        source.addAll(MediaType.MOVIE, "Seven", "Alien", "Seven");
+        source.addAll(MediaType.MUSIC, "Seven");
+        MappedCatalog mapped = mappedStore(source).mapped();
+
+        int seven = mapped.findTitle("Seven");
+        assertEquals(3, mapped.firstItem(seven + 1) - mapped.firstItem(seven));
+        for (int at = mapped.firstItem(seven); at < mapped.firstItem(seven + 1); at++) {
+            assertEquals(seven, mapped.titleId(mapped.itemAt(at)));
+        }
+        assertEquals(MediaType.MUSIC.ordinal(), mapped.typeOrdinal(3));
+    }
+
+    @Test
+    public void addingToAMappedStoreCopiesItsColumns() throws IOException {
+        CatalogStore source = new CatalogStore();
+        source.addAll(MediaType.BOOK, "Crime and Punishment", "Seven");
+        CatalogStore store = mappedStore(source);
+        assertTrue(store.reserve(1));
+
+        assertEquals(2, store.add(MediaType.MOVIE, "Seven"));
+        assertNull(store.mapped());
+        assertEquals(2, store.titleCount());
+        assertEquals("Crime and Punishment", store.title(0));
+        assertEquals("Seven", store.title(2));
+        assertTrue(!store.isAvailable(1) && store.isAvailable(2));
+    }
+}
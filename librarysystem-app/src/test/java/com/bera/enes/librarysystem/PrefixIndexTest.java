@@ -0,0 +1,34 @@
+package com.bera.enes.librarysystem;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+public class PrefixIndexTest {
+    private final PrefixIndex index = new PrefixIndex(new String[] {
+        "The Prestige", "Seven", "Into the Wild", "the Pianist", "", "Donnie Darko"});
+
+    @Test
+    public void completeIgnoresCase() {
+        assertEquals(Arrays.asList("Into the Wild"), index.complete("into THE", 5));
+    }
+
+    @Test
+    public void completeReturnsSortedMatchesUpToLimit() {
+        assertEquals(Arrays.asList("the Pianist", "The Prestige"), index.complete("the p", 5));
+        assertEquals(Arrays.asList("the Pianist"), index.complete("the p", 1));
+    }
+
+    @Test
+    public void completeWithoutMatchIsEmpty() {
+        assertEquals(Collections.emptyList(), index.complete("zz", 5));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    public void rejectedTitlesDoNotCountTowardsTheLimit() {
+        PrefixIndex copies = new PrefixIndex(new String[] {"The Prestige", "The Pianist", "The Pianist", "The Piano", "The Pact"});
+        assertEquals(Arrays.asList("The Piano", "The Prestige"), copies.complete("the p", 2, title -> !title.startsWith("The Pa") && !title.equals("The Pianist")));
+        assertEquals(Arrays.asList("The Pact", "The Pianist", "The Piano"), copies.complete("the p", 3));
+    }
+}
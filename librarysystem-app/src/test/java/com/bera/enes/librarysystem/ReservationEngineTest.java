@@ -0,0 +1,164 @@
+package com.bera.enes.librarysystem;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReservationEngineTest {
+
+    private CatalogStore catalogOf(int items) {
+        CatalogStore catalog = new CatalogStore();
+        for (int i = 0; i < items; i++) {
+            catalog.add(MediaType.BOOK, "Title " + i);
+        }
+        return catalog;
+    }
+
+    @Test
+    public void reserveTakesNextAvailableCopy() {
+        CatalogStore catalog = new CatalogStore();
+        catalog.addAll(MediaType.MOVIE, "Seven", "Seven");
+        CatalogIndex index = new CatalogIndex(catalog, MediaType.MOVIE);
+        ReservationEngine engine = new ReservationEngine(catalog);
+        assertEquals(0, engine.reserve(index, "Seven", "Enes Koy"));
+        assertEquals(1, engine.reserve(index, "Seven", "Ugur Coruh"));
+        assertEquals(-1, engine.reserve(index, "Seven", "Yakup Eroglu"));
+        assertEquals(1, engine.ledger().item(1));
+        assertEquals("Ugur Coruh", engine.users().name(engine.ledger().user(1)));
+    }
+
+    @Test
+    public void releaseMakesItemAvailableOnce() {
+        ReservationEngine engine = new ReservationEngine(catalogOf(3));
+        int record = engine.reserve(2, "Enes Koy");
+        assertFalse(engine.catalog().isAvailable(2));
+        assertTrue(engine.release(record));
+        assertFalse(engine.release(record));
+        assertTrue(engine.catalog().isAvailable(2));
+        engine.reserve(0, "Enes Koy");
+        engine.reserve(1, "Enes Koy");
+        assertEquals(2, engine.releaseAll());
+    }
+
+    @Test
+    public void releaseUserKeepsOtherUsersReservations() {
+        ReservationEngine engine = new ReservationEngine(catalogOf(4));
+        engine.reserve(0, "Enes Koy");
+        engine.reserve(1, "Ugur Coruh");
+        engine.reserve(2, "Enes Koy");
+        assertEquals(2, engine.releaseUser("Enes Koy"));
+        assertEquals(0, engine.releaseUser("Enes Koy"));
+        assertTrue(engine.catalog().isAvailable(0));
+        assertFalse(engine.catalog().isAvailable(1));
+        assertTrue(engine.catalog().isAvailable(2));
+    }
+
+    @Test
+    public void releaseItemRequiresTheHolder() {
+        ReservationEngine engine = new ReservationEngine(catalogOf(2));
+        engine.reserve(1, "Enes Koy");
+        assertFalse(engine.releaseItem(1, "Ugur Coruh"));
+        assertFalse(engine.releaseItem(0, "Enes Koy"));
+        assertTrue(engine.releaseItem(1, "Enes Koy"));
+        assertTrue(engine.catalog().isAvailable(1));
+        assertEquals(0, engine.ledger().activeRecords(engine.users().id("Enes Koy")).length);
+    }
+
+    @Test
+    public void expiredHoldsReleaseTheirItems() {
+        ReservationEngine engine = new ReservationEngine(catalogOf(3));
+        long now = 1_700_000_000_000L;
+        int kept = engine.reserve(0, engine.users().intern("Enes Koy"), now + 10_000);
+        int returned = engine.reserve(1, engine.users().intern("Enes Koy"), now + 5_000);
+        int expired = engine.reserve(2, engine.users().intern("Ugur Coruh"), now + 5_000);
+        assertEquals(now + 5_000, engine.ledger().holdUntil(expired));
+        engine.hold(kept, now);
+        engine.hold(returned, now);
+        engine.hold(expired, now);
+        assertTrue(engine.release(returned));
+        assertEquals(1, engine.reserve(1, "Yakup Eroglu") - 2);
+        assertEquals(0, engine.expireHolds(now + 4_999));
+        assertEquals(1, engine.expireHolds(now + 5_000));
+        assertTrue(engine.catalog().isAvailable(2));
+        assertFalse(engine.catalog().isAvailable(1));
+        assertFalse(engine.ledger().isActive(expired));
+        assertEquals(1, engine.pendingHolds());
+        assertEquals(1, engine.expireHolds(now + 60_000));
+        assertEquals(0, engine.pendingHolds());
+        assertTrue(engine.catalog().isAvailable(0));
+    }
+
+    @Test
+    public void scheduleHoldsUsesTheStoredEndTimes() {
+        ReservationEngine engine = new ReservationEngine(catalogOf(5));
+        int user = engine.users().intern("Enes Koy");
+        long now = 1_700_000_000_000L;
+        engine.reserve(0, user, now + 1_000);
+        engine.reserve(1, user, now + 1_000);
+        engine.reserve(2, user, now - 1);
+        engine.reserve(3, user, 0);
+        engine.reserve(4, user, now + 2_000);
+        engine.release(1);
+        assertEquals(1, engine.scheduleHolds(1, now));
+        assertTrue(engine.catalog().isAvailable(2));
+        assertEquals(1, engine.pendingHolds());
+        assertEquals(0, engine.expireHolds(now + 1_999));
+        assertEquals(1, engine.expireHolds(now + 2_000));
+        assertFalse(engine.catalog().isAvailable(0));
+        assertFalse(engine.catalog().isAvailable(3));
+        assertTrue(engine.catalog().isAvailable(4));
+    }
+
+    @Test
+    public void concurrentTerminalsNeverReserveAnItemTwice() throws InterruptedException {
+        final int items = 20000;
+        final int threads = 8;
+        final ReservationEngine engine = new ReservationEngine(catalogOf(items));
+        final AtomicInteger successes = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final String user = "Terminal " + t;
+            final List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < items; i++) {
+                order.add(i);
+            }
+            Collections.shuffle(order, new Random(t));
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int item : order) {
+                    if (engine.reserve(item, user) >= 0) {
+                        successes.incrementAndGet();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        ReservationLedger ledger = engine.ledger();
+        assertEquals(items, successes.get());
+        assertEquals(items, ledger.size());
+        boolean[] seen = new boolean[items];
+        for (int record = 0; record < ledger.size(); record++) {
+            assertTrue(ledger.isActive(record));
+            int item = ledger.item(record);
+            assertFalse("item " + item + " reserved twice", seen[item]);
+            seen[item] = true;
+            assertFalse(engine.catalog().isAvailable(item));
+        }
+    }
+}
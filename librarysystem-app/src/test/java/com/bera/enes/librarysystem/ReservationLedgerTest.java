@@ -0,0 +1,83 @@
+package com.bera.enes.librarysystem;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReservationLedgerTest {
+
+    @Test
+    public void ledgerGrowsAcrossSegments() {
+        ReservationLedger ledger = new ReservationLedger(1000);
+        for (int item = 0; item < 1000; item++) {
+            assertEquals(item, ledger.append(item, item % 7));
+        }
+        assertEquals(1000, ledger.size());
+        assertEquals(999, ledger.item(999));
+        assertEquals(5, ledger.user(999));
+        assertEquals(143, ledger.activeRecords(0).length);
+    }
+
+    @Test
+    public void activeRecordsMatchExactUserIdOnly() {
+        ReservationLedger ledger = new ReservationLedger(3);
+        ledger.append(0, 0);
+        ledger.append(1, 40);
+        ledger.append(2, 0);
+        assertArrayEquals(new int[] {0, 2}, ledger.activeRecords(0));
+        assertArrayEquals(new int[] {1}, ledger.activeRecords(40));
+        assertArrayEquals(new int[0], ledger.activeRecords(1));
+        assertArrayEquals(new int[0], ledger.activeRecords(100000));
+        assertArrayEquals(new int[0], ledger.activeRecords(-1));
+    }
+
+    @Test
+    public void itemIndexAllocatesBlocksOnFirstReservation() {
+        ReservationLedger ledger = new ReservationLedger(100_000_000);
+        assertEquals(0, ledger.itemBlocks());
+        assertEquals(-1, ledger.activeRecord(99_999_999));
+        int record = ledger.append(99_999_999, 1);
+        ledger.append(5, 1);
+        ledger.append(6, 1);
+        assertEquals(2, ledger.itemBlocks());
+        assertEquals(record, ledger.activeRecord(99_999_999));
+        assertEquals(-1, ledger.activeRecord(7));
+        assertTrue(ledger.release(record));
+        assertEquals(-1, ledger.activeRecord(99_999_999));
+        try {
+            ledger.activeRecord(100_000_000);
+            fail("item beyond the catalog was accepted");
+        } catch (IndexOutOfBoundsException e) {
+            assertTrue(e.getMessage().contains("100000000"));
+        }
+    }
+
+    @Test
+    public void releaseUpdatesItemAndUserIndexes() {
+        ReservationLedger ledger = new ReservationLedger(2);
+        int first = ledger.append(0, 2);
+        ledger.append(1, 2);
+        assertEquals(first, ledger.activeRecord(0));
+        assertTrue(ledger.release(first));
+        assertFalse(ledger.release(first));
+        assertFalse(ledger.isActive(first));
+        assertEquals(-1, ledger.activeRecord(0));
+        assertArrayEquals(new int[] {1}, ledger.activeRecords(2));
+        int again = ledger.append(0, 3);
+        assertEquals(again, ledger.activeRecord(0));
+    }
+
+    @Test
+    public void unreadUserListsDropReleasedRecordsOnAppend() {
+        ReservationLedger ledger = new ReservationLedger(2);
+        ledger.append(1, 7);
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(ledger.release(ledger.append(0, 7)));
+        }
+        assertTrue(ledger.listedRecords(7) <= 8);
+        assertEquals(1, ledger.activeRecords(7).length);
+        assertEquals(0, ledger.activeRecords(7)[0]);
+    }
+}
@@ -0,0 +1,195 @@
+package com.bera.enes.librarysystem;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReservationLogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ReservationEngine emptyEngine(int items) {
+        CatalogStore catalog = new CatalogStore();
+        for (int i = 0; i < items; i++) {
+            catalog.add(MediaType.BOOK, "Book " + i);
+        }
+        return new ReservationEngine(catalog);
+    }
+
+    private ReservationEngine reopen(File file, int items) throws IOException {
+        ReservationEngine engine = emptyEngine(items);
+        ReservationLog log = ReservationLog.open(file.toPath(), engine);
+        log.close();
+        return engine;
+    }
+
+    @Test
+    public void replayRestoresReservationsAndReturns() throws IOException {
+        File file = new File(folder.getRoot(), "LibraryData.wal");
+        ReservationEngine engine = emptyEngine(4);
+        try (ReservationLog log = ReservationLog.open(file.toPath(), engine)) {
+            engine.attachLog(log);
+            engine.reserve(0, "Enes Koy");
+            engine.reserve(1, "Uğur Coruh");
+            int record = engine.reserve(2, "Enes Koy");
+            engine.release(record);
+            engine.reserve(3, "Enes Koy");
+            engine.releaseUser("Enes Koy");
+            engine.reserve(0, "Uğur Coruh");
+        }
+
+        ReservationEngine restored = reopen(file, 4);
+        assertFalse(restored.catalog().isAvailable(0));
+        assertFalse(restored.catalog().isAvailable(1));
+        assertTrue(restored.catalog().isAvailable(2));
+        assertTrue(restored.catalog().isAvailable(3));
+        assertEquals(0, restored.ledger().activeRecords(restored.users().id("Enes Koy")).length);
+        assertEquals(2, restored.ledger().activeRecords(restored.users().id("Uğur Coruh")).length);
+    }
+
+    @Test
+    public void openStopsAtTornTailAndTruncatesIt() throws IOException {
+        File file = new File(folder.getRoot(), "LibraryData.wal");
+        ReservationEngine engine = emptyEngine(3);
+        try (ReservationLog log = ReservationLog.open(file.toPath(), engine)) {
+            engine.attachLog(log);
+            engine.reserve(0, "Enes Koy");
+            engine.reserve(1, "Enes Koy");
+        }
+        long complete = file.length();
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.setLength(complete - 3);
+        }
+
+        ReservationEngine restored = emptyEngine(3);
+        try (ReservationLog log = ReservationLog.open(file.toPath(), restored)) {
+            assertEquals(1, log.replayed());
+            assertEquals(complete / 2, file.length());
+            restored.attachLog(log);
+            restored.reserve(2, "Enes Koy");
+        }
+        ReservationEngine again = reopen(file, 3);
+        assertTrue(again.catalog().isAvailable(1));
+        assertFalse(again.catalog().isAvailable(0));
+        assertFalse(again.catalog().isAvailable(2));
+    }
+
+    @Test
+    public void openStopsAtCorruptRecord() throws IOException {
+        File file = new File(folder.getRoot(), "LibraryData.wal");
+        ReservationEngine engine = emptyEngine(2);
+        try (ReservationLog log = ReservationLog.open(file.toPath(), engine)) {
+            engine.attachLog(log);
+            engine.reserve(0, "Enes Koy");
+            engine.reserve(1, "Enes Koy");
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(file.length() - 1);
+            int last = raw.read();
+            raw.seek(file.length() - 1);
+            raw.write(last ^ 0xFF);
+        }
+
+        ReservationEngine restored = reopen(file, 2);
+        assertFalse(restored.catalog().isAvailable(0));
+        assertTrue(restored.catalog().isAvailable(1));
+    }
+
+    @Test
+    public void discardUpToKeepsOnlyLaterRecords() throws IOException {
+        File file = new File(folder.getRoot(), "LibraryData.wal");
+        ReservationEngine engine = emptyEngine(3);
+        try (ReservationLog log = ReservationLog.open(file.toPath(), engine)) {
+            engine.attachLog(log);
+            engine.reserve(0, "Enes Koy");
+            long mark = log.mark();
+            engine.reserve(1, "Enes Koy");
+            log.discardUpTo(mark);
+            engine.reserve(2, "Enes Koy");
+        }
+
+        ReservationEngine restored = reopen(file, 3);
+        assertTrue(restored.catalog().isAvailable(0));
+        assertArrayEquals(new int[] {0, 1}, restored.ledger().activeRecords(restored.users().id("Enes Koy")));
+        assertEquals(1, restored.ledger().item(0));
+        assertEquals(2, restored.ledger().item(1));
+    }
+
+    @Test
+    public void markCountsBatchedRecordsAndDiscardLeavesNoTemporaryFile() throws IOException {
+        File file = new File(folder.getRoot(), "LibraryData.wal");
+        ReservationEngine engine = emptyEngine(3);
+        try (ReservationLog log = ReservationLog.open(file.toPath(), engine)) {
+            long first = log.append(ReservationLog.RESERVE, 0, "Enes Koy");
+            log.sync(first);
+            log.append(ReservationLog.RESERVE, 1, "Enes Koy");
+            long mark = log.mark();
+            log.sync(log.append(ReservationLog.RESERVE, 2, "Enes Koy"));
+            assertEquals(file.length() / 3 * 2, mark);
+            log.discardUpTo(mark);
+            assertEquals(file.length(), log.mark());
+            assertEquals(mark / 2, file.length());
+            log.sync(log.append(ReservationLog.RELEASE, 2, "Enes Koy"));
+        }
+        assertArrayEquals(new String[] {"LibraryData.wal"}, folder.getRoot().list());
+
+        ReservationEngine restored = reopen(file, 3);
+        assertTrue(restored.catalog().isAvailable(0));
+        assertTrue(restored.catalog().isAvailable(1));
+        assertTrue(restored.catalog().isAvailable(2));
+        assertEquals(1, restored.ledger().size());
+    }
+
+    @Test
+    public void concurrentTerminalsShareTheLog() throws Exception {
+        final int threads = 8;
+        final int perThread = 250;
+        File file = new File(folder.getRoot(), "LibraryData.wal");
+        final ReservationEngine engine = emptyEngine(threads * perThread);
+        try (ReservationLog log = ReservationLog.open(file.toPath(), engine)) {
+            engine.attachLog(log);
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final String user = "user" + t;
+                final int first = t * perThread;
+                Thread worker = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        int record = engine.reserve(first + i, user);
+                        if (i % 2 == 1) {
+                            engine.release(record);
+                        }
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+
+        ReservationEngine restored = reopen(file, threads * perThread);
+        for (int t = 0; t < threads; t++) {
+            assertEquals(perThread / 2, restored.ledger().activeRecords(restored.users().id("user" + t)).length);
+        }
+        for (int item = 0; item < threads * perThread; item++) {
+            assertEquals(item % 2 == 1, restored.catalog().isAvailable(item));
+        }
+    }
+}
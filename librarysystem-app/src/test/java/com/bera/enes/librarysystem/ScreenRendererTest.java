@@ -0,0 +1,104 @@
+package com.bera.enes.librarysystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScreenRendererTest {
+    private static class CountingStream extends OutputStream {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int writes;
+
+        @Override
+        public void write(int b) {
+            writes++;
+            bytes.write(b);
+        }
+        @Override
+        public void write(byte[] b, int off, int len) {
+            writes++;
+            bytes.write(b, off, len);
+        }
+    }
+
+    @Test
+    public void eachScreenIsWrittenOnce() {
+        CountingStream sink = new CountingStream();
+        ScreenRenderer screen = new ScreenRenderer(new PrintStream(sink), ScreenRenderer.Mode.ANSI);
+        screen.clear();
+        screen.print("1. Catalog Search\n");
+        screen.print("2. Exit\n");
+        screen.print("Enter your choice (1-2):");
+        assertEquals(0, sink.writes);
+        screen.flush();
+        screen.flush();
+
+        assertEquals(1, sink.writes);
+        assertEquals(1, screen.frames());
+        assertEquals(ScreenRenderer.CLEAR + "1. Catalog Search\n2. Exit\nEnter your choice (1-2):", sink.bytes.toString());
+    }
+
+    @Test
+    public void plainAndSuppressedModesSkipTheClearSequence() {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ScreenRenderer screen = new ScreenRenderer(new PrintStream(plain), ScreenRenderer.Mode.PLAIN);
+        screen.clear();
+        screen.print("Welcome\n");
+        screen.clear();
+        assertEquals("Welcome\n", plain.toString());
+
+        ByteArrayOutputStream suppressed = new ByteArrayOutputStream();
+        screen = new ScreenRenderer(new PrintStream(suppressed), ScreenRenderer.Mode.SUPPRESSED);
+        screen.clear();
+        screen.print("Welcome\n");
+        screen.flush();
+        assertEquals(0, suppressed.size());
+        assertEquals(0, screen.frames());
+    }
+
+    @Test
+    public void pendingScreenIsFlushedBeforeInputIsRead() throws IOException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        ScreenRenderer screen = new ScreenRenderer(new PrintStream(sink), ScreenRenderer.Mode.PLAIN);
+        InputStream in = screen.flushingBeforeRead(new ByteArrayInputStream("5\n".getBytes()));
+        screen.print("Enter your choice (1-5):");
+        assertEquals(0, sink.size());
+        assertEquals('5', in.read());
+        assertEquals("Enter your choice (1-5):", sink.toString());
+    }
+
+    @Test
+    public void modeComesFromThePropertyOrTheConsole() {
+        String previous = System.getProperty(ScreenRenderer.MODE_PROPERTY);
+        ScreenRenderer.Mode detected = System.console() != null ? ScreenRenderer.Mode.ANSI : ScreenRenderer.Mode.PLAIN;
+        try {
+            System.setProperty(ScreenRenderer.MODE_PROPERTY, " Suppressed ");
+            assertEquals(ScreenRenderer.Mode.SUPPRESSED, ScreenRenderer.Mode.detect());
+            System.setProperty(ScreenRenderer.MODE_PROPERTY, "colour");
+            assertEquals(detected, ScreenRenderer.Mode.detect());
+            System.clearProperty(ScreenRenderer.MODE_PROPERTY);
+            assertEquals(detected, ScreenRenderer.Mode.detect());
+        } finally {
+            if (previous == null) {
+                System.clearProperty(ScreenRenderer.MODE_PROPERTY);
+            } else {
+                System.setProperty(ScreenRenderer.MODE_PROPERTY, previous);
+            }
+        }
+    }
+
+    @Test
+    public void suppressedMenusStillRunTheirActions() throws IOException, InterruptedException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        Librarysystem librarysystem = new Librarysystem(
+                new ByteArrayInputStream("\nSeven\n\n".getBytes()), new PrintStream(sink), ScreenRenderer.Mode.SUPPRESSED);
+        assertTrue(librarysystem.reserveMovie());
+        assertEquals(0, sink.size());
+        assertEquals(1, librarysystem.service().listReservations("Example User").size());
+    }
+}
@@ -0,0 +1,120 @@
+package com.bera.enes.librarysystem;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SnapshotDeltaTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ReservationEngine sampleEngine() {
+        CatalogStore catalog = new CatalogStore();
+        catalog.addAll(MediaType.BOOK, "Crime and Punishment", "Dune", "Emma", "Ulysses");
+        ReservationEngine engine = new ReservationEngine(catalog);
+        engine.reserve(0, "Enes Koy");
+        engine.reserve(1, "Ugur Coruh");
+        return engine;
+    }
+
+    @Test
+    public void deltaHoldsOnlyChangedItemsAndRestoresThem() throws IOException {
+        Path base = new File(folder.getRoot(), "LibraryData.bin").toPath();
+        ReservationEngine engine = sampleEngine();
+        engine.takeChangedItems();
+        LibrarySnapshot.write(base, engine);
+        long baseId = LibrarySnapshot.id(base);
+
+        engine.releaseItem(0, "Enes Koy");
+        engine.reserve(2, engine.users().intern("Enes Koy"), 1_700_000_000_000L);
+        engine.releaseItem(1, "Ugur Coruh");
+        engine.reserve(1, "Enes Koy");
+        assertArrayEquals(new int[] {0, 1, 2}, engine.changedItems());
+        Path delta = SnapshotDelta.pathFor(base);
+        long size = SnapshotDelta.write(delta, baseId, engine, engine.changedItems());
+        assertEquals(4 + 4 + 8 + 4 + (4 + 8) + 4 + 3 * (4 + 4 + 8) + 4, size);
+
+        ReservationEngine restored = LibrarySnapshot.map(base);
+        assertEquals(0, restored.changedCount());
+        assertEquals(3, SnapshotDelta.apply(delta, baseId, restored));
+        assertTrue(restored.catalog().isAvailable(0));
+        assertFalse(restored.catalog().isAvailable(1));
+        assertFalse(restored.catalog().isAvailable(2));
+        assertTrue(restored.catalog().isAvailable(3));
+        assertEquals("Enes Koy", restored.users().name(restored.ledger().user(restored.ledger().activeRecord(1))));
+        assertEquals(2, restored.ledger().activeRecords(restored.users().id("Enes Koy")).length);
+        assertEquals(0, restored.ledger().activeRecords(restored.users().id("Ugur Coruh")).length);
+        assertEquals(1_700_000_000_000L, restored.ledger().holdUntil(restored.ledger().activeRecord(2)));
+        assertEquals(0, restored.ledger().holdUntil(restored.ledger().activeRecord(1)));
+    }
+
+    @Test
+    public void deltaForAnotherBaseIsIgnored() throws IOException {
+        Path base = new File(folder.getRoot(), "LibraryData.bin").toPath();
+        ReservationEngine engine = sampleEngine();
+        LibrarySnapshot.write(base, engine);
+        engine.reserve(3, "Enes Koy");
+        Path delta = SnapshotDelta.pathFor(base);
+        SnapshotDelta.write(delta, LibrarySnapshot.id(base) + 1, engine, new int[] {3});
+
+        ReservationEngine restored = LibrarySnapshot.map(base);
+        assertEquals(-1, SnapshotDelta.apply(delta, LibrarySnapshot.id(base), restored));
+        assertTrue(restored.catalog().isAvailable(3));
+    }
+
+    @Test
+    public void applyRejectsCorruptDeltas() throws IOException {
+        Path base = new File(folder.getRoot(), "LibraryData.bin").toPath();
+        ReservationEngine engine = sampleEngine();
+        LibrarySnapshot.write(base, engine);
+        Path delta = SnapshotDelta.pathFor(base);
+        SnapshotDelta.write(delta, LibrarySnapshot.id(base), engine, new int[] {0, 1});
+        try (RandomAccessFile raw = new RandomAccessFile(delta.toFile(), "rw")) {
+            raw.seek(18);
+            raw.write(0x7F);
+        }
+        try {
+            SnapshotDelta.apply(delta, LibrarySnapshot.id(base), LibrarySnapshot.map(base));
+            fail("corrupt delta was accepted");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Delta checksum mismatch"));
+        }
+    }
+
+    @Test
+    public void writeBinaryWritesDeltasUntilCompaction() throws IOException {
+        String filename = new File(folder.getRoot(), "LibraryData.bin").getPath();
+        Path delta = SnapshotDelta.pathFor(new File(filename).toPath());
+        Librarysystem librarysystem = new Librarysystem(System.in, System.out);
+        int items = librarysystem.service().catalog().size();
+        long full = librarysystem.writeBinary(filename);
+        assertFalse(delta.toFile().exists());
+
+        librarysystem.service().reserve("Enes Koy", MediaType.BOOK, "Crime and Punishment");
+        long written = librarysystem.writeBinary(filename);
+        assertTrue(delta.toFile().exists());
+        assertTrue(written < full);
+
+        Librarysystem reloaded = new Librarysystem(System.in, System.out);
+        reloaded.readBinary(filename);
+        assertFalse(reloaded.service().search(MediaType.BOOK, "Crime and Punishment").isAvailable());
+        for (int item = 0; item <= items / SnapshotDelta.COMPACTION_DIVISOR; item++) {
+            reloaded.service().reservations().reserve(item, "Ugur Coruh");
+        }
+        reloaded.writeBinary(filename);
+        assertFalse(delta.toFile().exists());
+
+        Librarysystem compacted = new Librarysystem(System.in, System.out);
+        compacted.mapBinary(filename);
+        assertFalse(compacted.service().search(MediaType.BOOK, "Crime and Punishment").isAvailable());
+        assertEquals(0, compacted.service().reservations().changedCount());
+    }
+}
@@ -0,0 +1,129 @@
+package com.bera.enes.librarysystem;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TerminalServerTest {
+    private static final String RESERVE_SCRIPT = "2\nEnes Koy\n\n1\n1\nCrime and Punishment\n\n4\n4\n5\n";
+
+    private static String runSession(int port, String script) throws Exception {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setSoTimeout(10000);
+            OutputStream out = socket.getOutputStream();
+            out.write(script.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            socket.shutdownOutput();
+            InputStream in = socket.getInputStream();
+            ByteArrayOutputStream screen = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read; (read = in.read(buffer)) != -1;) {
+                screen.write(buffer, 0, read);
+            }
+            return screen.toString("UTF-8");
+        }
+    }
+
+    @Test
+    public void sessionRunsTheMenusOverTcp() throws Exception {
+        LibraryService service = new LibraryService();
+        try (TerminalServer server = new TerminalServer(service, 0)) {
+            server.start();
+            String screen = runSession(server.port(), "4\n\n5\n");
+            assertTrue(screen.contains(ScreenRenderer.CLEAR + "1. Catalog Search\n"));
+            assertTrue(screen.contains(BranchDirectory.defaults().listing()));
+        }
+    }
+
+    @Test
+    public void concurrentSessionsShareOneLibrary() throws Exception {
+        LibraryService service = new LibraryService();
+        int clients = 20;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try (TerminalServer server = new TerminalServer(service, 0)) {
+            server.start();
+            List<Callable<String>> sessions = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                sessions.add(() -> runSession(server.port(), RESERVE_SCRIPT));
+            }
+            int reserved = 0;
+            for (Future<String> session : pool.invokeAll(sessions)) {
+                String screen = session.get();
+                assertTrue(screen.contains("Welcome Enes Koy\n"));
+                if (screen.contains("Crime and Punishment is reserved by Enes Koy\n")) {
+                    reserved++;
+                }
+            }
+            assertEquals(1, reserved);
+            assertEquals(1, service.listReservations("Enes Koy").size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void closeDisconnectsIdleSessions() throws Exception {
+        TerminalServer server = new TerminalServer(new LibraryService(), 0);
+        server.start();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            socket.setSoTimeout(10000);
+            InputStream in = socket.getInputStream();
+            assertTrue(in.read() != -1);
+            server.close();
+            while (in.read() != -1) {
+                // drain the rest of the first screen
+            }
+        }
+        assertEquals(0, server.activeSessions());
+    }
+
+    @Test
+    public void sessionsBeyondTheLimitAreTurnedAway() throws Exception {
+        try (TerminalServer server = new TerminalServer(new LibraryService(), 0, 1);
+                Socket first = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            server.start();
+            first.setSoTimeout(10000);
+            assertTrue(first.getInputStream().read() != -1);
+            String screen = runSession(server.port(), "4\n\n5\n");
+            assertEquals(TerminalServer.BUSY_MESSAGE, screen);
+            assertEquals(1, server.activeSessions());
+        }
+    }
+
+    @Test
+    public void executorNeverQueuesBehindRunningTasks() throws Exception {
+        int tasks = 300;
+        ExecutorService executor = TerminalServer.newThreadPerTaskExecutor("library-test");
+        CountDownLatch started = new CountDownLatch(tasks);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < tasks; i++) {
+                executor.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bera.enes.librarysystem;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TimingWheelTest {
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    public void keysAreReturnedOnceTheirDeadlinePasses() {
+        TimingWheel wheel = new TimingWheel(1000);
+        wheel.schedule(1, START + 1500, START);
+        wheel.schedule(2, START + 1000, START);
+        wheel.schedule(3, START + 70_000, START);
+        assertEquals(3, wheel.size());
+        assertArrayEquals(new int[0], wheel.advance(START + 999));
+        assertArrayEquals(new int[] {2}, wheel.advance(START + 1000));
+        assertArrayEquals(new int[0], wheel.advance(START + 1999));
+        assertArrayEquals(new int[] {1}, wheel.advance(START + 2000));
+        assertArrayEquals(new int[0], wheel.advance(START + 69_999));
+        assertArrayEquals(new int[] {3}, wheel.advance(START + 3_600_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void passedDeadlinesAreReturnedByTheNextTick() {
+        TimingWheel wheel = new TimingWheel(1000);
+        wheel.advance(START + 63_000);
+        wheel.schedule(7, START, START + 63_500);
+        assertArrayEquals(new int[] {7}, wheel.advance(START + 64_000));
+    }
+
+    @Test
+    public void everyKeyIsReturnedByTheAdvanceCoveringItsDeadline() {
+        Random random = new Random(25);
+        TimingWheel wheel = new TimingWheel(10);
+        int keys = 100_000;
+        long[] deadlines = new long[keys];
+        boolean[] returned = new boolean[keys];
+        long[] spans = {500, 40_000, 2_600_000, 170_000_000, 10_000_000_000L};
+        for (int key = 0; key < keys; key++) {
+            deadlines[key] = START + (long) (random.nextDouble() * spans[key % spans.length]);
+            wheel.schedule(key, deadlines[key], START);
+        }
+        long previous = START;
+        int count = 0;
+        while (wheel.size() > 0) {
+            long now = previous + 1 + (long) (random.nextDouble() * random.nextDouble() * 400_000_000L);
+            for (int key : wheel.advance(now)) {
+                assertTrue(!returned[key]);
+                returned[key] = true;
+                long due = Math.max((deadlines[key] + 9) / 10 * 10, START + 10);
+                assertTrue(due > previous - previous % 10 && due <= now);
+                count++;
+            }
+            previous = now;
+        }
+        assertEquals(keys, count);
+    }
+
+    @Test
+    public void deadlinesBeyondTheLastLevelAreRejected() {
+        TimingWheel wheel = new TimingWheel(1);
+        try {
+            wheel.schedule(1, START + (1L << (TimingWheel.BITS * TimingWheel.LEVELS)), START);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertEquals(0, wheel.size());
+        }
+    }
+}
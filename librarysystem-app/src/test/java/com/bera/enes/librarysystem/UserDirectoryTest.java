@@ -0,0 +1,85 @@
+package com.bera.enes.librarysystem;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UserDirectoryTest {
+    @Test
+    public void namesGetDenseIdsAcrossGrowth() {
+        UserDirectory users = new UserDirectory();
+        assertEquals(-1, users.id("Enes Koy"));
+        for (int i = 0; i < 100000; i++) {
+            assertEquals(i, users.intern("Patron " + i));
+        }
+        assertEquals(100000, users.size());
+        assertEquals(4242, users.intern("Patron 4242"));
+        assertEquals(99999, users.id("Patron 99999"));
+        assertEquals("Patron 12345", users.name(12345));
+        assertEquals(-1, users.id("Patron 100000"));
+    }
+
+    @Test
+    public void onlyRegisteredNamesMayLogIn() {
+        UserDirectory users = new UserDirectory();
+        int guest = users.intern("Example User");
+        int patron = users.register("Enes Koy");
+        assertEquals(guest + 1, patron);
+        assertFalse(users.isRegistered("Example User"));
+        assertTrue(users.isRegistered("Enes Koy"));
+        assertFalse(users.isRegistered("enes koy"));
+        assertEquals(guest, users.register("Example User"));
+        for (int i = 0; i < 1000; i++) {
+            users.intern("Guest " + i);
+        }
+        assertTrue(users.isRegistered("Example User"));
+        assertFalse(users.isRegistered("Guest 999"));
+    }
+
+    @Test
+    public void registerAllSkipsBlankAndCommentLines() throws IOException {
+        File file = File.createTempFile("users", ".txt");
+        try {
+            Files.write(file.toPath(), Arrays.asList("# patrons", "Ada Lovelace", "", "  Alan Turing  ", "Ada Lovelace"),
+                    StandardCharsets.UTF_8);
+            UserDirectory users = new UserDirectory();
+            assertEquals(3, users.registerAll(file.toPath()));
+            assertEquals(2, users.size());
+            assertTrue(users.isRegistered("Alan Turing"));
+            assertFalse(users.isRegistered("# patrons"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void concurrentInternsAgreeOnIds() throws InterruptedException {
+        UserDirectory users = new UserDirectory();
+        int[][] ids = new int[4][5000];
+        Thread[] threads = new Thread[ids.length];
+        for (int t = 0; t < threads.length; t++) {
+            int[] seen = ids[t];
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < seen.length; i++) {
+                    seen[i] = users.intern("Patron " + i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(5000, users.size());
+        for (int[] seen : ids) {
+            for (int i = 0; i < seen.length; i++) {
+                assertEquals(ids[0][i], seen[i]);
+                assertEquals("Patron " + i, users.name(seen[i]));
+            }
+        }
+    }
+}
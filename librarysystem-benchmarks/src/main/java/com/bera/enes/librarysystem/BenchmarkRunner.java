@@ -0,0 +1,80 @@
+/**
+ * @file BenchmarkRunner.java
+ * @brief Entry point running the library benchmarks over several thread counts.
+ * @details This file defines the BenchmarkRunner class, which runs the selected JMH benchmarks once per thread
+ * count and prints one summary table covering every catalog size and thread count.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+/**
+ * @brief Runs the benchmarks once per thread count.
+ *
+ * JMH takes a single thread count per run, so this runner repeats the run for every count in the
+ * librarysystem.threads system property (default 1,2,4,8) and prints the scores side by side. Any other JMH
+ * command line option, such as a benchmark name pattern or "-p items=1000,1000000", is passed through.
+ *
+ * Usage: java -Dlibrarysystem.threads=1,8,32 -jar target/benchmarks.jar [JMH options]
+ */
+public class BenchmarkRunner {
+    static final String THREADS_PROPERTY = "librarysystem.threads"; /**<Comma separated thread counts to run. */
+    static final String DEFAULT_THREADS = "1,2,4,8"; /**<Thread counts used when the property is not set. */
+    /**
+     * @brief Runs the benchmarks for every thread count and prints a summary.
+     *
+     * @param args JMH command line options.
+     * @throws RunnerException if a benchmark fails.
+     * @throws CommandLineOptionException if the options cannot be parsed.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions options = new CommandLineOptions(args);
+        List<String> rows = new ArrayList<>();
+        for (String count : System.getProperty(THREADS_PROPERTY, DEFAULT_THREADS).split(",")) {
+            int threads = Integer.parseInt(count.trim());
+            Collection<RunResult> results = new Runner(new OptionsBuilder().parent(options).threads(threads).build()).run();
+            for (RunResult result : results) {
+                rows.add(row(threads, result));
+            }
+        }
+        System.out.println();
+        System.out.println(String.format("%-48s %-24s %8s %16s %12s  %s", "Benchmark", "Params", "Threads", "Score", "Error", "Units"));
+        for (String row : rows) {
+            System.out.println(row);
+        }
+    }
+    /**
+     * @brief Formats the result of one benchmark run.
+     */
+    private static String row(int threads, RunResult result) {
+        StringBuilder params = new StringBuilder();
+        for (Map.Entry<String, String> param : paramsOf(result).entrySet()) {
+            params.append(params.length() == 0 ? "" : ",").append(param.getKey()).append('=').append(param.getValue());
+        }
+        String benchmark = result.getParams().getBenchmark();
+        String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+        return String.format("%-48s %-24s %8d %16.3f %12.3f  %s", name, params, threads, result.getPrimaryResult().getScore(), result.getPrimaryResult().getScoreError(),
+                result.getPrimaryResult().getScoreUnit());
+    }
+    /**
+     * @brief Returns the @Param values of a run by name.
+     */
+    private static Map<String, String> paramsOf(RunResult result) {
+        Map<String, String> params = new TreeMap<>();
+        for (String key : result.getParams().getParamsKeys()) {
+            params.put(key, result.getParams().getParam(key));
+        }
+        return params;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * @file CatalogSearchBenchmark.java
+ * @brief JMH benchmarks for title search, keyword search and login lookup.
+ * @details This file defines the CatalogSearchBenchmark class, which measures the read-only paths behind the
+ * catalog search menus and the reservation login screen.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+/**
+ * @brief Throughput of searches and login checks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class CatalogSearchBenchmark {
+    /**
+     * @brief Searches an exact title that has an available copy, as the Search Books/Movies/Music menus do.
+     *
+     * @param library The library.
+     * @param session The thread's requests.
+     * @return The search result.
+     */
+    @Benchmark
+    public LibraryService.SearchResult searchTitle(LibraryState library, SessionState session) {
+        int request = session.next();
+        return library.service.search(session.types[request], session.titles[request]);
+    }
+    /**
+     * @brief Searches by keywords where one word is in every title, as the keyword search menu does.
+     *
+     * Every title is "Title n", so the query "Title n" pairs a word in the whole catalog with a word in one title.
+     *
+     * @param library The library.
+     * @param session The thread's requests.
+     * @return The hits.
+     */
+    @Benchmark
+    public List<KeywordIndex.Hit> keywordSearchCommonWord(LibraryState library, SessionState session) {
+        return library.service.keywordSearch(session.titles[session.next()]);
+    }
+    /**
+     * @brief Checks a login name, as reservationScreenLogin does.
+     *
+     * @param library The library.
+     * @param session The thread's requests.
+     * @return Whether the name is registered.
+     */
+    @Benchmark
+    public boolean reservationLogin(LibraryState library, SessionState session) {
+        return library.service.isRegistered(session.login(session.next()));
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * @file EventImportBenchmark.java
+ * @brief JMH benchmark for the bulk event registration import.
+ * @details This file defines the EventImportBenchmark class, which measures importing registration files of
+ * hundreds of thousands to millions of rows into a fresh event registry.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+/**
+ * @brief Time to import one registration file.
+ *
+ * The file spreads its rows over EVENTS events, one row in a hundred is rejected, and the events fill up so
+ * that about a quarter of the rows are waitlisted. Divide the rows by the score for the throughput; the
+ * target is a million rows per minute.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class EventImportBenchmark {
+    static final int EVENTS = 50; /**<Events the rows register for, numbered from 3. */
+
+    @Param({"100000", "1000000"})
+    int rows; /**<Number of rows in the file. */
+
+    Path file; /**<Registration file imported by every invocation. */
+    /**
+     * @brief Writes the registration file.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void create() throws IOException {
+        file = Files.createTempFile("librarysystem-registrations", ".csv");
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("event,name\n");
+            for (int i = 0; i < rows; i++) {
+                out.write(Integer.toString(3 + i % EVENTS));
+                out.write(i % 100 == 99 ? ",Pupil " + i : ",Pupil " + letters(i));
+                out.write('\n');
+            }
+        }
+    }
+    /**
+     * @brief Spells a number in base 26 with the letters a to z, least significant first.
+     */
+    private static String letters(int number) {
+        StringBuilder name = new StringBuilder();
+        for (int n = number; n > 0 || name.length() == 0; n /= 26) {
+            name.append((char) ('a' + n % 26));
+        }
+        return name.toString();
+    }
+    /**
+     * @brief Deletes the registration file.
+     *
+     * @throws IOException if the file cannot be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.delete(file);
+    }
+    /**
+     * @brief Imports the file into a new registry.
+     *
+     * @return The import report.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public EventRegistrationImporter.Report importFile() throws IOException {
+        EventRegistry registry = new EventRegistry();
+        LocalDateTime start = LocalDateTime.now().plusDays(10);
+        for (int i = 0; i < EVENTS; i++) {
+            registry.add(new LibraryEvent(3 + i, "School visit " + i, start.plusHours(i), start.plusHours(i + 1), rows * 3 / 4 / EVENTS));
+        }
+        return new EventRegistrationImporter(registry).importFile(file, null);
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * @file HoldExpiryBenchmark.java
+ * @brief JMH benchmark for the timing wheel that expires reservation holds.
+ * @details This file defines the HoldExpiryBenchmark class, which schedules hundreds of thousands to millions of
+ * holds and advances the wheel through their whole hold period.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+/**
+ * @brief Time to schedule a batch of holds and expire all of them.
+ *
+ * The holds end at spread-out times over three days, as if made throughout a day with the default hold period,
+ * and the wheel is advanced once per second of those three days like the expiry thread does. Divide the score
+ * by the number of holds for the cost per hold.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class HoldExpiryBenchmark {
+    static final long START = 1_700_000_000_000L; /**<Time the holds are made, in milliseconds since the epoch. */
+    static final long SPAN = TimeUnit.DAYS.toMillis(3); /**<Time over which the holds end. */
+
+    @Param({"100000", "1000000"})
+    int holds; /**<Number of holds scheduled. */
+    /**
+     * @brief Schedules the holds and advances second by second until all have expired.
+     *
+     * @return The number of holds expired.
+     */
+    @Benchmark
+    public long scheduleAndExpire() {
+        TimingWheel wheel = new TimingWheel(ReservationEngine.HOLD_TICK_MILLIS);
+        for (int record = 0; record < holds; record++) {
+            wheel.schedule(record, START + (record * 2_654_435_761L) % SPAN, START);
+        }
+        long expired = 0;
+        for (long now = START; now <= START + SPAN; now += ReservationEngine.HOLD_TICK_MILLIS) {
+            expired += wheel.advance(now).length;
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * @file LibraryState.java
+ * @brief Benchmark fixture holding a generated library.
+ * @details This file defines the LibraryState class, the JMH state shared by the library benchmarks. It builds a
+ * catalog of the requested size with a fixed share of items already reserved.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+/**
+ * @brief A library of a given size shared by all benchmark threads.
+ *
+ * Item i has the title "Title i" and the media type MediaType.values()[i % 3]. Every RESERVED_EVERY-th item is
+ * held by one of HOLDERS users, so listing reservations has work to do and searches of other items always find
+ * an available copy.
+ */
+@State(Scope.Benchmark)
+public class LibraryState {
+    static final int RESERVED_EVERY = 100; /**<One item in this many is reserved up front. */
+    static final int HOLDERS = 1000; /**<Number of users holding the reserved items. */
+    private static final MediaType[] TYPES = MediaType.values(); /**<Media types by ordinal. */
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int items; /**<Catalog size. */
+
+    LibraryService service; /**<Library under test. */
+    /**
+     * @brief Builds the catalog and the initial reservations.
+     */
+    @Setup(Level.Trial)
+    public void build() {
+        CatalogStore catalog = new CatalogStore();
+        for (int i = 0; i < items; i++) {
+            catalog.add(type(i), title(i));
+        }
+        service = new LibraryService(new ReservationEngine(catalog));
+        for (int i = 0; i < items; i += RESERVED_EVERY) {
+            service.reserve(holder(i / RESERVED_EVERY), type(i), title(i));
+        }
+    }
+    /**
+     * @brief Returns the media type of an item.
+     *
+     * @param item The item number.
+     * @return Its media type.
+     */
+    static MediaType type(int item) {
+        return TYPES[item % TYPES.length];
+    }
+    /**
+     * @brief Returns the title of an item.
+     *
+     * @param item The item number.
+     * @return Its title.
+     */
+    static String title(int item) {
+        return "Title " + item;
+    }
+    /**
+     * @brief Returns the name of a user holding reserved items.
+     *
+     * @param n Any number; names repeat every HOLDERS numbers.
+     * @return The user name.
+     */
+    static String holder(int n) {
+        return "Holder " + (n % HOLDERS);
+    }
+    /**
+     * @brief Picks an item that is available at the start of the trial.
+     *
+     * @param random A random number.
+     * @return A random item number that is not a multiple of RESERVED_EVERY.
+     */
+    int availableItem(int random) {
+        int item = Math.floorMod(random, items);
+        return item % RESERVED_EVERY == 0 ? item + 1 : item;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * @file ReservationBenchmark.java
+ * @brief JMH benchmarks for reserving, returning and listing items.
+ * @details This file defines the ReservationBenchmark class, which measures the paths behind the Reserve Items,
+ * Restore Items and View Reservation menus.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+/**
+ * @brief Throughput of reservations and reservation listings.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ReservationBenchmark {
+    /**
+     * @brief Reserves an available title and returns it, leaving the library as it was.
+     *
+     * Threads draw their titles independently, so under contention some reservations find the copy taken.
+     *
+     * @param library The library.
+     * @param session The thread's requests.
+     * @return The number of items returned.
+     */
+    @Benchmark
+    public int reserveAndReturn(LibraryState library, SessionState session) {
+        int request = session.next();
+        library.service.reserve(session.user, session.types[request], session.titles[request]);
+        return library.service.returnAll(session.user);
+    }
+    /**
+     * @brief Lists the reservations of a user, as viewReservation does.
+     *
+     * @param library The library.
+     * @param session The thread's requests.
+     * @return The user's reservations.
+     */
+    @Benchmark
+    public List<LibraryService.Reservation> viewReservation(LibraryState library, SessionState session) {
+        return library.service.listReservations(session.holders[session.next()]);
+    }
+}
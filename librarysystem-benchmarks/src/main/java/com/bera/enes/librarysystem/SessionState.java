@@ -0,0 +1,66 @@
+/**
+ * @file SessionState.java
+ * @brief Per-thread benchmark fixture with precomputed requests.
+ * @details This file defines the SessionState class, the JMH state each benchmark thread uses to pick titles and
+ * users without building strings or drawing random numbers inside the measured code.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+/**
+ * @brief The requests one benchmark thread cycles through.
+ */
+@State(Scope.Thread)
+public class SessionState {
+    static final int REQUESTS = 1 << 12; /**<Number of precomputed requests; a power of two. */
+    private static final AtomicInteger SESSIONS = new AtomicInteger(); /**<Counter giving every thread its own user. */
+    private static final String[] LOGINS = {
+        "Enes Koy", "Ahmet Bera Celik", "Unknown Visitor", "Hasan Basri Taskin",
+        "enes koy", "Ugur Coruh", "Yakup Eroglu", "Guest"
+    }; /**<Registered and unregistered login names, a power of two in number. */
+
+    final String user = "Session " + SESSIONS.getAndIncrement(); /**<User reserving items in this thread. */
+    final MediaType[] types = new MediaType[REQUESTS]; /**<Media type of each request. */
+    final String[] titles = new String[REQUESTS]; /**<Title of each request, available at the start of the trial. */
+    final String[] holders = new String[REQUESTS]; /**<User holding reservations, for each request. */
+    private int next; /**<Index of the next request. */
+    /**
+     * @brief Draws the requests of this thread.
+     *
+     * @param library The library the requests are made against.
+     */
+    @Setup(Level.Trial)
+    public void draw(LibraryState library) {
+        SplittableRandom random = new SplittableRandom(user.hashCode());
+        for (int i = 0; i < REQUESTS; i++) {
+            int item = library.availableItem(random.nextInt());
+            types[i] = LibraryState.type(item);
+            titles[i] = LibraryState.title(item);
+            holders[i] = LibraryState.holder(random.nextInt(LibraryState.HOLDERS));
+        }
+    }
+    /**
+     * @brief Advances to the next request.
+     *
+     * @return The index of the request to make.
+     */
+    int next() {
+        return next++ & (REQUESTS - 1);
+    }
+    /**
+     * @brief Returns a login name, registered or not.
+     *
+     * @param request The request index.
+     * @return The name to log in with.
+     */
+    String login(int request) {
+        return LOGINS[request & (LOGINS.length - 1)];
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * @file SnapshotBenchmark.java
+ * @brief JMH benchmarks for writing the library data file.
+ * @details This file defines the SnapshotBenchmark class, which measures full snapshots and the delta
+ * checkpoints writeBinary makes between them.
+ *
+ * @package com.bera.librarysystem
+ * @brief The com.bera.librarysystem package contains all the classes and files related to the Library System App.
+ */
+package com.bera.enes.librarysystem;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+/**
+ * @brief Time to checkpoint the library to disk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SnapshotBenchmark {
+    /**
+     * @brief Temporary directory receiving the data files of one trial.
+     */
+    @State(Scope.Benchmark)
+    public static class DataFiles {
+        Path directory; /**<Directory holding the files. */
+        Path snapshot; /**<Full snapshot written by writeSnapshot. */
+        String checkpoint; /**<Data file written by writeBinary. */
+        /**
+         * @brief Creates the directory and the base snapshot of the delta checkpoints.
+         *
+         * @param library The library.
+         * @throws IOException if the files cannot be written.
+         */
+        @Setup(Level.Trial)
+        public void create(LibraryState library) throws IOException {
+            directory = Files.createTempDirectory("librarysystem-bench");
+            snapshot = directory.resolve("full.bin");
+            checkpoint = directory.resolve("checkpoint.bin").toString();
+            library.service.writeBinary(checkpoint);
+        }
+        /**
+         * @brief Deletes the directory.
+         *
+         * @throws IOException if a file cannot be deleted.
+         */
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+    /**
+     * @brief Writes a full snapshot of the catalog and every reservation.
+     *
+     * @param library The library.
+     * @param files The output files.
+     * @return The number of bytes written.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    @Benchmark
+    public long writeSnapshot(LibraryState library, DataFiles files) throws IOException {
+        return LibrarySnapshot.write(files.snapshot, library.service.reservations());
+    }
+    /**
+     * @brief Reserves and returns one item, then checkpoints with writeBinary as the app does on exit.
+     *
+     * Only the changed items are written as a delta until enough of the catalog has changed to make a full
+     * snapshot cheaper.
+     *
+     * @param library The library.
+     * @param session The thread's requests.
+     * @param files The output files.
+     * @return The number of bytes written.
+     * @throws IOException if the checkpoint cannot be written.
+     */
+    @Benchmark
+    public long writeBinary(LibraryState library, SessionState session, DataFiles files) throws IOException {
+        int request = session.next();
+        library.service.reserve(session.user, session.types[request], session.titles[request]);
+        library.service.returnAll(session.user);
+        return library.service.writeBinary(files.checkpoint);
+    }
+}